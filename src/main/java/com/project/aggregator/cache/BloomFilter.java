@@ -0,0 +1,105 @@
+package com.project.aggregator.cache;
+
+import java.util.Collection;
+
+/**
+ * Immutable Bloom filter over strings, sized at construction for its values and a target false
+ * positive rate. {@link #mightContain} never answers {@code false} for a value it was built with.
+ * <p>
+ * The bit positions come from one 64-bit hash by double hashing (Kirsch–Mitzenmacher), so a
+ * lookup hashes the string once and allocates nothing.
+ */
+public final class BloomFilter {
+
+    private final long[] words;
+    private final long bitCount;
+    private final int hashCount;
+    private final int size;
+
+    private BloomFilter(long bits, int hashCount, int size) {
+        this.words = new long[Math.toIntExact((bits + 63) >>> 6)];
+        this.bitCount = (long) words.length << 6;
+        this.hashCount = hashCount;
+        this.size = size;
+    }
+
+    /**
+     * @param falsePositiveRate the share of values not given that {@link #mightContain} should still
+     *                          accept, between 0 and 1 exclusive
+     */
+    public static BloomFilter of(Collection<String> values, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        int n = Math.max(1, values.size());
+        double ln2 = Math.log(2);
+        long bits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (ln2 * ln2)));
+        int hashCount = Math.max(1, (int) Math.round((double) bits / n * ln2));
+        BloomFilter filter = new BloomFilter(bits, hashCount, values.size());
+        for (String value : values) {
+            filter.add(value);
+        }
+        return filter;
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1, h2, i);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of values the filter was built with.
+     */
+    public int size() {
+        return size;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = index(h1, h2, i);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    private long index(int h1, int h2, int i) {
+        long combined = h1 + (long) i * h2;
+        return (combined < 0 ? ~combined : combined) % bitCount;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units, finished with the MurmurHash3 mixer so that both
+     * halves are well distributed.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,271 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the catalog and pricing caches, so that a restarted instance starts warm.
+ * All multi-byte numbers are big-endian.
+ * <pre>
+ * header   magic "CSNP", version, writtenAt (epoch millis)
+ * catalog  varint entry count; per entry: productId, market, expiresAt, name, description,
+ *          specs, images
+ * pricing  varint entry count; per entry: productId, market, customerId, expiresAt, basePrice,
+ *          discount, finalPrice
+ * </pre>
+ * As in the catalog store, strings are a varint of {@code length + 1} (0 for null) followed by
+ * UTF-8 bytes and collections a varint of {@code size + 1} (0 for null) followed by their
+ * entries. A decimal is a varint of {@code scale + 1} (0 for null; scales are never negative
+ * here) followed by the unscaled value as length-prefixed two's-complement bytes. Expiry times
+ * are the caches' own epoch milliseconds, so entries keep their original TTL across a restart.
+ */
+public final class CacheSnapshot {
+
+    static final int MAGIC = 0x43534E50; // "CSNP"
+    static final int VERSION = 1;
+
+    /**
+     * The entries read from a snapshot, including any that have expired since it was written.
+     */
+    public record Contents(long writtenAt,
+                           Map<ProductKey, TtlCache.Entry<CatalogDto>> catalog,
+                           Map<PricingKey, TtlCache.Entry<PricingDto>> pricing) {
+    }
+
+    private CacheSnapshot() {
+    }
+
+    /**
+     * Writes the entries to a temporary file next to {@code target} and moves it into place, so a
+     * reader never sees a partial snapshot.
+     */
+    public static void write(Path target,
+                             Map<ProductKey, TtlCache.Entry<CatalogDto>> catalog,
+                             Map<PricingKey, TtlCache.Entry<PricingDto>> pricing) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(System.currentTimeMillis());
+
+                writeVarint(out, catalog.size());
+                for (Map.Entry<ProductKey, TtlCache.Entry<CatalogDto>> entry : catalog.entrySet()) {
+                    CatalogDto dto = entry.getValue().value();
+                    writeString(out, entry.getKey().productId());
+                    writeString(out, entry.getKey().market());
+                    out.writeLong(entry.getValue().expiresAt());
+                    writeString(out, dto.productId());
+                    writeString(out, dto.name());
+                    writeString(out, dto.description());
+                    writeStringMap(out, dto.specs());
+                    writeStringList(out, dto.images());
+                }
+
+                writeVarint(out, pricing.size());
+                for (Map.Entry<PricingKey, TtlCache.Entry<PricingDto>> entry : pricing.entrySet()) {
+                    PricingDto dto = entry.getValue().value();
+                    writeString(out, entry.getKey().productId());
+                    writeString(out, entry.getKey().market());
+                    writeString(out, entry.getKey().customerId());
+                    out.writeLong(entry.getValue().expiresAt());
+                    writeDecimal(out, dto.basePrice());
+                    writeDecimal(out, dto.discount());
+                    writeDecimal(out, dto.finalPrice());
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Maps the snapshot read-only and decodes it.
+     *
+     * @throws IOException if the file cannot be read, is not a snapshot of this version or is truncated
+     */
+    public static Contents read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Cache snapshot " + file + " is too large: " + channel.size() + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a cache snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache snapshot version " + version + " in " + file);
+            }
+            long writtenAt = buffer.getLong();
+
+            int catalogCount = readVarint(buffer);
+            // a corrupt count must not size the map beyond what the file could possibly hold
+            Map<ProductKey, TtlCache.Entry<CatalogDto>> catalog =
+                    HashMap.newHashMap(Math.min(catalogCount, buffer.remaining()));
+            for (int i = 0; i < catalogCount; i++) {
+                ProductKey key = new ProductKey(readString(buffer), readString(buffer));
+                long expiresAt = buffer.getLong();
+                CatalogDto dto = new CatalogDto(readString(buffer), readString(buffer), readString(buffer),
+                        readStringMap(buffer), readStringList(buffer));
+                catalog.put(key, new TtlCache.Entry<>(dto, expiresAt));
+            }
+
+            int pricingCount = readVarint(buffer);
+            Map<PricingKey, TtlCache.Entry<PricingDto>> pricing =
+                    HashMap.newHashMap(Math.min(pricingCount, buffer.remaining()));
+            for (int i = 0; i < pricingCount; i++) {
+                PricingKey key = new PricingKey(readString(buffer), readString(buffer), readString(buffer));
+                long expiresAt = buffer.getLong();
+                PricingDto dto = new PricingDto(readDecimal(buffer), readDecimal(buffer), readDecimal(buffer));
+                pricing.put(key, new TtlCache.Entry<>(dto, expiresAt));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IOException("Unexpected trailing bytes in cache snapshot " + file);
+            }
+            return new Contents(writtenAt, catalog, pricing);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt cache snapshot " + file, e);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static void writeStringList(DataOutputStream out, List<String> values) throws IOException {
+        writeVarint(out, values == null ? 0 : values.size() + 1);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private static void writeStringMap(DataOutputStream out, Map<String, String> values) throws IOException {
+        writeVarint(out, values == null ? 0 : values.size() + 1);
+        if (values != null) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        // prices never have a negative scale, but normalise just in case
+        BigDecimal decimal = value.scale() < 0 ? value.setScale(0) : value;
+        writeVarint(out, decimal.scale() + 1);
+        writeBytes(out, decimal.unscaledValue().toByteArray());
+    }
+
+    private static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative varint");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, int length) {
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = readVarint(buffer);
+        return length == 0 ? null : new String(readBytes(buffer, length - 1), StandardCharsets.UTF_8);
+    }
+
+    private static List<String> readStringList(ByteBuffer buffer) {
+        int size = readVarint(buffer);
+        if (size == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(Math.min(size - 1, buffer.remaining()));
+        for (int i = 1; i < size; i++) {
+            values.add(readString(buffer));
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    private static Map<String, String> readStringMap(ByteBuffer buffer) {
+        int size = readVarint(buffer);
+        if (size == 0) {
+            return null;
+        }
+        Map<String, String> values = LinkedHashMap.newLinkedHashMap(Math.min(size - 1, buffer.remaining()));
+        for (int i = 1; i < size; i++) {
+            values.put(readString(buffer), readString(buffer));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        int scale = readVarint(buffer);
+        if (scale == 0) {
+            return null;
+        }
+        return new BigDecimal(new BigInteger(readBytes(buffer, readVarint(buffer))), scale - 1);
+    }
+}
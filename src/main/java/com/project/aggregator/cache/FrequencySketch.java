@@ -0,0 +1,86 @@
+package com.project.aggregator.cache;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count-Min sketch estimating how often a key was seen, in fixed memory and without locks.
+ * <p>
+ * Four rows of counters are indexed by independently mixed hashes of the key; the estimate is the
+ * smallest of the four counters, so it can overcount (when every row collides) but never
+ * undercount. Once {@code 10 × width} increments have been recorded every counter is halved, so
+ * the estimates follow the recent access pattern rather than all-time totals.
+ */
+public final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {
+            0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L
+    };
+
+    private final AtomicIntegerArray counters;
+    private final int widthMask;
+    private final int sampleSize;
+    private final LongAdder additions = new LongAdder();
+    private final AtomicBoolean resetting = new AtomicBoolean();
+
+    /**
+     * @param expectedKeys the number of distinct keys expected to be tracked at a time
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(64, expectedKeys) * 2 - 1) << 1;
+        this.counters = new AtomicIntegerArray(DEPTH * width);
+        this.widthMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Records one occurrence of {@code key} and returns its new estimated frequency.
+     */
+    public int increment(Object key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(index(hash, row)));
+        }
+        additions.increment();
+        if (additions.sum() >= sampleSize && resetting.compareAndSet(false, true)) {
+            try {
+                halve();
+            } finally {
+                resetting.set(false);
+            }
+        }
+        return estimate;
+    }
+
+    public int frequency(Object key) {
+        int hash = key.hashCode();
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[(row + 1) & (DEPTH - 1)];
+        mixed ^= mixed >>> 32;
+        return row * (widthMask + 1) + ((int) mixed & widthMask);
+    }
+
+    /**
+     * Ages the sketch. Concurrent increments that race with the halving are kept or halved
+     * depending on timing, which only shifts an estimate by one.
+     */
+    private void halve() {
+        additions.reset();
+        for (int i = 0; i < counters.length(); i++) {
+            int value;
+            do {
+                value = counters.get(i);
+            } while (!counters.compareAndSet(i, value, value >>> 1));
+        }
+    }
+}
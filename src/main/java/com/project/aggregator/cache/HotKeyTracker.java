@@ -0,0 +1,95 @@
+package com.project.aggregator.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tracks the most frequently requested (productId, market) keys.
+ * <p>
+ * Every access increments a {@link FrequencySketch}. A key whose estimate beats the weakest
+ * member of the current top set is added to a candidate set; when the candidates grow to twice
+ * the configured size, one thread trims them back to the top N while the others carry on, so the
+ * request path never blocks.
+ */
+@Component
+public class HotKeyTracker {
+
+    /** Long-tail keys far outnumber the top set; size the sketch for them (≈2 MB of counters). */
+    private static final int MIN_SKETCH_KEYS = 1 << 16;
+
+    private final int topN;
+    private final FrequencySketch sketch;
+    private final Set<ProductKey> candidates = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private volatile int floor;
+    private volatile boolean paused;
+
+    public HotKeyTracker(@Value("${app.prefetch.top-n}") int topN) {
+        this.topN = topN;
+        this.sketch = new FrequencySketch(Math.max(topN * 16, MIN_SKETCH_KEYS));
+    }
+
+    public void record(ProductKey key) {
+        if (paused) {
+            return;
+        }
+        int frequency = sketch.increment(key);
+        if (frequency > floor || candidates.size() < topN) {
+            candidates.add(key);
+            if (candidates.size() > 2 * topN) {
+                trim();
+            }
+        }
+    }
+
+    public boolean isHot(ProductKey key) {
+        return candidates.contains(key);
+    }
+
+    /**
+     * The hottest keys, most frequent first.
+     */
+    public List<ProductKey> topKeys() {
+        // snapshot the estimates first: they keep moving while the candidates are sorted
+        return candidates.stream()
+                .map(key -> Map.entry(key, sketch.frequency(key)))
+                .sorted(Map.Entry.<ProductKey, Integer>comparingByValue().reversed())
+                .limit(topN)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Stops counting accesses, e.g. while synthetic warmup traffic runs, until {@link #resume()}.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+    }
+
+    public int frequency(ProductKey key) {
+        return sketch.frequency(key);
+    }
+
+    private void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            List<ProductKey> top = topKeys();
+            candidates.retainAll(Set.copyOf(top));
+            floor = top.isEmpty() ? 0 : sketch.frequency(top.getLast());
+        } finally {
+            trimming.set(false);
+        }
+    }
+}
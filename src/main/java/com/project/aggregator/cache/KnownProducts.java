@@ -0,0 +1,101 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.client.ProductDataChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Recognises product IDs the catalog does not have without calling it, so that requests from bots
+ * and stale links can be answered with a 404 straight away.
+ * <p>
+ * Two checks are combined. The first is a {@link BloomFilter} of every ID the catalog source lists;
+ * it is built at startup and rebuilt whenever catalog data is reloaded. A Bloom filter has no false
+ * negatives, so an ID it rejects is certainly unknown. The second is a short-lived cache of IDs the
+ * catalog confirmed missing. It covers the filter's false positives and sources that cannot list
+ * their IDs. Its entries expire, and reloaded products are dropped from it, so a product added
+ * upstream is found again. While the source lists no IDs, the filter is off and every ID passes it.
+ */
+@Slf4j
+public class KnownProducts {
+
+    private final Supplier<? extends Collection<String>> source;
+    private final double falsePositiveRate;
+    private final TtlCache<String, Boolean> confirmedMissing;
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile BloomFilter filter;
+
+    /**
+     * @param source lists every known product ID, or returns {@code null} if it cannot
+     */
+    public KnownProducts(Supplier<? extends Collection<String>> source, double falsePositiveRate,
+                         TtlCache<String, Boolean> confirmedMissing) {
+        this.source = source;
+        this.falsePositiveRate = falsePositiveRate;
+        this.confirmedMissing = confirmedMissing;
+    }
+
+    /**
+     * Whether the catalog certainly does not have {@code productId}.
+     */
+    public boolean isKnownAbsent(String productId) {
+        BloomFilter current = filter;
+        if ((current != null && !current.mightContain(productId)) || confirmedMissing.get(productId) != null) {
+            rejected.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Remembers a product the catalog answered as not found.
+     */
+    public void recordMissing(String productId) {
+        confirmedMissing.put(productId, Boolean.TRUE);
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Collection<String> productIds = source.get();
+        if (productIds == null || productIds.isEmpty()) {
+            log.info("Catalog source lists no product IDs, so unknown IDs are recognised only once confirmed missing");
+            filter = null;
+            return;
+        }
+        BloomFilter rebuilt = BloomFilter.of(productIds, falsePositiveRate);
+        filter = rebuilt;
+        log.info("Built the known-product filter for {} IDs: {} KiB, {} hashes, in {} ms",
+                rebuilt.size(), rebuilt.bitCount() / 8 / 1024, rebuilt.hashCount(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onStarted() {
+        rebuild();
+    }
+
+    @EventListener
+    public void onProductDataChanged(ProductDataChangedEvent event) {
+        if ("catalog".equals(event.source())) {
+            rebuild();
+        }
+        confirmedMissing.invalidateIf(event::affects);
+    }
+
+    /**
+     * Number of IDs in the filter, 0 while it is off.
+     */
+    public int size() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+}
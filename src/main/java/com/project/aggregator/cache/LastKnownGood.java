@@ -0,0 +1,113 @@
+package com.project.aggregator.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * The last value each upstream call returned, for fallbacks to serve when the upstream cannot be
+ * reached.
+ * <p>
+ * Unlike {@link TtlCache}, entries are never served on the normal path, so they may be far older
+ * than a cached value would be allowed to get; {@code maxAge} only bounds how stale a fallback
+ * answer can be. An entry holds a reference to the DTO — usually the same instance that the
+ * response cache holds — and the time it was stored. When the store is full, entries past
+ * {@code maxAge} are swept out first (at most once per tenth of {@code maxAge}), and otherwise an
+ * arbitrary one is dropped.
+ */
+public final class LastKnownGood<K, V> {
+
+    private final String name;
+    private final long maxAgeMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder served = new LongAdder();
+    private volatile long lastSweep;
+
+    /**
+     * @param storedAt wall-clock epoch milliseconds
+     */
+    public record Entry<V>(V value, long storedAt) {
+    }
+
+    public LastKnownGood(String name, Duration maxAge, int maxEntries) {
+        this(name, maxAge, maxEntries, System::currentTimeMillis);
+    }
+
+    LastKnownGood(String name, Duration maxAge, int maxEntries, LongSupplier clock) {
+        this.name = name;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    public void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            makeRoom(now);
+        }
+        entries.put(key, new Entry<>(value, now));
+    }
+
+    /**
+     * Returns the last value stored for {@code key}, or {@code null} if there is none within the
+     * maximum age.
+     */
+    public Entry<V> get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAt() > maxAgeMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        served.increment();
+        return entry;
+    }
+
+    /**
+     * Drops entries known to be wrong, e.g. prices that were reloaded upstream.
+     */
+    public void invalidateIf(Predicate<K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * How many fallbacks were answered from the store.
+     */
+    public long servedCount() {
+        return served.sum();
+    }
+
+    private void makeRoom(long now) {
+        if (now - lastSweep >= maxAgeMillis / 10) {
+            lastSweep = now;
+            entries.values().removeIf(entry -> now - entry.storedAt() > maxAgeMillis);
+            if (entries.size() < maxEntries) {
+                return;
+            }
+        }
+        Iterator<K> it = entries.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
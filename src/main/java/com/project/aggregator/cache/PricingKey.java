@@ -0,0 +1,12 @@
+package com.project.aggregator.cache;
+
+/**
+ * Cache key for prices, which also depend on the customer (via its segment); {@code customerId}
+ * is {@code null} for the anonymous price.
+ */
+public record PricingKey(String productId, String market, String customerId) {
+
+    public static PricingKey anonymous(ProductKey key) {
+        return new PricingKey(key.productId(), key.market(), null);
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.project.aggregator.model.AvailabilityDto;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached entries of products whose upstream data was reloaded, including their last known
+ * good values: those are no longer good.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final TtlCache<ProductKey, CatalogDto> catalogCache;
+    private final TtlCache<PricingKey, PricingDto> pricingCache;
+    private final LastKnownGood<PricingKey, PricingDto> pricingLastKnownGood;
+    private final LastKnownGood<ProductKey, AvailabilityDto> availabilityLastKnownGood;
+
+    @EventListener
+    public void onProductDataChanged(ProductDataChangedEvent event) {
+        switch (event.source()) {
+            case "catalog" -> catalogCache.invalidateIf(key -> event.affects(key.productId()));
+            case "pricing" -> invalidatePricing(event);
+            default -> {
+                catalogCache.invalidateIf(key -> event.affects(key.productId()));
+                invalidatePricing(event);
+                availabilityLastKnownGood.invalidateIf(key -> event.affects(key.productId()));
+            }
+        }
+        log.info("Invalidated cached {} data for {} products and {} prefixes{}", event.source(),
+                event.productIds().size(), event.productIdPrefixes().size(), event.remote() ? " from a peer" : "");
+    }
+
+    private void invalidatePricing(ProductDataChangedEvent event) {
+        pricingCache.invalidateIf(key -> event.affects(key.productId()));
+        pricingLastKnownGood.invalidateIf(key -> event.affects(key.productId()));
+    }
+}
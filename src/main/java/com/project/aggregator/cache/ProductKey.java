@@ -0,0 +1,7 @@
+package com.project.aggregator.cache;
+
+/**
+ * Cache and access-tracking key for market-specific product data.
+ */
+public record ProductKey(String productId, String market) {
+}
@@ -0,0 +1,130 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Materialized views of what an anonymous request needs besides availability: the catalog text
+ * and the anonymous price of each (productId, market). They are filled in the background by
+ * {@code ProductViewMaterializer}, and read before the caches.
+ * <p>
+ * Views do not expire. The next materialization replaces them, and they are dropped when their
+ * product's data changes. A view whose fetch began before such a drop must not be stored
+ * afterwards. Every {@link #invalidateIf} therefore starts a new epoch and is remembered, and
+ * {@link #putIfCurrent} refuses a view that a later invalidation matches. Only the last
+ * {@value #REMEMBERED_INVALIDATIONS} are remembered; a view older than all of them is refused.
+ */
+public final class ProductViews {
+
+    /**
+     * @param price the anonymous price, null if the product has none in the market
+     */
+    public record View(CatalogDto catalog, PricingDto price, long materializedAt) {
+    }
+
+    static final int REMEMBERED_INVALIDATIONS = 64;
+
+    private record Invalidation(long epoch, Predicate<ProductKey> predicate) {
+    }
+
+    private final Map<ProductKey, View> views = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    // guarded by this, oldest first
+    private final Deque<Invalidation> invalidations = new ArrayDeque<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * The view of the key, without counting a lookup.
+     */
+    public View peek(ProductKey key) {
+        return views.get(key);
+    }
+
+    public View get(String productId, String market) {
+        View view = views.get(new ProductKey(productId, market));
+        if (view == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return view;
+    }
+
+    /**
+     * The epoch to pass to {@link #putIfCurrent} for a view whose fetch starts now.
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    /**
+     * Stores the view unless an invalidation since {@code startedInEpoch} matches its key.
+     *
+     * @return whether the view was stored
+     */
+    public synchronized boolean putIfCurrent(ProductKey key, View view, long startedInEpoch) {
+        if (epoch.get() != startedInEpoch) {
+            Invalidation oldest = invalidations.peekFirst();
+            if (oldest == null || oldest.epoch() > startedInEpoch + 1) {
+                return false;
+            }
+            for (Invalidation invalidation : invalidations) {
+                if (invalidation.epoch() > startedInEpoch && invalidation.predicate().test(key)) {
+                    return false;
+                }
+            }
+        }
+        views.put(key, view);
+        return true;
+    }
+
+    /**
+     * Drops the matching views and refuses matching views fetched before now.
+     *
+     * @return the keys whose views were dropped
+     */
+    public synchronized List<ProductKey> invalidateIf(Predicate<ProductKey> predicate) {
+        invalidations.addLast(new Invalidation(epoch.incrementAndGet(), predicate));
+        if (invalidations.size() > REMEMBERED_INVALIDATIONS) {
+            invalidations.removeFirst();
+        }
+        List<ProductKey> dropped = new ArrayList<>();
+        for (ProductKey key : views.keySet()) {
+            if (predicate.test(key) && views.remove(key) != null) {
+                dropped.add(key);
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Drops the view of a product that no longer exists. Unlike {@link #invalidateIf}, this does
+     * not start a new epoch.
+     */
+    public void remove(ProductKey key) {
+        views.remove(key);
+    }
+
+    public int size() {
+        return views.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+}
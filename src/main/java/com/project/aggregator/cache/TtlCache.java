@@ -0,0 +1,132 @@
+package com.project.aggregator.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-memory cache whose entries expire a fixed time after they were written.
+ * <p>
+ * Expiry times are wall-clock epoch milliseconds, so they keep their meaning outside the process.
+ * Expired entries are dropped when read and by {@link #evictExpired()}, which also reports them so
+ * that hot keys can be refreshed. When the cache is full an arbitrary entry is dropped to make room.
+ */
+public final class TtlCache<K, V> {
+
+    private final String name;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public record Entry<V>(V value, long expiresAt) {
+    }
+
+    public TtlCache(String name, Duration ttl, int maxEntries) {
+        this(name, ttl, maxEntries, System::currentTimeMillis);
+    }
+
+    TtlCache(String name, Duration ttl, int maxEntries, LongSupplier clock) {
+        this.name = name;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the cached value, or {@code null} if there is none or it has expired.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAt() > clock.getAsLong()) {
+                hits.increment();
+                return entry.value();
+            }
+            entries.remove(key, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(K key, V value) {
+        putUntil(key, value, clock.getAsLong() + ttlMillis);
+    }
+
+    /**
+     * Stores an entry with an explicit expiry time; entries that have already expired are ignored.
+     */
+    public void putUntil(K key, V value, long expiresAt) {
+        if (expiresAt <= clock.getAsLong()) {
+            return;
+        }
+        if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+            evictOne();
+        }
+        entries.put(key, new Entry<>(value, expiresAt));
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Removes every expired entry and returns the keys that were removed.
+     */
+    public List<K> evictExpired() {
+        long now = clock.getAsLong();
+        List<K> expired = new ArrayList<>();
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            if (entry.getValue().expiresAt() <= now && entries.remove(entry.getKey(), entry.getValue())) {
+                expired.add(entry.getKey());
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Live (not yet expired) entries, for snapshots and diagnostics.
+     */
+    public Map<K, Entry<V>> entries() {
+        long now = clock.getAsLong();
+        Map<K, Entry<V>> live = new ConcurrentHashMap<>();
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt() > now) {
+                live.put(key, entry);
+            }
+        });
+        return live;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    private void evictOne() {
+        Iterator<K> it = entries.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.aggregator.cache.bus;
+
+/**
+ * One invalidation sent over the {@link InvalidationBus}: the {@code source} data ("catalog",
+ * "pricing") of one product ID, or with {@code prefix} of every product ID starting with
+ * {@code value}.
+ */
+public record Invalidation(String source, String value, boolean prefix) {
+}
@@ -0,0 +1,221 @@
+package com.project.aggregator.cache.bus;
+
+import com.project.aggregator.client.ProductDataChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads cache invalidations across replicas. Local {@link ProductDataChangedEvent}s of the
+ * configured sources are collected for {@code batchWindow} and deduplicated. Keys covered by a
+ * prefix in the same batch are dropped. The batch is then sent in messages of at most
+ * {@value #MAX_MESSAGE_BYTES} bytes, small enough to avoid IP fragmentation.
+ * <p>
+ * Received messages are republished as remote events, so the local caches drop the entries just
+ * as for a local reload. Messages carry a per-sender sequence number: older ones are duplicates
+ * or late, and are ignored. A gap means lost messages. They are counted but not recovered, and
+ * the affected entries stay until their TTL expires. The sender ID is new on every start, so a
+ * restarted peer's sequence is not mistaken for duplicates.
+ */
+@Slf4j
+public final class InvalidationBus implements AutoCloseable {
+
+    static final int MAX_MESSAGE_BYTES = 1400;
+
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher events;
+    private final Set<String> sources;
+    private final Duration batchWindow;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ScheduledExecutorService flusher;
+    private final Object lock = new Object();
+    private final Map<String, Long> lastSequenceBySender = new ConcurrentHashMap<>();
+    private final LongAdder sentMessages = new LongAdder();
+    private final LongAdder sentInvalidations = new LongAdder();
+    private final LongAdder receivedMessages = new LongAdder();
+    private final LongAdder duplicateMessages = new LongAdder();
+    private final LongAdder lostMessages = new LongAdder();
+
+    // guarded by lock
+    private Set<Invalidation> pending = new LinkedHashSet<>();
+    private boolean flushScheduled;
+    // flusher thread only
+    private long sequence;
+
+    /**
+     * @param sources     event sources that are sent to peers; others, such as the warmup's stub
+     *                    products, only concern this instance
+     * @param batchWindow how long invalidations are collected before they are sent
+     */
+    public InvalidationBus(InvalidationTransport transport, ApplicationEventPublisher events, Set<String> sources,
+                           Duration batchWindow) {
+        this.transport = transport;
+        this.events = events;
+        this.sources = Set.copyOf(sources);
+        this.batchWindow = batchWindow;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "invalidation-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        transport.listen(this::receive);
+    }
+
+    @EventListener
+    public void onProductDataChanged(ProductDataChangedEvent event) {
+        if (event.remote() || !sources.contains(event.source())) {
+            return;
+        }
+        synchronized (lock) {
+            event.productIds().forEach(id -> pending.add(new Invalidation(event.source(), id, false)));
+            event.productIdPrefixes().forEach(prefix -> pending.add(new Invalidation(event.source(), prefix, true)));
+            if (!flushScheduled && !pending.isEmpty()) {
+                flushScheduled = true;
+                flusher.schedule(this::flush, batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public String instanceId() {
+        return instanceId;
+    }
+
+    public long sentMessageCount() {
+        return sentMessages.sum();
+    }
+
+    public long sentInvalidationCount() {
+        return sentInvalidations.sum();
+    }
+
+    public long receivedMessageCount() {
+        return receivedMessages.sum();
+    }
+
+    public long duplicateMessageCount() {
+        return duplicateMessages.sum();
+    }
+
+    public long lostMessageCount() {
+        return lostMessages.sum();
+    }
+
+    void flush() {
+        Set<Invalidation> batch;
+        synchronized (lock) {
+            batch = pending;
+            pending = new LinkedHashSet<>();
+            flushScheduled = false;
+        }
+        List<Invalidation> entries = new ArrayList<>();
+        int size = InvalidationMessage.headerSize(instanceId);
+        for (Invalidation invalidation : withoutCoveredKeys(batch)) {
+            int entrySize = InvalidationMessage.entrySize(invalidation);
+            if (!entries.isEmpty() && (size + entrySize > MAX_MESSAGE_BYTES
+                    || entries.size() == InvalidationMessage.MAX_ENTRIES)) {
+                send(entries);
+                entries = new ArrayList<>();
+                size = InvalidationMessage.headerSize(instanceId);
+            }
+            entries.add(invalidation);
+            size += entrySize;
+        }
+        if (!entries.isEmpty()) {
+            send(entries);
+        }
+    }
+
+    private void send(List<Invalidation> entries) {
+        try {
+            transport.send(new InvalidationMessage(instanceId, ++sequence, entries).encode());
+            sentMessages.increment();
+            sentInvalidations.add(entries.size());
+        } catch (RuntimeException e) {
+            log.warn("Sending {} invalidations failed, peers fall back to TTL expiry", entries.size(), e);
+        }
+    }
+
+    void receive(byte[] bytes) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (message.senderId().equals(instanceId)) {
+            return;
+        }
+        receivedMessages.increment();
+        Long last = lastSequenceBySender.get(message.senderId());
+        if (last != null && message.sequence() <= last) {
+            duplicateMessages.increment();
+            return;
+        }
+        // the first message seen from a sender sets its baseline: it may have been running before us
+        long missed = last == null ? 0 : message.sequence() - last - 1;
+        if (missed > 0) {
+            lostMessages.add(missed);
+            log.warn("Lost {} invalidation messages from {}; their entries expire by TTL", missed, message.senderId());
+        }
+        lastSequenceBySender.put(message.senderId(), message.sequence());
+
+        Map<String, Set<String>> productIds = new LinkedHashMap<>();
+        Map<String, Set<String>> prefixes = new LinkedHashMap<>();
+        for (Invalidation invalidation : message.invalidations()) {
+            (invalidation.prefix() ? prefixes : productIds)
+                    .computeIfAbsent(invalidation.source(), source -> new LinkedHashSet<>())
+                    .add(invalidation.value());
+        }
+        Set<String> affectedSources = new LinkedHashSet<>(productIds.keySet());
+        affectedSources.addAll(prefixes.keySet());
+        for (String source : affectedSources) {
+            events.publishEvent(new ProductDataChangedEvent(source, productIds.getOrDefault(source, Set.of()),
+                    prefixes.getOrDefault(source, Set.of()), true));
+        }
+    }
+
+    /**
+     * The batch without the product IDs that a prefix of the same source already covers.
+     */
+    static List<Invalidation> withoutCoveredKeys(Set<Invalidation> batch) {
+        List<Invalidation> prefixes = batch.stream().filter(Invalidation::prefix).toList();
+        if (prefixes.isEmpty()) {
+            return List.copyOf(batch);
+        }
+        return batch.stream()
+                .filter(invalidation -> invalidation.prefix() || prefixes.stream().noneMatch(prefix ->
+                        prefix.source().equals(invalidation.source()) && invalidation.value().startsWith(prefix.value())))
+                .toList();
+    }
+
+    /**
+     * Sends what is still pending, then stops.
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(1, TimeUnit.SECONDS)) {
+                flusher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        transport.close();
+    }
+}
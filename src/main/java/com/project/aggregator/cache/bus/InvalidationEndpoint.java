@@ -0,0 +1,59 @@
+package com.project.aggregator.cache.bus;
+
+import com.project.aggregator.client.ProductDataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Admin endpoint for the invalidation bus: {@code GET /actuator/invalidation} reports its
+ * counters, {@code POST /actuator/invalidation} with a JSON body such as
+ * {@code {"source": "pricing", "productIds": "PART-001,PART-002", "prefixes": "PART-1"}} drops
+ * those entries here and on every peer. Actuator bodies are flat, hence the comma-separated lists.
+ */
+@Endpoint(id = "invalidation")
+@RequiredArgsConstructor
+public class InvalidationEndpoint {
+
+    private final InvalidationBus bus;
+    private final ApplicationEventPublisher events;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("instanceId", bus.instanceId());
+        status.put("sentMessages", bus.sentMessageCount());
+        status.put("sentInvalidations", bus.sentInvalidationCount());
+        status.put("receivedMessages", bus.receivedMessageCount());
+        status.put("duplicateMessages", bus.duplicateMessageCount());
+        status.put("lostMessages", bus.lostMessageCount());
+        return status;
+    }
+
+    @WriteOperation
+    public Map<String, Object> invalidate(String source, @Nullable String productIds, @Nullable String prefixes) {
+        Set<String> ids = split(productIds);
+        Set<String> idPrefixes = split(prefixes);
+        events.publishEvent(new ProductDataChangedEvent(source, ids, idPrefixes, false));
+        return Map.of("source", source, "productIds", ids.size(), "prefixes", idPrefixes.size());
+    }
+
+    private static Set<String> split(@Nullable String values) {
+        if (values == null) {
+            return Set.of();
+        }
+        return Arrays.stream(values.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.aggregator.cache.bus;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of invalidations as sent between instances. All numbers are big-endian.
+ * <pre>
+ * magic "CINV", version byte, senderId, sequence (long), entry count (unsigned short)
+ * per entry: source, prefix flag byte, value
+ * </pre>
+ * Strings are an unsigned short byte length followed by UTF-8 bytes. The sequence numbers a
+ * sender's messages from 1 upwards, so that receivers notice duplicates and losses.
+ */
+public record InvalidationMessage(String senderId, long sequence, List<Invalidation> invalidations) {
+
+    static final int MAGIC = 0x43494E56; // "CINV"
+    static final int VERSION = 1;
+    static final int MAX_ENTRIES = 0xFFFF;
+
+    public InvalidationMessage {
+        invalidations = List.copyOf(invalidations);
+    }
+
+    /**
+     * Encoded size of the message header for this sender.
+     */
+    static int headerSize(String senderId) {
+        return 4 + 1 + stringSize(senderId) + 8 + 2;
+    }
+
+    /**
+     * Encoded size of one entry.
+     */
+    static int entrySize(Invalidation invalidation) {
+        return stringSize(invalidation.source()) + 1 + stringSize(invalidation.value());
+    }
+
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeString(out, senderId);
+            out.writeLong(sequence);
+            out.writeShort(invalidations.size());
+            for (Invalidation invalidation : invalidations) {
+                writeString(out, invalidation.source());
+                out.writeBoolean(invalidation.prefix());
+                writeString(out, invalidation.value());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a message of this version
+     */
+    public static InvalidationMessage decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not an invalidation message");
+            }
+            int version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported invalidation message version " + version);
+            }
+            String senderId = readString(buffer);
+            long sequence = buffer.getLong();
+            int count = Short.toUnsignedInt(buffer.getShort());
+            List<Invalidation> invalidations = new ArrayList<>(Math.min(count, buffer.remaining()));
+            for (int i = 0; i < count; i++) {
+                String source = readString(buffer);
+                boolean prefix = buffer.get() != 0;
+                invalidations.add(new Invalidation(source, readString(buffer), prefix));
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Unexpected trailing bytes in invalidation message");
+            }
+            return new InvalidationMessage(senderId, sequence, invalidations);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated invalidation message", e);
+        }
+    }
+
+    private static int stringSize(String value) {
+        return 2 + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for an invalidation message: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
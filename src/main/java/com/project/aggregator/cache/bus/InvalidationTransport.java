@@ -0,0 +1,23 @@
+package com.project.aggregator.cache.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries encoded {@link InvalidationMessage}s between instances. Delivery is best effort:
+ * messages may be lost, duplicated or reordered, and the bus tolerates all three.
+ */
+public interface InvalidationTransport extends AutoCloseable {
+
+    /**
+     * Sends the message to every peer. Failures are logged rather than thrown.
+     */
+    void send(byte[] message);
+
+    /**
+     * Registers the single receiver of the messages from peers, called on the transport's thread.
+     */
+    void listen(Consumer<byte[]> receiver);
+
+    @Override
+    void close();
+}
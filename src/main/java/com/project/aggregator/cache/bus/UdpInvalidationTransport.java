@@ -0,0 +1,89 @@
+package com.project.aggregator.cache.bus;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Sends every message as one UDP datagram to each configured peer and receives on its own port.
+ * Several instances on one machine just bind different loopback ports. Datagrams are accepted only
+ * from the address and port of a configured peer, which is where a peer's messages come from, as
+ * it sends from the port it binds.
+ */
+@Slf4j
+public final class UdpInvalidationTransport implements InvalidationTransport {
+
+    private static final int MAX_DATAGRAM_BYTES = 65_507;
+
+    private final DatagramChannel channel;
+    private final List<InetSocketAddress> peers;
+    private final Set<InetSocketAddress> acceptedSenders;
+    private Thread receiverThread;
+
+    public UdpInvalidationTransport(InetSocketAddress bind, List<InetSocketAddress> peers) throws IOException {
+        this.channel = DatagramChannel.open().bind(bind);
+        this.peers = List.copyOf(peers);
+        this.acceptedSenders = Set.copyOf(peers);
+    }
+
+    public InetSocketAddress localAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    @Override
+    public void send(byte[] message) {
+        for (InetSocketAddress peer : peers) {
+            try {
+                channel.send(ByteBuffer.wrap(message), peer);
+            } catch (IOException e) {
+                log.warn("Sending invalidations to {} failed: {}", peer, e.toString());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void listen(Consumer<byte[]> receiver) {
+        if (receiverThread != null) {
+            throw new IllegalStateException("Already listening");
+        }
+        receiverThread = Thread.ofPlatform().name("invalidation-receiver").daemon().start(() -> receive(receiver));
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_BYTES);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                SocketAddress sender = channel.receive(buffer);
+                if (!acceptedSenders.contains(sender)) {
+                    log.debug("Ignoring an invalidation datagram from {}, which is not a peer", sender);
+                    continue;
+                }
+                buffer.flip();
+                receiver.accept(Arrays.copyOf(buffer.array(), buffer.limit()));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Receiving invalidations failed", e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Closing the invalidation channel failed", e);
+        }
+    }
+}
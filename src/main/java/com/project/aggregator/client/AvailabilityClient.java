@@ -2,7 +2,16 @@ package com.project.aggregator.client;
 
 import com.project.aggregator.model.AvailabilityDto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface AvailabilityClient {
 
     AvailabilityDto fetch(String productId, String market);
+
+    /**
+     * Asynchronous {@link #fetch(String, String)}, by default offloaded through {@link BlockingCalls}.
+     */
+    default CompletableFuture<AvailabilityDto> fetchAsync(String productId, String market) {
+        return BlockingCalls.offload(() -> fetch(productId, market));
+    }
 }
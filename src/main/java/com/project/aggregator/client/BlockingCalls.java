@@ -0,0 +1,24 @@
+package com.project.aggregator.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs a blocking client call on its own virtual thread, for clients without a native async
+ * transport. A call waiting on I/O then parks a virtual thread instead of holding a pool thread,
+ * so the number of in-flight calls is not bounded by a pool size.
+ */
+public final class BlockingCalls {
+
+    private static final ExecutorService EXECUTOR =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("upstream-", 0).factory());
+
+    private BlockingCalls() {
+    }
+
+    public static <T> CompletableFuture<T> offload(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, EXECUTOR);
+    }
+}
@@ -2,7 +2,25 @@ package com.project.aggregator.client;
 
 import com.project.aggregator.model.CatalogDto;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
 public interface CatalogClient {
 
     CatalogDto fetch(String productId, String market);
+
+    /**
+     * Non-blocking variant of {@link #fetch(String, String)}: failures complete the future
+     * exceptionally. Clients without an async transport run the blocking call on a virtual thread.
+     */
+    default CompletableFuture<CatalogDto> fetchAsync(String productId, String market) {
+        return BlockingCalls.offload(() -> fetch(productId, market));
+    }
+
+    /**
+     * Every product ID the catalog currently has, or {@code null} if it cannot list them.
+     */
+    default Collection<String> productIds() {
+        return null;
+    }
 }
@@ -2,7 +2,16 @@ package com.project.aggregator.client;
 
 import com.project.aggregator.model.CustomerDto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface CustomerClient {
 
     CustomerDto fetch(String customerId);
+
+    /**
+     * Asynchronous {@link #fetch(String)}; completes with {@code null} for an unknown customer.
+     */
+    default CompletableFuture<CustomerDto> fetchAsync(String customerId) {
+        return BlockingCalls.offload(() -> fetch(customerId));
+    }
 }
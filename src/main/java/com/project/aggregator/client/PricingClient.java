@@ -2,7 +2,30 @@ package com.project.aggregator.client;
 
 import com.project.aggregator.model.PricingDto;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface PricingClient {
 
-    PricingDto fetch(String productId, String market, String customerId);
+    /**
+     * Prices for the customer's {@code segment}; a null segment leaves it to the upstream to
+     * work out from {@code customerId}.
+     */
+    PricingDto fetch(String productId, String market, String customerId, String segment);
+
+    default PricingDto fetch(String productId, String market, String customerId) {
+        return fetch(productId, market, customerId, null);
+    }
+
+    /**
+     * Asynchronous {@link #fetch(String, String, String, String)}; an upstream failure completes the
+     * future exceptionally rather than being thrown.
+     */
+    default CompletableFuture<PricingDto> fetchAsync(String productId, String market, String customerId,
+                                                     String segment) {
+        return BlockingCalls.offload(() -> fetch(productId, market, customerId, segment));
+    }
+
+    default CompletableFuture<PricingDto> fetchAsync(String productId, String market, String customerId) {
+        return fetchAsync(productId, market, customerId, null);
+    }
 }
@@ -0,0 +1,37 @@
+package com.project.aggregator.client;
+
+import java.util.Set;
+
+/**
+ * Published by a data-backed client after it has swapped in reloaded data, listing the products
+ * whose {@code source} data ("catalog", "pricing") changed, so that caches above the client can
+ * drop exactly those entries. {@code productIdPrefixes} widen it to every product ID that starts
+ * with one of them.
+ * <p>
+ * {@code remote} events were received from another instance over the invalidation bus; they are
+ * applied locally but not sent on again.
+ */
+public record ProductDataChangedEvent(String source, Set<String> productIds, Set<String> productIdPrefixes,
+                                      boolean remote) {
+
+    public ProductDataChangedEvent {
+        productIds = Set.copyOf(productIds);
+        productIdPrefixes = Set.copyOf(productIdPrefixes);
+    }
+
+    public ProductDataChangedEvent(String source, Set<String> productIds) {
+        this(source, productIds, Set.of(), false);
+    }
+
+    public boolean affects(String productId) {
+        if (productIds.contains(productId)) {
+            return true;
+        }
+        for (String prefix : productIdPrefixes) {
+            if (productId.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
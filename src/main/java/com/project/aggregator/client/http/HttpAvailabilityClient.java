@@ -0,0 +1,25 @@
+package com.project.aggregator.client.http;
+
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.model.AvailabilityDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Availability upstream over HTTP.
+ * Not used when {@code app.availability.source=stream} answers from the in-memory stock table.
+ */
+@FeignClient(name = "availability", url = "${app.upstream.availability-url}",
+        configuration = UpstreamFeignConfiguration.class)
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "http")
+@ConditionalOnProperty(name = "app.availability.source", havingValue = "upstream", matchIfMissing = true)
+public interface HttpAvailabilityClient extends AvailabilityClient {
+
+    @Override
+    @GetMapping(value = "/availability/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    AvailabilityDto fetch(@PathVariable("productId") String productId, @RequestParam("market") String market);
+}
@@ -0,0 +1,25 @@
+package com.project.aggregator.client.http;
+
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.model.CatalogDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Catalog upstream over HTTP. Unknown products come back as 404, which
+ * {@link UpstreamErrorDecoder} turns into {@code ProductNotFoundException} like the mock does.
+ * Not used when {@code app.catalog.store=mapped} serves the catalog from a local file.
+ */
+@FeignClient(name = "catalog", url = "${app.upstream.catalog-url}", configuration = UpstreamFeignConfiguration.class)
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "http")
+@ConditionalOnProperty(name = "app.catalog.store", havingValue = "mock", matchIfMissing = true)
+public interface HttpCatalogClient extends CatalogClient {
+
+    @Override
+    @GetMapping(value = "/catalog/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    CatalogDto fetch(@PathVariable("productId") String productId, @RequestParam("market") String market);
+}
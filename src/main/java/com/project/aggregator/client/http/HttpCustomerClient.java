@@ -0,0 +1,25 @@
+package com.project.aggregator.client.http;
+
+import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.model.CustomerDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+/**
+ * Customer upstream over HTTP. Anonymous requests (no customer id) are answered without a call.
+ */
+@FeignClient(name = "customer", url = "${app.upstream.customer-url}", configuration = UpstreamFeignConfiguration.class)
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "http")
+public interface HttpCustomerClient extends CustomerClient {
+
+    @GetMapping(value = "/customers/{customerId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    CustomerDto get(@PathVariable("customerId") String customerId);
+
+    @Override
+    default CustomerDto fetch(String customerId) {
+        return customerId == null ? null : get(customerId);
+    }
+}
@@ -0,0 +1,26 @@
+package com.project.aggregator.client.http;
+
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.model.PricingDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Pricing upstream over HTTP; {@code customerId} and {@code segment} are left out of the query
+ * when absent.
+ */
+@FeignClient(name = "pricing", url = "${app.upstream.pricing-url}", configuration = UpstreamFeignConfiguration.class)
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "http")
+public interface HttpPricingClient extends PricingClient {
+
+    @Override
+    @GetMapping(value = "/pricing/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    PricingDto fetch(@PathVariable("productId") String productId,
+                     @RequestParam("market") String market,
+                     @RequestParam(value = "customerId", required = false) String customerId,
+                     @RequestParam(value = "segment", required = false) String segment);
+}
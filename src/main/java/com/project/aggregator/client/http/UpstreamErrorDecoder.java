@@ -0,0 +1,50 @@
+package com.project.aggregator.client.http;
+
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.exception.UpstreamServiceException;
+import feign.Response;
+import feign.codec.ErrorDecoder;
+
+import java.net.URI;
+
+/**
+ * Maps upstream error responses onto the exceptions the mock clients throw, so that the services
+ * and their circuit breakers behave the same whichever client is in use: a 404 from the catalog's
+ * product lookup becomes {@link ProductNotFoundException}, anything else
+ * {@link UpstreamServiceException} named after the upstream ({@code HttpCatalogClient} →
+ * {@code CatalogService}). A 404 from the other upstreams, which look up prices, stock and
+ * customers rather than products, is a failure like any other, so it counts for their breakers.
+ */
+class UpstreamErrorDecoder implements ErrorDecoder {
+
+    private static final String CATALOG_FETCH = "HttpCatalogClient#fetch(";
+
+    @Override
+    public Exception decode(String methodKey, Response response) {
+        if (response.status() == 404 && methodKey.startsWith(CATALOG_FETCH)) {
+            return new ProductNotFoundException(lastPathSegment(response.request().url()));
+        }
+        return new UpstreamServiceException(serviceName(methodKey),
+                "HTTP " + response.status() + " from " + response.request().url());
+    }
+
+    /**
+     * {@code HttpPricingClient#fetch(String,String,String,String)} → {@code PricingService}.
+     */
+    static String serviceName(String methodKey) {
+        int hash = methodKey.indexOf('#');
+        String client = hash < 0 ? methodKey : methodKey.substring(0, hash);
+        if (client.startsWith("Http")) {
+            client = client.substring("Http".length());
+        }
+        if (client.endsWith("Client")) {
+            client = client.substring(0, client.length() - "Client".length());
+        }
+        return client + "Service";
+    }
+
+    private static String lastPathSegment(String url) {
+        String path = URI.create(url).getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
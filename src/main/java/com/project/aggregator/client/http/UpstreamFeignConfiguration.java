@@ -0,0 +1,16 @@
+package com.project.aggregator.client.http;
+
+import feign.codec.ErrorDecoder;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Per-client Feign configuration of the HTTP upstream clients. Deliberately not a
+ * {@code @Configuration}, so that it applies only to the clients that name it.
+ */
+public class UpstreamFeignConfiguration {
+
+    @Bean
+    ErrorDecoder upstreamErrorDecoder() {
+        return new UpstreamErrorDecoder();
+    }
+}
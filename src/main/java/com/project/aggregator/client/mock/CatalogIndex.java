@@ -0,0 +1,296 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.project.aggregator.model.CatalogDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Read-optimised view of the mock catalog.
+ * <p>
+ * Every (market, productId) pair is resolved to its final, immutable {@link CatalogDto} at load
+ * time, including the locale fallback chain (market → {@code en-GB} → first listed locale), so a
+ * lookup is a market-map probe plus a product-map probe with no allocation. Markets that no
+ * product is translated into share the fallback map.
+ * <p>
+ * To keep the footprint down, all strings go through a build-time pool (repeated spec
+ * values, units, image URLs and identical translations are stored once), specs are stored in
+ * {@link CompactStringMap}s, and a market reuses the fallback {@link CatalogDto} instance when its
+ * text is the same.
+ */
+final class CatalogIndex {
+
+    static final String FALLBACK_LOCALE = "en-GB";
+
+    private final Map<String, Map<String, CatalogDto>> byMarket;
+    private final Map<String, CatalogDto> fallback;
+
+    private CatalogIndex(Map<String, Map<String, CatalogDto>> byMarket, Map<String, CatalogDto> fallback) {
+        this.byMarket = byMarket;
+        this.fallback = fallback;
+    }
+
+    static CatalogIndex build(Collection<CatalogTemplate> templates) {
+        Builder builder = new Builder();
+        for (CatalogTemplate template : templates) {
+            builder.add(template);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Streams a {@code catalog.json} array token by token into a {@link Builder}, so only the
+     * interned, compact form of each product is held until the per-market maps are built.
+     * Unknown fields are skipped.
+     */
+    static CatalogIndex read(JsonParser parser) throws IOException {
+        Builder builder = new Builder();
+        parser.nextToken();
+        MockDataLoader.expect(parser, JsonToken.START_ARRAY);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+            String productId = null;
+            Translations names = null;
+            Translations descriptions = null;
+            Map<String, String> specs = null;
+            List<String> images = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "productId" -> productId = builder.intern(parser.getValueAsString());
+                    case "names" -> names = builder.readTranslations(parser);
+                    case "descriptions" -> descriptions = builder.readTranslations(parser);
+                    case "specs" -> specs = builder.readSpecs(parser);
+                    case "images" -> images = MockDataLoader.readStrings(parser, builder::intern);
+                    default -> parser.skipChildren();
+                }
+            }
+            builder.add(productId, names, descriptions, specs, images);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns the localised catalog entry, or {@code null} if the product is unknown.
+     */
+    CatalogDto find(String productId, String market) {
+        Map<String, CatalogDto> products = byMarket.get(market);
+        return (products != null ? products : fallback).get(productId);
+    }
+
+    Set<String> productIds() {
+        return Collections.unmodifiableSet(fallback.keySet());
+    }
+
+    /**
+     * Products that were added, removed or resolve to a different entry in any market compared
+     * with {@code previous}.
+     */
+    Set<String> changedProducts(CatalogIndex previous) {
+        Set<String> markets = new HashSet<>(byMarket.keySet());
+        markets.addAll(previous.byMarket.keySet());
+        Set<String> productIds = new HashSet<>(fallback.keySet());
+        productIds.addAll(previous.fallback.keySet());
+
+        Set<String> changed = new HashSet<>();
+        for (String productId : productIds) {
+            if (!Objects.equals(fallback.get(productId), previous.fallback.get(productId))) {
+                changed.add(productId);
+                continue;
+            }
+            for (String market : markets) {
+                if (!Objects.equals(find(productId, market), previous.find(productId, market))) {
+                    changed.add(productId);
+                    break;
+                }
+            }
+        }
+        return changed;
+    }
+
+    int productCount() {
+        return fallback.size();
+    }
+
+    Set<String> markets() {
+        return byMarket.keySet();
+    }
+
+    /**
+     * Locale → text pairs in source order, as parallel arrays of pooled strings.
+     */
+    private record Translations(String[] locales, String[] values) {
+
+        /**
+         * Market, then {@value #FALLBACK_LOCALE}, then the first listed locale.
+         */
+        String localize(String market) {
+            if (locales.length == 0) {
+                return null;
+            }
+            int fallback = 0;
+            for (int i = 0; i < locales.length; i++) {
+                if (locales[i].equals(market)) {
+                    return values[i];
+                }
+                if (fallback == 0 && locales[i].equals(FALLBACK_LOCALE)) {
+                    fallback = i;
+                }
+            }
+            return values[fallback];
+        }
+    }
+
+    private record Entry(String productId, Translations names, Translations descriptions,
+                         Map<String, String> specs, List<String> images) {
+    }
+
+    /**
+     * Accumulates products in their pooled, compact form; the per-market maps can only be sized
+     * and filled once every market that any product is translated into is known.
+     */
+    static final class Builder {
+
+        private final Map<String, String> pool = new HashMap<>();
+        private final Set<String> markets = new LinkedHashSet<>();
+        private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+        void add(CatalogTemplate template) {
+            add(intern(template.productId()), translations(template.names()),
+                    translations(template.descriptions()), compact(template.specs()), compact(template.images()));
+        }
+
+        void add(String productId, Translations names, Translations descriptions,
+                 Map<String, String> specs, List<String> images) {
+            if (productId == null) {
+                throw new IllegalArgumentException("Catalog entry without productId");
+            }
+            entries.put(productId, new Entry(productId, names, descriptions, specs, images));
+        }
+
+        CatalogIndex build() {
+            Map<String, CatalogDto> fallback = HashMap.newHashMap(entries.size());
+            Map<String, Map<String, CatalogDto>> byMarket = HashMap.newHashMap(markets.size());
+            for (String market : markets) {
+                byMarket.put(market, HashMap.newHashMap(entries.size()));
+            }
+
+            for (Entry entry : entries.values()) {
+                CatalogDto defaultDto = new CatalogDto(entry.productId(),
+                        localize(entry.names(), FALLBACK_LOCALE),
+                        localize(entry.descriptions(), FALLBACK_LOCALE),
+                        entry.specs(), entry.images());
+                fallback.put(entry.productId(), defaultDto);
+
+                for (Map.Entry<String, Map<String, CatalogDto>> market : byMarket.entrySet()) {
+                    String name = localize(entry.names(), market.getKey());
+                    String description = localize(entry.descriptions(), market.getKey());
+                    CatalogDto dto = name == defaultDto.name() && description == defaultDto.description()
+                            ? defaultDto
+                            : new CatalogDto(entry.productId(), name, description, entry.specs(), entry.images());
+                    market.getValue().put(entry.productId(), dto);
+                }
+            }
+            return new CatalogIndex(byMarket, fallback);
+        }
+
+        String intern(String value) {
+            if (value == null) {
+                return null;
+            }
+            String existing = pool.putIfAbsent(value, value);
+            return existing != null ? existing : value;
+        }
+
+        private Translations readTranslations(JsonParser parser) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+            List<String> locales = new ArrayList<>(4);
+            List<String> values = new ArrayList<>(4);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String locale = intern(parser.currentName());
+                parser.nextToken();
+                markets.add(locale);
+                locales.add(locale);
+                values.add(intern(parser.getValueAsString()));
+            }
+            return new Translations(locales.toArray(String[]::new), values.toArray(String[]::new));
+        }
+
+        private Map<String, String> readSpecs(JsonParser parser) throws IOException {
+            if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+            List<String> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                keys.add(intern(parser.currentName()));
+                parser.nextToken();
+                values.add(intern(parser.getValueAsString()));
+            }
+            return new CompactStringMap(keys.toArray(String[]::new), values.toArray(String[]::new));
+        }
+
+        private Translations translations(Map<String, String> localeMap) {
+            if (localeMap == null) {
+                return null;
+            }
+            String[] locales = new String[localeMap.size()];
+            String[] values = new String[localeMap.size()];
+            int i = 0;
+            for (Map.Entry<String, String> entry : localeMap.entrySet()) {
+                locales[i] = intern(entry.getKey());
+                values[i] = intern(entry.getValue());
+                markets.add(locales[i]);
+                i++;
+            }
+            return new Translations(locales, values);
+        }
+
+        private Map<String, String> compact(Map<String, String> specs) {
+            if (specs == null) {
+                return null;
+            }
+            String[] keys = new String[specs.size()];
+            String[] values = new String[specs.size()];
+            int i = 0;
+            for (Map.Entry<String, String> entry : specs.entrySet()) {
+                keys[i] = intern(entry.getKey());
+                values[i] = intern(entry.getValue());
+                i++;
+            }
+            return new CompactStringMap(keys, values);
+        }
+
+        private List<String> compact(List<String> images) {
+            if (images == null) {
+                return null;
+            }
+            List<String> interned = new ArrayList<>(images.size());
+            for (String image : images) {
+                interned.add(intern(image));
+            }
+            return List.copyOf(interned);
+        }
+
+        private static String localize(Translations translations, String market) {
+            return translations == null ? null : translations.localize(market);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.project.aggregator.client.mock;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One product as stored in {@code catalog.json}: locale maps for the translated text plus the
+ * market-independent specs and images. Shared by the in-memory {@link CatalogIndex} and the
+ * offline {@link com.project.aggregator.client.store.CatalogStoreWriter}.
+ */
+public record CatalogTemplate(
+        String productId,
+        Map<String, String> names,
+        Map<String, String> descriptions,
+        Map<String, String> specs,
+        List<String> images
+) {
+}
@@ -3,12 +3,14 @@ package com.project.aggregator.client.mock;
 import com.project.aggregator.client.AvailabilityClient;
 import com.project.aggregator.exception.UpstreamServiceException;
 import com.project.aggregator.model.AvailabilityDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Simulates the Availability Service.
@@ -17,8 +19,12 @@ import java.util.Random;
  * - Failure rate: 2% (reliability 98%)
  * - Returns the closest warehouse to the requested market
  * - Stock levels randomised per request to simulate real-time inventory
+ * - {@link #fetchAsync} completes from a timer, without holding a thread for the latency
+ * Not used when {@code app.availability.source=stream} answers from the in-memory stock table.
  */
 @Component
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "mock", matchIfMissing = true)
+@ConditionalOnProperty(name = "app.availability.source", havingValue = "upstream", matchIfMissing = true)
 public class MockAvailabilityClient implements AvailabilityClient {
 
     private static final int MAX_DELAY_MS = 25;
@@ -37,7 +43,16 @@ public class MockAvailabilityClient implements AvailabilityClient {
 
     @Override
     public AvailabilityDto fetch(String productId, String market) {
-        simulateLatency();
+        SimulatedLatency.sleep(latencyMillis());
+        return availability(market);
+    }
+
+    @Override
+    public CompletableFuture<AvailabilityDto> fetchAsync(String productId, String market) {
+        return SimulatedLatency.after(latencyMillis(), () -> availability(market));
+    }
+
+    private AvailabilityDto availability(String market) {
         simulateFailure();
 
         String warehouse = MARKET_WAREHOUSE.getOrDefault(market, "Central-WH");
@@ -54,13 +69,8 @@ public class MockAvailabilityClient implements AvailabilityClient {
         return new AvailabilityDto(stockLevel, warehouse, delivery);
     }
 
-    private void simulateLatency() {
-        long delay = (long) (random.nextDouble() * MAX_DELAY_MS);
-        try {
-            Thread.sleep(MockAvailabilityClient.BASE_LATENCY_MS + delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private long latencyMillis() {
+        return MockAvailabilityClient.BASE_LATENCY_MS + (long) (random.nextDouble() * MAX_DELAY_MS);
     }
 
     private void simulateFailure() {
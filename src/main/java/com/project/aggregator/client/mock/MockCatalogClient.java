@@ -1,32 +1,34 @@
 package com.project.aggregator.client.mock;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.ProductDataChangedEvent;
 import com.project.aggregator.exception.ProductNotFoundException;
 import com.project.aggregator.exception.UpstreamServiceException;
 import com.project.aggregator.model.CatalogDto;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.util.List;
-import java.util.Map;
+import java.util.Collection;
 import java.util.Random;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Simulates the Catalog Service.
  * Behaviour:
  * - Base latency: 50ms ± 15ms delay
  * - Failure rate: 0.1% (reliability 99.9%)
- * - Returns market-localised product names/descriptions
+ * - Returns market-localised product names/descriptions, pre-resolved per market in a {@link CatalogIndex}
+ * - Swaps in a rebuilt index when catalog.json is reloaded and announces the changed products
  * - Throws ProductNotFoundException for unknown product IDs
+ * Active unless {@code app.upstream.mode} selects the HTTP clients or {@code app.catalog.store} another store.
  */
 @Component
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "mock", matchIfMissing = true)
+@ConditionalOnProperty(name = "app.catalog.store", havingValue = "mock", matchIfMissing = true)
 @Slf4j
 public class MockCatalogClient implements CatalogClient {
 
@@ -35,66 +37,65 @@ public class MockCatalogClient implements CatalogClient {
     private static final double FAILURE_RATE = 0.001;
 
     private final Random random = new Random();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockDataLoader dataLoader;
+    private final ApplicationEventPublisher eventPublisher;
 
-    private record CatalogTemplate(
-            String productId,
-            Map<String, String> names,
-            Map<String, String> descriptions,
-            Map<String, String> specs,
-            List<String> images
-    ) {}
+    private volatile CatalogIndex catalogue;
 
-    private Map<String, CatalogTemplate> catalogue;
+    public MockCatalogClient(MockDataLoader dataLoader, ApplicationEventPublisher eventPublisher) {
+        this.dataLoader = dataLoader;
+        this.eventPublisher = eventPublisher;
+    }
 
     @PostConstruct
     public void loadCatalogData() {
-        try {
-            ClassPathResource resource = new ClassPathResource("mock-data/catalog.json");
-            List<CatalogTemplate> products = objectMapper.readValue(
-                    resource.getInputStream(), new TypeReference<List<CatalogTemplate>>() {});
-
-            catalogue = products.stream()
-                    .collect(Collectors.toMap(CatalogTemplate::productId, Function.identity()));
-
-            log.info("Loaded {} products from catalog.json", catalogue.size());
-        } catch (IOException e) {
-            log.error("Failed to load catalog mock data", e);
-            throw new IllegalStateException("Cannot initialize MockCatalogClient", e);
+        dataLoader.load("catalog.json", CatalogIndex::read, this::swap);
+    }
+
+    private void swap(CatalogIndex index) {
+        CatalogIndex previous = catalogue;
+        catalogue = index;
+        if (previous == null) {
+            log.info("Loaded {} products in {} markets from catalog.json",
+                    index.productCount(), index.markets().size());
+            return;
+        }
+        Set<String> changed = index.changedProducts(previous);
+        log.info("Reloaded catalog.json: {} products in {} markets, {} changed",
+                index.productCount(), index.markets().size(), changed.size());
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new ProductDataChangedEvent("catalog", changed));
         }
     }
 
     @Override
     public CatalogDto fetch(String productId, String market) {
-        simulateLatency();
-        simulateFailure();
-
-        CatalogTemplate template = catalogue.get(productId);
-        if (template == null) {
-            throw new ProductNotFoundException(productId);
-        }
+        SimulatedLatency.sleep(latencyMillis());
+        return find(productId, market);
+    }
 
-        return new CatalogDto(
-                productId,
-                localize(template.names(), market),
-                localize(template.descriptions(), market),
-                template.specs(),
-                template.images()
-        );
+    @Override
+    public CompletableFuture<CatalogDto> fetchAsync(String productId, String market) {
+        return SimulatedLatency.after(latencyMillis(), () -> find(productId, market));
     }
 
-    private String localize(Map<String, String> localeMap, String market) {
-        if (localeMap == null) return null;
-        return localeMap.getOrDefault(market, localeMap.getOrDefault("en-GB", localeMap.values().iterator().next()));
+    @Override
+    public Collection<String> productIds() {
+        return catalogue.productIds();
     }
 
-    private void simulateLatency() {
-        long delay = (long) (random.nextDouble() * MAX_DELAY_MS);
-        try {
-            Thread.sleep(MockCatalogClient.BASE_LATENCY_MS + delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private CatalogDto find(String productId, String market) {
+        simulateFailure();
+
+        CatalogDto catalog = catalogue.find(productId, market);
+        if (catalog == null) {
+            throw new ProductNotFoundException(productId);
         }
+        return catalog;
+    }
+
+    private long latencyMillis() {
+        return MockCatalogClient.BASE_LATENCY_MS + (long) (random.nextDouble() * MAX_DELAY_MS);
     }
 
     private void simulateFailure() {
@@ -1,21 +1,22 @@
 package com.project.aggregator.client.mock;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.project.aggregator.client.CustomerClient;
 import com.project.aggregator.exception.UpstreamServiceException;
 import com.project.aggregator.model.CustomerDto;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
 
 /**
  * Simulates the Customer Service.
@@ -27,6 +28,7 @@ import java.util.stream.Collectors;
  * - Customer segment is derived from the ID prefix for demo purposes
  */
 @Component
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "mock", matchIfMissing = true)
 @Slf4j
 public class MockCustomerClient implements CustomerClient {
 
@@ -35,44 +37,73 @@ public class MockCustomerClient implements CustomerClient {
     private static final double FAILURE_RATE = 0.01;
 
     private final Random random = new Random();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockDataLoader dataLoader;
 
-    private Map<String, CustomerDto> customers;
+    private volatile Map<String, CustomerDto> customers;
+
+    public MockCustomerClient(MockDataLoader dataLoader) {
+        this.dataLoader = dataLoader;
+    }
 
     @PostConstruct
     public void loadCustomerData() {
-        try {
-            ClassPathResource resource = new ClassPathResource("mock-data/customers.json");
-            List<CustomerDto> customerList = objectMapper.readValue(
-                    resource.getInputStream(), new TypeReference<>() {
-                    }
-            );
-
-            customers = customerList.stream()
-                    .collect(Collectors.toMap(CustomerDto::customerId, Function.identity()));
+        dataLoader.load("customers.json", MockCustomerClient::readCustomers, loaded -> {
+            customers = loaded;
+            log.info("Loaded {} customers from customers.json", loaded.size());
+        });
+    }
 
-            log.info("Loaded {} customers from customers.json", customers.size());
-        } catch (IOException e) {
-            log.error("Failed to load customer mock data", e);
-            throw new IllegalStateException("Cannot initialize MockCustomerClient", e);
+    /**
+     * Streams the {@code customers.json} array token by token straight into the lookup map.
+     */
+    static Map<String, CustomerDto> readCustomers(JsonParser parser) throws IOException {
+        Map<String, CustomerDto> result = new HashMap<>();
+        parser.nextToken();
+        MockDataLoader.expect(parser, JsonToken.START_ARRAY);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+            String customerId = null;
+            String segment = null;
+            List<String> preferences = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "customerId" -> customerId = parser.getValueAsString();
+                    case "segment" -> segment = parser.getValueAsString();
+                    case "preferences" -> preferences = MockDataLoader.readStrings(parser, UnaryOperator.identity());
+                    default -> parser.skipChildren();
+                }
+            }
+            if (customerId == null) {
+                throw new IOException("Customer entry without customerId at " + parser.currentLocation());
+            }
+            if (result.putIfAbsent(customerId, new CustomerDto(customerId, segment, preferences)) != null) {
+                throw new IOException("Duplicate customerId " + customerId);
+            }
         }
+        return result;
     }
 
     @Override
     public CustomerDto fetch(String customerId) {
-        simulateLatency();
+        SimulatedLatency.sleep(latencyMillis());
+        return customer(customerId);
+    }
+
+    @Override
+    public CompletableFuture<CustomerDto> fetchAsync(String customerId) {
+        return SimulatedLatency.after(latencyMillis(), () -> customer(customerId));
+    }
+
+    private CustomerDto customer(String customerId) {
         simulateFailure();
 
         return customers.get(customerId);
     }
 
-    private void simulateLatency() {
-        long delay = (long) (random.nextDouble() * MAX_DELAY_MS);
-        try {
-            Thread.sleep(MockCustomerClient.BASE_LATENCY_MS + delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    private long latencyMillis() {
+        return MockCustomerClient.BASE_LATENCY_MS + (long) (random.nextDouble() * MAX_DELAY_MS);
     }
 
     private void simulateFailure() {
@@ -0,0 +1,46 @@
+package com.project.aggregator.client.mock;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Admin endpoint for the mock data sources: {@code GET /actuator/mockdata} lists them,
+ * {@code POST /actuator/mockdata} with a JSON body of {@code {"source": "pricing.json"}} reloads
+ * one source, with {@code {}} all of them, and reports the outcome per file.
+ */
+@Component
+@Endpoint(id = "mockdata")
+@RequiredArgsConstructor
+public class MockDataEndpoint {
+
+    private final MockDataLoader dataLoader;
+
+    @ReadOperation
+    public Map<String, MockDataLoader.SourceStatus> sources() {
+        return dataLoader.status();
+    }
+
+    @WriteOperation
+    public Map<String, String> reload(@Nullable String source) {
+        Set<String> files = source != null ? Set.of(source) : dataLoader.sourceFiles();
+        Map<String, String> result = new LinkedHashMap<>();
+        for (String file : files) {
+            try {
+                dataLoader.reload(file).join();
+                result.put(file, "reloaded");
+            } catch (CompletionException e) {
+                result.put(file, "failed: " + e.getCause().getMessage());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,300 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Loads — and reloads — the mock-data files for the mock clients.
+ * <p>
+ * Each client registers its source from {@code @PostConstruct}; the file is parsed on a loader
+ * thread with a token-level reader that fills the client's final lookup structure directly, so
+ * the sources load in parallel and no intermediate object tree is built. Startup blocks in
+ * {@link #afterSingletonsInstantiated()} — before the web server starts — until every source is
+ * loaded, and fails if any of them could not be.
+ * <p>
+ * Files are resolved against {@code app.mock-data.location}. A source can be reloaded later
+ * through {@link #reload(String)} (see {@link MockDataEndpoint}) or, when the location is a
+ * directory and {@code app.mock-data.watch} is set, automatically when its file changes. A reload
+ * builds a complete new structure in the background and hands it to the client, which swaps it
+ * in with a single reference write; a failed reload keeps the previous data.
+ */
+@Component
+@Slf4j
+public class MockDataLoader implements SmartInitializingSingleton {
+
+    private static final long WATCH_DEBOUNCE_MS = 250;
+
+    private final JsonFactory jsonFactory;
+    private final ResourceLoader resourceLoader;
+    private final String location;
+    private final boolean watch;
+    private final ExecutorService executor;
+    private final Map<String, Source<?>> sources = new ConcurrentHashMap<>();
+    private final List<CompletableFuture<?>> pending = new CopyOnWriteArrayList<>();
+    private final AtomicLong firstStart = new AtomicLong();
+    private final AtomicLong lastFinish = new AtomicLong();
+    private final AtomicLong totalLoadNanos = new AtomicLong();
+
+    private volatile WatchService watchService;
+
+    public MockDataLoader(ObjectMapper objectMapper,
+                          ResourceLoader resourceLoader,
+                          @Value("${app.mock-data.location}") String location,
+                          @Value("${app.mock-data.watch}") boolean watch) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.resourceLoader = resourceLoader;
+        this.location = location.endsWith("/") ? location : location + "/";
+        this.watch = watch;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "mock-data-loader-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @FunctionalInterface
+    public interface Reader<T> {
+
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * State of one registered source, as reported by {@link MockDataEndpoint}.
+     */
+    public record SourceStatus(String file, Instant loadedAt, int loads, String lastError) {
+    }
+
+    /**
+     * Registers {@code file} (relative to the configured location) and parses it with
+     * {@code reader} on a loader thread, handing the result to {@code onLoaded} there before the
+     * load counts as complete. {@code onLoaded} is called again with a fresh result on every reload.
+     */
+    public <T> CompletableFuture<Void> load(String file, Reader<T> reader, Consumer<T> onLoaded) {
+        Source<T> source = new Source<>(file, reader, onLoaded);
+        if (sources.putIfAbsent(file, source) != null) {
+            throw new IllegalStateException("Mock data source " + file + " is already registered");
+        }
+        firstStart.compareAndSet(0, System.nanoTime());
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            source.run();
+            lastFinish.accumulateAndGet(System.nanoTime(), Math::max);
+        }, executor);
+        pending.add(future);
+        return future;
+    }
+
+    /**
+     * Re-parses a registered source in the background. The returned future fails, and the
+     * previous data stays in place, if the file cannot be read or parsed.
+     */
+    public CompletableFuture<Void> reload(String file) {
+        Source<?> source = sources.get(file);
+        if (source == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown mock data source " + file));
+        }
+        return CompletableFuture.runAsync(source::run, executor);
+    }
+
+    public Set<String> sourceFiles() {
+        return Set.copyOf(sources.keySet());
+    }
+
+    public Map<String, SourceStatus> status() {
+        Map<String, SourceStatus> status = new LinkedHashMap<>();
+        sources.values().forEach(source -> status.put(source.file, source.status()));
+        return status;
+    }
+
+    /**
+     * Waits for every source registered so far and rethrows the first failure.
+     */
+    public void awaitLoaded() {
+        try {
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Cannot initialize mock data", e.getCause());
+        }
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        awaitLoaded();
+        if (!pending.isEmpty()) {
+            log.info("Loaded {} mock data sources in {} ms (sequential parse time {} ms)",
+                    pending.size(), (lastFinish.get() - firstStart.get()) / 1_000_000,
+                    totalLoadNanos.get() / 1_000_000);
+        }
+        if (watch) {
+            startWatching();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                log.debug("Failed to close mock data watch service", e);
+            }
+        }
+        executor.shutdownNow();
+    }
+
+    private void startWatching() {
+        Path directory;
+        try {
+            Resource resource = resourceLoader.getResource(location);
+            if (!resource.isFile()) {
+                log.warn("app.mock-data.watch is set but {} is not a directory on the file system; not watching",
+                        location);
+                return;
+            }
+            directory = resource.getFile().toPath();
+            WatchService service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+        } catch (IOException e) {
+            log.warn("Unable to watch mock data location {}", location, e);
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(watchService), "mock-data-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for changes to {}", directory, sources.keySet());
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                Set<String> changed = new LinkedHashSet<>();
+                WatchKey key = service.take();
+                // editors and atomic moves produce bursts of events; collect them before reloading
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path path && sources.containsKey(path.toString())) {
+                            changed.add(path.toString());
+                        }
+                    }
+                    key.reset();
+                    key = service.poll(WATCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                for (String file : changed) {
+                    log.info("Detected change to {}, reloading", file);
+                    reload(file);
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            log.debug("Stopped watching mock data location {}", location);
+        }
+    }
+
+    private final class Source<T> {
+
+        private final String file;
+        private final Reader<T> reader;
+        private final Consumer<T> onLoaded;
+        private volatile Instant loadedAt;
+        private volatile int loads;
+        private volatile String lastError;
+
+        Source(String file, Reader<T> reader, Consumer<T> onLoaded) {
+            this.file = file;
+            this.reader = reader;
+            this.onLoaded = onLoaded;
+        }
+
+        /**
+         * Serialised per source, so the client always sees results in load order.
+         */
+        synchronized void run() {
+            long start = System.nanoTime();
+            T result;
+            try (InputStream in = resourceLoader.getResource(location + file).getInputStream();
+                 JsonParser parser = jsonFactory.createParser(in)) {
+                result = reader.read(parser);
+            } catch (IOException | RuntimeException e) {
+                lastError = e.toString();
+                log.error("Failed to load mock data {}{}", location, file, e);
+                throw new UncheckedIOException("Cannot load " + file,
+                        e instanceof IOException io ? io : new IOException(e));
+            }
+            long elapsed = System.nanoTime() - start;
+            totalLoadNanos.addAndGet(elapsed);
+            log.info("Parsed {} in {} ms", file, elapsed / 1_000_000);
+            onLoaded.accept(result);
+            loadedAt = Instant.now();
+            loads++;
+            lastError = null;
+        }
+
+        SourceStatus status() {
+            return new SourceStatus(file, loadedAt, loads, lastError);
+        }
+    }
+
+    static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.currentToken() != token) {
+            throw new IOException("Expected " + token + " but found " + parser.currentToken()
+                    + " at " + parser.currentLocation());
+        }
+    }
+
+    /**
+     * Reads an array of strings at the current token, or returns {@code null} for JSON null. Any
+     * element that is not a string, including null, is rejected.
+     */
+    static List<String> readStrings(JsonParser parser, UnaryOperator<String> intern) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(parser, JsonToken.VALUE_STRING);
+            values.add(intern.apply(parser.getValueAsString()));
+        }
+        return List.copyOf(values);
+    }
+}
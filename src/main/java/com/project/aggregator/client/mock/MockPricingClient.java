@@ -1,19 +1,18 @@
 package com.project.aggregator.client.mock;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.client.ProductDataChangedEvent;
 import com.project.aggregator.exception.UpstreamServiceException;
 import com.project.aggregator.model.PricingDto;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Simulates the Pricing Service.
@@ -21,9 +20,14 @@ import java.util.Random;
  * - Base latency: 80ms ± 15ms jitter
  * - Failure rate: 0.5% (reliability 99.5%)
  * - Returns market-specific currency
- * - Applies customer-segment discounts when customerId is provided
+ * - Applies the discount of the given customer segment, or of the segment guessed from the
+ *   customerId prefix when the caller does not know it
+ * - Prices are precomputed per (product, market, segment) at load time in a fixed-point {@link PriceTable}
+ * - {@link #fetchAsync} waits on a timer instead of a sleeping thread
+ * - Swaps in a rebuilt table when pricing.json is reloaded and announces the changed products
  */
 @Component
+@ConditionalOnProperty(name = "app.upstream.mode", havingValue = "mock", matchIfMissing = true)
 @Slf4j
 public class MockPricingClient implements PricingClient {
 
@@ -33,68 +37,57 @@ public class MockPricingClient implements PricingClient {
     private static final double FAILURE_RATE = 0.005;
 
     private final Random random = new Random();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockDataLoader dataLoader;
+    private final ApplicationEventPublisher eventPublisher;
 
-    // Loaded from JSON
-    private Map<String, BigDecimal> basePrices;
-    private Map<String, MarketConfig> marketConfig;
-    private Map<String, BigDecimal> segmentDiscounts;
+    private volatile PriceTable priceTable;
+
+    public MockPricingClient(MockDataLoader dataLoader, ApplicationEventPublisher eventPublisher) {
+        this.dataLoader = dataLoader;
+        this.eventPublisher = eventPublisher;
+    }
 
     @PostConstruct
     public void loadPricingData() {
-        try {
-            ClassPathResource resource = new ClassPathResource("mock-data/pricing.json");
-            PricingData data = objectMapper.readValue(resource.getInputStream(), PricingData.class);
-
-            this.basePrices = data.basePrices();
-            this.marketConfig = data.marketConfig();
-            this.segmentDiscounts = data.segmentDiscounts();
+        dataLoader.load("pricing.json", PriceTable::read, this::swap);
+    }
 
+    private void swap(PriceTable table) {
+        PriceTable previous = priceTable;
+        priceTable = table;
+        if (previous == null) {
             log.info("Loaded pricing data: {} products, {} markets, {} segments",
-                    basePrices.size(), marketConfig.size(), segmentDiscounts.size());
-        } catch (IOException e) {
-            log.error("Failed to load pricing mock data", e);
-            throw new IllegalStateException("Cannot initialize MockPricingClient", e);
+                    table.productCount(), table.marketCount(), table.segmentCount());
+            return;
+        }
+        Set<String> changed = table.changedProducts(previous);
+        log.info("Reloaded pricing data: {} products, {} markets, {} segments, {} products changed",
+                table.productCount(), table.marketCount(), table.segmentCount(), changed.size());
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new ProductDataChangedEvent("pricing", changed));
         }
     }
 
     @Override
-    public PricingDto fetch(String productId, String market, String customerId) {
-        simulateLatency();
-        simulateFailure();
-
-        BigDecimal baseEur = basePrices.getOrDefault(productId, new BigDecimal("99.99"));
-        MarketConfig mc = marketConfig.getOrDefault(market,
-                new MarketConfig("EUR", BigDecimal.ONE));
-
-        BigDecimal basePrice = baseEur.multiply(mc.exchangeRate())
-                .setScale(2, RoundingMode.HALF_UP);
-        BigDecimal discount = resolveDiscount(customerId);
-        BigDecimal finalPrice = basePrice
-                .multiply(BigDecimal.ONE.subtract(discount.divide(new BigDecimal("100"), 4, RoundingMode.HALF_UP)))
-                .setScale(2, RoundingMode.HALF_UP);
-
-        return new PricingDto(basePrice, discount, finalPrice);
+    public PricingDto fetch(String productId, String market, String customerId, String segment) {
+        SimulatedLatency.sleep(latencyMillis());
+        return price(productId, market, customerId, segment);
     }
 
-    private BigDecimal resolveDiscount(String customerId) {
-        if (customerId == null) return BigDecimal.ZERO;
+    @Override
+    public CompletableFuture<PricingDto> fetchAsync(String productId, String market, String customerId,
+                                                    String segment) {
+        return SimulatedLatency.after(latencyMillis(), () -> price(productId, market, customerId, segment));
+    }
 
-        // Extract segment from customerId prefix (e.g., DEALER-001 → DEALER)
-        String segment = customerId.contains("-")
-                ? customerId.substring(0, customerId.indexOf('-'))
-                : "STANDARD";
+    private PricingDto price(String productId, String market, String customerId, String segment) {
+        simulateFailure();
 
-        return segmentDiscounts.getOrDefault(segment, BigDecimal.ZERO);
+        return priceTable.price(productId, market, customerId, segment);
     }
 
-    void simulateLatency() {
-        long delay = (long) (random.nextDouble() * MAX_DELAY_MS);
-        try {
-            Thread.sleep(MockPricingClient.BASE_LATENCY_MS + delay);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    long latencyMillis() {
+        return MockPricingClient.BASE_LATENCY_MS + (long) (random.nextDouble() * MAX_DELAY_MS);
     }
 
     void simulateFailure() {
@@ -102,14 +95,4 @@ public class MockPricingClient implements PricingClient {
             throw new UpstreamServiceException(MockPricingClient.SERVICE, "Simulated transient failure");
         }
     }
-
-    private record PricingData(
-            Map<String, BigDecimal> basePrices,
-            Map<String, MarketConfig> marketConfig,
-            Map<String, BigDecimal> segmentDiscounts
-    ) {
-    }
-
-    private record MarketConfig(String currency, BigDecimal exchangeRate) {
-    }
 }
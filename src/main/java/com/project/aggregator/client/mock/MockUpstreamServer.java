@@ -0,0 +1,191 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.exception.UpstreamServiceException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the mock upstreams over HTTP for the Feign clients ({@code app.upstream.mode=http}), so
+ * that network, serialization and connection-pool overhead can be measured on one machine.
+ * <p>
+ * It runs the mock clients — with their data files, simulated latency and failures — outside of
+ * Spring, on the JDK HTTP server with a virtual thread per exchange:
+ * <pre>
+ * GET /catalog/{productId}?market=             200 CatalogDto, 404 unknown product
+ * GET /pricing/{productId}?market=&amp;customerId=&amp;segment=
+ *                                              200 PricingDto, 204 no price
+ * GET /availability/{productId}?market=        200 AvailabilityDto
+ * GET /customers/{customerId}                  200 CustomerDto, 204 unknown customer
+ * </pre>
+ * Simulated upstream failures are answered with 503. Connections are kept alive, and bodies of
+ * at least {@value #GZIP_MIN_BYTES} bytes are gzip-compressed when the client accepts it.
+ */
+@Slf4j
+public final class MockUpstreamServer implements AutoCloseable {
+
+    static final int GZIP_MIN_BYTES = 256;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ObjectMapper objectMapper;
+
+    public MockUpstreamServer(InetSocketAddress address, CatalogClient catalog, PricingClient pricing,
+                       AvailabilityClient availability, CustomerClient customers) throws IOException {
+        this.objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/catalog/", exchange -> handle(exchange,
+                (id, query) -> catalog.fetch(id, query.get("market"))));
+        server.createContext("/pricing/", exchange -> handle(exchange,
+                (id, query) -> pricing.fetch(id, query.get("market"), query.get("customerId"),
+                        query.get("segment"))));
+        server.createContext("/availability/", exchange -> handle(exchange,
+                (id, query) -> availability.fetch(id, query.get("market"))));
+        server.createContext("/customers/", exchange -> handle(exchange,
+                (id, query) -> customers.fetch(id)));
+    }
+
+    /**
+     * Starts a server backed by the mock clients and the mock data at {@code location}.
+     */
+    public static MockUpstreamServer start(int port, String location) throws IOException {
+        MockDataLoader loader = new MockDataLoader(new ObjectMapper(), new DefaultResourceLoader(), location, false);
+        MockCatalogClient catalog = new MockCatalogClient(loader, event -> { });
+        MockPricingClient pricing = new MockPricingClient(loader, event -> { });
+        MockCustomerClient customers = new MockCustomerClient(loader);
+        catalog.loadCatalogData();
+        pricing.loadPricingData();
+        customers.loadCustomerData();
+        loader.awaitLoaded();
+
+        MockUpstreamServer server = new MockUpstreamServer(new InetSocketAddress(port), catalog, pricing,
+                new MockAvailabilityClient(), customers);
+        server.start();
+        return server;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 2) {
+            System.err.println("Usage: MockUpstreamServer [port] [mock-data location]");
+            System.exit(2);
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8090;
+        String location = args.length > 1 ? args[1] : "classpath:mock-data/";
+        MockUpstreamServer server = start(port, location);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        log.info("Mock upstreams listening on http://localhost:{}/ with data from {}", server.port(), location);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+
+        Object handle(String id, Map<String, String> query);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, null);
+                return;
+            }
+            URI uri = exchange.getRequestURI();
+            String path = uri.getPath();
+            String id = path.substring(path.lastIndexOf('/') + 1);
+            if (id.isEmpty()) {
+                send(exchange, 400, Map.of("title", "Bad Request", "detail", "Missing id in " + path));
+                return;
+            }
+            Object body;
+            try {
+                body = handler.handle(id, query(uri.getRawQuery()));
+            } catch (ProductNotFoundException e) {
+                send(exchange, 404, Map.of("title", "Not Found", "detail", e.getMessage()));
+                return;
+            } catch (UpstreamServiceException e) {
+                send(exchange, 503, Map.of("title", "Service Unavailable", "detail", e.getMessage()));
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Mock upstream failed on {}", uri, e);
+                send(exchange, 500, Map.of("title", "Internal Server Error", "detail", String.valueOf(e)));
+                return;
+            }
+            send(exchange, body == null ? 204 : 200, body);
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, Object body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (bytes.length >= GZIP_MIN_BYTES && acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2);
+            try (OutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+}
@@ -0,0 +1,322 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.project.aggregator.model.PricingDto;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fixed-point pricing engine behind {@link MockPricingClient}.
+ * <p>
+ * All prices are stored as {@code long} minor units (hundredths) in flat arrays and computed once
+ * per (product, market, segment) when the data is loaded, so a lookup is two map probes, a short
+ * segment scan and an array read. {@link PricingDto} is only materialised at the edge.
+ * <p>
+ * The arithmetic reproduces the original {@code BigDecimal} pipeline bit for bit:
+ * <pre>
+ * basePrice  = (baseEur × exchangeRate).setScale(2, HALF_UP)
+ * discount%  = (discount ÷ 100).setScale(4, HALF_UP)
+ * finalPrice = (basePrice × (1 − discount%)).setScale(2, HALF_UP)
+ * </pre>
+ * Unknown products are priced at {@link #DEFAULT_BASE_PRICE}, unknown markets at EUR/1.0, and an
+ * anonymous customer or an unknown segment gets {@link BigDecimal#ZERO} discount — each of these
+ * defaults has its own precomputed row, column or slot.
+ */
+final class PriceTable {
+
+    static final BigDecimal DEFAULT_BASE_PRICE = new BigDecimal("99.99");
+    static final String STANDARD_SEGMENT = "STANDARD";
+
+    private static final int MINOR_SCALE = 2;
+    private static final int FACTOR_SCALE = 4;
+    private static final long FACTOR_ONE = 10_000L;
+    private static final long[] POW10 = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    private final Map<String, Integer> productIndex;
+    private final Map<String, Integer> marketIndex;
+    private final int defaultProduct;
+    private final int defaultMarket;
+    private final int markets;
+    /** Slot 0 is "no discount"; slots 1..n are the configured segments. */
+    private final String[] segments;
+    private final BigDecimal[] discounts;
+    /** [product * markets + market] */
+    private final long[] basePrices;
+    /** [(product * markets + market) * segments + segment] */
+    private final long[] finalPrices;
+
+    private PriceTable(Map<String, Integer> productIndex, Map<String, Integer> marketIndex, String[] segments,
+                       BigDecimal[] discounts, long[] basePrices, long[] finalPrices) {
+        this.productIndex = productIndex;
+        this.marketIndex = marketIndex;
+        this.defaultProduct = productIndex.size();
+        this.defaultMarket = marketIndex.size();
+        this.markets = marketIndex.size() + 1;
+        this.segments = segments;
+        this.discounts = discounts;
+        this.basePrices = basePrices;
+        this.finalPrices = finalPrices;
+    }
+
+    static PriceTable build(Map<String, BigDecimal> basePrices,
+                            Map<String, BigDecimal> exchangeRates,
+                            Map<String, BigDecimal> segmentDiscounts) {
+        List<String> productIds = List.copyOf(basePrices.keySet());
+        List<String> marketIds = List.copyOf(exchangeRates.keySet());
+        Map<String, Integer> productIndex = indexOf(productIds);
+        Map<String, Integer> marketIndex = indexOf(marketIds);
+
+        String[] segments = new String[segmentDiscounts.size() + 1];
+        BigDecimal[] discounts = new BigDecimal[segments.length];
+        long[] factors = new long[segments.length];
+        discounts[0] = BigDecimal.ZERO;
+        factors[0] = FACTOR_ONE;
+        int s = 1;
+        for (Map.Entry<String, BigDecimal> entry : segmentDiscounts.entrySet()) {
+            segments[s] = entry.getKey();
+            discounts[s] = entry.getValue();
+            // discount / 100 is the same unscaled value two decimal places further right
+            factors[s] = FACTOR_ONE - rescale(entry.getValue().unscaledValue().longValueExact(),
+                    entry.getValue().scale() + 2, FACTOR_SCALE);
+            s++;
+        }
+
+        int products = productIds.size() + 1;
+        int markets = marketIds.size() + 1;
+        long[] base = new long[products * markets];
+        long[] fin = new long[products * markets * segments.length];
+        for (int p = 0; p < products; p++) {
+            BigDecimal baseEur = p < productIds.size() ? basePrices.get(productIds.get(p)) : DEFAULT_BASE_PRICE;
+            for (int m = 0; m < markets; m++) {
+                BigDecimal rate = m < marketIds.size() ? exchangeRates.get(marketIds.get(m)) : BigDecimal.ONE;
+                int cell = p * markets + m;
+                base[cell] = basePrice(baseEur, rate);
+                for (int seg = 0; seg < segments.length; seg++) {
+                    fin[cell * segments.length + seg] = finalPrice(base[cell], factors[seg]);
+                }
+            }
+        }
+        return new PriceTable(productIndex, marketIndex, segments, discounts, base, fin);
+    }
+
+    /**
+     * Streams {@code pricing.json} token by token straight into the three source maps; the
+     * currency in {@code marketConfig} is not used by the table and unknown fields are skipped.
+     */
+    static PriceTable read(JsonParser parser) throws IOException {
+        Map<String, BigDecimal> basePrices = new LinkedHashMap<>();
+        Map<String, BigDecimal> exchangeRates = new LinkedHashMap<>();
+        Map<String, BigDecimal> segmentDiscounts = new LinkedHashMap<>();
+        parser.nextToken();
+        MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "basePrices" -> readDecimals(parser, basePrices);
+                case "marketConfig" -> readExchangeRates(parser, exchangeRates);
+                case "segmentDiscounts" -> readDecimals(parser, segmentDiscounts);
+                default -> parser.skipChildren();
+            }
+        }
+        return build(basePrices, exchangeRates, segmentDiscounts);
+    }
+
+    private static void readDecimals(JsonParser parser, Map<String, BigDecimal> target) throws IOException {
+        MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            target.put(key, parser.getDecimalValue());
+        }
+    }
+
+    private static void readExchangeRates(JsonParser parser, Map<String, BigDecimal> target) throws IOException {
+        MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String market = parser.currentName();
+            parser.nextToken();
+            MockDataLoader.expect(parser, JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (field.equals("exchangeRate")) {
+                    target.put(market, parser.getDecimalValue());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    PricingDto price(String productId, String market, String customerId) {
+        return price(productId, market, customerId, null);
+    }
+
+    /**
+     * Prices for {@code segment} when the caller knows it, otherwise for the segment guessed from
+     * the customer ID; a segment without a configured discount gets none.
+     */
+    PricingDto price(String productId, String market, String customerId, String segmentName) {
+        Integer p = productIndex.get(productId);
+        Integer m = marketIndex.get(market);
+        int cell = (p != null ? p : defaultProduct) * markets + (m != null ? m : defaultMarket);
+        int segment = segmentName != null ? segmentIndex(segmentName) : segmentOf(customerId);
+        return new PricingDto(
+                BigDecimal.valueOf(basePrices[cell], MINOR_SCALE),
+                discounts[segment],
+                BigDecimal.valueOf(finalPrices[cell * segments.length + segment], MINOR_SCALE));
+    }
+
+    /**
+     * Products whose price differs from {@code previous} for any known market (or the default
+     * market) and any configured segment (or no segment), including added and removed products.
+     * A changed exchange rate or discount therefore marks every affected product.
+     */
+    Set<String> changedProducts(PriceTable previous) {
+        Set<String> productIds = new HashSet<>(productIndex.keySet());
+        productIds.addAll(previous.productIndex.keySet());
+        Set<String> markets = new HashSet<>(marketIndex.keySet());
+        markets.addAll(previous.marketIndex.keySet());
+        markets.add(null);
+        List<String> customers = new ArrayList<>();
+        customers.add(null);
+        for (String[] segmentNames : List.of(segments, previous.segments)) {
+            for (int s = 1; s < segmentNames.length; s++) {
+                customers.add(segmentNames[s] + "-0");
+            }
+        }
+
+        Set<String> changed = new HashSet<>();
+        for (String productId : productIds) {
+            if (productIndex.containsKey(productId) != previous.productIndex.containsKey(productId)) {
+                changed.add(productId);
+                continue;
+            }
+            search:
+            for (String market : markets) {
+                for (String customerId : customers) {
+                    if (!price(productId, market, customerId).equals(previous.price(productId, market, customerId))) {
+                        changed.add(productId);
+                        break search;
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    int productCount() {
+        return productIndex.size();
+    }
+
+    int marketCount() {
+        return marketIndex.size();
+    }
+
+    int segmentCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * Segment slot for a customer: the ID prefix before the first '-' (e.g. DEALER-001 → DEALER),
+     * {@value #STANDARD_SEGMENT} for IDs without one, slot 0 for anonymous or unknown segments.
+     * Compares in place, so no prefix substring is allocated.
+     */
+    private int segmentOf(String customerId) {
+        if (customerId == null) {
+            return 0;
+        }
+        int dash = customerId.indexOf('-');
+        for (int s = 1; s < segments.length; s++) {
+            String segment = segments[s];
+            if (dash < 0 ? segment.equals(STANDARD_SEGMENT)
+                    : segment.length() == dash && customerId.startsWith(segment)) {
+                return s;
+            }
+        }
+        return 0;
+    }
+
+    private int segmentIndex(String segmentName) {
+        for (int s = 1; s < segments.length; s++) {
+            if (segments[s].equals(segmentName)) {
+                return s;
+            }
+        }
+        return 0;
+    }
+
+    private static long basePrice(BigDecimal baseEur, BigDecimal rate) {
+        try {
+            long product = Math.multiplyExact(baseEur.unscaledValue().longValueExact(),
+                    rate.unscaledValue().longValueExact());
+            return rescale(product, baseEur.scale() + rate.scale(), MINOR_SCALE);
+        } catch (ArithmeticException overflow) {
+            return baseEur.multiply(rate).setScale(MINOR_SCALE, RoundingMode.HALF_UP)
+                    .unscaledValue().longValueExact();
+        }
+    }
+
+    private static long finalPrice(long baseMinor, long factor) {
+        try {
+            return rescale(Math.multiplyExact(baseMinor, factor), MINOR_SCALE + FACTOR_SCALE, MINOR_SCALE);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(baseMinor, MINOR_SCALE).multiply(BigDecimal.valueOf(factor, FACTOR_SCALE))
+                    .setScale(MINOR_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        }
+    }
+
+    /**
+     * {@code BigDecimal.valueOf(unscaled, fromScale).setScale(toScale, HALF_UP).unscaledValue()}
+     * in plain {@code long} arithmetic. Throws {@link ArithmeticException} on overflow.
+     */
+    static long rescale(long unscaled, int fromScale, int toScale) {
+        int shift = fromScale - toScale;
+        if (shift <= 0) {
+            return Math.multiplyExact(unscaled, pow10(-shift));
+        }
+        if (shift >= POW10.length) {
+            // |unscaled| < 10^19: only a shift of exactly 19 can still round up to ±1
+            boolean roundsUp = shift == POW10.length && Math.abs(unscaled) >= 5 * POW10[POW10.length - 1];
+            return roundsUp ? (unscaled < 0 ? -1 : 1) : 0;
+        }
+        long divisor = POW10[shift];
+        long quotient = unscaled / divisor;
+        long remainder = Math.abs(unscaled % divisor);
+        if (remainder >= divisor - remainder) {
+            // HALF_UP: ties (and above) round away from zero
+            quotient += unscaled < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    private static long pow10(int exponent) {
+        if (exponent >= POW10.length) {
+            throw new ArithmeticException("10^" + exponent + " overflows long");
+        }
+        return POW10[exponent];
+    }
+
+    private static Map<String, Integer> indexOf(List<String> keys) {
+        Map<String, Integer> index = HashMap.newHashMap(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            index.put(keys.get(i), i);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.aggregator.client.mock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Simulated upstream latency for the mock clients.
+ * <p>
+ * The async path schedules the answer on a single timer thread instead of sleeping, so any number
+ * of calls can be in flight without a thread each. The lookups it runs are in-memory and cheap;
+ * callbacks chained without an executor run on the timer thread too and must not block.
+ */
+final class SimulatedLatency {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mock-upstream-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SimulatedLatency() {
+    }
+
+    /**
+     * Completes with the value of {@code answer} after {@code delayMillis}, or exceptionally if it throws.
+     */
+    static <T> CompletableFuture<T> after(long delayMillis, Supplier<T> answer) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        TIMER.schedule(() -> {
+            try {
+                future.complete(answer.get());
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        return future;
+    }
+
+    /**
+     * Blocks the calling thread for {@code delayMillis}, for the synchronous {@code fetch}.
+     */
+    static void sleep(long delayMillis) {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.project.aggregator.client.stock;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the inventory system's stock feed. It seeds a random level between 0
+ * and 249 for every product and warehouse, then publishes random changes at a fixed rate.
+ * <p>
+ * A share of the events can be dropped on the way ({@code dropRate}), so that the table's gap
+ * detection and resync are exercised. The products are read on the first snapshot or tick that
+ * finds the catalog loaded. Until then snapshots fail, so that the table retries rather than
+ * loading every product at stock 0, and ticks publish nothing.
+ */
+@Slf4j
+public final class SimulatedStockEventSource implements StockEventSource {
+
+    static final int MAX_STOCK = 250;
+
+    private final Supplier<? extends Collection<String>> productIds;
+    private final List<String> warehouses;
+    private final double dropRate;
+    private final Random random = new Random();
+    private final ScheduledExecutorService executor;
+    private final Map<String, Map<String, Integer>> levels = new HashMap<>();
+    private final List<String> products = new ArrayList<>();
+
+    private boolean seeded;
+    private long sequence;
+    private volatile Consumer<StockEvent> listener;
+
+    /**
+     * @param eventsPerSecond rate of random changes, 0 for none: only {@link #publish} then changes stock
+     * @param dropRate        share of events not delivered to the listener
+     */
+    public SimulatedStockEventSource(Supplier<? extends Collection<String>> productIds, Collection<String> warehouses,
+                                     double eventsPerSecond, double dropRate) {
+        this.productIds = productIds;
+        this.warehouses = List.copyOf(warehouses);
+        this.dropRate = dropRate;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "stock-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (eventsPerSecond > 0) {
+            long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / eventsPerSecond);
+            executor.scheduleAtFixedRate(this::publishRandom, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<StockEvent> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public synchronized StockSnapshot snapshot() {
+        if (!seed()) {
+            throw new IllegalStateException("Catalog has not listed its products yet");
+        }
+        Map<String, Map<String, Integer>> copy = HashMap.newHashMap(levels.size());
+        levels.forEach((productId, byWarehouse) -> copy.put(productId, Map.copyOf(byWarehouse)));
+        return new StockSnapshot(sequence, copy);
+    }
+
+    /**
+     * Sets a stock level as the inventory system would, and publishes the change.
+     */
+    public synchronized StockEvent publish(String productId, String warehouse, int stock) {
+        seed();
+        StockEvent event = new StockEvent(++sequence, productId, warehouse, stock);
+        levels.computeIfAbsent(productId, id -> new HashMap<>()).put(warehouse, stock);
+        Consumer<StockEvent> current = listener;
+        // delivered under the lock, so listeners see the events in sequence order
+        if (current != null && (dropRate <= 0 || random.nextDouble() >= dropRate)) {
+            current.accept(event);
+        }
+        return event;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private synchronized void publishRandom() {
+        try {
+            if (!seed() || products.isEmpty() || warehouses.isEmpty()) {
+                return;
+            }
+            publish(products.get(random.nextInt(products.size())), warehouses.get(random.nextInt(warehouses.size())),
+                    random.nextInt(MAX_STOCK));
+        } catch (RuntimeException e) {
+            log.warn("Stock listener failed", e);
+        }
+    }
+
+    /**
+     * Seeds the levels from the catalog's products, unless done already.
+     *
+     * @return whether the levels are seeded; false while the catalog cannot list its products
+     */
+    private boolean seed() {
+        if (seeded) {
+            return true;
+        }
+        Collection<String> known;
+        try {
+            known = productIds.get();
+        } catch (RuntimeException e) {
+            log.debug("Catalog cannot list its products yet: {}", e.toString());
+            return false;
+        }
+        if (known == null) {
+            return false;
+        }
+        products.addAll(known);
+        for (String productId : products) {
+            Map<String, Integer> byWarehouse = levels.computeIfAbsent(productId, id -> new HashMap<>());
+            for (String warehouse : warehouses) {
+                // levels published before the catalog loaded are kept
+                byWarehouse.putIfAbsent(warehouse, random.nextInt(MAX_STOCK));
+            }
+        }
+        seeded = true;
+        return true;
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.aggregator.client.stock;
+
+/**
+ * A stock level change, numbered by its {@link StockEventSource}: consecutive events have
+ * consecutive sequence numbers, so a missing one shows up as a gap.
+ */
+public record StockEvent(long sequence, String productId, String warehouse, int stock) {
+}
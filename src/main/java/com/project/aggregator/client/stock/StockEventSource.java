@@ -0,0 +1,26 @@
+package com.project.aggregator.client.stock;
+
+import java.util.function.Consumer;
+
+/**
+ * Feed of stock level changes for a {@link StockTable}, e.g. a topic of the inventory system. The
+ * table subscribes before it takes a snapshot, so that no change falls between the two.
+ */
+public interface StockEventSource extends AutoCloseable {
+
+    /**
+     * Registers the single listener for events published from now on. Events are delivered in
+     * sequence order, one at a time; events lost on the way show up as sequence gaps.
+     */
+    void subscribe(Consumer<StockEvent> listener);
+
+    /**
+     * Reads every stock level as of the latest event.
+     *
+     * @throws RuntimeException if the levels cannot be read; the table retries later
+     */
+    StockSnapshot snapshot();
+
+    @Override
+    void close();
+}
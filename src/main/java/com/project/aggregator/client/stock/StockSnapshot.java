@@ -0,0 +1,9 @@
+package com.project.aggregator.client.stock;
+
+import java.util.Map;
+
+/**
+ * Every stock level, by productId and then warehouse, after the event numbered {@code sequence}.
+ */
+public record StockSnapshot(long sequence, Map<String, Map<String, Integer>> levels) {
+}
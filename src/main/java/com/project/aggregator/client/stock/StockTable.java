@@ -0,0 +1,223 @@
+package com.project.aggregator.client.stock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock levels by productId and warehouse, kept current by the events of a {@link StockEventSource}
+ * so that reads never leave the JVM.
+ * <p>
+ * Bootstrap is snapshot plus delta: the table subscribes first and buffers events, reads a
+ * snapshot, then replays the buffered events numbered after it. From then on every event must
+ * carry the next sequence number. Duplicates are ignored. A gap means a lost change, so the table
+ * buffers again and resynchronises from a fresh snapshot. Meanwhile it keeps answering from the
+ * levels it has, flagged by {@link #outOfSyncSince()}.
+ * <p>
+ * Events arrive on the source's thread. Replacing the levels and applying events happens under one
+ * lock. Readers take no lock.
+ */
+@Slf4j
+public final class StockTable implements AutoCloseable {
+
+    /**
+     * Events buffered while a snapshot is read; beyond this the snapshot is too old to catch up
+     * from and is read again.
+     */
+    static final int MAX_BUFFERED = 100_000;
+
+    private final StockEventSource source;
+    private final Duration retryDelay;
+    private final ScheduledExecutorService bootstrapper;
+    private final Object lock = new Object();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder gaps = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    private volatile Map<String, Map<String, Integer>> levels = new ConcurrentHashMap<>();
+    private volatile long sequence = -1;
+    private volatile boolean loaded;
+    private volatile Instant outOfSyncSince = Instant.now();
+    // guarded by lock; not null while a snapshot is awaited
+    private List<StockEvent> buffer;
+    private boolean overflowed;
+
+    /**
+     * @param retryDelay wait before reading the snapshot again after it failed
+     */
+    public StockTable(StockEventSource source, Duration retryDelay) {
+        this.source = source;
+        this.retryDelay = retryDelay;
+        this.bootstrapper = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "stock-bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribes to the source and loads the first snapshot on the calling thread, once the mock
+     * data has loaded and before the application reports ready. If the snapshot fails, it is
+     * retried in the background.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        synchronized (lock) {
+            buffer = new ArrayList<>();
+        }
+        source.subscribe(this::onEvent);
+        bootstrap();
+    }
+
+    /**
+     * Stock of the product in the warehouse, 0 when the table has no level for it: the snapshot
+     * holds every level the inventory system knows.
+     */
+    public int stock(String productId, String warehouse) {
+        Map<String, Integer> byWarehouse = levels.get(productId);
+        Integer stock = byWarehouse == null ? null : byWarehouse.get(warehouse);
+        return stock == null ? 0 : stock;
+    }
+
+    /**
+     * Whether a snapshot has been loaded, so that {@link #stock} answers from real data.
+     */
+    public boolean loaded() {
+        return loaded;
+    }
+
+    /**
+     * When the table lost track of the feed, null while it is in sync.
+     */
+    public Instant outOfSyncSince() {
+        return outOfSyncSince;
+    }
+
+    public long sequence() {
+        return sequence;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<String, Integer> byWarehouse : levels.values()) {
+            size += byWarehouse.size();
+        }
+        return size;
+    }
+
+    public long appliedCount() {
+        return applied.sum();
+    }
+
+    public long duplicateCount() {
+        return duplicates.sum();
+    }
+
+    public long gapCount() {
+        return gaps.sum();
+    }
+
+    public long resyncCount() {
+        return resyncs.sum();
+    }
+
+    void onEvent(StockEvent event) {
+        synchronized (lock) {
+            if (buffer != null) {
+                if (buffer.size() < MAX_BUFFERED) {
+                    buffer.add(event);
+                } else {
+                    overflowed = true;
+                }
+                return;
+            }
+            if (event.sequence() <= sequence) {
+                duplicates.increment();
+                return;
+            }
+            if (event.sequence() != sequence + 1) {
+                gaps.increment();
+                log.warn("Stock event gap: expected sequence {}, got {}; resynchronising", sequence + 1,
+                        event.sequence());
+                outOfSyncSince = Instant.now();
+                resyncs.increment();
+                buffer = new ArrayList<>();
+                buffer.add(event);
+                bootstrapper.execute(this::bootstrap);
+                return;
+            }
+            levels.computeIfAbsent(event.productId(), id -> new ConcurrentHashMap<>())
+                    .put(event.warehouse(), event.stock());
+            sequence = event.sequence();
+            applied.increment();
+        }
+    }
+
+    private void bootstrap() {
+        StockSnapshot snapshot;
+        try {
+            snapshot = source.snapshot();
+        } catch (RuntimeException e) {
+            log.warn("Reading the stock snapshot failed, retrying in {}: {}", retryDelay, e.toString());
+            bootstrapper.schedule(this::bootstrap, retryDelay.toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+        synchronized (lock) {
+            if (overflowed) {
+                log.warn("More than {} stock events arrived while reading the snapshot, reading it again",
+                        MAX_BUFFERED);
+                overflowed = false;
+                buffer = new ArrayList<>();
+                bootstrapper.execute(this::bootstrap);
+                return;
+            }
+            Map<String, Map<String, Integer>> rebuilt = new ConcurrentHashMap<>(snapshot.levels().size());
+            snapshot.levels().forEach((productId, byWarehouse) ->
+                    rebuilt.put(productId, new ConcurrentHashMap<>(byWarehouse)));
+            long replayed = snapshot.sequence();
+            for (int i = 0; i < buffer.size(); i++) {
+                StockEvent event = buffer.get(i);
+                if (event.sequence() <= replayed) {
+                    continue;
+                }
+                if (event.sequence() != replayed + 1) {
+                    // lost after the snapshot was taken: a newer snapshot covers it
+                    gaps.increment();
+                    log.warn("Stock event gap after snapshot {}: expected sequence {}, got {}; reading it again",
+                            snapshot.sequence(), replayed + 1, event.sequence());
+                    buffer = new ArrayList<>(buffer.subList(i, buffer.size()));
+                    bootstrapper.execute(this::bootstrap);
+                    return;
+                }
+                rebuilt.computeIfAbsent(event.productId(), id -> new ConcurrentHashMap<>())
+                        .put(event.warehouse(), event.stock());
+                replayed = event.sequence();
+                applied.increment();
+            }
+            buffer = null;
+            levels = rebuilt;
+            sequence = replayed;
+            loaded = true;
+            outOfSyncSince = null;
+        }
+        log.info("Stock table in sync at sequence {} with {} levels", sequence, size());
+    }
+
+    @Override
+    public void close() {
+        bootstrapper.shutdownNow();
+        source.close();
+    }
+}
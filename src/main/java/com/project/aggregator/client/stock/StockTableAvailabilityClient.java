@@ -0,0 +1,59 @@
+package com.project.aggregator.client.stock;
+
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.exception.UpstreamServiceException;
+import com.project.aggregator.model.AvailabilityDto;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Availability answered from the {@link StockTable} ({@code app.availability.source=stream}) instead
+ * of an upstream call. The market's warehouse is looked up in memory, and its stock comes back as
+ * a completed future.
+ * <p>
+ * While the table is resynchronising, its levels are returned stale as of the moment it lost the
+ * feed. Until the first snapshot has loaded, the fetch fails like an unavailable upstream, so the
+ * service falls back to last known good stock.
+ */
+public class StockTableAvailabilityClient implements AvailabilityClient {
+
+    private final StockTable table;
+    private final Map<String, String> warehouses;
+    private final String defaultWarehouse;
+
+    /**
+     * @param warehouses       warehouse serving each market
+     * @param defaultWarehouse warehouse for the other markets
+     */
+    public StockTableAvailabilityClient(StockTable table, Map<String, String> warehouses, String defaultWarehouse) {
+        this.table = table;
+        this.warehouses = Map.copyOf(warehouses);
+        this.defaultWarehouse = defaultWarehouse;
+    }
+
+    @Override
+    public AvailabilityDto fetch(String productId, String market) {
+        if (!table.loaded()) {
+            throw new UpstreamServiceException("AvailabilityService", "Stock table has not loaded yet");
+        }
+        String warehouse = warehouses.getOrDefault(market, defaultWarehouse);
+        int stock = table.stock(productId, warehouse);
+        // as the availability upstream: next day from stock, otherwise after restocking
+        Instant expectedDelivery = Instant.now().plus(stock > 0 ? 1 : 3, ChronoUnit.DAYS);
+        AvailabilityDto availability = new AvailabilityDto(stock, warehouse, expectedDelivery);
+        Instant outOfSyncSince = table.outOfSyncSince();
+        return outOfSyncSince == null ? availability : availability.asStale(outOfSyncSince);
+    }
+
+    @Override
+    public CompletableFuture<AvailabilityDto> fetchAsync(String productId, String market) {
+        try {
+            return CompletableFuture.completedFuture(fetch(productId, market));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.project.aggregator.client.store;
+
+/**
+ * On-disk layout of the binary catalog store shared by {@link CatalogStoreWriter} and
+ * {@link MappedCatalogStore}. All multi-byte numbers are big-endian.
+ * <pre>
+ * header   (64 bytes)  magic, version, chunkBits, productCount, marketsOffset, marketCount,
+ *                      indexSlots, indexOffset, fileLength
+ * records  (variable)  one per product, never crossing a chunk boundary
+ * markets  (variable)  marketCount strings; a record refers to a locale by its position here
+ * index    (16 bytes × indexSlots) open-addressing table of (productId hash, record offset),
+ *                      offset 0 marks an empty slot
+ * </pre>
+ * A record is: productId, names, descriptions, specs, images. Strings are a varint of
+ * {@code length + 1} (0 for null) followed by UTF-8 bytes; collections are a varint of
+ * {@code size + 1} (0 for null) followed by their entries. Translation entries are
+ * (varint locale, string) pairs in the order they appear in {@code catalog.json}.
+ */
+final class CatalogStoreFormat {
+
+    static final int MAGIC = 0x43544C47; // "CTLG"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 16;
+    static final int DEFAULT_CHUNK_BITS = 30;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int CHUNK_BITS_OFFSET = 8;
+    static final int PRODUCT_COUNT_OFFSET = 12;
+    static final int MARKETS_OFFSET_OFFSET = 16;
+    static final int MARKET_COUNT_OFFSET = 24;
+    static final int INDEX_SLOTS_OFFSET = 28;
+    static final int INDEX_OFFSET_OFFSET = 32;
+    static final int FILE_LENGTH_OFFSET = 40;
+
+    static final String FALLBACK_LOCALE = "en-GB";
+
+    private CatalogStoreFormat() {
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 code units of the product id, so a lookup can hash the
+     * requested id without encoding it.
+     */
+    static long hash(String productId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < productId.length(); i++) {
+            hash ^= productId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static int indexSlots(int productCount) {
+        int slots = Integer.highestOneBit(Math.max(8, productCount) * 2 - 1) << 1;
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Too many products for one store: " + productCount);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,347 @@
+package com.project.aggregator.client.store;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.client.mock.CatalogTemplate;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import static com.project.aggregator.client.store.CatalogStoreFormat.CHUNK_BITS_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.DEFAULT_CHUNK_BITS;
+import static com.project.aggregator.client.store.CatalogStoreFormat.FILE_LENGTH_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.HEADER_SIZE;
+import static com.project.aggregator.client.store.CatalogStoreFormat.INDEX_OFFSET_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.INDEX_SLOTS_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MAGIC;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MAGIC_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MARKETS_OFFSET_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MARKET_COUNT_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.PRODUCT_COUNT_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.SLOT_SIZE;
+import static com.project.aggregator.client.store.CatalogStoreFormat.VERSION;
+import static com.project.aggregator.client.store.CatalogStoreFormat.VERSION_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.indexSlots;
+
+/**
+ * Offline builder that turns a {@code catalog.json} document into the binary store read by
+ * {@link MappedCatalogStore}.
+ * <p>
+ * Products are streamed from the JSON array one at a time and written straight to disk; only
+ * the hash and offset of each record (16 bytes per product) and the list of locales are kept in
+ * memory until the index is written at the end. Should two product ids share a hash, their ids
+ * are read back from the file to tell a duplicate from a collision. The store is written to a temporary file next to
+ * the target and moved into place, so a running service never maps a half-written file.
+ * <p>
+ * Run it against a packaged build with
+ * {@code java -cp aggregatorAPI.jar -Dloader.main=com.project.aggregator.client.store.CatalogStoreWriter
+ * org.springframework.boot.loader.launch.PropertiesLauncher catalog.json catalog.bin}.
+ */
+@Slf4j
+public final class CatalogStoreWriter {
+
+    private static final int MIN_CHUNK_BITS = 12;
+
+    private final ObjectMapper objectMapper;
+    private final int chunkBits;
+    private final ToLongFunction<String> hash;
+
+    public CatalogStoreWriter(ObjectMapper objectMapper) {
+        this(objectMapper, DEFAULT_CHUNK_BITS);
+    }
+
+    CatalogStoreWriter(ObjectMapper objectMapper, int chunkBits) {
+        this(objectMapper, chunkBits, CatalogStoreFormat::hash);
+    }
+
+    /**
+     * @param hash the index hash; only tests replace {@link CatalogStoreFormat#hash}
+     */
+    CatalogStoreWriter(ObjectMapper objectMapper, int chunkBits, ToLongFunction<String> hash) {
+        if (chunkBits < MIN_CHUNK_BITS || chunkBits > DEFAULT_CHUNK_BITS) {
+            throw new IllegalArgumentException("chunkBits must be between " + MIN_CHUNK_BITS
+                    + " and " + DEFAULT_CHUNK_BITS);
+        }
+        this.objectMapper = objectMapper;
+        this.chunkBits = chunkBits;
+        this.hash = hash;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: CatalogStoreWriter <catalog.json> <catalog.bin>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        try (InputStream json = Files.newInputStream(Path.of(args[0]))) {
+            int products = new CatalogStoreWriter(new ObjectMapper()).write(json, Path.of(args[1]));
+            log.info("Wrote {} products to {} in {} ms", products, args[1],
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Writes the store and returns the number of distinct products in it. When a product id
+     * occurs more than once, the last occurrence wins.
+     */
+    public int write(InputStream json, Path target) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            int products;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                products = write(json, channel);
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return products;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private int write(InputStream json, FileChannel channel) throws IOException {
+        channel.position(HEADER_SIZE);
+        ChunkedOutput out = new ChunkedOutput(Channels.newOutputStream(channel), HEADER_SIZE, 1L << chunkBits);
+        RecordBuffer record = new RecordBuffer();
+        Map<String, Integer> locales = new LinkedHashMap<>();
+        long[] hashes = new long[1024];
+        long[] offsets = new long[1024];
+        int count = 0;
+
+        try (MappingIterator<CatalogTemplate> templates =
+                     objectMapper.readerFor(CatalogTemplate.class).readValues(json)) {
+            while (templates.hasNextValue()) {
+                CatalogTemplate template = templates.nextValue();
+                if (template.productId() == null) {
+                    throw new IOException("Catalog entry without productId at position " + count);
+                }
+                record.reset();
+                record.writeString(template.productId());
+                writeTranslations(record, template.names(), locales);
+                writeTranslations(record, template.descriptions(), locales);
+                writeSpecs(record, template.specs());
+                writeImages(record, template.images());
+
+                if (count == hashes.length) {
+                    hashes = Arrays.copyOf(hashes, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                hashes[count] = hash.applyAsLong(template.productId());
+                offsets[count] = out.writeRecord(record);
+                count++;
+            }
+        }
+
+        record.reset();
+        for (String locale : locales.keySet()) {
+            record.writeString(locale);
+        }
+        long marketsOffset = out.writeRecord(record);
+        // colliding hashes are resolved by reading the records back
+        out.flush();
+
+        int slots = indexSlots(count);
+        long[] slotHashes = new long[slots];
+        long[] slotOffsets = new long[slots];
+        int products = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = (int) hashes[i] & (slots - 1);
+            while (slotOffsets[slot] != 0 && (slotHashes[slot] != hashes[i]
+                    || !productId(channel, slotOffsets[slot]).equals(productId(channel, offsets[i])))) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            if (slotOffsets[slot] == 0) {
+                products++;
+            }
+            slotHashes[slot] = hashes[i];
+            slotOffsets[slot] = offsets[i];
+        }
+
+        long indexOffset = out.alignTo(SLOT_SIZE);
+        for (int slot = 0; slot < slots; slot++) {
+            out.writeLong(slotHashes[slot]);
+            out.writeLong(slotOffsets[slot]);
+        }
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC_OFFSET, MAGIC)
+                .putInt(VERSION_OFFSET, VERSION)
+                .putInt(CHUNK_BITS_OFFSET, chunkBits)
+                .putInt(PRODUCT_COUNT_OFFSET, products)
+                .putLong(MARKETS_OFFSET_OFFSET, marketsOffset)
+                .putInt(MARKET_COUNT_OFFSET, locales.size())
+                .putInt(INDEX_SLOTS_OFFSET, slots)
+                .putLong(INDEX_OFFSET_OFFSET, indexOffset)
+                .putLong(FILE_LENGTH_OFFSET, out.position());
+        channel.write(header, 0);
+        return products;
+    }
+
+    /**
+     * Reads the product id that starts the record at {@code offset}.
+     */
+    private static String productId(FileChannel channel, long offset) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(5);
+        channel.read(prefix, offset);
+        int length = 0;
+        int read = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = prefix.get(read++);
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(length - 1);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, offset + read + bytes.position()) < 0) {
+                throw new IOException("Catalog record at " + offset + " ends before its product id");
+            }
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    private static void writeTranslations(RecordBuffer record, Map<String, String> translations,
+                                          Map<String, Integer> locales) {
+        if (translations == null) {
+            record.writeVarint(0);
+            return;
+        }
+        record.writeVarint(translations.size() + 1);
+        for (Map.Entry<String, String> entry : translations.entrySet()) {
+            Integer locale = locales.computeIfAbsent(entry.getKey(), key -> locales.size());
+            record.writeVarint(locale);
+            record.writeString(entry.getValue());
+        }
+    }
+
+    private static void writeSpecs(RecordBuffer record, Map<String, String> specs) {
+        if (specs == null) {
+            record.writeVarint(0);
+            return;
+        }
+        record.writeVarint(specs.size() + 1);
+        for (Map.Entry<String, String> entry : specs.entrySet()) {
+            record.writeString(entry.getKey());
+            record.writeString(entry.getValue());
+        }
+    }
+
+    private static void writeImages(RecordBuffer record, List<String> images) {
+        if (images == null) {
+            record.writeVarint(0);
+            return;
+        }
+        record.writeVarint(images.size() + 1);
+        for (String image : images) {
+            record.writeString(image);
+        }
+    }
+
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+
+        RecordBuffer() {
+            super(1024);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            write(bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * Tracks the file position and pads so that no record straddles two mapped chunks.
+     */
+    private static final class ChunkedOutput {
+
+        private final OutputStream out;
+        private final long chunkSize;
+        private final byte[] scratch = new byte[8];
+        private long position;
+
+        ChunkedOutput(OutputStream out, long position, long chunkSize) {
+            this.out = new BufferedOutputStream(out, 64 * 1024);
+            this.position = position;
+            this.chunkSize = chunkSize;
+        }
+
+        long position() {
+            return position;
+        }
+
+        long writeRecord(RecordBuffer record) throws IOException {
+            int length = record.size();
+            if (length > chunkSize) {
+                throw new IOException("Catalog record of " + length + " bytes exceeds chunk size " + chunkSize);
+            }
+            long inChunk = position & (chunkSize - 1);
+            if (inChunk + length > chunkSize) {
+                pad(chunkSize - inChunk);
+            }
+            long offset = position;
+            record.writeTo(out);
+            position += length;
+            return offset;
+        }
+
+        long alignTo(int alignment) throws IOException {
+            long remainder = position % alignment;
+            if (remainder != 0) {
+                pad(alignment - remainder);
+            }
+            return position;
+        }
+
+        void writeLong(long value) throws IOException {
+            for (int i = 7; i >= 0; i--) {
+                scratch[7 - i] = (byte) (value >>> (i * 8));
+            }
+            out.write(scratch, 0, 8);
+            position += 8;
+        }
+
+        void flush() throws IOException {
+            out.flush();
+        }
+
+        private void pad(long bytes) throws IOException {
+            for (long i = 0; i < bytes; i++) {
+                out.write(0);
+            }
+            position += bytes;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.aggregator.client.store;
+
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.model.CatalogDto;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * Catalog client backed by a memory-mapped {@link MappedCatalogStore}, for assortments too large
+ * to keep on the heap. Enabled with {@code app.catalog.store=mapped}; the store file is built
+ * offline with {@link CatalogStoreWriter}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.catalog.store", havingValue = "mapped")
+@Slf4j
+public class MappedCatalogClient implements CatalogClient {
+
+    private final Path storeFile;
+
+    private MappedCatalogStore store;
+
+    public MappedCatalogClient(@Value("${app.catalog.mapped-file}") Path storeFile) {
+        this.storeFile = storeFile;
+    }
+
+    @PostConstruct
+    public void openStore() {
+        try {
+            long start = System.nanoTime();
+            store = MappedCatalogStore.open(storeFile);
+            log.info("Mapped {} products in {} locales from {} in {} ms",
+                    store.productCount(), store.locales().size(), storeFile,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            log.error("Failed to map catalog store {}", storeFile, e);
+            throw new IllegalStateException("Cannot initialize MappedCatalogClient", e);
+        }
+    }
+
+    @Override
+    public Collection<String> productIds() {
+        return store.productIds();
+    }
+
+    @Override
+    public CatalogDto fetch(String productId, String market) {
+        CatalogDto catalog = store.find(productId, market);
+        if (catalog == null) {
+            throw new ProductNotFoundException(productId);
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,277 @@
+package com.project.aggregator.client.store;
+
+import com.project.aggregator.model.CatalogDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import static com.project.aggregator.client.store.CatalogStoreFormat.CHUNK_BITS_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.FALLBACK_LOCALE;
+import static com.project.aggregator.client.store.CatalogStoreFormat.FILE_LENGTH_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.HEADER_SIZE;
+import static com.project.aggregator.client.store.CatalogStoreFormat.INDEX_OFFSET_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.INDEX_SLOTS_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MAGIC;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MAGIC_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MARKETS_OFFSET_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.MARKET_COUNT_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.PRODUCT_COUNT_OFFSET;
+import static com.project.aggregator.client.store.CatalogStoreFormat.SLOT_SIZE;
+import static com.project.aggregator.client.store.CatalogStoreFormat.VERSION;
+import static com.project.aggregator.client.store.CatalogStoreFormat.VERSION_OFFSET;
+
+/**
+ * Read-only view of a catalog store written by {@link CatalogStoreWriter}.
+ * <p>
+ * The file is memory-mapped in chunks of up to 1 GiB, so both the records and the hash index
+ * live in the OS page cache rather than on the Java heap; the only on-heap state is the short
+ * list of locales. A lookup probes the index, then decodes a {@link CatalogDto} for the requested
+ * market from the record, applying the same locale fallback as the mock catalog
+ * (market → {@code en-GB} → first listed locale).
+ * <p>
+ * Reads use absolute positions only, so a single instance is safe to share between threads.
+ */
+public final class MappedCatalogStore {
+
+    private final Path path;
+    private final ByteBuffer[] chunks;
+    private final int chunkBits;
+    private final long chunkMask;
+    private final int productCount;
+    private final int indexSlots;
+    private final long indexOffset;
+    private final Map<String, Integer> locales;
+    private final int fallbackLocale;
+    private final ToLongFunction<String> hash;
+
+    private MappedCatalogStore(Path path, ByteBuffer[] chunks, int chunkBits, ByteBuffer header,
+                               ToLongFunction<String> hash) {
+        this.path = path;
+        this.hash = hash;
+        this.chunks = chunks;
+        this.chunkBits = chunkBits;
+        this.chunkMask = (1L << chunkBits) - 1;
+        this.productCount = header.getInt(PRODUCT_COUNT_OFFSET);
+        this.indexSlots = header.getInt(INDEX_SLOTS_OFFSET);
+        this.indexOffset = header.getLong(INDEX_OFFSET_OFFSET);
+        this.locales = readLocales(header.getLong(MARKETS_OFFSET_OFFSET), header.getInt(MARKET_COUNT_OFFSET));
+        this.fallbackLocale = locales.getOrDefault(FALLBACK_LOCALE, -1);
+    }
+
+    public static MappedCatalogStore open(Path path) throws IOException {
+        return open(path, CatalogStoreFormat::hash);
+    }
+
+    /**
+     * @param hash the hash the store was written with; only tests replace {@link CatalogStoreFormat#hash}
+     */
+    static MappedCatalogStore open(Path path, ToLongFunction<String> hash) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException(path + " is not a catalog store: file too short");
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException(path + " is not a catalog store: bad magic");
+            }
+            if (header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException(path + " has unsupported catalog store version " + header.getInt(VERSION_OFFSET));
+            }
+            if (header.getLong(FILE_LENGTH_OFFSET) != size) {
+                throw new IOException(path + " is truncated: expected " + header.getLong(FILE_LENGTH_OFFSET)
+                        + " bytes, found " + size);
+            }
+
+            int chunkBits = header.getInt(CHUNK_BITS_OFFSET);
+            long chunkSize = 1L << chunkBits;
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((size + chunkSize - 1) >>> chunkBits)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << chunkBits;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, size - start));
+            }
+            return new MappedCatalogStore(path, chunks, chunkBits, header, hash);
+        }
+    }
+
+    /**
+     * Returns the entry localised for {@code market}, or {@code null} if the product is unknown.
+     */
+    public CatalogDto find(String productId, String market) {
+        long hash = this.hash.applyAsLong(productId);
+        int mask = indexSlots - 1;
+        for (int slot = (int) hash & mask; ; slot = (slot + 1) & mask) {
+            long slotPosition = indexOffset + (long) slot * SLOT_SIZE;
+            ByteBuffer chunk = chunk(slotPosition);
+            int inChunk = (int) (slotPosition & chunkMask);
+            long recordOffset = chunk.getLong(inChunk + Long.BYTES);
+            if (recordOffset == 0) {
+                return null;
+            }
+            if (chunk.getLong(inChunk) == hash) {
+                Record record = new Record(chunk(recordOffset), (int) (recordOffset & chunkMask));
+                if (productId.equals(record.string())) {
+                    return decode(record, productId, market);
+                }
+                // another product with the same hash: probe on
+            }
+        }
+    }
+
+    /**
+     * Every product ID in the store, read from the records the index points to.
+     */
+    public List<String> productIds() {
+        List<String> productIds = new ArrayList<>(productCount);
+        for (int slot = 0; slot < indexSlots; slot++) {
+            long slotPosition = indexOffset + (long) slot * SLOT_SIZE;
+            long recordOffset = chunk(slotPosition).getLong((int) (slotPosition & chunkMask) + Long.BYTES);
+            if (recordOffset != 0) {
+                productIds.add(new Record(chunk(recordOffset), (int) (recordOffset & chunkMask)).string());
+            }
+        }
+        return productIds;
+    }
+
+    public int productCount() {
+        return productCount;
+    }
+
+    public Map<String, Integer> locales() {
+        return locales;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    private CatalogDto decode(Record record, String productId, String market) {
+        int locale = locales.getOrDefault(market, -1);
+        String name = record.translation(locale, fallbackLocale);
+        String description = record.translation(locale, fallbackLocale);
+        return new CatalogDto(productId, name, description, record.specs(), record.images());
+    }
+
+    private Map<String, Integer> readLocales(long offset, int count) {
+        Record record = new Record(chunk(offset), (int) (offset & chunkMask));
+        Map<String, Integer> result = HashMap.newHashMap(count);
+        for (int i = 0; i < count; i++) {
+            result.put(record.string(), i);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private ByteBuffer chunk(long position) {
+        return chunks[(int) (position >>> chunkBits)];
+    }
+
+    /**
+     * Cursor over one record; a record never crosses a chunk boundary.
+     */
+    private static final class Record {
+
+        private final ByteBuffer buffer;
+        private int position;
+
+        Record(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get(position++);
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String string() {
+            int length = varint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            position += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        void skipString() {
+            int length = varint() - 1;
+            if (length > 0) {
+                position += length;
+            }
+        }
+
+        /**
+         * Picks the requested locale, then the fallback locale, then the first one listed, and
+         * decodes only the chosen string.
+         */
+        String translation(int locale, int fallbackLocale) {
+            int count = varint() - 1;
+            if (count <= 0) {
+                return null;
+            }
+            int first = -1;
+            int fallback = -1;
+            int match = -1;
+            for (int i = 0; i < count; i++) {
+                int entryLocale = varint();
+                if (i == 0) {
+                    first = position;
+                }
+                if (entryLocale == locale) {
+                    match = position;
+                } else if (entryLocale == fallbackLocale) {
+                    fallback = position;
+                }
+                skipString();
+            }
+            int end = position;
+            position = match >= 0 ? match : fallback >= 0 ? fallback : first;
+            String value = string();
+            position = end;
+            return value;
+        }
+
+        Map<String, String> specs() {
+            int count = varint() - 1;
+            if (count < 0) {
+                return null;
+            }
+            Map<String, String> specs = LinkedHashMap.newLinkedHashMap(count);
+            for (int i = 0; i < count; i++) {
+                specs.put(string(), string());
+            }
+            return Collections.unmodifiableMap(specs);
+        }
+
+        List<String> images() {
+            int count = varint() - 1;
+            if (count < 0) {
+                return null;
+            }
+            String[] images = new String[count];
+            for (int i = 0; i < count; i++) {
+                images[i] = string();
+            }
+            return List.of(images);
+        }
+    }
+}
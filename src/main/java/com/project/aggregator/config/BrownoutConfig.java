@@ -0,0 +1,32 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.limit.Brownout;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Brownout of the optional enrichments under sustained overload ({@code app.brownout}). The
+ * current level is exported as the {@code aggregator.brownout.level} gauge (0 = none).
+ */
+@Configuration
+public class BrownoutConfig {
+
+    @Bean
+    public Brownout brownout(@Value("${app.brownout.slo}") Duration slo,
+                             @Value("${app.brownout.window}") Duration window,
+                             @Value("${app.brownout.enter-windows}") int enterWindows,
+                             @Value("${app.brownout.exit-windows}") int exitWindows,
+                             @Value("${app.brownout.recover-ratio}") double recoverRatio,
+                             @Value("${app.brownout.min-samples}") int minSamples,
+                             MeterRegistry registry) {
+        Brownout brownout = new Brownout(slo, window, enterWindows, exitWindows, recoverRatio, minSamples);
+        Gauge.builder("aggregator.brownout.level", brownout, b -> b.level().ordinal())
+                .register(registry);
+        return brownout;
+    }
+}
@@ -0,0 +1,125 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.cache.KnownProducts;
+import com.project.aggregator.cache.LastKnownGood;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.model.AvailabilityDto;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Caches in front of the upstream clients. Availability (live stock) and customer data are not
+ * cached. Size, hits and misses are published as {@code aggregator.cache.*} meters.
+ * <p>
+ * Pricing and availability also keep their last known good values for the circuit-breaker
+ * fallbacks; their size and the number of fallbacks served from them are published as
+ * {@code aggregator.lkg.*}.
+ * <p>
+ * Product IDs the catalog does not have are recognised by {@link KnownProducts}; the size of its
+ * filter and the requests it answered are {@code aggregator.known-products.*}.
+ * <p>
+ * The materialized {@link ProductViews} stay empty unless {@code app.views.enabled}; their size and
+ * lookups are {@code aggregator.views.*}.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public TtlCache<ProductKey, CatalogDto> catalogCache(@Value("${app.cache.catalog.ttl}") Duration ttl,
+                                                         @Value("${app.cache.catalog.max-entries}") int maxEntries,
+                                                         MeterRegistry registry) {
+        return register(new TtlCache<>("catalog", ttl, maxEntries), registry);
+    }
+
+    @Bean
+    public TtlCache<PricingKey, PricingDto> pricingCache(@Value("${app.cache.pricing.ttl}") Duration ttl,
+                                                         @Value("${app.cache.pricing.max-entries}") int maxEntries,
+                                                         MeterRegistry registry) {
+        return register(new TtlCache<>("pricing", ttl, maxEntries), registry);
+    }
+
+    @Bean
+    public TtlCache<String, Boolean> missingProductCache(@Value("${app.cache.missing-products.ttl}") Duration ttl,
+                                                         @Value("${app.cache.missing-products.max-entries}") int maxEntries,
+                                                         MeterRegistry registry) {
+        return register(new TtlCache<>("missing-products", ttl, maxEntries), registry);
+    }
+
+    @Bean
+    public KnownProducts knownProducts(CatalogClient catalogClient,
+                                       @Value("${app.cache.known-products.false-positive-rate}") double falsePositiveRate,
+                                       TtlCache<String, Boolean> missingProductCache,
+                                       MeterRegistry registry) {
+        KnownProducts knownProducts = new KnownProducts(catalogClient::productIds, falsePositiveRate, missingProductCache);
+        Gauge.builder("aggregator.known-products.size", knownProducts, KnownProducts::size)
+                .register(registry);
+        FunctionCounter.builder("aggregator.known-products.rejected", knownProducts, KnownProducts::rejectedCount)
+                .register(registry);
+        return knownProducts;
+    }
+
+    @Bean
+    public ProductViews productViews(MeterRegistry registry) {
+        ProductViews views = new ProductViews();
+        Gauge.builder("aggregator.views.size", views, ProductViews::size)
+                .register(registry);
+        FunctionCounter.builder("aggregator.views.lookups", views, ProductViews::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("aggregator.views.lookups", views, ProductViews::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        return views;
+    }
+
+    @Bean
+    public LastKnownGood<PricingKey, PricingDto> pricingLastKnownGood(
+            @Value("${app.cache.last-known-good.pricing.max-age}") Duration maxAge,
+            @Value("${app.cache.last-known-good.pricing.max-entries}") int maxEntries,
+            MeterRegistry registry) {
+        return register(new LastKnownGood<>("pricing", maxAge, maxEntries), registry);
+    }
+
+    @Bean
+    public LastKnownGood<ProductKey, AvailabilityDto> availabilityLastKnownGood(
+            @Value("${app.cache.last-known-good.availability.max-age}") Duration maxAge,
+            @Value("${app.cache.last-known-good.availability.max-entries}") int maxEntries,
+            MeterRegistry registry) {
+        return register(new LastKnownGood<>("availability", maxAge, maxEntries), registry);
+    }
+
+    private static <K, V> LastKnownGood<K, V> register(LastKnownGood<K, V> store, MeterRegistry registry) {
+        Gauge.builder("aggregator.lkg.size", store, LastKnownGood::size)
+                .tag("store", store.name())
+                .register(registry);
+        FunctionCounter.builder("aggregator.lkg.served", store, LastKnownGood::servedCount)
+                .tag("store", store.name())
+                .register(registry);
+        return store;
+    }
+
+    private static <K, V> TtlCache<K, V> register(TtlCache<K, V> cache, MeterRegistry registry) {
+        Gauge.builder("aggregator.cache.size", cache, TtlCache::size)
+                .tag("cache", cache.name())
+                .register(registry);
+        FunctionCounter.builder("aggregator.cache.requests", cache, TtlCache::hitCount)
+                .tag("cache", cache.name()).tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("aggregator.cache.requests", cache, TtlCache::missCount)
+                .tag("cache", cache.name()).tag("result", "miss")
+                .register(registry);
+        return cache;
+    }
+}
@@ -0,0 +1,24 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.mapper.ProtobufProductResponseConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Response formats besides JSON (the default).
+ * <p>
+ * CBOR and Smile need no beans: Spring MVC registers its Jackson CBOR and Smile converters as
+ * soon as the dataformat modules are on the classpath, and they reuse the annotation-driven
+ * {@link com.project.aggregator.mapper.ProductResponseSerializer}. Protobuf has no Jackson
+ * counterpart here, so it gets a dedicated converter.
+ */
+@Configuration
+public class ContentNegotiationConfig {
+
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    @Bean
+    public ProtobufProductResponseConverter protobufProductResponseConverter() {
+        return new ProtobufProductResponseConverter();
+    }
+}
@@ -0,0 +1,48 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.GradientLimit;
+import com.project.aggregator.limit.IngressLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit on the product endpoint, so that a traffic spike is shed at the door
+ * instead of queueing in Tomcat and the upstream pools. The live limit, in-flight count and
+ * rejections are published as {@code aggregator.limit.*} meters.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.limit.ingress.enabled", havingValue = "true", matchIfMissing = true)
+public class IngressLimitConfig implements WebMvcConfigurer {
+
+    private final ConcurrencyLimiter ingressLimiter;
+    private final Duration retryAfter;
+
+    public IngressLimitConfig(@Value("${app.limit.ingress.initial-limit}") int initialLimit,
+                              @Value("${app.limit.ingress.min-limit}") int minLimit,
+                              @Value("${app.limit.ingress.max-limit}") int maxLimit,
+                              @Value("${app.limit.ingress.tolerance}") double tolerance,
+                              @Value("${app.limit.ingress.retry-after}") Duration retryAfter) {
+        this.ingressLimiter = new ConcurrencyLimiter("ingress",
+                new GradientLimit(initialLimit, minLimit, maxLimit, tolerance));
+        this.retryAfter = retryAfter;
+    }
+
+    @Bean
+    public ConcurrencyLimiter ingressLimiter(MeterRegistry registry) {
+        return LimiterMeters.register(ingressLimiter, registry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new IngressLimitInterceptor(ingressLimiter, retryAfter))
+                .addPathPatterns("/api/v1/products/**");
+    }
+}
@@ -0,0 +1,76 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.cache.bus.InvalidationBus;
+import com.project.aggregator.cache.bus.InvalidationEndpoint;
+import com.project.aggregator.cache.bus.InvalidationTransport;
+import com.project.aggregator.cache.bus.UdpInvalidationTransport;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cache invalidation across replicas ({@code app.cache.invalidation.enabled}); see
+ * {@link InvalidationBus}. Each instance binds {@code bind} and sends to every address in
+ * {@code peers}, both as {@code host:port}. The bus publishes {@code aggregator.invalidation.*}:
+ * messages sent and received, invalidations sent, and duplicate and lost messages.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true")
+public class InvalidationBusConfig {
+
+    @Bean(destroyMethod = "close")
+    public InvalidationTransport invalidationTransport(@Value("${app.cache.invalidation.bind}") String bind,
+                                                       @Value("${app.cache.invalidation.peers}") List<String> peers)
+            throws IOException {
+        return new UdpInvalidationTransport(address(bind), peers.stream()
+                .filter(peer -> !peer.isBlank())
+                .map(InvalidationBusConfig::address)
+                .toList());
+    }
+
+    @Bean(destroyMethod = "close")
+    public InvalidationBus invalidationBus(InvalidationTransport invalidationTransport,
+                                           ApplicationEventPublisher events,
+                                           @Value("${app.cache.invalidation.sources}") Set<String> sources,
+                                           @Value("${app.cache.invalidation.batch-window}") Duration batchWindow,
+                                           MeterRegistry registry) {
+        InvalidationBus bus = new InvalidationBus(invalidationTransport, events, sources, batchWindow);
+        FunctionCounter.builder("aggregator.invalidation.messages", bus, InvalidationBus::sentMessageCount)
+                .tag("direction", "sent")
+                .register(registry);
+        FunctionCounter.builder("aggregator.invalidation.messages", bus, InvalidationBus::receivedMessageCount)
+                .tag("direction", "received")
+                .register(registry);
+        FunctionCounter.builder("aggregator.invalidation.sent", bus, InvalidationBus::sentInvalidationCount)
+                .register(registry);
+        FunctionCounter.builder("aggregator.invalidation.duplicates", bus, InvalidationBus::duplicateMessageCount)
+                .register(registry);
+        FunctionCounter.builder("aggregator.invalidation.lost", bus, InvalidationBus::lostMessageCount)
+                .register(registry);
+        return bus;
+    }
+
+    @Bean
+    public InvalidationEndpoint invalidationEndpoint(InvalidationBus invalidationBus, ApplicationEventPublisher events) {
+        return new InvalidationEndpoint(invalidationBus, events);
+    }
+
+    static InetSocketAddress address(String hostAndPort) {
+        int colon = hostAndPort.lastIndexOf(':');
+        if (colon <= 0) {
+            throw new IllegalArgumentException("Expected host:port, got " + hostAndPort);
+        }
+        return new InetSocketAddress(hostAndPort.substring(0, colon).trim(),
+                Integer.parseInt(hostAndPort.substring(colon + 1).trim()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes a limiter's live limit, in-flight count and rejections as {@code aggregator.limit.*}
+ * meters tagged with the limiter's name.
+ */
+final class LimiterMeters {
+
+    private LimiterMeters() {
+    }
+
+    static ConcurrencyLimiter register(ConcurrencyLimiter limiter, MeterRegistry registry) {
+        Gauge.builder("aggregator.limit.limit", limiter, ConcurrencyLimiter::limit)
+                .tag("limiter", limiter.name())
+                .register(registry);
+        Gauge.builder("aggregator.limit.inflight", limiter, ConcurrencyLimiter::inFlight)
+                .tag("limiter", limiter.name())
+                .register(registry);
+        FunctionCounter.builder("aggregator.limit.rejected", limiter, ConcurrencyLimiter::rejectedCount)
+                .tag("limiter", limiter.name())
+                .register(registry);
+        return limiter;
+    }
+}
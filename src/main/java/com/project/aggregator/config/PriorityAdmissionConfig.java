@@ -0,0 +1,36 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.limit.PriorityAdmission;
+import com.project.aggregator.limit.PriorityClassifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Priority admission in front of the aggregation ({@code app.limit.priority}): dealer and fleet
+ * customers first, anonymous traffic last.
+ */
+@Configuration
+public class PriorityAdmissionConfig {
+
+    @Bean
+    public PriorityAdmission priorityAdmission(@Value("${app.limit.priority.capacity}") int capacity,
+                                               @Value("${app.limit.priority.queue-size}") int queueSize,
+                                               @Value("${app.limit.priority.max-wait}") Duration maxWait,
+                                               @Value("${app.limit.ingress.retry-after}") Duration retryAfter,
+                                               MeterRegistry registry) {
+        return new PriorityAdmission(capacity, queueSize, maxWait, retryAfter, registry);
+    }
+
+    @Bean
+    public PriorityClassifier priorityClassifier(@Value("${app.limit.priority.high-segments}") Set<String> highSegments,
+                                                 @Value("${app.limit.priority.segment-ttl}") Duration segmentTtl,
+                                                 @Value("${app.limit.priority.max-customers}") int maxCustomers) {
+        return new PriorityClassifier(highSegments, new TtlCache<>("segments", segmentTtl, maxCustomers));
+    }
+}
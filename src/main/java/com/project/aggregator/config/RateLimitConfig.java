@@ -0,0 +1,77 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.limit.PriorityClassifier;
+import com.project.aggregator.limit.RateLimitInterceptor;
+import com.project.aggregator.limit.RateLimiter;
+import com.project.aggregator.warmup.WarmupRunner;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-caller rate limits on the product endpoint ({@code app.limit.rate}). Runs ahead of the
+ * ingress limit, so that a single noisy caller is turned away with a 429 before it takes a slot
+ * from everybody else.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.limit.rate.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitInterceptor interceptor;
+
+    public RateLimitConfig(@Value("${app.limit.rate.max-keys}") int maxKeys,
+                           @Value("${app.limit.rate.sweep-interval}") Duration sweepInterval,
+                           Environment environment,
+                           PriorityClassifier classifier,
+                           ObjectProvider<WarmupRunner> warmup) {
+        Binder binder = Binder.get(environment);
+        Bindable<RateLimiter.Rate> rate = Bindable.of(RateLimiter.Rate.class);
+        Map<String, RateLimiter.Rate> segments = binder
+                .bind("app.limit.rate.segments", Bindable.mapOf(String.class, RateLimiter.Rate.class))
+                .orElse(Map.of());
+        this.rateLimiter = new RateLimiter(maxKeys, sweepInterval, binder.bind("app.limit.rate.overflow", rate).get());
+        this.interceptor = new RateLimitInterceptor(rateLimiter,
+                binder.bind("app.limit.rate.anonymous", rate).get(),
+                binder.bind("app.limit.rate.customer", rate).get(),
+                Map.copyOf(segments),
+                classifier::segmentOf,
+                // the warmup's loopback burst must not use up the warmup customers' budget
+                request -> {
+                    WarmupRunner runner = warmup.getIfAvailable();
+                    return runner != null && runner.isOwnRequest(request.getHeader(WarmupRunner.TOKEN_HEADER));
+                });
+    }
+
+    @Bean
+    public RateLimiter rateLimiter(MeterRegistry registry) {
+        Gauge.builder("aggregator.rate.keys", rateLimiter, RateLimiter::size)
+                .register(registry);
+        FunctionCounter.builder("aggregator.rate.rejected", rateLimiter, RateLimiter::rejectedCount)
+                .register(registry);
+        FunctionCounter.builder("aggregator.rate.untracked", rateLimiter, RateLimiter::untrackedCount)
+                .register(registry);
+        return rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(interceptor)
+                .addPathPatterns("/api/v1/products/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.stock.SimulatedStockEventSource;
+import com.project.aggregator.client.stock.StockEventSource;
+import com.project.aggregator.client.stock.StockTable;
+import com.project.aggregator.client.stock.StockTableAvailabilityClient;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Availability from an in-memory stock table fed by stock change events
+ * ({@code app.availability.source=stream}), in place of the availability upstream client.
+ * <p>
+ * The feed is the in-process {@link SimulatedStockEventSource} until the inventory system's topic
+ * is wired in. The table publishes {@code aggregator.stock.*}: its levels, sequence, whether it is
+ * in sync, and counts of applied and duplicate events, gaps and resyncs.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.availability.source", havingValue = "stream")
+public class StockTableConfig {
+
+    private final Map<String, String> warehouses;
+    private final String defaultWarehouse;
+
+    public StockTableConfig(Environment environment,
+                            @Value("${app.availability.stream.default-warehouse}") String defaultWarehouse) {
+        this.warehouses = Map.copyOf(Binder.get(environment)
+                .bind("app.availability.stream.warehouses", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of()));
+        this.defaultWarehouse = defaultWarehouse;
+    }
+
+    @Bean(destroyMethod = "close")
+    public StockEventSource stockEventSource(CatalogClient catalogClient,
+                                             @Value("${app.availability.stream.simulated.events-per-second}") double eventsPerSecond,
+                                             @Value("${app.availability.stream.simulated.drop-rate}") double dropRate) {
+        Set<String> allWarehouses = new LinkedHashSet<>(warehouses.values());
+        allWarehouses.add(defaultWarehouse);
+        return new SimulatedStockEventSource(catalogClient::productIds, allWarehouses, eventsPerSecond, dropRate);
+    }
+
+    @Bean(destroyMethod = "close")
+    public StockTable stockTable(StockEventSource stockEventSource,
+                                 @Value("${app.availability.stream.retry-delay}") Duration retryDelay,
+                                 MeterRegistry registry) {
+        StockTable table = new StockTable(stockEventSource, retryDelay);
+        Gauge.builder("aggregator.stock.levels", table, StockTable::size)
+                .register(registry);
+        Gauge.builder("aggregator.stock.sequence", table, StockTable::sequence)
+                .register(registry);
+        Gauge.builder("aggregator.stock.in-sync", table, t -> t.outOfSyncSince() == null ? 1 : 0)
+                .register(registry);
+        FunctionCounter.builder("aggregator.stock.events", table, StockTable::appliedCount)
+                .tag("result", "applied")
+                .register(registry);
+        FunctionCounter.builder("aggregator.stock.events", table, StockTable::duplicateCount)
+                .tag("result", "duplicate")
+                .register(registry);
+        FunctionCounter.builder("aggregator.stock.gaps", table, StockTable::gapCount)
+                .register(registry);
+        FunctionCounter.builder("aggregator.stock.resyncs", table, StockTable::resyncCount)
+                .register(registry);
+        return table;
+    }
+
+    @Bean
+    public AvailabilityClient stockTableAvailabilityClient(StockTable stockTable) {
+        return new StockTableAvailabilityClient(stockTable, warehouses, defaultWarehouse);
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.limit.AimdLimit;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.UpstreamLimiters;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * AIMD in-flight limits per upstream ({@code app.limit.upstream}). They share their bounds and
+ * backoff; the latency above which a call counts as a spike is set per upstream, since their
+ * normal latencies differ.
+ */
+@Configuration
+public class UpstreamLimitConfig {
+
+    @Value("${app.limit.upstream.initial-limit}")
+    private int initialLimit;
+    @Value("${app.limit.upstream.min-limit}")
+    private int minLimit;
+    @Value("${app.limit.upstream.max-limit}")
+    private int maxLimit;
+    @Value("${app.limit.upstream.backoff-ratio}")
+    private double backoffRatio;
+
+    @Bean
+    public UpstreamLimiters upstreamLimiters(@Value("${app.limit.upstream.latency-threshold.catalog}") Duration catalog,
+                                             @Value("${app.limit.upstream.latency-threshold.pricing}") Duration pricing,
+                                             @Value("${app.limit.upstream.latency-threshold.availability}") Duration availability,
+                                             @Value("${app.limit.upstream.latency-threshold.customer}") Duration customer,
+                                             MeterRegistry registry) {
+        return new UpstreamLimiters(
+                limiter("catalog", catalog, registry),
+                limiter("pricing", pricing, registry),
+                limiter("availability", availability, registry),
+                limiter("customer", customer, registry));
+    }
+
+    private ConcurrencyLimiter limiter(String upstream, Duration latencyThreshold, MeterRegistry registry) {
+        return LimiterMeters.register(new ConcurrencyLimiter(upstream,
+                new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold)), registry);
+    }
+}
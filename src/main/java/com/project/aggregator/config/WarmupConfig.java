@@ -0,0 +1,23 @@
+package com.project.aggregator.config;
+
+import com.project.aggregator.warmup.WarmupStubClients;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Warmup before readiness; see {@link com.project.aggregator.warmup.WarmupRunner}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class WarmupConfig {
+
+    /**
+     * Static, so that the post-processor is registered before — and can wrap — the client beans.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.warmup.mode", havingValue = "stub", matchIfMissing = true)
+    static WarmupStubClients warmupStubClients() {
+        return new WarmupStubClients();
+    }
+}
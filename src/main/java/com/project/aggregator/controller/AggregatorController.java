@@ -1,6 +1,10 @@
 package com.project.aggregator.controller;
 
+import com.project.aggregator.config.ContentNegotiationConfig;
+import com.project.aggregator.limit.Brownout;
 import com.project.aggregator.mapper.AggregatorMapper;
+import com.project.aggregator.mapper.ProtobufProductResponseConverter;
+import com.project.aggregator.model.MultiMarketRequest;
 import com.project.aggregator.model.ProductRequest;
 import com.project.aggregator.model.ProductResponse;
 import com.project.aggregator.service.ProductFacade;
@@ -12,8 +16,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
- * Single REST endpoint for the Product Information Aggregator.
+ * REST endpoints of the Product Information Aggregator: one product in one market, or in several.
+ * JSON is the default; CBOR, Smile and protobuf are served when requested via {@code Accept}.
  */
 @RestController
 @RequestMapping("/api/v1/products")
@@ -21,14 +28,42 @@ import org.springframework.web.bind.annotation.*;
 @RequiredArgsConstructor
 public class AggregatorController {
 
+    /**
+     * Set on responses built while in brownout, to the level that left sections out.
+     */
+    public static final String DEGRADED_HEADER = "X-Degraded";
+
     private final ProductFacade productFacade;
     private final AggregatorMapper aggregatorMapper;
+    private final Brownout brownout;
 
-    @GetMapping(value = "/{productId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @GetMapping(value = "/{productId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            ContentNegotiationConfig.SMILE_VALUE, ProtobufProductResponseConverter.PROTOBUF_VALUE})
     public ResponseEntity<ProductResponse> getProduct(@PathVariable @NotBlank String productId,
                                                       @Valid @ModelAttribute ProductRequest request) {
         var productCommand = aggregatorMapper.toCommand(productId, request);
-        var response = productFacade.aggregate(productCommand);
+        var brownoutLevel = brownout.level();
+        var response = productFacade.aggregate(productCommand, brownoutLevel);
+        if (brownoutLevel.degraded()) {
+            return ResponseEntity.ok().header(DEGRADED_HEADER, brownoutLevel.name()).body(response);
+        }
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * The product in several markets, keyed by market. Protobuf is not offered: its schema
+     * describes a single product response.
+     */
+    @GetMapping(value = "/{productId}/markets", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.SMILE_VALUE})
+    public ResponseEntity<Map<String, ProductResponse>> getProductInMarkets(@PathVariable @NotBlank String productId,
+                                                                            @Valid @ModelAttribute MultiMarketRequest request) {
+        var commands = aggregatorMapper.toCommands(productId, request);
+        var brownoutLevel = brownout.level();
+        var responses = productFacade.aggregate(commands, brownoutLevel);
+        if (brownoutLevel.degraded()) {
+            return ResponseEntity.ok().header(DEGRADED_HEADER, brownoutLevel.name()).body(responses);
+        }
+        return ResponseEntity.ok(responses);
+    }
 }
@@ -3,13 +3,16 @@ package com.project.aggregator.exception;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.stream.Collectors;
 
 /**
@@ -27,7 +30,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ProductNotFoundException.class)
     public ProblemDetail handleProductNotFound(ProductNotFoundException ex) {
-        log.warn("Product not found: {}", ex.getProductId());
+        log.debug("Product not found: {}", ex.getProductId());
         ProblemDetail pd = ProblemDetail.forStatusAndDetail(
                 HttpStatus.NOT_FOUND,
                 ex.getMessage()
@@ -54,6 +57,41 @@ public class GlobalExceptionHandler {
         return pd;
     }
 
+    /**
+     * Over the ingress concurrency limit → 503 with Retry-After.
+     * Logged at debug only: under overload this fires for every shed request.
+     */
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ProblemDetail> handleOverloaded(OverloadedException ex) {
+        log.debug("Rejected by {} limiter", ex.getLimiter());
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "The service is overloaded. Please retry after the indicated delay."
+        );
+        pd.setType(URI.create("urn:kramp:error:overloaded"));
+        pd.setTitle("Service Overloaded");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(ex.getRetryAfter())))
+                .body(pd);
+    }
+
+    /**
+     * Caller over its request rate → 429 with Retry-After.
+     */
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<ProblemDetail> handleRateLimited(RateLimitedException ex) {
+        log.debug("Rate limited: {}", ex.getKey());
+        ProblemDetail pd = ProblemDetail.forStatusAndDetail(
+                HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests. Please slow down and retry after the indicated delay."
+        );
+        pd.setType(URI.create("urn:kramp:error:rate-limited"));
+        pd.setTitle("Too Many Requests");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds(ex.getRetryAfter())))
+                .body(pd);
+    }
+
     /**
      * Bean-validation on @RequestBody / @ModelAttribute → 400.
      * BindException is the parent of MethodArgumentNotValidException,
@@ -100,4 +138,11 @@ public class GlobalExceptionHandler {
         pd.setTitle("Internal Server Error");
         return pd;
     }
+
+    /**
+     * Retry-After takes whole seconds; round up so that a client retrying on time is let in.
+     */
+    private static long retryAfterSeconds(Duration retryAfter) {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
 }
@@ -0,0 +1,21 @@
+package com.project.aggregator.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a concurrency limit rejects a request, so that it fails fast instead of queueing.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final String limiter;
+    private final Duration retryAfter;
+
+    public OverloadedException(String limiter, Duration retryAfter) {
+        super("Concurrency limit '" + limiter + "' reached", null, false, false);
+        this.limiter = limiter;
+        this.retryAfter = retryAfter;
+    }
+}
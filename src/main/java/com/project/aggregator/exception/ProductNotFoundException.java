@@ -8,7 +8,8 @@ public class ProductNotFoundException extends RuntimeException {
     private final String productId;
 
     public ProductNotFoundException(String productId) {
-        super("Product not found: " + productId);
+        // unknown IDs are routine (bots, stale links) and answered with a 404: no stack trace
+        super("Product not found: " + productId, null, false, false);
         this.productId = productId;
     }
 
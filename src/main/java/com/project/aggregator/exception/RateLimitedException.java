@@ -0,0 +1,21 @@
+package com.project.aggregator.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a caller has used up its request rate.
+ */
+@Getter
+public class RateLimitedException extends RuntimeException {
+
+    private final String key;
+    private final Duration retryAfter;
+
+    public RateLimitedException(String key, Duration retryAfter) {
+        super("Rate limit exceeded for " + key, null, false, false);
+        this.key = key;
+        this.retryAfter = retryAfter;
+    }
+}
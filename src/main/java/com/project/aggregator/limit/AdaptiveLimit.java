@@ -0,0 +1,16 @@
+package com.project.aggregator.limit;
+
+/**
+ * A concurrency limit that adjusts itself from the outcome of each call it admitted.
+ */
+public interface AdaptiveLimit {
+
+    int limit();
+
+    /**
+     * @param rttNanos how long the call took
+     * @param inFlight calls in flight when it started, including itself
+     * @param dropped  whether the call timed out or was otherwise lost to overload
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,130 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.model.AvailabilityDto;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.PricingDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Drops optional enrichments while the end-to-end p99 stays above the SLO.
+ * <p>
+ * Latencies are counted per {@code window}: the p99 is above a threshold exactly when more than
+ * 1% of the window's requests are, so two counters per threshold are enough and no samples are
+ * kept. After {@code enterWindows} consecutive windows over the SLO the level goes up one step;
+ * after {@code exitWindows} consecutive windows under {@code recoverRatio} × SLO it comes down
+ * one. The gap between the two thresholds and the longer way back keep the level from flapping
+ * as the lighter responses pull the latency down. Windows with fewer than {@code minSamples}
+ * requests count as healthy.
+ */
+@Slf4j
+public class Brownout {
+
+    /**
+     * What is left out at each level; every level also drops everything the one before it does.
+     */
+    public enum Level {
+        NONE(List.of()),
+        NO_PERSONALIZATION(List.of(CustomerDto.RESPONSE_TYPE)),
+        NO_AVAILABILITY(List.of(CustomerDto.RESPONSE_TYPE, AvailabilityDto.RESPONSE_TYPE)),
+        NO_PRICING(List.of(CustomerDto.RESPONSE_TYPE, AvailabilityDto.RESPONSE_TYPE, PricingDto.RESPONSE_TYPE));
+
+        private final List<String> dropped;
+
+        Level(List<String> dropped) {
+            this.dropped = dropped;
+        }
+
+        public boolean drops(String resultType) {
+            return dropped.contains(resultType);
+        }
+
+        public boolean degraded() {
+            return this != NONE;
+        }
+    }
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final long sloNanos;
+    private final long recoverNanos;
+    private final long windowNanos;
+    private final int enterWindows;
+    private final int exitWindows;
+    private final int minSamples;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder overSlo = new LongAdder();
+    private final LongAdder overRecover = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile Level level = Level.NONE;
+    // only touched by the thread that closes a window
+    private int hotWindows;
+    private int coolWindows;
+
+    public Brownout(Duration slo, Duration window, int enterWindows, int exitWindows, double recoverRatio,
+                    int minSamples) {
+        this(slo, window, enterWindows, exitWindows, recoverRatio, minSamples, System::nanoTime);
+    }
+
+    Brownout(Duration slo, Duration window, int enterWindows, int exitWindows, double recoverRatio,
+             int minSamples, LongSupplier nanoClock) {
+        this.sloNanos = slo.toNanos();
+        this.recoverNanos = (long) (sloNanos * recoverRatio);
+        this.windowNanos = window.toNanos();
+        this.enterWindows = enterWindows;
+        this.exitWindows = exitWindows;
+        this.minSamples = minSamples;
+        this.nanoClock = nanoClock;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public Level level() {
+        return level;
+    }
+
+    /**
+     * Counts one request's end-to-end latency; the first request after a window has passed closes it.
+     */
+    public void record(long latencyNanos) {
+        total.increment();
+        if (latencyNanos > recoverNanos) {
+            overRecover.increment();
+            if (latencyNanos > sloNanos) {
+                overSlo.increment();
+            }
+        }
+        long now = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            closeWindow(total.sumThenReset(), overSlo.sumThenReset(), overRecover.sumThenReset());
+        }
+    }
+
+    private synchronized void closeWindow(long count, long over, long overRecovery) {
+        boolean enough = count >= minSamples;
+        boolean hot = enough && over * 100 > count;
+        boolean cool = !enough || overRecovery * 100 <= count;
+        hotWindows = hot ? hotWindows + 1 : 0;
+        coolWindows = cool ? coolWindows + 1 : 0;
+        Level current = level;
+        if (hotWindows >= enterWindows && current.ordinal() < LEVELS.length - 1) {
+            changeTo(LEVELS[current.ordinal() + 1], count, over);
+        } else if (coolWindows >= exitWindows && current.ordinal() > 0) {
+            changeTo(LEVELS[current.ordinal() - 1], count, over);
+        }
+    }
+
+    private void changeTo(Level next, long count, long over) {
+        log.warn("Brownout {} -> {} ({} of {} requests over the SLO in the last window)", level, next, over, count);
+        level = next;
+        hotWindows = 0;
+        coolWindows = 0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.project.aggregator.limit;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Admits calls while fewer than {@link AdaptiveLimit#limit()} are in flight and feeds each
+ * admitted call's latency back into the limit. Rejection is immediate: callers that cannot get a
+ * permit fail fast instead of queueing.
+ */
+public final class ConcurrencyLimiter {
+
+    public enum Outcome {
+        /** The call completed; its latency is a valid sample. */
+        SUCCESS,
+        /** The call failed for reasons unrelated to load; its latency says nothing. */
+        IGNORED,
+        /** The call timed out or was shed because of load. */
+        DROPPED;
+
+        /**
+         * Classifies how an upstream call ended: a timeout is a drop, any other failure is
+         * unrelated to load.
+         */
+        public static Outcome of(Throwable failure) {
+            if (failure == null) {
+                return SUCCESS;
+            }
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            return cause instanceof TimeoutException ? DROPPED : IGNORED;
+        }
+    }
+
+    private final String name;
+    private final AdaptiveLimit limit;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimiter(String name, AdaptiveLimit limit) {
+        this(name, limit, System::nanoTime);
+    }
+
+    ConcurrencyLimiter(String name, AdaptiveLimit limit, LongSupplier nanoClock) {
+        this.name = name;
+        this.limit = limit;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns a permit that must be released exactly once, or {@code null} if the limit is reached.
+     */
+    public Permit tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit.limit()) {
+                rejected.increment();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(current + 1, nanoClock.getAsLong());
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final long startNanos;
+        private boolean released;
+
+        private Permit(int inFlightAtStart, long startNanos) {
+            this.inFlightAtStart = inFlightAtStart;
+            this.startNanos = startNanos;
+        }
+
+        public void release(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (outcome != Outcome.IGNORED) {
+                limit.onSample(nanoClock.getAsLong() - startNanos, inFlightAtStart, outcome == Outcome.DROPPED);
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.exception.OverloadedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Puts the ingress {@link ConcurrencyLimiter} in front of the product endpoint. A request over
+ * the limit is rejected before any work is done; an admitted one releases its permit when the
+ * response is complete, with its latency as a sample unless it ended in a server error.
+ */
+@RequiredArgsConstructor
+public class IngressLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = IngressLimitInterceptor.class.getName() + ".permit";
+
+    private final ConcurrencyLimiter limiter;
+    private final Duration retryAfter;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            throw new OverloadedException(limiter.name(), retryAfter);
+        }
+        request.setAttribute(PERMIT, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof ConcurrencyLimiter.Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.release(ex != null || response.getStatus() >= 500
+                    ? ConcurrencyLimiter.Outcome.IGNORED
+                    : ConcurrencyLimiter.Outcome.SUCCESS);
+        }
+    }
+}
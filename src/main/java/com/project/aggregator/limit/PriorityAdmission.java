@@ -0,0 +1,230 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.exception.OverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits at most {@code capacity} aggregations at a time and queues the rest per {@link Priority}.
+ * <p>
+ * A freed slot is handed to the oldest waiter of the highest non-empty priority. When the queues
+ * are full, a newcomer displaces the newest waiter of a lower priority, or is shed itself if there
+ * is none; waiters that are not admitted within {@code maxWait} are shed too. Under overload the
+ * lowest priority therefore loses first, and a higher one only once nothing below it is left.
+ * <p>
+ * Per priority, the time from arrival to release is recorded as {@code aggregator.priority.latency}
+ * and every decision is counted in {@code aggregator.priority.requests} with an
+ * {@code outcome} of {@code admitted} or {@code shed}.
+ */
+public final class PriorityAdmission {
+
+    public enum Priority {
+        /** Dealer and fleet customers. */
+        HIGH,
+        /** Other identified customers. */
+        NORMAL,
+        /** Anonymous traffic, including crawlers. */
+        LOW
+    }
+
+    private final int capacity;
+    private final int queueSize;
+    private final long maxWaitNanos;
+    private final Duration retryAfter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, ArrayDeque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private final Map<Priority, Timer> latency = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> admitted = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+    private int running;
+    private int queued;
+
+    public PriorityAdmission(int capacity, int queueSize, Duration maxWait, Duration retryAfter,
+                             MeterRegistry registry) {
+        if (capacity < 1 || queueSize < 0) {
+            throw new IllegalArgumentException("Expected capacity >= 1 and queue-size >= 0, got "
+                    + capacity + ", " + queueSize);
+        }
+        this.capacity = capacity;
+        this.queueSize = queueSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.retryAfter = retryAfter;
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            queues.put(priority, new ArrayDeque<>());
+            latency.put(priority, Timer.builder("aggregator.priority.latency")
+                    .tag("priority", tag)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry));
+            admitted.put(priority, Counter.builder("aggregator.priority.requests")
+                    .tag("priority", tag).tag("outcome", "admitted")
+                    .register(registry));
+            shed.put(priority, Counter.builder("aggregator.priority.requests")
+                    .tag("priority", tag).tag("outcome", "shed")
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Waits for a slot, up to {@code maxWait}.
+     *
+     * @return a ticket that must be closed when the work is done
+     * @throws OverloadedException if the request is shed
+     */
+    public Ticket acquire(Priority priority) {
+        long arrived = System.nanoTime();
+        Waiter waiter = null;
+        lock.lock();
+        try {
+            if (running < capacity && queued == 0) {
+                running++;
+                return admit(priority, arrived);
+            }
+            if (queued >= queueSize && !displaceBelow(priority)) {
+                throw shed(priority);
+            }
+            waiter = new Waiter(lock.newCondition());
+            queues.get(priority).addLast(waiter);
+            queued++;
+
+            long remaining = maxWaitNanos;
+            while (waiter.state == State.WAITING && remaining > 0) {
+                remaining = waiter.signal.awaitNanos(remaining);
+            }
+            return switch (waiter.state) {
+                case ADMITTED -> admit(priority, arrived);
+                case DISPLACED -> throw shed(priority);
+                case WAITING -> {
+                    queues.get(priority).remove(waiter);
+                    queued--;
+                    throw shed(priority);
+                }
+            };
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (waiter.state == State.ADMITTED) {
+                release();
+            } else if (waiter.state == State.WAITING) {
+                queues.get(priority).remove(waiter);
+                queued--;
+            }
+            throw shed(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int running() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Ticket admit(Priority priority, long arrived) {
+        admitted.get(priority).increment();
+        return new Ticket(priority, arrived);
+    }
+
+    private OverloadedException shed(Priority priority) {
+        shed.get(priority).increment();
+        return new OverloadedException("priority-" + priority.name().toLowerCase(), retryAfter);
+    }
+
+    /**
+     * Evicts the newest waiter of the lowest priority below {@code priority}, if any.
+     */
+    private boolean displaceBelow(Priority priority) {
+        Priority[] priorities = Priority.values();
+        for (int i = priorities.length - 1; i > priority.ordinal(); i--) {
+            Waiter victim = queues.get(priorities[i]).pollLast();
+            if (victim != null) {
+                queued--;
+                victim.state = State.DISPLACED;
+                victim.signal.signal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            for (Priority priority : Priority.values()) {
+                Waiter next = queues.get(priority).pollFirst();
+                if (next != null) {
+                    // hand the slot over: running stays the same
+                    queued--;
+                    next.state = State.ADMITTED;
+                    next.signal.signal();
+                    return;
+                }
+            }
+            running--;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum State { WAITING, ADMITTED, DISPLACED }
+
+    private static final class Waiter {
+
+        private final Condition signal;
+        private State state = State.WAITING;
+
+        private Waiter(Condition signal) {
+            this.signal = signal;
+        }
+    }
+
+    /**
+     * A slot held by one aggregation; closing it passes the slot on and records the latency.
+     */
+    public final class Ticket implements AutoCloseable {
+
+        private final Priority priority;
+        private final long arrived;
+        private boolean closed;
+
+        private Ticket(Priority priority, long arrived) {
+            this.priority = priority;
+            this.arrived = arrived;
+        }
+
+        public Priority priority() {
+            return priority;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            latency.get(priority).record(System.nanoTime() - arrived, TimeUnit.NANOSECONDS);
+            release();
+        }
+    }
+}
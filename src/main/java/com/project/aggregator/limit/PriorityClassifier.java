@@ -0,0 +1,48 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.ProductCommand;
+
+import java.util.Set;
+
+/**
+ * Decides a request's {@link PriorityAdmission.Priority} before any upstream is called.
+ * <p>
+ * Anonymous requests are {@code LOW}. A customer's segment is only known once the customer
+ * service has answered, so segments are remembered from earlier responses: a customer is
+ * {@code HIGH} once seen with one of the {@code highSegments} and {@code NORMAL} until then.
+ */
+public final class PriorityClassifier {
+
+    private final Set<String> highSegments;
+    private final TtlCache<String, String> segments;
+
+    public PriorityClassifier(Set<String> highSegments, TtlCache<String, String> segments) {
+        this.highSegments = Set.copyOf(highSegments);
+        this.segments = segments;
+    }
+
+    public PriorityAdmission.Priority classify(ProductCommand command) {
+        if (command.customerId() == null) {
+            return PriorityAdmission.Priority.LOW;
+        }
+        String segment = segmentOf(command.customerId());
+        return segment != null && highSegments.contains(segment)
+                ? PriorityAdmission.Priority.HIGH
+                : PriorityAdmission.Priority.NORMAL;
+    }
+
+    /**
+     * The customer's last known segment, or {@code null}.
+     */
+    public String segmentOf(String customerId) {
+        return segments.get(customerId);
+    }
+
+    public void learn(CustomerDto customer) {
+        if (customer != null && customer.customerId() != null && customer.segment() != null) {
+            segments.put(customer.customerId(), customer.segment());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.exception.RateLimitedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Rate-limits the product endpoint per caller: by {@code customerId} at the rate of the customer's
+ * segment, and anonymous requests by client address.
+ */
+@RequiredArgsConstructor
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter limiter;
+    private final RateLimiter.Rate anonymousRate;
+    private final RateLimiter.Rate customerRate;
+    private final Map<String, RateLimiter.Rate> segmentRates;
+    private final Function<String, String> segmentOf;
+    /** True for the requests the instance sends itself while warming up, before it takes traffic. */
+    private final Predicate<HttpServletRequest> bypass;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (bypass.test(request)) {
+            return true;
+        }
+        String customerId = request.getParameter("customerId");
+        String key;
+        RateLimiter.Rate rate;
+        if (customerId == null || customerId.isBlank()) {
+            key = "ip:" + request.getRemoteAddr();
+            rate = anonymousRate;
+        } else {
+            key = customerId;
+            String segment = segmentOf.apply(customerId);
+            rate = segment == null ? customerRate : segmentRates.getOrDefault(segment, customerRate);
+        }
+        long waitNanos = limiter.tryAcquire(key, rate);
+        if (waitNanos > 0) {
+            throw new RateLimitedException(key, Duration.ofNanos(waitNanos));
+        }
+        return true;
+    }
+}
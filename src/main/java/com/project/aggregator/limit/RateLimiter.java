@@ -0,0 +1,137 @@
+package com.project.aggregator.limit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets per key, kept lock-free with the generic cell rate algorithm (GCRA).
+ * <p>
+ * A bucket is a single {@link AtomicLong}: the theoretical arrival time (TAT) of the next request
+ * if the key sent at exactly its rate. A request is allowed while TAT lies at most
+ * {@code (burst - 1)} emission intervals ahead of now, and then moves TAT one interval on with a
+ * CAS. This is the same as a bucket of {@code burst} tokens refilled at {@code perSecond}, without
+ * a refill timestamp or any locking.
+ * <p>
+ * A bucket whose TAT has passed is full, so dropping it loses nothing. New keys sweep such idle
+ * buckets out at most once per {@code sweepInterval}, even when the table is full, so that a
+ * stream of new keys never scans it on every request. A new key that finds the table holding
+ * {@code maxKeys} buckets is not tracked on its own: it takes its token from one overflow bucket
+ * shared by all such keys, at {@code overflowRate}.
+ */
+public final class RateLimiter {
+
+    public record Rate(double perSecond, int burst) {
+
+        public Rate {
+            if (perSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("Expected a positive rate and burst, got " + perSecond + "/" + burst);
+            }
+        }
+
+        long intervalNanos() {
+            return (long) (1_000_000_000L / perSecond);
+        }
+    }
+
+    private final int maxKeys;
+    private final long sweepIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final Rate overflowRate;
+    private final AtomicLong overflow;
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long lastSweep;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    public RateLimiter(int maxKeys, Duration sweepInterval, Rate overflowRate) {
+        this(maxKeys, sweepInterval, overflowRate, System::nanoTime);
+    }
+
+    RateLimiter(int maxKeys, Duration sweepInterval, Rate overflowRate, LongSupplier nanoClock) {
+        this.maxKeys = maxKeys;
+        this.sweepIntervalNanos = sweepInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.overflowRate = overflowRate;
+        this.lastSweep = nanoClock.getAsLong();
+        this.overflow = new AtomicLong(lastSweep);
+    }
+
+    /**
+     * Takes a token for {@code key}.
+     *
+     * @return 0 if the request is allowed, otherwise the nanoseconds until the next token
+     */
+    public long tryAcquire(String key, Rate rate) {
+        long now = nanoClock.getAsLong();
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (now - lastSweep >= sweepIntervalNanos) {
+                sweep(now);
+            }
+            if (buckets.size() >= maxKeys) {
+                untracked.increment();
+                return acquire(overflow, overflowRate, now);
+            }
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        return acquire(tat, rate, now);
+    }
+
+    private long acquire(AtomicLong tat, Rate rate, long now) {
+        long interval = rate.intervalNanos();
+        long tolerance = interval * (rate.burst() - 1);
+        while (true) {
+            long current = tat.get();
+            long ahead = current - now;
+            if (ahead > tolerance) {
+                rejected.increment();
+                return ahead - tolerance;
+            }
+            if (tat.compareAndSet(current, Math.max(current, now) + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets that have refilled completely.
+     *
+     * @return the number of buckets dropped, or -1 if another thread is already sweeping
+     */
+    public int sweep() {
+        return sweep(nanoClock.getAsLong());
+    }
+
+    private int sweep(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            lastSweep = now;
+            int before = buckets.size();
+            // a request racing with the removal may be forgiven one token; that is harmless
+            buckets.values().removeIf(tat -> tat.get() - now <= 0);
+            return before - buckets.size();
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public long untrackedCount() {
+        return untracked.sum();
+    }
+}
@@ -0,0 +1,17 @@
+package com.project.aggregator.limit;
+
+import java.util.List;
+
+/**
+ * One {@link ConcurrencyLimiter} per upstream. A service that cannot get a permit does not call
+ * its upstream and goes straight to its fallback.
+ */
+public record UpstreamLimiters(ConcurrencyLimiter catalog,
+                               ConcurrencyLimiter pricing,
+                               ConcurrencyLimiter availability,
+                               ConcurrencyLimiter customer) {
+
+    public List<ConcurrencyLimiter> all() {
+        return List.of(catalog, pricing, availability, customer);
+    }
+}
@@ -1,13 +1,26 @@
 package com.project.aggregator.mapper;
 
+import com.project.aggregator.model.MultiMarketRequest;
 import com.project.aggregator.model.ProductCommand;
 import com.project.aggregator.model.ProductRequest;
 import org.mapstruct.Mapper;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface AggregatorMapper {
 
     default ProductCommand toCommand(String productId, ProductRequest productRequest) {
         return new ProductCommand(productId, productRequest.market(), productRequest.customerId());
     }
+
+    /**
+     * One command per distinct market, in the order requested.
+     */
+    default List<ProductCommand> toCommands(String productId, MultiMarketRequest request) {
+        return request.markets().stream()
+                .distinct()
+                .map(market -> new ProductCommand(productId, market, request.customerId()))
+                .toList();
+    }
 }
@@ -0,0 +1,143 @@
+package com.project.aggregator.mapper;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.project.aggregator.model.CatalogDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The {@code "catalog"} section of a {@link com.project.aggregator.model.ProductResponse}, encoded
+ * once as UTF-8 JSON. {@link ProductResponseSerializer} splices these bytes into the output of
+ * byte-based JSON generators instead of re-serializing the catalog on every request.
+ * <p>
+ * Only the unquoted (raw) forms are meaningful; the quoted forms exist to honour the
+ * {@link SerializableString} contract and are computed lazily.
+ */
+public final class CatalogFragment implements SerializableString {
+
+    private final byte[] utf8;
+    private volatile String value;
+    private volatile SerializedString quoted;
+
+    private CatalogFragment(byte[] utf8) {
+        this.utf8 = utf8;
+    }
+
+    public static CatalogFragment encode(CatalogDto catalog, JsonFactory jsonFactory) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (JsonGenerator gen = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            ProductResponseSerializer.writeCatalog(catalog, gen);
+        }
+        return new CatalogFragment(out.toByteArray());
+    }
+
+    public int byteLength() {
+        return utf8.length;
+    }
+
+    @Override
+    public String getValue() {
+        String v = value;
+        if (v == null) {
+            v = new String(utf8, StandardCharsets.UTF_8);
+            value = v;
+        }
+        return v;
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return utf8;
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        if (offset + utf8.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(utf8, 0, buffer, offset, utf8.length);
+        return utf8.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        String v = getValue();
+        if (offset + v.length() > buffer.length) {
+            return -1;
+        }
+        v.getChars(0, v.length(), buffer, offset);
+        return v.length();
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(utf8);
+        return utf8.length;
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (utf8.length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(utf8);
+        return utf8.length;
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+        return quoted().asQuotedChars();
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        return quoted().asQuotedUTF8();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        return quoted().appendQuotedUTF8(buffer, offset);
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        return quoted().appendQuoted(buffer, offset);
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) throws IOException {
+        return quoted().writeQuotedUTF8(out);
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+        return quoted().putQuotedUTF8(buffer);
+    }
+
+    private SerializedString quoted() {
+        SerializedString q = quoted;
+        if (q == null) {
+            q = new SerializedString(getValue());
+            quoted = q;
+        }
+        return q;
+    }
+
+    @Override
+    public String toString() {
+        return getValue();
+    }
+}
@@ -0,0 +1,247 @@
+package com.project.aggregator.mapper;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.project.aggregator.model.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes a {@link ProductResponse} in the protobuf wire format described by
+ * {@code src/main/proto/product_response.proto}, writing straight from the upstream DTOs.
+ * <p>
+ * Encoding is two-pass, as in generated protobuf code: nested message sizes are computed first
+ * so every length prefix is known before its message is written. Absent sections and
+ * {@code null} fields are omitted; status enums are always written. {@code stale_as_of} is only
+ * present on last known good values. A decimal whose unscaled value needs more than 64 bits is
+ * written to {@code big_unscaled}, so it stays exact as in the other formats.
+ */
+public final class ProductResponseProtobufWriter {
+
+    private static final int LENGTH_DELIMITED = WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+    private ProductResponseProtobufWriter() {
+    }
+
+    public static int serializedSize(ProductResponse response) {
+        int size = 0;
+        if (response.catalog() != null) {
+            size += messageSize(1, catalogSize(response.catalog()));
+        }
+        size += messageSize(2, priceSize(response));
+        size += messageSize(3, availabilitySize(response));
+        size += messageSize(4, customerSize(response));
+        return size;
+    }
+
+    public static void write(ProductResponse response, CodedOutputStream out) throws IOException {
+        CatalogDto catalog = response.catalog();
+        if (catalog != null) {
+            writeHeader(out, 1, catalogSize(catalog));
+            writeString(out, 1, catalog.productId());
+            writeString(out, 2, catalog.name());
+            writeString(out, 3, catalog.description());
+            if (catalog.specs() != null) {
+                for (Map.Entry<String, String> entry : catalog.specs().entrySet()) {
+                    writeHeader(out, 4, mapEntrySize(entry));
+                    writeString(out, 1, entry.getKey());
+                    writeString(out, 2, entry.getValue());
+                }
+            }
+            writeStrings(out, 5, catalog.images());
+        }
+
+        writeHeader(out, 2, priceSize(response));
+        PricingDto price = response.price();
+        if (price != null) {
+            writeDecimal(out, 1, price.basePrice());
+            writeDecimal(out, 2, price.discount());
+            writeDecimal(out, 3, price.finalPrice());
+        }
+        out.writeEnum(4, response.priceStatus().ordinal() + 1);
+        if (price != null) {
+            writeTimestamp(out, 5, price.staleAsOf());
+        }
+
+        writeHeader(out, 3, availabilitySize(response));
+        AvailabilityDto availability = response.availability();
+        if (availability != null) {
+            if (availability.stock() != null) {
+                out.writeInt32(1, availability.stock());
+            }
+            writeString(out, 2, availability.warehouse());
+            writeTimestamp(out, 3, availability.expectedDelivery());
+        }
+        out.writeEnum(4, response.availabilityStatus().ordinal() + 1);
+        if (availability != null) {
+            writeTimestamp(out, 5, availability.staleAsOf());
+        }
+
+        writeHeader(out, 4, customerSize(response));
+        CustomerDto customer = response.customer();
+        if (customer != null) {
+            writeString(out, 1, customer.customerId());
+            writeString(out, 2, customer.segment());
+            writeStrings(out, 3, customer.preferences());
+        }
+        out.writeEnum(4, response.customerStatus().ordinal() + 1);
+    }
+
+    private static int catalogSize(CatalogDto catalog) {
+        int size = stringSize(1, catalog.productId())
+                + stringSize(2, catalog.name())
+                + stringSize(3, catalog.description());
+        if (catalog.specs() != null) {
+            for (Map.Entry<String, String> entry : catalog.specs().entrySet()) {
+                size += messageSize(4, mapEntrySize(entry));
+            }
+        }
+        return size + stringsSize(5, catalog.images());
+    }
+
+    private static int priceSize(ProductResponse response) {
+        int size = CodedOutputStream.computeEnumSize(4, response.priceStatus().ordinal() + 1);
+        PricingDto price = response.price();
+        if (price != null) {
+            size += decimalFieldSize(1, price.basePrice())
+                    + decimalFieldSize(2, price.discount())
+                    + decimalFieldSize(3, price.finalPrice())
+                    + timestampFieldSize(5, price.staleAsOf());
+        }
+        return size;
+    }
+
+    private static int availabilitySize(ProductResponse response) {
+        int size = CodedOutputStream.computeEnumSize(4, response.availabilityStatus().ordinal() + 1);
+        AvailabilityDto availability = response.availability();
+        if (availability != null) {
+            if (availability.stock() != null) {
+                size += CodedOutputStream.computeInt32Size(1, availability.stock());
+            }
+            size += stringSize(2, availability.warehouse());
+            size += timestampFieldSize(3, availability.expectedDelivery())
+                    + timestampFieldSize(5, availability.staleAsOf());
+        }
+        return size;
+    }
+
+    private static int customerSize(ProductResponse response) {
+        int size = CodedOutputStream.computeEnumSize(4, response.customerStatus().ordinal() + 1);
+        CustomerDto customer = response.customer();
+        if (customer != null) {
+            size += stringSize(1, customer.customerId())
+                    + stringSize(2, customer.segment())
+                    + stringsSize(3, customer.preferences());
+        }
+        return size;
+    }
+
+    private static int timestampFieldSize(int field, Instant instant) {
+        return instant == null ? 0 : messageSize(field, timestampSize(instant));
+    }
+
+    private static void writeTimestamp(CodedOutputStream out, int field, Instant instant) throws IOException {
+        if (instant == null) {
+            return;
+        }
+        writeHeader(out, field, timestampSize(instant));
+        if (instant.getEpochSecond() != 0) {
+            out.writeInt64(1, instant.getEpochSecond());
+        }
+        if (instant.getNano() != 0) {
+            out.writeInt32(2, instant.getNano());
+        }
+    }
+
+    private static int timestampSize(Instant instant) {
+        return (instant.getEpochSecond() != 0 ? CodedOutputStream.computeInt64Size(1, instant.getEpochSecond()) : 0)
+                + (instant.getNano() != 0 ? CodedOutputStream.computeInt32Size(2, instant.getNano()) : 0);
+    }
+
+    private static int mapEntrySize(Map.Entry<String, String> entry) {
+        return stringSize(1, entry.getKey()) + stringSize(2, entry.getValue());
+    }
+
+    private static int decimalFieldSize(int field, BigDecimal value) {
+        return value == null ? 0 : messageSize(field, decimalSize(value));
+    }
+
+    private static int decimalSize(BigDecimal value) {
+        BigDecimal compact = compact(value);
+        BigInteger unscaled = compact.unscaledValue();
+        int size = compact.scale() != 0 ? CodedOutputStream.computeInt32Size(2, compact.scale()) : 0;
+        if (unscaled.bitLength() >= Long.SIZE) {
+            return size + CodedOutputStream.computeByteArraySize(3, unscaled.toByteArray());
+        }
+        return size + (unscaled.signum() != 0 ? CodedOutputStream.computeSInt64Size(1, unscaled.longValue()) : 0);
+    }
+
+    private static void writeDecimal(CodedOutputStream out, int field, BigDecimal value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        writeHeader(out, field, decimalSize(value));
+        BigDecimal compact = compact(value);
+        BigInteger unscaled = compact.unscaledValue();
+        boolean big = unscaled.bitLength() >= Long.SIZE;
+        if (!big && unscaled.signum() != 0) {
+            out.writeSInt64(1, unscaled.longValue());
+        }
+        if (compact.scale() != 0) {
+            out.writeInt32(2, compact.scale());
+        }
+        if (big) {
+            out.writeByteArray(3, unscaled.toByteArray());
+        }
+    }
+
+    /**
+     * The same value with its trailing zeros moved into the scale when the unscaled value does not
+     * fit in a {@code sint64} as it is; prices normally do, and are left untouched.
+     */
+    private static BigDecimal compact(BigDecimal value) {
+        return value.unscaledValue().bitLength() < Long.SIZE ? value : value.stripTrailingZeros();
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static int stringsSize(int field, List<String> values) {
+        int size = 0;
+        if (values != null) {
+            for (int i = 0, n = values.size(); i < n; i++) {
+                size += stringSize(field, values.get(i));
+            }
+        }
+        return size;
+    }
+
+    private static int messageSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    private static void writeHeader(CodedOutputStream out, int field, int size) throws IOException {
+        out.writeTag(field, LENGTH_DELIMITED);
+        out.writeUInt32NoTag(size);
+    }
+
+    private static void writeString(CodedOutputStream out, int field, String value) throws IOException {
+        if (value != null) {
+            out.writeString(field, value);
+        }
+    }
+
+    private static void writeStrings(CodedOutputStream out, int field, List<String> values) throws IOException {
+        if (values != null) {
+            for (int i = 0, n = values.size(); i < n; i++) {
+                writeString(out, field, values.get(i));
+            }
+        }
+    }
+}
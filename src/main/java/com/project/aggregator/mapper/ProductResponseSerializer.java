@@ -0,0 +1,299 @@
+package com.project.aggregator.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.project.aggregator.model.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams a {@link ProductResponse} straight from the upstream DTOs to the {@link JsonGenerator}.
+ * <p>
+ * Field names and status values are pre-encoded {@link SerializedString}s, so the only work left
+ * per request is writing the values themselves. The output shape is the public API contract:
+ * <pre>
+ * {"catalog":{"productId","name","description","specs","image"},
+ *  "price":{"basePrice","discount","finalPrice",["stale","asOf",]"status"},
+ *  "availability":{"stock","warehouse","expectedDeliver",["stale","asOf",]"status"},
+ *  "customer":{"customerId","segment","preference","status"}}
+ * </pre>
+ * {@code "stale": true} and {@code "asOf"} appear only on a last known good value served while its
+ * upstream was unavailable.
+ */
+public class ProductResponseSerializer extends StdSerializer<ProductResponse> {
+
+    private static final SerializableString CATALOG = new SerializedString("catalog");
+    private static final SerializableString PRICE = new SerializedString("price");
+    private static final SerializableString AVAILABILITY = new SerializedString("availability");
+    private static final SerializableString CUSTOMER = new SerializedString("customer");
+
+    private static final SerializableString PRODUCT_ID = new SerializedString("productId");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString SPECS = new SerializedString("specs");
+    private static final SerializableString IMAGE = new SerializedString("image");
+
+    private static final SerializableString BASE_PRICE = new SerializedString("basePrice");
+    private static final SerializableString DISCOUNT = new SerializedString("discount");
+    private static final SerializableString FINAL_PRICE = new SerializedString("finalPrice");
+
+    private static final SerializableString STOCK = new SerializedString("stock");
+    private static final SerializableString WAREHOUSE = new SerializedString("warehouse");
+    private static final SerializableString EXPECTED_DELIVER = new SerializedString("expectedDeliver");
+
+    private static final SerializableString CUSTOMER_ID = new SerializedString("customerId");
+    private static final SerializableString SEGMENT = new SerializedString("segment");
+    private static final SerializableString PREFERENCE = new SerializedString("preference");
+
+    private static final SerializableString STALE = new SerializedString("stale");
+    private static final SerializableString AS_OF = new SerializedString("asOf");
+    private static final SerializableString STATUS = new SerializedString("status");
+
+    private static final SerializableString[] PRICE_STATUS = encode(ProductResponse.PriceStatus.values());
+    private static final SerializableString[] AVAILABILITY_STATUS = encode(ProductResponse.AvailabilityStatus.values());
+    private static final SerializableString[] CUSTOMER_STATUS = encode(ProductResponse.CustomerStatus.values());
+
+    /** 0000-01-01T00:00:00Z and 9999-12-31T23:59:59Z, the range with a plain four-digit year. */
+    private static final long MIN_FAST_EPOCH_SECOND = -62_167_219_200L;
+    private static final long MAX_FAST_EPOCH_SECOND = 253_402_300_799L;
+
+    /** "yyyy-MM-ddTHH:mm:ss.nnnnnnnnnZ" */
+    private static final ThreadLocal<char[]> INSTANT_BUFFER = ThreadLocal.withInitial(() -> new char[30]);
+
+    public ProductResponseSerializer() {
+        super(ProductResponse.class);
+    }
+
+    @Override
+    public void serialize(ProductResponse response, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(response);
+
+        gen.writeFieldName(CATALOG);
+        CatalogFragment fragment = response.catalogFragment();
+        if (fragment != null && canSplice(gen)) {
+            gen.writeRawValue(fragment);
+        } else {
+            writeCatalog(response.catalog(), gen);
+        }
+
+        gen.writeFieldName(PRICE);
+        writePrice(response.price(), gen);
+        gen.writeFieldName(STATUS);
+        gen.writeString(PRICE_STATUS[response.priceStatus().ordinal()]);
+        gen.writeEndObject();
+
+        gen.writeFieldName(AVAILABILITY);
+        writeAvailability(response.availability(), gen);
+        gen.writeFieldName(STATUS);
+        gen.writeString(AVAILABILITY_STATUS[response.availabilityStatus().ordinal()]);
+        gen.writeEndObject();
+
+        gen.writeFieldName(CUSTOMER);
+        writeCustomer(response.customer(), gen);
+        gen.writeFieldName(STATUS);
+        gen.writeString(CUSTOMER_STATUS[response.customerStatus().ordinal()]);
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+
+    /**
+     * Pre-encoded fragments are compact UTF-8 JSON, so they can only be copied into a plain JSON
+     * generator; anything else (pretty printing, token buffers, other formats) gets the DTO.
+     */
+    private static boolean canSplice(JsonGenerator gen) {
+        return gen instanceof JsonGeneratorImpl && gen.getPrettyPrinter() == null;
+    }
+
+    static void writeCatalog(CatalogDto catalog, JsonGenerator gen) throws IOException {
+        if (catalog == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(catalog);
+        gen.writeFieldName(PRODUCT_ID);
+        gen.writeString(catalog.productId());
+        gen.writeFieldName(NAME);
+        gen.writeString(catalog.name());
+        gen.writeFieldName(DESCRIPTION);
+        gen.writeString(catalog.description());
+        gen.writeFieldName(SPECS);
+        writeMap(catalog.specs(), gen);
+        gen.writeFieldName(IMAGE);
+        writeList(catalog.images(), gen);
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes the price fields of an open object; the caller appends the status and closes it.
+     */
+    private static void writePrice(PricingDto price, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(price);
+        gen.writeFieldName(BASE_PRICE);
+        writeNumber(price != null ? price.basePrice() : null, gen);
+        gen.writeFieldName(DISCOUNT);
+        writeNumber(price != null ? price.discount() : null, gen);
+        gen.writeFieldName(FINAL_PRICE);
+        writeNumber(price != null ? price.finalPrice() : null, gen);
+        writeStale(price != null ? price.staleAsOf() : null, gen);
+    }
+
+    private static void writeAvailability(AvailabilityDto availability, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(availability);
+        gen.writeFieldName(STOCK);
+        Integer stock = availability != null ? availability.stock() : null;
+        if (stock == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(stock);
+        }
+        gen.writeFieldName(WAREHOUSE);
+        gen.writeString(availability != null ? availability.warehouse() : null);
+        gen.writeFieldName(EXPECTED_DELIVER);
+        writeInstant(availability != null ? availability.expectedDelivery() : null, gen);
+        writeStale(availability != null ? availability.staleAsOf() : null, gen);
+    }
+
+    private static void writeStale(Instant staleAsOf, JsonGenerator gen) throws IOException {
+        if (staleAsOf != null) {
+            gen.writeFieldName(STALE);
+            gen.writeBoolean(true);
+            gen.writeFieldName(AS_OF);
+            writeInstant(staleAsOf, gen);
+        }
+    }
+
+    private static void writeCustomer(CustomerDto customer, JsonGenerator gen) throws IOException {
+        gen.writeStartObject(customer);
+        gen.writeFieldName(CUSTOMER_ID);
+        gen.writeString(customer != null ? customer.customerId() : null);
+        gen.writeFieldName(SEGMENT);
+        gen.writeString(customer != null ? customer.segment() : null);
+        gen.writeFieldName(PREFERENCE);
+        writeList(customer != null ? customer.preferences() : null, gen);
+    }
+
+    private static void writeNumber(BigDecimal value, JsonGenerator gen) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    /**
+     * Writes the instant in {@link java.time.format.DateTimeFormatter#ISO_INSTANT} form, identical to
+     * {@link Instant#toString()}, without the intermediate {@code LocalDateTime} and {@code String}.
+     * Years outside 0000-9999 (which need a sign or extra digits) fall back to {@code toString()}.
+     */
+    static void writeInstant(Instant instant, JsonGenerator gen) throws IOException {
+        if (instant == null) {
+            gen.writeNull();
+            return;
+        }
+        long epochSecond = instant.getEpochSecond();
+        if (epochSecond < MIN_FAST_EPOCH_SECOND || epochSecond > MAX_FAST_EPOCH_SECOND) {
+            gen.writeString(instant.toString());
+            return;
+        }
+        long epochDay = Math.floorDiv(epochSecond, 86_400);
+        int secondOfDay = (int) Math.floorMod(epochSecond, 86_400);
+
+        // Civil-from-days (H. Hinnant), valid for the whole proleptic Gregorian calendar
+        long z = epochDay + 719_468;
+        long era = (z >= 0 ? z : z - 146_096) / 146_097;
+        int doe = (int) (z - era * 146_097);
+        int yoe = (doe - doe / 1_460 + doe / 36_524 - doe / 146_096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = (int) (yoe + era * 400) + (month <= 2 ? 1 : 0);
+
+        char[] buf = INSTANT_BUFFER.get();
+        put4(buf, 0, year);
+        buf[4] = '-';
+        put2(buf, 5, month);
+        buf[7] = '-';
+        put2(buf, 8, day);
+        buf[10] = 'T';
+        put2(buf, 11, secondOfDay / 3_600);
+        buf[13] = ':';
+        put2(buf, 14, secondOfDay / 60 % 60);
+        buf[16] = ':';
+        put2(buf, 17, secondOfDay % 60);
+        int len = 19;
+        int nano = instant.getNano();
+        if (nano > 0) {
+            buf[len++] = '.';
+            if (nano % 1_000_000 == 0) {
+                len = putFraction(buf, len, nano / 1_000_000, 3);
+            } else if (nano % 1_000 == 0) {
+                len = putFraction(buf, len, nano / 1_000, 6);
+            } else {
+                len = putFraction(buf, len, nano, 9);
+            }
+        }
+        buf[len++] = 'Z';
+        gen.writeString(buf, 0, len);
+    }
+
+    private static void put2(char[] buf, int pos, int value) {
+        buf[pos] = (char) ('0' + value / 10);
+        buf[pos + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void put4(char[] buf, int pos, int value) {
+        put2(buf, pos, value / 100);
+        put2(buf, pos + 2, value % 100);
+    }
+
+    private static int putFraction(char[] buf, int pos, int value, int digits) {
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + digits;
+    }
+
+    private static void writeMap(Map<String, String> map, JsonGenerator gen) throws IOException {
+        if (map == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject(map);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            gen.writeString(entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeList(List<String> list, JsonGenerator gen) throws IOException {
+        if (list == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartArray(list, list.size());
+        for (int i = 0, n = list.size(); i < n; i++) {
+            gen.writeString(list.get(i));
+        }
+        gen.writeEndArray();
+    }
+
+    private static SerializableString[] encode(Enum<?>[] values) {
+        SerializableString[] encoded = new SerializableString[values.length];
+        for (Enum<?> value : values) {
+            encoded[value.ordinal()] = new SerializedString(value.name());
+        }
+        return encoded;
+    }
+}
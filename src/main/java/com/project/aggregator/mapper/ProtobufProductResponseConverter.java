@@ -0,0 +1,57 @@
+package com.project.aggregator.mapper;
+
+import com.google.protobuf.CodedOutputStream;
+import com.project.aggregator.model.ProductResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link ProductResponse} as {@code application/x-protobuf} using
+ * {@link ProductResponseProtobufWriter}. Write-only: the aggregator never accepts protobuf bodies.
+ */
+public class ProtobufProductResponseConverter extends AbstractHttpMessageConverter<ProductResponse> {
+
+    public static final String PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType PROTOBUF = MediaType.parseMediaType(PROTOBUF_VALUE);
+
+    private static final int MAX_BUFFER_SIZE = 8192;
+
+    public ProtobufProductResponseConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return ProductResponse.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected ProductResponse readInternal(@NonNull Class<? extends ProductResponse> clazz, @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Reading protobuf product responses is not supported", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(@NonNull ProductResponse response, MediaType contentType) {
+        return (long) ProductResponseProtobufWriter.serializedSize(response);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull ProductResponse response, @NonNull HttpOutputMessage outputMessage) throws IOException {
+        int size = ProductResponseProtobufWriter.serializedSize(response);
+        CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), Math.min(size, MAX_BUFFER_SIZE));
+        ProductResponseProtobufWriter.write(response, out);
+        out.flush();
+    }
+}
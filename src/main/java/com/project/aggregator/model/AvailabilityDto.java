@@ -1,11 +1,26 @@
 package com.project.aggregator.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.Instant;
 
-public record AvailabilityDto(Integer stock, String warehouse, Instant expectedDelivery) implements FetchResult {
+/**
+ * @param staleAsOf set only on last-known-good stock served while availability is unavailable:
+ *                  when that stock level was fetched. Never part of the upstream contract.
+ */
+public record AvailabilityDto(Integer stock, String warehouse, Instant expectedDelivery,
+                              @JsonIgnore Instant staleAsOf) implements FetchResult {
 
     public static final String RESPONSE_TYPE = AvailabilityDto.class.getSimpleName();
 
+    public AvailabilityDto(Integer stock, String warehouse, Instant expectedDelivery) {
+        this(stock, warehouse, expectedDelivery, null);
+    }
+
+    public AvailabilityDto asStale(Instant fetchedAt) {
+        return new AvailabilityDto(stock, warehouse, expectedDelivery, fetchedAt);
+    }
+
     @Override
     public String getName() {
         return RESPONSE_TYPE;
@@ -0,0 +1,23 @@
+package com.project.aggregator.model;
+
+import jakarta.annotation.Nullable;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Query of a multi-market lookup: {@code markets} as a comma-separated list or a repeated parameter.
+ */
+public record MultiMarketRequest(
+
+        @NotEmpty(message = "markets is required (e.g. nl-NL,de-DE,pl-PL)")
+        @Size(max = 8, message = "at most 8 markets per request")
+        List<@Pattern(regexp = "^[a-z]{2}-[A-Z]{2}$", message = "market must be a valid BCP-47 locale tag (e.g. nl-NL, de-DE, pl-PL)") String> markets,
+
+        @Pattern(regexp = "^[\\w-]+$")
+        @Nullable
+        String customerId
+) {
+}
@@ -1,10 +1,26 @@
 package com.project.aggregator.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
+import java.time.Instant;
 
-public record PricingDto(BigDecimal basePrice, BigDecimal discount, BigDecimal finalPrice) implements FetchResult {
+/**
+ * @param staleAsOf set only on a last-known-good price served while pricing is unavailable: when
+ *                  that price was fetched. Never part of the upstream contract.
+ */
+public record PricingDto(BigDecimal basePrice, BigDecimal discount, BigDecimal finalPrice,
+                         @JsonIgnore Instant staleAsOf) implements FetchResult {
     public static final String RESPONSE_TYPE = PricingDto.class.getSimpleName();
 
+    public PricingDto(BigDecimal basePrice, BigDecimal discount, BigDecimal finalPrice) {
+        this(basePrice, discount, finalPrice, null);
+    }
+
+    public PricingDto asStale(Instant fetchedAt) {
+        return new PricingDto(basePrice, discount, finalPrice, fetchedAt);
+    }
+
     @Override
     public String getName() {
         return RESPONSE_TYPE;
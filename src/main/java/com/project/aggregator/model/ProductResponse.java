@@ -1,69 +1,48 @@
 package com.project.aggregator.model;
 
-import jakarta.annotation.Nullable;
-import lombok.Builder;
-import lombok.Data;
-
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.util.List;
-import java.util.Map;
-
-@Builder
-@Data
-public class ProductResponse {
-    private CatalogResponse catalog;
-    private PriceResponse price;
-    private AvailabilityResponse availability;
-    private CustomerResponse customer;
-
-    @Builder
-    @Data
-    public static class CatalogResponse {
-        private String productId;
-        private String name;
-        private String description;
-        private Map<String, String> specs;
-        private List<String> image;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.project.aggregator.mapper.CatalogFragment;
+import com.project.aggregator.mapper.ProductResponseSerializer;
+
+/**
+ * Aggregated product view. Holds the upstream DTOs as-is; a {@code null} section means the
+ * corresponding upstream did not deliver. The JSON shape (section names, field names and status
+ * enums) is produced by {@link ProductResponseSerializer} directly from the DTOs, so no
+ * intermediate response objects are built per request.
+ * <p>
+ * {@code catalogFragment}, when present, is the catalog section already encoded as JSON and is
+ * written verbatim in place of {@code catalog}.
+ */
+@JsonSerialize(using = ProductResponseSerializer.class)
+public record ProductResponse(
+        CatalogDto catalog,
+        PricingDto price,
+        AvailabilityDto availability,
+        CustomerDto customer,
+        CatalogFragment catalogFragment
+) {
+
+    public PriceStatus priceStatus() {
+        return price != null ? PriceStatus.AVAILABLE : PriceStatus.UNAVAILABLE;
     }
 
-    @Builder
-    @Data
-    public static class PriceResponse {
-        private BigDecimal basePrice;
-        private BigDecimal discount;
-        private BigDecimal finalPrice;
-        private Status status;
-
-        @Nullable
-        public enum Status {
-            AVAILABLE, UNAVAILABLE
-        }
+    public AvailabilityStatus availabilityStatus() {
+        return availability != null ? AvailabilityStatus.IN_STOCK : AvailabilityStatus.UNKNOWN_STOCK;
     }
 
-    @Builder
-    @Data
-    public static class AvailabilityResponse {
-        private Integer stock;
-        private String warehouse;
-        private Instant expectedDeliver;
-        private Status status;
+    public CustomerStatus customerStatus() {
+        return customer != null ? CustomerStatus.PERSONALIZED : CustomerStatus.NON_PERSONALIZED;
+    }
 
-        public enum Status {
-            IN_STOCK, UNKNOWN_STOCK
-        }
+    public enum PriceStatus {
+        AVAILABLE, UNAVAILABLE
     }
 
-    @Builder
-    @Data
-    public static class CustomerResponse {
-        private String customerId;
-        private String segment;
-        private List<String> preference;
-        private Status status;
+    public enum AvailabilityStatus {
+        IN_STOCK, UNKNOWN_STOCK
+    }
 
-        public enum Status {
-            PERSONALIZED, NON_PERSONALIZED
-        }
+    public enum CustomerStatus {
+        PERSONALIZED, NON_PERSONALIZED
     }
 }
@@ -1,39 +1,162 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.limit.Brownout;
 import com.project.aggregator.model.FetchResult;
 import com.project.aggregator.model.ProductCommand;
-import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@AllArgsConstructor
 public class AggregatorService {
 
     private final List<FetchService<? extends FetchResult>> fetchServices;
 
-    public Map<String, FetchResult> fetch(ProductCommand command) {
-        List<CompletableFuture<FetchResult>> futures = fetchServices.stream()
-                .map(service -> callSafely(service, command))
-                .toList();
+    /**
+     * @throws IllegalStateException if two services produce the same result type, their
+     *                               {@link FetchService#inputs()} form a cycle, or a
+     *                               market-independent service takes a market-specific input
+     */
+    public AggregatorService(List<FetchService<? extends FetchResult>> fetchServices) {
+        this.fetchServices = inDependencyOrder(fetchServices);
+    }
+
+    /**
+     * Calls the optional services, except those the brownout level drops. Services without inputs
+     * run in parallel right away; the others as soon as their inputs are in, so the slowest chain
+     * rather than the sum of the calls bounds the latency.
+     */
+    public Map<String, FetchResult> fetch(ProductCommand command, Brownout.Level brownout) {
+        return collect(scheduleAll(command, brownout, new HashMap<>()));
+    }
+
+    /**
+     * {@link #fetch} for the same product in several markets at once, keyed by market. Services
+     * that are not {@link FetchService#marketSpecific()} are called once, with the first command,
+     * and their result is shared.
+     */
+    public Map<String, Map<String, FetchResult>> fetchAll(List<ProductCommand> commands, Brownout.Level brownout) {
+        Map<String, CompletableFuture<FetchResult>> shared = new HashMap<>();
+        Map<String, Map<String, CompletableFuture<FetchResult>>> futures = new LinkedHashMap<>();
+        for (ProductCommand command : commands) {
+            futures.put(command.market(), scheduleAll(command, brownout, shared));
+        }
+
+        Map<String, Map<String, FetchResult>> results = LinkedHashMap.newLinkedHashMap(futures.size());
+        futures.forEach((market, marketFutures) -> results.put(market, collect(marketFutures)));
+        return results;
+    }
+
+    private Map<String, CompletableFuture<FetchResult>> scheduleAll(ProductCommand command, Brownout.Level brownout,
+                                                                    Map<String, CompletableFuture<FetchResult>> shared) {
+        Map<String, CompletableFuture<FetchResult>> futures = new LinkedHashMap<>();
+        for (FetchService<? extends FetchResult> service : fetchServices) {
+            if (brownout.drops(service.resultType())) {
+                continue;
+            }
+            CompletableFuture<FetchResult> future = service.marketSpecific()
+                    ? schedule(service, command, futures)
+                    : shared.computeIfAbsent(service.resultType(), type -> schedule(service, command, futures));
+            futures.put(service.resultType(), future);
+        }
+        return futures;
+    }
 
-        return futures.stream()
+    private static Map<String, FetchResult> collect(Map<String, CompletableFuture<FetchResult>> futures) {
+        return futures.values().stream()
                 .map(CompletableFuture::join)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toMap(FetchResult::getName, Function.identity()));
     }
 
-    private CompletableFuture<FetchResult> callSafely(FetchService<? extends FetchResult> service, ProductCommand command) {
+    /**
+     * Services in the order they were given, except that each comes after the services producing
+     * its inputs. Inputs no service produces are ignored here and absent at runtime.
+     */
+    static List<FetchService<? extends FetchResult>> inDependencyOrder(
+            List<FetchService<? extends FetchResult>> services) {
+        Set<String> producible = new HashSet<>();
+        Set<String> marketSpecific = new HashSet<>();
+        for (FetchService<? extends FetchResult> service : services) {
+            if (!producible.add(service.resultType())) {
+                throw new IllegalStateException("More than one service produces " + service.resultType());
+            }
+            if (service.marketSpecific()) {
+                marketSpecific.add(service.resultType());
+            }
+        }
+        for (FetchService<? extends FetchResult> service : services) {
+            if (!service.marketSpecific() && service.inputs().stream().anyMatch(marketSpecific::contains)) {
+                throw new IllegalStateException(service.resultType()
+                        + " is shared between markets but takes market-specific inputs " + service.inputs());
+            }
+        }
+        List<FetchService<? extends FetchResult>> ordered = new ArrayList<>(services.size());
+        List<FetchService<? extends FetchResult>> remaining = new ArrayList<>(services);
+        Set<String> scheduled = new HashSet<>();
+        while (!remaining.isEmpty()) {
+            boolean progress = remaining.removeIf(service -> {
+                boolean ready = service.inputs().stream()
+                        .allMatch(input -> scheduled.contains(input) || !producible.contains(input));
+                if (ready) {
+                    ordered.add(service);
+                    scheduled.add(service.resultType());
+                }
+                return ready;
+            });
+            if (!progress) {
+                throw new IllegalStateException("Fetch service inputs form a cycle: " + remaining.stream()
+                        .map(service -> service.resultType() + " <- " + service.inputs())
+                        .toList());
+            }
+        }
+        return List.copyOf(ordered);
+    }
+
+    private CompletableFuture<FetchResult> schedule(FetchService<? extends FetchResult> service, ProductCommand command,
+                                                    Map<String, CompletableFuture<FetchResult>> scheduled) {
+        Set<String> inputs = service.inputs();
+        if (inputs.isEmpty() || service.startsWithoutInputs(command)) {
+            return callSafely(service, () -> service.fetch(command));
+        }
+        Map<String, CompletableFuture<FetchResult>> awaited = new HashMap<>();
+        for (String input : inputs) {
+            CompletableFuture<FetchResult> future = scheduled.get(input);
+            if (future != null) {
+                awaited.put(input, future);
+            }
+        }
+        // callSafely futures never fail, so this waits for every input however it turns out
+        return CompletableFuture.allOf(awaited.values().toArray(CompletableFuture[]::new))
+                .thenCompose(ignored -> {
+                    Map<String, FetchResult> resolved = new HashMap<>();
+                    awaited.forEach((input, future) -> {
+                        FetchResult result = future.join();
+                        if (result != null) {
+                            resolved.put(input, result);
+                        }
+                    });
+                    return callSafely(service, () -> service.fetch(command, resolved));
+                });
+    }
+
+    private CompletableFuture<FetchResult> callSafely(FetchService<? extends FetchResult> service,
+                                                      Supplier<? extends CompletableFuture<? extends FetchResult>> call) {
         try {
-            return service.fetch(command)
+            return call.get()
                     .<FetchResult>thenApply(r -> r)
                     .exceptionally(ex -> {
                         log.warn("{} failed: {}", service.getClass().getSimpleName(), ex.getMessage());
@@ -44,4 +167,4 @@ public class AggregatorService {
             return CompletableFuture.completedFuture(null);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,11 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.LastKnownGood;
+import com.project.aggregator.cache.ProductKey;
 import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.UpstreamLimiters;
 import com.project.aggregator.model.AvailabilityDto;
 import com.project.aggregator.model.ProductCommand;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -10,6 +15,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StopWatch;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -19,26 +26,47 @@ import java.util.concurrent.TimeUnit;
 public class AvailabilityService implements FetchService<AvailabilityDto> {
 
     private final AvailabilityClient client;
+    private final LastKnownGood<ProductKey, AvailabilityDto> availabilityLastKnownGood;
+    private final UpstreamLimiters limiters;
 
     @Value("${app.timeout.service-timeout-millis}")
     private long timeoutMillis;
 
+    @Override
+    public String resultType() {
+        return AvailabilityDto.RESPONSE_TYPE;
+    }
+
     @Override
     @CircuitBreaker(name = "availabilityCB", fallbackMethod = "fallback")
     public CompletableFuture<AvailabilityDto> fetch(ProductCommand command) {
+        ConcurrencyLimiter.Permit permit = limiters.availability().tryAcquire();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new OverloadedException("availability", Duration.ZERO));
+        }
         StopWatch sw = new StopWatch();
         sw.start();
         log.info("Executing Availability info");
-        return CompletableFuture
-                .supplyAsync(() -> client.fetch(command.productId(), command.market()))
+        return client.fetchAsync(command.productId(), command.market())
                 .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
                 .whenComplete((r, e) -> {
+                    permit.release(ConcurrencyLimiter.Outcome.of(e));
+                    if (e == null) {
+                        availabilityLastKnownGood.put(new ProductKey(command.productId(), command.market()), r);
+                    }
                     sw.stop();
                     log.info("Executed Availability info after  {} ms", sw.getTotalTimeMillis());
                 });
     }
 
     private CompletableFuture<AvailabilityDto> fallback(ProductCommand command, Throwable throwable) {
+        var lastKnownGood = availabilityLastKnownGood.get(new ProductKey(command.productId(), command.market()));
+        if (lastKnownGood != null) {
+            log.warn("Availability unavailable, serving the stock level from {}: {}",
+                    Instant.ofEpochMilli(lastKnownGood.storedAt()), throwable.toString());
+            return CompletableFuture.completedFuture(
+                    lastKnownGood.value().asStale(Instant.ofEpochMilli(lastKnownGood.storedAt())));
+        }
         log.error("Unable to execute call. Return default result", throwable);
         return CompletableFuture.completedFuture(new AvailabilityDto(null, null, null));
     }
@@ -0,0 +1,223 @@
+package com.project.aggregator.service;
+
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import com.project.aggregator.model.ProductCommand;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the catalog and pricing caches warm for the hottest (productId, market) keys.
+ * <p>
+ * The top keys reported by {@link HotKeyTracker} are written to {@code app.prefetch.file} every
+ * {@code app.prefetch.persist-interval} and on shutdown. On startup that file is read back and its
+ * keys are queued for prefetch; while running, hot keys whose cache entries expire are queued
+ * again. The queue is drained in the background at no more than {@code app.prefetch.rate-per-second}
+ * keys per second with at most {@code app.prefetch.concurrency} fetches in flight, going through
+ * {@link CatalogService} and {@link PricingService} so that their circuit breakers and caches apply.
+ * Only the anonymous price is prefetched, since customer prices depend on the caller.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.prefetch.enabled", havingValue = "true")
+public class CachePrefetcher {
+
+    private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(1);
+
+    private final HotKeyTracker hotKeys;
+    private final CatalogService catalogService;
+    private final PricingService pricingService;
+    private final TtlCache<ProductKey, CatalogDto> catalogCache;
+    private final TtlCache<PricingKey, PricingDto> pricingCache;
+    private final Path file;
+    private final Duration persistInterval;
+    private final int ratePerSecond;
+    private final Semaphore inFlight;
+
+    private final ConcurrentLinkedQueue<ProductKey> queue = new ConcurrentLinkedQueue<>();
+    private final Set<ProductKey> queued = ConcurrentHashMap.newKeySet();
+    private final LongAdder prefetched = new LongAdder();
+    private final ScheduledExecutorService scheduler;
+
+    public CachePrefetcher(HotKeyTracker hotKeys,
+                           CatalogService catalogService,
+                           PricingService pricingService,
+                           TtlCache<ProductKey, CatalogDto> catalogCache,
+                           TtlCache<PricingKey, PricingDto> pricingCache,
+                           @Value("${app.prefetch.file}") Path file,
+                           @Value("${app.prefetch.persist-interval}") Duration persistInterval,
+                           @Value("${app.prefetch.rate-per-second}") int ratePerSecond,
+                           @Value("${app.prefetch.concurrency}") int concurrency) {
+        if (ratePerSecond <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("app.prefetch.rate-per-second and app.prefetch.concurrency must be positive");
+        }
+        this.hotKeys = hotKeys;
+        this.catalogService = catalogService;
+        this.pricingService = pricingService;
+        this.catalogCache = catalogCache;
+        this.pricingCache = pricingCache;
+        this.file = file;
+        this.persistInterval = persistInterval;
+        this.ratePerSecond = ratePerSecond;
+        this.inFlight = new Semaphore(concurrency);
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(concurrency + 1, task -> {
+            Thread thread = new Thread(task, "cache-prefetch-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        List<ProductKey> persisted = readHotKeys();
+        persisted.forEach(this::enqueue);
+        log.info("Prefetching {} hot keys from {} at up to {}/s", persisted.size(), file, ratePerSecond);
+
+        scheduler.scheduleAtFixedRate(this::drainOne, 0, 1_000_000L / ratePerSecond, TimeUnit.MICROSECONDS);
+        scheduler.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL.toMillis(), SWEEP_INTERVAL.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::persistSafely, persistInterval.toMillis(), persistInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        persistSafely();
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    public long prefetchedCount() {
+        return prefetched.sum();
+    }
+
+    void enqueue(ProductKey key) {
+        if (queued.add(key)) {
+            queue.add(key);
+        }
+    }
+
+    /**
+     * Queues hot keys whose catalog or anonymous-price entry has just expired.
+     */
+    void sweep() {
+        for (ProductKey key : catalogCache.evictExpired()) {
+            if (hotKeys.isHot(key)) {
+                enqueue(key);
+            }
+        }
+        for (PricingKey key : pricingCache.evictExpired()) {
+            ProductKey productKey = new ProductKey(key.productId(), key.market());
+            if (key.customerId() == null && hotKeys.isHot(productKey)) {
+                enqueue(productKey);
+            }
+        }
+    }
+
+    void drainOne() {
+        if (!inFlight.tryAcquire()) {
+            return;
+        }
+        ProductKey key = queue.poll();
+        if (key == null) {
+            inFlight.release();
+            return;
+        }
+        scheduler.execute(() -> {
+            try {
+                prefetch(key);
+            } finally {
+                queued.remove(key);
+                inFlight.release();
+            }
+        });
+    }
+
+    void prefetch(ProductKey key) {
+        try {
+            catalogService.fetch(key.productId(), key.market());
+            pricingService.fetch(new ProductCommand(key.productId(), key.market(), null)).join();
+            prefetched.increment();
+        } catch (ProductNotFoundException e) {
+            log.debug("Skipping prefetch of unknown product {}", key.productId());
+        } catch (RuntimeException e) {
+            log.debug("Prefetch of {} failed: {}", key, e.getMessage());
+        }
+    }
+
+    void persist() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (ProductKey key : hotKeys.topKeys()) {
+            lines.add(key.productId() + '\t' + key.market());
+        }
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, lines, StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    List<ProductKey> readHotKeys() {
+        if (!Files.isReadable(file)) {
+            return List.of();
+        }
+        try {
+            List<ProductKey> keys = new ArrayList<>();
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && tab < line.length() - 1) {
+                    keys.add(new ProductKey(line.substring(0, tab), line.substring(tab + 1)));
+                }
+            }
+            return keys;
+        } catch (IOException e) {
+            log.warn("Unable to read hot keys from {}", file, e);
+            return List.of();
+        }
+    }
+
+    private void persistSafely() {
+        try {
+            persist();
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Unable to persist hot keys to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.project.aggregator.service;
+
+import com.project.aggregator.cache.CacheSnapshot;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the catalog and pricing caches across restarts.
+ * <p>
+ * The caches are written to {@code app.cache.snapshot.file} (see {@link CacheSnapshot}) on
+ * graceful shutdown and, if {@code app.cache.snapshot.interval} is positive, periodically. On
+ * startup — before the web server accepts requests — the snapshot is memory-mapped and its
+ * entries are put back with their original expiry times, so anything that has expired in the
+ * meantime is dropped. The catalog fragments of the restored entries are pre-encoded as well.
+ * A missing or unreadable snapshot just means a cold start.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.cache.snapshot.enabled", havingValue = "true")
+public class CacheSnapshotter {
+
+    private final TtlCache<ProductKey, CatalogDto> catalogCache;
+    private final TtlCache<PricingKey, PricingDto> pricingCache;
+    private final CatalogFragmentCache fragmentCache;
+    private final Path file;
+    private final Duration interval;
+    private ScheduledExecutorService scheduler;
+
+    public CacheSnapshotter(TtlCache<ProductKey, CatalogDto> catalogCache,
+                            TtlCache<PricingKey, PricingDto> pricingCache,
+                            CatalogFragmentCache fragmentCache,
+                            @Value("${app.cache.snapshot.file}") Path file,
+                            @Value("${app.cache.snapshot.interval}") Duration interval) {
+        this.catalogCache = catalogCache;
+        this.pricingCache = pricingCache;
+        this.fragmentCache = fragmentCache;
+        this.file = file;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    public void start() {
+        restore();
+        if (interval.isPositive()) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "cache-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(this::snapshotSafely, interval.toMillis(), interval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        snapshotSafely();
+    }
+
+    /**
+     * Loads the snapshot into the caches and returns the number of entries restored.
+     */
+    int restore() {
+        if (!Files.isReadable(file)) {
+            log.info("No cache snapshot at {}; starting cold", file);
+            return 0;
+        }
+        long start = System.nanoTime();
+        CacheSnapshot.Contents contents;
+        try {
+            contents = CacheSnapshot.read(file);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cache snapshot {}: {}", file, e.getMessage());
+            return 0;
+        }
+        int catalogBefore = catalogCache.size();
+        int pricingBefore = pricingCache.size();
+        contents.catalog().forEach((key, entry) -> catalogCache.putUntil(key, entry.value(), entry.expiresAt()));
+        contents.pricing().forEach((key, entry) -> pricingCache.putUntil(key, entry.value(), entry.expiresAt()));
+        int catalogRestored = catalogCache.size() - catalogBefore;
+        int pricingRestored = pricingCache.size() - pricingBefore;
+        catalogCache.entries().forEach((key, entry) -> fragmentCache.get(key, entry.value()));
+
+        int expired = contents.catalog().size() + contents.pricing().size() - catalogRestored - pricingRestored;
+        log.info("Restored {} catalog and {} pricing entries from {} ({} expired) in {} ms",
+                catalogRestored, pricingRestored, file, expired, (System.nanoTime() - start) / 1_000_000);
+        return catalogRestored + pricingRestored;
+    }
+
+    void snapshot() throws IOException {
+        long start = System.nanoTime();
+        Map<ProductKey, TtlCache.Entry<CatalogDto>> catalog = catalogCache.entries();
+        Map<PricingKey, TtlCache.Entry<PricingDto>> pricing = pricingCache.entries();
+        CacheSnapshot.write(file, catalog, pricing);
+        log.info("Wrote {} catalog and {} pricing entries to {} in {} ms",
+                catalog.size(), pricing.size(), file, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void snapshotSafely() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Unable to write cache snapshot to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.aggregator.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.project.aggregator.mapper.CatalogFragment;
+import com.project.aggregator.model.CatalogDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the catalog section of the response pre-encoded as UTF-8 JSON.
+ * <p>
+ * Fragments are kept per (productId, market) together with the {@link CatalogDto} instance they
+ * were encoded from. A lookup with that same instance, as the catalog cache and the product views
+ * hand out, is a hit without hashing or comparing the DTO. Any other instance, such as a refetched
+ * entry, is encoded again and replaces the fragment, so a stale one is never served. The map is
+ * bounded; when full, an arbitrary entry is dropped to make room. Fragments of products reported
+ * by a {@link ProductDataChangedEvent} are dropped straight away rather than left to be evicted.
+ */
+@Slf4j
+@Component
+public class CatalogFragmentCache {
+
+    private final JsonFactory jsonFactory;
+    private final int maxEntries;
+    private final Map<ProductKey, Entry> fragments = new ConcurrentHashMap<>();
+
+    private record Entry(CatalogDto catalog, CatalogFragment fragment) {
+    }
+
+    public CatalogFragmentCache(ObjectMapper objectMapper,
+                                @Value("${app.catalog.fragment-cache.max-entries}") int maxEntries) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the encoded catalog section, or {@code null} if there is nothing to encode or
+     * encoding failed (the serializer then writes the DTO itself).
+     */
+    public CatalogFragment get(ProductKey key, CatalogDto catalog) {
+        if (catalog == null || catalog.name() == null) {
+            return null;
+        }
+        Entry entry = fragments.get(key);
+        if (entry != null && entry.catalog() == catalog) {
+            return entry.fragment();
+        }
+        CatalogFragment fragment;
+        try {
+            fragment = CatalogFragment.encode(catalog, jsonFactory);
+        } catch (IOException e) {
+            log.warn("Unable to pre-encode catalog for product {}", catalog.productId(), e);
+            return null;
+        }
+        if (entry == null && fragments.size() >= maxEntries) {
+            evictOne();
+        }
+        fragments.put(key, new Entry(catalog, fragment));
+        return fragment;
+    }
+
+    @EventListener
+    public void onProductDataChanged(ProductDataChangedEvent event) {
+        fragments.keySet().removeIf(key -> event.affects(key.productId()));
+    }
+
+    public int size() {
+        return fragments.size();
+    }
+
+    private void evictOne() {
+        Iterator<ProductKey> it = fragments.keySet().iterator();
+        if (it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
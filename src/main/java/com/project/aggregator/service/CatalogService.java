@@ -1,26 +1,67 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.KnownProducts;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.cache.TtlCache;
 import com.project.aggregator.client.CatalogClient;
 import com.project.aggregator.exception.CatalogUnavailableException;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.UpstreamLimiters;
 import com.project.aggregator.model.CatalogDto;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CatalogService {
     private final CatalogClient client;
+    private final TtlCache<ProductKey, CatalogDto> catalogCache;
+    private final UpstreamLimiters limiters;
+    private final KnownProducts knownProducts;
+    private final ProductViews productViews;
 
     @CircuitBreaker(name = "catalogCB", fallbackMethod = "fallback")
     public CatalogDto fetch(String productId, String locale) {
+        ProductViews.View view = productViews.get(productId, locale);
+        if (view != null) {
+            return view.catalog();
+        }
+        ProductKey key = new ProductKey(productId, locale);
+        CatalogDto cached = catalogCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        ConcurrencyLimiter.Permit permit = limiters.catalog().tryAcquire();
+        if (permit == null) {
+            throw new OverloadedException("catalog", Duration.ZERO);
+        }
         log.info("Executing Catalog info");
-        return client.fetch(productId, locale);
+        ConcurrencyLimiter.Outcome outcome = ConcurrencyLimiter.Outcome.IGNORED;
+        try {
+            CatalogDto catalog = client.fetch(productId, locale);
+            outcome = ConcurrencyLimiter.Outcome.SUCCESS;
+            catalogCache.put(key, catalog);
+            return catalog;
+        } catch (ProductNotFoundException e) {
+            knownProducts.recordMissing(productId);
+            throw e;
+        } finally {
+            permit.release(outcome);
+        }
     }
 
     private CatalogDto fallback(String productId, String locale, Throwable throwable) {
+        if (throwable instanceof ProductNotFoundException notFound) {
+            throw notFound;
+        }
         log.error("Catalog service failed for product {}", productId, throwable);
         throw new CatalogUnavailableException(throwable);
     }
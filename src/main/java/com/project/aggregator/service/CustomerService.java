@@ -1,6 +1,9 @@
 package com.project.aggregator.service;
 
 import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.UpstreamLimiters;
 import com.project.aggregator.model.CustomerDto;
 import com.project.aggregator.model.ProductCommand;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -10,6 +13,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StopWatch;
 
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -19,18 +23,38 @@ import java.util.concurrent.TimeUnit;
 public class CustomerService implements FetchService<CustomerDto> {
 
     private final CustomerClient client;
+    private final UpstreamLimiters limiters;
     @Value("${app.timeout.service-timeout-millis}")
     private long timeoutMillis;
 
+    @Override
+    public String resultType() {
+        return CustomerDto.RESPONSE_TYPE;
+    }
+
+    @Override
+    public boolean marketSpecific() {
+        return false;
+    }
+
     @Override
     @CircuitBreaker(name = "customerCB", fallbackMethod = "fallback")
     public CompletableFuture<CustomerDto> fetch(ProductCommand command) {
+        // anonymous requests have no customer to look up, and pricing waits for this result
+        if (command.customerId() == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        ConcurrencyLimiter.Permit permit = limiters.customer().tryAcquire();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new OverloadedException("customer", Duration.ZERO));
+        }
         StopWatch sw = new StopWatch();
         sw.start();
         log.info("Executing Customer info");
-        return CompletableFuture.supplyAsync(() -> client.fetch(command.customerId()))
+        return client.fetchAsync(command.customerId())
                 .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
                 .whenComplete((r, e) -> {
+                    permit.release(ConcurrencyLimiter.Outcome.of(e));
                     sw.stop();
                     log.info("Executed Customer info after  {} ms", sw.getTotalTimeMillis());
                 });
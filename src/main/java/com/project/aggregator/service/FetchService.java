@@ -3,9 +3,50 @@ package com.project.aggregator.service;
 import com.project.aggregator.model.FetchResult;
 import com.project.aggregator.model.ProductCommand;
 
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 public interface FetchService<T extends FetchResult> {
 
+    /**
+     * The {@link FetchResult#getName()} of the results, so that a brownout can leave the service out.
+     */
+    String resultType();
+
+    /**
+     * The result types this service needs from other services. {@link AggregatorService} calls
+     * {@link #fetch(ProductCommand, Map)} once those are in, and every other service right away.
+     */
+    default Set<String> inputs() {
+        return Set.of();
+    }
+
+    /**
+     * Whether this command can do without the {@link #inputs()}, for example because the service
+     * remembers what it needs from them. {@link AggregatorService} then calls
+     * {@link #fetch(ProductCommand)} right away instead of waiting.
+     */
+    default boolean startsWithoutInputs(ProductCommand command) {
+        return false;
+    }
+
+    /**
+     * Whether the result depends on the market. A multi-market lookup calls a market-independent
+     * service once and shares its result between the markets; such a service may only take
+     * market-independent inputs.
+     */
+    default boolean marketSpecific() {
+        return true;
+    }
+
     CompletableFuture<T> fetch(ProductCommand command);
+
+    /**
+     * Fetches with the resolved {@link #inputs()}, keyed by result type; an input whose service
+     * failed or was left out is absent.
+     */
+    default CompletableFuture<T> fetch(ProductCommand command, Map<String, FetchResult> inputs) {
+        return fetch(command);
+    }
 }
@@ -1,6 +1,16 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.LastKnownGood;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.cache.TtlCache;
 import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.PriorityClassifier;
+import com.project.aggregator.limit.UpstreamLimiters;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.FetchResult;
 import com.project.aggregator.model.PricingDto;
 import com.project.aggregator.model.ProductCommand;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
@@ -10,6 +20,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StopWatch;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -18,24 +32,93 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class PricingService implements FetchService<PricingDto> {
     private final PricingClient client;
+    private final TtlCache<PricingKey, PricingDto> pricingCache;
+    private final LastKnownGood<PricingKey, PricingDto> pricingLastKnownGood;
+    private final UpstreamLimiters limiters;
+    private final ProductViews productViews;
+    private final PriorityClassifier priorityClassifier;
     @Value("${app.timeout.service-timeout-millis}")
     private long timeoutMillis;
 
+    @Override
+    public String resultType() {
+        return PricingDto.RESPONSE_TYPE;
+    }
+
+    /**
+     * The customer's segment decides the discount, so pricing waits for the customer lookup,
+     * unless the segment is remembered from an earlier response.
+     */
+    @Override
+    public Set<String> inputs() {
+        return Set.of(CustomerDto.RESPONSE_TYPE);
+    }
+
+    @Override
+    public boolean startsWithoutInputs(ProductCommand command) {
+        return command.customerId() == null || priorityClassifier.segmentOf(command.customerId()) != null;
+    }
+
     @Override
     @CircuitBreaker(name = "pricingCB", fallbackMethod = "fallback")
     public CompletableFuture<PricingDto> fetch(ProductCommand command) {
+        String segment = command.customerId() == null ? null : priorityClassifier.segmentOf(command.customerId());
+        return fetch(command, segment);
+    }
+
+    @Override
+    @CircuitBreaker(name = "pricingCB", fallbackMethod = "fallback")
+    public CompletableFuture<PricingDto> fetch(ProductCommand command, Map<String, FetchResult> inputs) {
+        CustomerDto customer = (CustomerDto) inputs.get(CustomerDto.RESPONSE_TYPE);
+        return fetch(command, customer != null ? customer.segment() : null);
+    }
+
+    private CompletableFuture<PricingDto> fetch(ProductCommand command, String segment) {
+        if (command.customerId() == null) {
+            ProductViews.View view = productViews.get(command.productId(), command.market());
+            if (view != null && view.price() != null) {
+                return CompletableFuture.completedFuture(view.price());
+            }
+        }
+        PricingKey key = new PricingKey(command.productId(), command.market(), command.customerId());
+        PricingDto cached = pricingCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        ConcurrencyLimiter.Permit permit = limiters.pricing().tryAcquire();
+        if (permit == null) {
+            return CompletableFuture.failedFuture(new OverloadedException("pricing", Duration.ZERO));
+        }
         StopWatch sw = new StopWatch();
         sw.start();
         log.info("Executing Price info");
-        return CompletableFuture.supplyAsync(() -> client.fetch(command.productId(), command.market(), command.customerId()))
+        return client.fetchAsync(command.productId(), command.market(), command.customerId(), segment)
                 .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
                 .whenComplete((r, e) -> {
+                    permit.release(ConcurrencyLimiter.Outcome.of(e));
+                    if (e == null) {
+                        pricingCache.put(key, r);
+                        pricingLastKnownGood.put(key, r);
+                    }
                     sw.stop();
                     log.info("Executed Price info after {} ms", sw.getTotalTimeMillis());
                 });
     }
 
+    private CompletableFuture<PricingDto> fallback(ProductCommand command, Map<String, FetchResult> inputs,
+                                                   Throwable throwable) {
+        return fallback(command, throwable);
+    }
+
     private CompletableFuture<PricingDto> fallback(ProductCommand command, Throwable throwable) {
+        var lastKnownGood = pricingLastKnownGood.get(
+                new PricingKey(command.productId(), command.market(), command.customerId()));
+        if (lastKnownGood != null) {
+            log.warn("Pricing unavailable, serving the price from {}: {}",
+                    Instant.ofEpochMilli(lastKnownGood.storedAt()), throwable.toString());
+            return CompletableFuture.completedFuture(
+                    lastKnownGood.value().asStale(Instant.ofEpochMilli(lastKnownGood.storedAt())));
+        }
         log.error("Unable to execute call. Return default result", throwable);
         return CompletableFuture.completedFuture(new PricingDto(null, null, null));
     }
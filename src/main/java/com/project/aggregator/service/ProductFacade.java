@@ -1,12 +1,24 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.cache.KnownProducts;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.client.BlockingCalls;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.limit.Brownout;
+import com.project.aggregator.limit.PriorityAdmission;
+import com.project.aggregator.limit.PriorityClassifier;
 import com.project.aggregator.mapper.ProductResponseMapper;
 import com.project.aggregator.model.*;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 @RequiredArgsConstructor
@@ -14,22 +26,101 @@ public class ProductFacade {
 
     private final CatalogService catalogService;
     private final AggregatorService aggregatorService;
+    private final CatalogFragmentCache catalogFragmentCache;
+    private final HotKeyTracker hotKeyTracker;
+    private final KnownProducts knownProducts;
+    private final PriorityAdmission priorityAdmission;
+    private final PriorityClassifier priorityClassifier;
+    private final Brownout brownout;
 
-    public ProductResponse aggregate(ProductCommand productCommand) {
+    /**
+     * @param brownoutLevel the level read once for this request, so that the optional sections
+     *                      left out match what the caller reports as degraded
+     */
+    public ProductResponse aggregate(ProductCommand productCommand, Brownout.Level brownoutLevel) {
+        // Known to be missing: 404 before tracking, admission or any upstream call
+        if (knownProducts.isKnownAbsent(productCommand.productId())) {
+            throw new ProductNotFoundException(productCommand.productId());
+        }
+        ProductKey key = new ProductKey(productCommand.productId(), productCommand.market());
+        hotKeyTracker.record(key);
+        long start = System.nanoTime();
 
-        // 1) Critical: must succeed or throw
-        var catalogDto = catalogService.fetch(productCommand.productId(), productCommand.market());
+        // 0) Wait for a slot by priority, or be shed
+        try (var ticket = priorityAdmission.acquire(priorityClassifier.classify(productCommand))) {
+            try {
+                // 1) Critical: must succeed or throw
+                var catalogDto = catalogService.fetch(productCommand.productId(), productCommand.market());
 
-        // 2) Fan out all optional services in parallel, collect results
-        var results = aggregatorService.fetch(productCommand);
+                // 2) Fan out the optional services the brownout level keeps, in parallel, collect results
+                var results = aggregatorService.fetch(productCommand, brownoutLevel);
+                priorityClassifier.learn(getValue(results, CustomerDto.RESPONSE_TYPE, CustomerDto.class));
 
-        // 3) Build response from catalog base + optional enrichments
+                // 3) Build response from catalog base + optional enrichments
+                return toResponse(key, catalogDto, results);
+            } finally {
+                // end to end, including the wait for admission; shed requests are not counted
+                brownout.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * {@link #aggregate(ProductCommand, Brownout.Level)} for one product in several markets, keyed
+     * by market in the order of {@code commands}, which differ only in their market. The catalog
+     * text of every market is fetched concurrently with the optional services, and
+     * market-independent data such as the customer only once. The whole lookup takes one admission
+     * slot; it fails as a whole if the catalog fails for any market.
+     */
+    public Map<String, ProductResponse> aggregate(List<ProductCommand> commands, Brownout.Level brownoutLevel) {
+        ProductCommand first = commands.getFirst();
+        if (knownProducts.isKnownAbsent(first.productId())) {
+            throw new ProductNotFoundException(first.productId());
+        }
+        commands.forEach(command -> hotKeyTracker.record(new ProductKey(command.productId(), command.market())));
+        long start = System.nanoTime();
+
+        try (var ticket = priorityAdmission.acquire(priorityClassifier.classify(first))) {
+            try {
+                Map<String, CompletableFuture<CatalogDto>> catalogs = LinkedHashMap.newLinkedHashMap(commands.size());
+                for (ProductCommand command : commands) {
+                    catalogs.put(command.market(), BlockingCalls.offload(
+                            () -> catalogService.fetch(command.productId(), command.market())));
+                }
+                var results = aggregatorService.fetchAll(commands, brownoutLevel);
+                priorityClassifier.learn(getValue(results.get(first.market()), CustomerDto.RESPONSE_TYPE, CustomerDto.class));
+
+                Map<String, ProductResponse> responses = LinkedHashMap.newLinkedHashMap(commands.size());
+                catalogs.forEach((market, catalog) -> responses.put(market,
+                        toResponse(new ProductKey(first.productId(), market), join(catalog), results.get(market))));
+                return responses;
+            } finally {
+                brownout.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private ProductResponse toResponse(ProductKey key, CatalogDto catalogDto, Map<String, FetchResult> results) {
         return ProductResponseMapper.toDto(
                 catalogDto,
+                catalogFragmentCache.get(key, catalogDto),
                 getValue(results, AvailabilityDto.RESPONSE_TYPE, AvailabilityDto.class),
                 getValue(results, PricingDto.RESPONSE_TYPE, PricingDto.class),
                 getValue(results, CustomerDto.RESPONSE_TYPE, CustomerDto.class));
+    }
 
+    /**
+     * Rethrows what the catalog threw, as the blocking call would have.
+     */
+    private static CatalogDto join(CompletableFuture<CatalogDto> catalog) {
+        try {
+            return catalog.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
     }
 
     private <T extends FetchResult> T getValue(Map<String, FetchResult> results, String key, Class<T> type) {
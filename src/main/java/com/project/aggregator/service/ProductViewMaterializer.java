@@ -0,0 +1,299 @@
+package com.project.aggregator.service;
+
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.UpstreamLimiters;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import com.project.aggregator.warmup.WarmupStubClients;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps {@link ProductViews} filled for at most {@code app.views.max-entries} (productId, market)
+ * keys: the hot keys of {@link HotKeyTracker} first, then the products the catalog lists in each of
+ * {@code app.views.markets}. Anonymous requests for those keys read catalog and price from memory,
+ * and call only availability upstream. Catalogs that cannot list their products, such as the HTTP
+ * catalog, publish no change events either, and get no views.
+ * <p>
+ * Every {@code app.views.refresh-interval} the selection is recomputed. Views that fell out of it
+ * are dropped, and only keys without a view, or with one as old as {@code app.views.max-age}, are
+ * fetched. A {@link ProductDataChangedEvent}, local or from a peer, drops the views of its products
+ * at once, so requests take the live path, and rematerializes just those keys. The warmup's stub
+ * products ({@link WarmupStubClients#isStub}) are never materialized, neither by a refresh nor
+ * after the event that ends the warmup.
+ * <p>
+ * The fetches go straight to the clients, since the services would answer from the views. They
+ * still take a permit from the {@link UpstreamLimiters}, at most {@code app.views.concurrency} at
+ * a time, and are skipped while the catalog or pricing circuit breaker is not closed. Views
+ * stored, fetches failed and fetches deferred are counted in {@code aggregator.views.*}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.views.enabled", havingValue = "true")
+public class ProductViewMaterializer {
+
+    private final CatalogClient catalogClient;
+    private final PricingClient pricingClient;
+    private final ProductViews views;
+    private final CatalogFragmentCache catalogFragmentCache;
+    private final HotKeyTracker hotKeys;
+    private final UpstreamLimiters limiters;
+    private final CircuitBreaker catalogBreaker;
+    private final CircuitBreaker pricingBreaker;
+    private final List<String> markets;
+    private final int maxEntries;
+    private final Duration refreshInterval;
+    private final Duration maxAge;
+    private final int concurrency;
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService fetchers = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder materialized = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+
+    public ProductViewMaterializer(CatalogClient catalogClient,
+                                   PricingClient pricingClient,
+                                   ProductViews views,
+                                   CatalogFragmentCache catalogFragmentCache,
+                                   HotKeyTracker hotKeys,
+                                   UpstreamLimiters limiters,
+                                   CircuitBreakerRegistry circuitBreakers,
+                                   @Value("${app.views.markets}") List<String> markets,
+                                   @Value("${app.views.max-entries}") int maxEntries,
+                                   @Value("${app.views.refresh-interval}") Duration refreshInterval,
+                                   @Value("${app.views.max-age}") Duration maxAge,
+                                   @Value("${app.views.concurrency}") int concurrency,
+                                   MeterRegistry registry) {
+        if (concurrency <= 0 || maxEntries <= 0) {
+            throw new IllegalArgumentException("app.views.concurrency and app.views.max-entries must be positive");
+        }
+        this.catalogClient = catalogClient;
+        this.pricingClient = pricingClient;
+        this.views = views;
+        this.catalogFragmentCache = catalogFragmentCache;
+        this.hotKeys = hotKeys;
+        this.limiters = limiters;
+        this.catalogBreaker = circuitBreakers.circuitBreaker("catalogCB");
+        this.pricingBreaker = circuitBreakers.circuitBreaker("pricingCB");
+        this.markets = List.copyOf(markets);
+        this.maxEntries = maxEntries;
+        this.refreshInterval = refreshInterval;
+        this.maxAge = maxAge;
+        this.concurrency = concurrency;
+        this.inFlight = new Semaphore(concurrency);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "product-views");
+            thread.setDaemon(true);
+            return thread;
+        });
+        FunctionCounter.builder("aggregator.views.materialized", this, ProductViewMaterializer::materializedCount)
+                .register(registry);
+        FunctionCounter.builder("aggregator.views.failures", this, ProductViewMaterializer::failedCount)
+                .register(registry);
+        FunctionCounter.builder("aggregator.views.deferred", this, ProductViewMaterializer::deferredCount)
+                .description("Fetches skipped because of an open circuit breaker or a full upstream limiter")
+                .register(registry);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshSafely, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        fetchers.shutdownNow();
+    }
+
+    @EventListener
+    public void onProductDataChanged(ProductDataChangedEvent event) {
+        List<ProductKey> dropped = views.invalidateIf(key -> event.affects(key.productId())).stream()
+                .filter(key -> !WarmupStubClients.isStub(key.productId()))
+                .toList();
+        if (!dropped.isEmpty()) {
+            scheduler.execute(() -> materialize(dropped));
+        }
+    }
+
+    public long materializedCount() {
+        return materialized.sum();
+    }
+
+    public long failedCount() {
+        return failed.sum();
+    }
+
+    public long deferredCount() {
+        return deferred.sum();
+    }
+
+    /**
+     * Drops the views of keys no longer selected, and fetches the selected keys that have no view
+     * or one that reached the maximum age. Blocks until all fetches have finished.
+     */
+    void refresh() {
+        if (!upstreamsAvailable()) {
+            log.debug("Catalog or pricing circuit is not closed, skipping the product view refresh");
+            return;
+        }
+        Set<ProductKey> selected = select();
+        views.invalidateIf(key -> !selected.contains(key));
+        long staleBefore = System.currentTimeMillis() - maxAge.toMillis();
+        List<ProductKey> due = selected.stream()
+                .filter(key -> {
+                    ProductViews.View view = views.peek(key);
+                    return view == null || view.materializedAt() <= staleBefore;
+                })
+                .toList();
+        long start = System.nanoTime();
+        materialize(due);
+        log.debug("Materialized {} of {} product views in {} ms", due.size(), selected.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * The keys to keep views of, hottest first, at most {@code maxEntries}. The warmup's stub
+     * products are never selected. A catalog that cannot list its products, such as the HTTP
+     * catalog, announces no changes either, so nothing is selected: its views could only be
+     * corrected by {@code maxAge}.
+     */
+    Set<ProductKey> select() {
+        Collection<String> listed = catalogClient.productIds();
+        if (listed == null) {
+            log.debug("Catalog cannot list its products, nothing to materialize");
+            return Set.of();
+        }
+        Set<ProductKey> selected = new LinkedHashSet<>();
+        for (ProductKey key : hotKeys.topKeys()) {
+            if (selected.size() >= maxEntries) {
+                return selected;
+            }
+            if (!WarmupStubClients.isStub(key.productId())) {
+                selected.add(key);
+            }
+        }
+        for (String productId : listed) {
+            if (WarmupStubClients.isStub(productId)) {
+                continue;
+            }
+            for (String market : markets) {
+                if (selected.size() >= maxEntries) {
+                    return selected;
+                }
+                selected.add(new ProductKey(productId, market));
+            }
+        }
+        return selected;
+    }
+
+    void materialize(Collection<ProductKey> keys) {
+        try {
+            for (ProductKey key : keys) {
+                inFlight.acquire();
+                fetchers.execute(() -> {
+                    try {
+                        materialize(key);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // wait for the last fetches, so that refreshes do not overlap
+            inFlight.acquire(concurrency);
+            inFlight.release(concurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void materialize(ProductKey key) {
+        if (!upstreamsAvailable()) {
+            deferred.increment();
+            return;
+        }
+        long epoch = views.epoch();
+        try {
+            CatalogDto catalog = call(limiters.catalog(), () -> catalogClient.fetch(key.productId(), key.market()));
+            PricingDto price = call(limiters.pricing(), () -> pricingClient.fetch(key.productId(), key.market(), null));
+            // pre-encoded now rather than by the first request
+            catalogFragmentCache.get(key, catalog);
+            if (views.putIfCurrent(key, new ProductViews.View(catalog, price, System.currentTimeMillis()), epoch)) {
+                materialized.increment();
+            }
+        } catch (ProductNotFoundException e) {
+            views.remove(key);
+        } catch (OverloadedException e) {
+            // the request path has the upstream's capacity; the next refresh tries again
+            deferred.increment();
+        } catch (RuntimeException e) {
+            // the previous view, if any, stays until the next refresh
+            failed.increment();
+            log.debug("Materializing {} failed: {}", key, e.toString());
+        }
+    }
+
+    private static <T> T call(ConcurrencyLimiter limiter, Supplier<T> call) {
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            throw new OverloadedException(limiter.name(), Duration.ZERO);
+        }
+        try {
+            T result = call.get();
+            permit.release(ConcurrencyLimiter.Outcome.SUCCESS);
+            return result;
+        } catch (RuntimeException e) {
+            permit.release(ConcurrencyLimiter.Outcome.of(e));
+            throw e;
+        }
+    }
+
+    private boolean upstreamsAvailable() {
+        return closed(catalogBreaker) && closed(pricingBreaker);
+    }
+
+    private static boolean closed(CircuitBreaker breaker) {
+        CircuitBreaker.State state = breaker.getState();
+        return state != CircuitBreaker.State.OPEN && state != CircuitBreaker.State.FORCED_OPEN
+                && state != CircuitBreaker.State.HALF_OPEN;
+    }
+
+    private void refreshSafely() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Refreshing the product views failed", e);
+        }
+    }
+}
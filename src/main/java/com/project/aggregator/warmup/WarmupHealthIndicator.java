@@ -0,0 +1,44 @@
+package com.project.aggregator.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports {@code OUT_OF_SERVICE} until {@link WarmupRunner} has finished, so that an instance is
+ * kept out of the readiness group — and out of the load balancer — while it warms up. Always
+ * registered, since the readiness group includes it; {@code UP} when warmup is disabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final ObjectProvider<WarmupRunner> warmupRunners;
+
+    @Override
+    public Health health() {
+        WarmupRunner warmupRunner = warmupRunners.getIfAvailable();
+        if (warmupRunner == null) {
+            return Health.up().withDetail("enabled", false).build();
+        }
+        WarmupRunner.Result result = warmupRunner.result();
+        if (warmupRunner.phase() != WarmupRunner.Phase.COMPLETE || result == null) {
+            return Health.outOfService()
+                    .withDetail("phase", warmupRunner.phase())
+                    .withDetail("mode", warmupRunner.mode())
+                    .withDetail("requests", warmupRunner.sent())
+                    .build();
+        }
+        return Health.up()
+                .withDetail("phase", WarmupRunner.Phase.COMPLETE)
+                .withDetail("mode", warmupRunner.mode())
+                .withDetail("requests", result.iterations())
+                .withDetail("errors", result.errors())
+                .withDetail("p99Millis", Math.round(result.p99Millis() * 10) / 10.0)
+                .withDetail("durationMillis", result.duration().toMillis())
+                .withDetail("outcome", result.outcome())
+                .build();
+    }
+}
@@ -0,0 +1,341 @@
+package com.project.aggregator.warmup;
+
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.project.aggregator.config.ContentNegotiationConfig;
+import com.project.aggregator.mapper.ProtobufProductResponseConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Warms up the JIT before the instance reports ready.
+ * <p>
+ * Once the web server is up, synthetic product requests are sent over loopback to the service's
+ * own endpoint, so the whole path — Tomcat, {@code AggregatorController}, {@code ProductFacade},
+ * {@code AggregatorService}, the mappers and every response format — runs hot before real traffic
+ * arrives. Requests are sent in rounds of {@value #ROUND_SIZE}; warmup ends once at least
+ * {@code app.warmup.min-iterations} requests were sent and a round's p99 is within
+ * {@code app.warmup.target-p99} with at most {@value #MAX_ROUND_ERRORS} failed requests, or after {@code app.warmup.max-iterations} requests or
+ * {@code app.warmup.max-duration}, whichever comes first. Until then {@link WarmupHealthIndicator}
+ * keeps the readiness probe out of service.
+ * <p>
+ * In {@code stub} mode the requests use the reserved {@link WarmupStubClients#ID_PREFIX} ids,
+ * which the clients answer locally; in {@code real} mode they use the configured products and
+ * customers and reach the upstreams. Hot-key tracking is paused meanwhile, and cached stub data is
+ * dropped afterwards.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true")
+public class WarmupRunner {
+
+    static final int ROUND_SIZE = 200;
+    /**
+     * Carries a random token on every warmup request, so that the rate limit can let exactly those
+     * through.
+     */
+    public static final String TOKEN_HEADER = "X-Warmup-Token";
+    /**
+     * Failed requests a round may have and still meet the latency target: fast errors say nothing
+     * about how warm the success path is.
+     */
+    static final int MAX_ROUND_ERRORS = 2;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    /** JSON is what most callers ask for; the binary formats get a share too. */
+    private static final List<String> ACCEPTS = List.of(
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, ContentNegotiationConfig.SMILE_VALUE,
+            ProtobufProductResponseConverter.PROTOBUF_VALUE);
+
+    public enum Mode { STUB, REAL }
+
+    public enum Phase { PENDING, RUNNING, COMPLETE }
+
+    /**
+     * Result of a finished warmup, as reported by {@link WarmupHealthIndicator}.
+     */
+    public record Result(long iterations, long errors, double p99Millis, Duration duration, String outcome) {
+    }
+
+    /**
+     * @param p99Millis p99 of the round's successful requests, NaN if none succeeded
+     */
+    private record Round(double p99Millis, int errors) {
+    }
+
+    private final HotKeyTracker hotKeys;
+    private final ApplicationEventPublisher events;
+    private final Mode mode;
+    private final int minIterations;
+    private final int maxIterations;
+    private final Duration targetP99;
+    private final Duration maxDuration;
+    private final int concurrency;
+    private final List<String> products;
+    private final List<String> markets;
+    private final List<String> customers;
+
+    private final String token = UUID.randomUUID().toString();
+    private volatile Phase phase = Phase.PENDING;
+    private volatile Result result;
+    private final LongAdder sent = new LongAdder();
+
+    public WarmupRunner(HotKeyTracker hotKeys,
+                        ApplicationEventPublisher events,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.warmup.mode}") Mode mode,
+                        @Value("${app.warmup.min-iterations}") int minIterations,
+                        @Value("${app.warmup.max-iterations}") int maxIterations,
+                        @Value("${app.warmup.target-p99}") Duration targetP99,
+                        @Value("${app.warmup.max-duration}") Duration maxDuration,
+                        @Value("${app.warmup.concurrency}") int concurrency,
+                        @Value("${app.warmup.products}") List<String> products,
+                        @Value("${app.warmup.markets}") List<String> markets,
+                        @Value("${app.warmup.customers}") List<String> customers) {
+        if (concurrency <= 0 || maxIterations < minIterations || markets.isEmpty()) {
+            throw new IllegalArgumentException("app.warmup needs concurrency > 0, max-iterations >= min-iterations "
+                    + "and at least one market");
+        }
+        if (mode == Mode.REAL && products.isEmpty()) {
+            throw new IllegalArgumentException("app.warmup.products must not be empty in real mode");
+        }
+        this.hotKeys = hotKeys;
+        this.events = events;
+        this.mode = mode;
+        this.minIterations = minIterations;
+        this.maxIterations = maxIterations;
+        this.targetP99 = targetP99;
+        this.maxDuration = maxDuration;
+        this.concurrency = concurrency;
+        this.markets = List.copyOf(markets);
+        if (mode == Mode.STUB) {
+            this.products = WarmupStubClients.PRODUCT_IDS;
+            // no anonymous requests: the customer client is called with a null id for those
+            this.customers = List.of(WarmupStubClients.ID_PREFIX + "DEALER", WarmupStubClients.ID_PREFIX + "FLEET");
+        } else {
+            this.products = List.copyOf(products);
+            this.customers = withAnonymous(customers);
+        }
+        TimeGauge.builder("aggregator.warmup.duration", this,
+                        TimeUnit.MILLISECONDS, runner -> runner.result == null ? 0 : runner.result.duration().toMillis())
+                .description("Time the warmup phase took before the instance reported ready")
+                .register(meterRegistry);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public Phase phase() {
+        return phase;
+    }
+
+    public long sent() {
+        return sent.sum();
+    }
+
+    /**
+     * Whether a request with this {@link #TOKEN_HEADER} value was sent by the warmup, which is
+     * still running.
+     */
+    public boolean isOwnRequest(String tokenHeader) {
+        return phase != Phase.COMPLETE && token.equals(tokenHeader);
+    }
+
+    /**
+     * The outcome once {@link #phase()} is {@link Phase#COMPLETE}, otherwise {@code null}.
+     */
+    public Result result() {
+        return result;
+    }
+
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        Integer port = event.getApplicationContext().getEnvironment().getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            complete(new Result(0, 0, 0, Duration.ZERO, "skipped, no web server"));
+            return;
+        }
+        Thread thread = new Thread(() -> run(URI.create("http://127.0.0.1:" + port + "/api/v1/products/")), "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Runs warmup against the product endpoint at {@code baseUri} and blocks until it is done.
+     */
+    void run(URI baseUri) {
+        phase = Phase.RUNNING;
+        log.info("Warming up ({} mode) against {}", mode.name().toLowerCase(), baseUri);
+        long start = System.nanoTime();
+        LongAdder errors = new LongAdder();
+        double p99 = Double.NaN;
+        String outcome;
+        hotKeys.pause();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "warmup-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build()) {
+            while (true) {
+                Round round = round(client, baseUri, workers, errors);
+                p99 = round.p99Millis();
+                long iterations = sent.sum();
+                Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                if (iterations >= minIterations && round.errors() <= MAX_ROUND_ERRORS
+                        && p99 <= targetP99.toNanos() / 1e6) {
+                    outcome = "latency target met";
+                    break;
+                }
+                if (iterations >= maxIterations) {
+                    outcome = "iteration limit reached";
+                    break;
+                }
+                if (elapsed.compareTo(maxDuration) >= 0) {
+                    outcome = "time limit reached";
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrupted";
+        } catch (RuntimeException e) {
+            log.warn("Warmup failed; reporting ready anyway", e);
+            outcome = "failed: " + e;
+        } finally {
+            workers.shutdownNow();
+            hotKeys.resume();
+        }
+        if (mode == Mode.STUB) {
+            // drop the canned responses from the caches; the stub ids never occur in real data
+            events.publishEvent(new ProductDataChangedEvent("warmup", Set.copyOf(products)));
+        }
+        complete(new Result(sent.sum(), errors.sum(), p99, Duration.ofNanos(System.nanoTime() - start), outcome));
+    }
+
+    private void complete(Result result) {
+        this.result = result;
+        phase = Phase.COMPLETE;
+        if (result.errors() > 0 || result.outcome().equals("time limit reached")) {
+            log.warn("Warmup finished in {} ms after {} requests ({} failed), last p99 {} ms: {}",
+                    result.duration().toMillis(), result.iterations(), result.errors(),
+                    String.format("%.1f", result.p99Millis()), result.outcome());
+        } else {
+            log.info("Warmup finished in {} ms after {} requests, last p99 {} ms: {}",
+                    result.duration().toMillis(), result.iterations(),
+                    String.format("%.1f", result.p99Millis()), result.outcome());
+        }
+    }
+
+    /**
+     * Sends one round of requests and returns its failures and the p99 latency of the rest.
+     */
+    private Round round(HttpClient client, URI baseUri, ExecutorService workers, LongAdder errors)
+            throws InterruptedException {
+        long[] latencies = new long[ROUND_SIZE];
+        AtomicInteger next = new AtomicInteger();
+        long offset = sent.sum();
+        List<Future<?>> tasks = new ArrayList<>(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            tasks.add(workers.submit(() -> {
+                for (int i = next.getAndIncrement(); i < ROUND_SIZE; i = next.getAndIncrement()) {
+                    latencies[i] = send(client, request(baseUri, offset + i));
+                    sent.increment();
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Warmup worker failed", e.getCause());
+            }
+        }
+        long[] succeeded = Arrays.stream(latencies).filter(latency -> latency >= 0).toArray();
+        int failed = ROUND_SIZE - succeeded.length;
+        errors.add(failed);
+        return new Round(succeeded.length == 0 ? Double.NaN : percentile(succeeded, 0.99) / 1e6, failed);
+    }
+
+    /**
+     * Returns the latency in nanoseconds, or -1 if the request failed.
+     */
+    private long send(HttpClient client, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() == 200 ? System.nanoTime() - start : -1;
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * The {@code i}-th synthetic request, cycling through every product, market, customer and
+     * response format combination.
+     */
+    HttpRequest request(URI baseUri, long i) {
+        String product = products.get((int) (i % products.size()));
+        long rest = i / products.size();
+        String market = markets.get((int) (rest % markets.size()));
+        rest /= markets.size();
+        String customer = customers.get((int) (rest % customers.size()));
+        String query = "?market=" + market + (customer.isEmpty() ? "" : "&customerId=" + customer);
+        return HttpRequest.newBuilder(baseUri.resolve(product + query))
+                .header("Accept", ACCEPTS.get((int) (i % ACCEPTS.size())))
+                .header(TOKEN_HEADER, token)
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+    }
+
+    static long percentile(long[] values, double quantile) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    /** The empty string stands for an anonymous request. */
+    private static List<String> withAnonymous(List<String> customers) {
+        Set<String> all = new LinkedHashSet<>();
+        all.add("");
+        customers.stream().map(String::trim).forEach(all::add);
+        return List.copyOf(all);
+    }
+}
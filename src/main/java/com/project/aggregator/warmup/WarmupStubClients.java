@@ -0,0 +1,151 @@
+package com.project.aggregator.warmup;
+
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.model.AvailabilityDto;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.PricingDto;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+/**
+ * Wraps the upstream clients so that the reserved {@value #ID_PREFIX} product and customer ids are
+ * answered with canned data instead of reaching the upstream.
+ * <p>
+ * Used by a {@code stub} warmup to drive the whole request path without loading the upstreams or
+ * waiting on them. Every other id goes to the real client, so live traffic is unaffected even if
+ * it arrives while warmup is still running. Stub answers are returned as completed futures on the
+ * async path, so warmup exercises the same composition as live traffic.
+ */
+public class WarmupStubClients implements BeanPostProcessor {
+
+    public static final String ID_PREFIX = "WARMUP-";
+
+    /**
+     * The reserved product ids a stub warmup requests; the stub catalog lists them as known.
+     */
+    static final List<String> PRODUCT_IDS = IntStream.rangeClosed(1, 32).mapToObj(i -> ID_PREFIX + i).toList();
+
+    private static final List<String> SEGMENTS = List.of("RETAIL", "DEALER", "FLEET");
+
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        return switch (bean) {
+            case CatalogClient client -> new StubCatalogClient(client);
+            case PricingClient client -> new StubPricingClient(client);
+            case AvailabilityClient client -> new StubAvailabilityClient(client);
+            case CustomerClient client -> new StubCustomerClient(client);
+            default -> bean;
+        };
+    }
+
+    /**
+     * Whether the product or customer id is one of the reserved warmup ids.
+     */
+    public static boolean isStub(String id) {
+        return id != null && id.startsWith(ID_PREFIX);
+    }
+
+    record StubCatalogClient(CatalogClient delegate) implements CatalogClient {
+
+        @Override
+        public CatalogDto fetch(String productId, String market) {
+            if (!isStub(productId)) {
+                return delegate.fetch(productId, market);
+            }
+            return new CatalogDto(productId,
+                    "Warmup product " + productId + " (" + market + ")",
+                    "Synthetic catalog entry used to warm up the request path before taking traffic.",
+                    Map.of("weight", "1.2 kg", "material", "steel", "market", market),
+                    List.of("https://images.example.com/" + productId + "/front.jpg",
+                            "https://images.example.com/" + productId + "/side.jpg"));
+        }
+
+        @Override
+        public CompletableFuture<CatalogDto> fetchAsync(String productId, String market) {
+            return isStub(productId) ? CompletableFuture.completedFuture(fetch(productId, market))
+                    : delegate.fetchAsync(productId, market);
+        }
+
+        @Override
+        public Collection<String> productIds() {
+            Collection<String> productIds = delegate.productIds();
+            if (productIds == null) {
+                return null;
+            }
+            List<String> withStubs = new ArrayList<>(productIds.size() + PRODUCT_IDS.size());
+            withStubs.addAll(productIds);
+            withStubs.addAll(PRODUCT_IDS);
+            return withStubs;
+        }
+    }
+
+    record StubPricingClient(PricingClient delegate) implements PricingClient {
+
+        @Override
+        public PricingDto fetch(String productId, String market, String customerId, String segment) {
+            if (!isStub(productId)) {
+                return delegate.fetch(productId, market, customerId, segment);
+            }
+            BigDecimal base = BigDecimal.valueOf(4999, 2);
+            BigDecimal discount = customerId == null ? BigDecimal.ZERO : BigDecimal.valueOf(500, 2);
+            return new PricingDto(base, discount, base.subtract(discount));
+        }
+
+        @Override
+        public CompletableFuture<PricingDto> fetchAsync(String productId, String market, String customerId,
+                                                        String segment) {
+            return isStub(productId) ? CompletableFuture.completedFuture(fetch(productId, market, customerId, segment))
+                    : delegate.fetchAsync(productId, market, customerId, segment);
+        }
+    }
+
+    record StubAvailabilityClient(AvailabilityClient delegate) implements AvailabilityClient {
+
+        @Override
+        public AvailabilityDto fetch(String productId, String market) {
+            if (!isStub(productId)) {
+                return delegate.fetch(productId, market);
+            }
+            return new AvailabilityDto(42, "WARMUP-WH",
+                    Instant.now().plus(2, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS));
+        }
+
+        @Override
+        public CompletableFuture<AvailabilityDto> fetchAsync(String productId, String market) {
+            return isStub(productId) ? CompletableFuture.completedFuture(fetch(productId, market))
+                    : delegate.fetchAsync(productId, market);
+        }
+    }
+
+    record StubCustomerClient(CustomerClient delegate) implements CustomerClient {
+
+        @Override
+        public CustomerDto fetch(String customerId) {
+            if (!isStub(customerId)) {
+                return delegate.fetch(customerId);
+            }
+            String segment = SEGMENTS.get(Math.floorMod(customerId.hashCode(), SEGMENTS.size()));
+            return new CustomerDto(customerId, segment, List.of("email", "next-day-delivery"));
+        }
+
+        @Override
+        public CompletableFuture<CustomerDto> fetchAsync(String customerId) {
+            return isStub(customerId) ? CompletableFuture.completedFuture(fetch(customerId))
+                    : delegate.fetchAsync(customerId);
+        }
+    }
+}
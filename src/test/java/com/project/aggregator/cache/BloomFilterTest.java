@@ -0,0 +1,48 @@
+package com.project.aggregator.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_acceptsEveryValueItWasBuiltWith() {
+        List<String> productIds = IntStream.range(0, 50_000).mapToObj(i -> "PART-" + i).toList();
+
+        BloomFilter filter = BloomFilter.of(productIds, 0.01);
+
+        assertThat(productIds).allMatch(filter::mightContain);
+        assertThat(filter.size()).isEqualTo(50_000);
+        // ~9.6 bits and 7 hashes per value for 1%
+        assertThat(filter.bitCount()).isBetween(9L * 50_000, 10L * 50_000);
+        assertThat(filter.hashCount()).isEqualTo(7);
+    }
+
+    @Test
+    void mightContain_rejectsOtherValuesAtAboutTheTargetRate() {
+        BloomFilter filter = BloomFilter.of(IntStream.range(0, 50_000).mapToObj(i -> "PART-" + i).toList(), 0.01);
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .mapToObj(i -> "UNKNOWN-" + i)
+                .filter(filter::mightContain)
+                .count();
+
+        assertThat(falsePositives).isLessThan(1_500);
+    }
+
+    @Test
+    void of_emptyAndInvalidRates() {
+        BloomFilter empty = BloomFilter.of(List.of(), 0.01);
+
+        assertThat(empty.mightContain("PART-001")).isFalse();
+        assertThatThrownBy(() -> BloomFilter.of(List.of("PART-001"), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.of(List.of("PART-001"), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,126 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void write_thenRead_roundTripsEntriesAndExpiry() throws IOException {
+        Map<String, String> specs = new LinkedHashMap<>();
+        specs.put("thread", "M20x1.5");
+        specs.put("gewicht", "0,45 kg — ø 76 mm");
+        ProductKey productKey = new ProductKey("PART-001", "nl-NL");
+        CatalogDto full = new CatalogDto("PART-001", "Oliefilter", "Hoogwaardige oliefilter", specs,
+                List.of("https://images.example.com/1.jpg"));
+        ProductKey sparseKey = new ProductKey("PART-002", "pl-PL");
+        CatalogDto sparse = new CatalogDto("PART-002", null, null, null, null);
+        PricingKey dealer = new PricingKey("PART-001", "nl-NL", "DEALER-001");
+        PricingDto dealerPrice = new PricingDto(new BigDecimal("24.50"), new BigDecimal("2.450"), new BigDecimal("22.05"));
+        PricingKey anonymous = new PricingKey("PART-001", "pl-PL", null);
+        PricingDto large = new PricingDto(new BigDecimal("123456789012345678901234567890.12"), BigDecimal.ZERO, null);
+        Path file = dir.resolve("snapshot.bin");
+
+        CacheSnapshot.write(file,
+                Map.of(productKey, new TtlCache.Entry<>(full, 1_000L), sparseKey, new TtlCache.Entry<>(sparse, 2_000L)),
+                Map.of(dealer, new TtlCache.Entry<>(dealerPrice, 3_000L), anonymous, new TtlCache.Entry<>(large, 4_000L)));
+        CacheSnapshot.Contents contents = CacheSnapshot.read(file);
+
+        assertThat(contents.writtenAt()).isPositive();
+        assertThat(contents.catalog()).containsOnly(
+                Map.entry(productKey, new TtlCache.Entry<>(full, 1_000L)),
+                Map.entry(sparseKey, new TtlCache.Entry<>(sparse, 2_000L)));
+        assertThat(contents.catalog().get(productKey).value().specs().keySet()).containsExactly("thread", "gewicht");
+        assertThat(contents.pricing()).containsOnly(
+                Map.entry(dealer, new TtlCache.Entry<>(dealerPrice, 3_000L)),
+                Map.entry(anonymous, new TtlCache.Entry<>(large, 4_000L)));
+        // equals() on BigDecimal includes the scale
+        assertThat(contents.pricing().get(dealer).value().discount().scale()).isEqualTo(3);
+    }
+
+    @Test
+    void read_emptySnapshot() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+
+        CacheSnapshot.write(file, Map.of(), Map.of());
+
+        assertThat(CacheSnapshot.read(file).catalog()).isEmpty();
+        assertThat(CacheSnapshot.read(file).pricing()).isEmpty();
+        try (var files = Files.list(dir)) {
+            assertThat(files).containsExactly(file);
+        }
+    }
+
+    @Test
+    void read_rejectsOtherFiles() throws IOException {
+        Path file = Files.writeString(dir.resolve("snapshot.bin"), "PART-001\tnl-NL\n");
+
+        assertThatThrownBy(() -> CacheSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("not a cache snapshot");
+    }
+
+    @Test
+    void read_rejectsTruncatedSnapshot() throws IOException {
+        Path file = dir.resolve("snapshot.bin");
+        CacheSnapshot.write(file,
+                Map.of(new ProductKey("PART-001", "nl-NL"), new TtlCache.Entry<>(
+                        new CatalogDto("PART-001", "Filter", "Oil filter", Map.of(), List.of()), 1_000L)),
+                Map.of());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+        assertThatThrownBy(() -> CacheSnapshot.read(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Corrupt cache snapshot");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_fullCaches() throws IOException {
+        int entries = 10_000;
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        Map<ProductKey, TtlCache.Entry<CatalogDto>> catalog = new HashMap<>();
+        Map<PricingKey, TtlCache.Entry<PricingDto>> pricing = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            String id = "PART-" + i;
+            catalog.put(new ProductKey(id, "nl-NL"), new TtlCache.Entry<>(new CatalogDto(id, "Filter " + i,
+                    "Description of part " + i, Map.of("thread", "M" + (i % 40) + "x1.5", "weight_kg", "0.45"),
+                    List.of("https://images.example.com/" + id + "/main.jpg")), expiresAt));
+            pricing.put(new PricingKey(id, "nl-NL", i % 2 == 0 ? null : "DEALER-" + i % 50), new TtlCache.Entry<>(
+                    new PricingDto(BigDecimal.valueOf(2450 + i, 2), BigDecimal.ZERO, BigDecimal.valueOf(2450 + i, 2)),
+                    expiresAt));
+        }
+        Path file = dir.resolve("snapshot.bin");
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            CacheSnapshot.write(file, catalog, pricing);
+            long written = System.nanoTime();
+            CacheSnapshot.Contents contents = CacheSnapshot.read(file);
+            long read = System.nanoTime();
+            System.out.printf("round %d: %d + %d entries, %d KB, write %.1f ms, read %.1f ms%n", round,
+                    contents.catalog().size(), contents.pricing().size(), Files.size(file) >> 10,
+                    (written - start) / 1e6, (read - written) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.project.aggregator.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotKeyTrackerTest {
+
+    @Test
+    void frequencySketch_neverUndercounts() {
+        FrequencySketch sketch = new FrequencySketch(1_000);
+        for (int i = 0; i < 500; i++) {
+            for (int n = 0; n <= i % 7; n++) {
+                sketch.increment("key-" + i);
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(sketch.frequency("key-" + i)).isGreaterThanOrEqualTo(i % 7 + 1);
+        }
+    }
+
+    @Test
+    void frequencySketch_agesCounters() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment("old");
+        }
+        // 10 × width increments trigger halving; flood with other keys
+        for (int i = 0; i < 5_000; i++) {
+            sketch.increment("other-" + (i % 50));
+        }
+
+        assertThat(sketch.frequency("old")).isLessThan(100);
+    }
+
+    @Test
+    void topKeys_findsHotKeysInSkewedTraffic() throws Exception {
+        HotKeyTracker tracker = new HotKeyTracker(10);
+        List<ProductKey> hot = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            hot.add(new ProductKey("HOT-" + i, "nl-NL"));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 50_000; i++) {
+                        ProductKey key = random.nextInt(100) < 60
+                                ? hot.get(random.nextInt(hot.size()))
+                                : new ProductKey("COLD-" + random.nextInt(20_000), "nl-NL");
+                        tracker.record(key);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(tracker.topKeys()).containsExactlyInAnyOrderElementsOf(hot);
+        assertThat(tracker.isHot(hot.getFirst())).isTrue();
+    }
+
+    @Test
+    void record_isIgnoredWhilePaused() {
+        HotKeyTracker tracker = new HotKeyTracker(10);
+        ProductKey key = new ProductKey("PART-001", "nl-NL");
+
+        tracker.pause();
+        tracker.record(key);
+        assertThat(tracker.frequency(key)).isZero();
+        assertThat(tracker.topKeys()).isEmpty();
+
+        tracker.resume();
+        tracker.record(key);
+        assertThat(tracker.frequency(key)).isEqualTo(1);
+        assertThat(tracker.topKeys()).containsExactly(key);
+    }
+}
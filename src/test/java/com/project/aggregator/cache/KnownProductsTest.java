@@ -0,0 +1,67 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.client.ProductDataChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KnownProductsTest {
+
+    private final TtlCache<String, Boolean> confirmedMissing = new TtlCache<>("missing-products", Duration.ofMinutes(1), 100);
+    private volatile Collection<String> catalog = List.of("PART-001", "PART-002");
+    private final KnownProducts knownProducts = new KnownProducts(() -> catalog, 0.01, confirmedMissing);
+
+    @Test
+    void isKnownAbsent_passesEverythingUntilTheFilterIsBuilt() {
+        assertThat(knownProducts.isKnownAbsent("NOPE")).isFalse();
+
+        knownProducts.rebuild();
+
+        assertThat(knownProducts.isKnownAbsent("PART-001")).isFalse();
+        assertThat(knownProducts.isKnownAbsent("NOPE")).isTrue();
+        assertThat(knownProducts.size()).isEqualTo(2);
+        assertThat(knownProducts.rejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void isKnownAbsent_withoutAListableSource_usesConfirmedMissesOnly() {
+        catalog = null;
+        knownProducts.rebuild();
+
+        assertThat(knownProducts.isKnownAbsent("NOPE")).isFalse();
+        knownProducts.recordMissing("NOPE");
+        assertThat(knownProducts.isKnownAbsent("NOPE")).isTrue();
+        assertThat(knownProducts.isKnownAbsent("PART-001")).isFalse();
+        assertThat(knownProducts.size()).isZero();
+    }
+
+    @Test
+    void catalogReload_addsNewProductsAndForgetsTheirMisses() {
+        knownProducts.rebuild();
+        knownProducts.recordMissing("PART-003");
+        catalog = List.of("PART-001", "PART-002", "PART-003");
+
+        knownProducts.onProductDataChanged(new ProductDataChangedEvent("catalog", Set.of("PART-003")));
+
+        assertThat(knownProducts.isKnownAbsent("PART-003")).isFalse();
+        assertThat(knownProducts.size()).isEqualTo(3);
+    }
+
+    @Test
+    void otherReloads_onlyForgetTheMissesOfTheirProducts() {
+        catalog = null;
+        knownProducts.rebuild();
+        knownProducts.recordMissing("WARMUP-1");
+        knownProducts.recordMissing("NOPE");
+
+        knownProducts.onProductDataChanged(new ProductDataChangedEvent("warmup", Set.of("WARMUP-1")));
+
+        assertThat(knownProducts.isKnownAbsent("WARMUP-1")).isFalse();
+        assertThat(knownProducts.isKnownAbsent("NOPE")).isTrue();
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.aggregator.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastKnownGoodTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final LastKnownGood<String, String> store =
+            new LastKnownGood<>("test", Duration.ofMinutes(10), 3, clock::get);
+
+    @Test
+    void get_returnsTheLastValueWithItsAgeUntilMaxAge() {
+        store.put("PART-001", "old");
+        clock.addAndGet(1_000);
+        store.put("PART-001", "new");
+        long storedAt = clock.get();
+
+        clock.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertThat(store.get("PART-001")).isEqualTo(new LastKnownGood.Entry<>("new", storedAt));
+        assertThat(store.servedCount()).isEqualTo(1);
+
+        clock.incrementAndGet();
+        assertThat(store.get("PART-001")).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void put_ignoresNull() {
+        store.put("PART-001", null);
+
+        assertThat(store.get("PART-001")).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void put_whenFull_dropsExpiredEntriesFirst() {
+        store.put("expired", "a");
+        clock.addAndGet(Duration.ofMinutes(11).toMillis());
+        store.put("fresh-1", "b");
+        store.put("fresh-2", "c");
+
+        store.put("fresh-3", "d");
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.get("fresh-1")).isNotNull();
+        assertThat(store.get("fresh-2")).isNotNull();
+        assertThat(store.get("fresh-3")).isNotNull();
+    }
+
+    @Test
+    void put_whenFullOfFreshEntries_staysBounded() {
+        for (int i = 0; i < 10; i++) {
+            store.put("PART-" + i, "value");
+        }
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.get("PART-9")).isNotNull();
+    }
+
+    @Test
+    void invalidateIf_dropsMatchingEntries() {
+        store.put("PART-001", "a");
+        store.put("PART-002", "b");
+
+        store.invalidateIf("PART-001"::equals);
+
+        assertThat(store.get("PART-001")).isNull();
+        assertThat(store.get("PART-002")).isNotNull();
+    }
+}
@@ -0,0 +1,55 @@
+package com.project.aggregator.cache;
+
+import com.project.aggregator.model.CatalogDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductViewsTest {
+
+    private static final ProductKey PART_001 = new ProductKey("PART-001", "nl-NL");
+    private static final ProductKey PART_002 = new ProductKey("PART-002", "nl-NL");
+
+    private final ProductViews views = new ProductViews();
+
+    @Test
+    void get_countsHitsAndMisses() {
+        assertThat(views.putIfCurrent(PART_001, view("PART-001"), views.epoch())).isTrue();
+
+        assertThat(views.get("PART-001", "nl-NL").catalog().productId()).isEqualTo("PART-001");
+        assertThat(views.get("PART-001", "de-DE")).isNull();
+        assertThat(views.hitCount()).isEqualTo(1);
+        assertThat(views.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void putIfCurrent_refusesAViewFetchedBeforeItsProductWasInvalidated() {
+        long started = views.epoch();
+
+        views.invalidateIf(key -> key.productId().equals("PART-001"));
+
+        assertThat(views.putIfCurrent(PART_001, view("PART-001"), started)).isFalse();
+        assertThat(views.putIfCurrent(PART_002, view("PART-002"), started)).isTrue();
+        assertThat(views.putIfCurrent(PART_001, view("PART-001"), views.epoch())).isTrue();
+        assertThat(views.size()).isEqualTo(2);
+    }
+
+    @Test
+    void putIfCurrent_refusesViewsOlderThanTheRememberedInvalidations() {
+        long started = views.epoch();
+
+        for (int i = 0; i <= ProductViews.REMEMBERED_INVALIDATIONS; i++) {
+            views.invalidateIf(key -> false);
+        }
+
+        assertThat(views.putIfCurrent(PART_002, view("PART-002"), started)).isFalse();
+        assertThat(views.putIfCurrent(PART_002, view("PART-002"), views.epoch() - 1)).isTrue();
+    }
+
+    private static ProductViews.View view(String productId) {
+        return new ProductViews.View(new CatalogDto(productId, "Oil Filter", null, Map.of(), List.of()), null, 0);
+    }
+}
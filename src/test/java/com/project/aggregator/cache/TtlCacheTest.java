@@ -0,0 +1,68 @@
+package com.project.aggregator.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final TtlCache<String, String> cache = new TtlCache<>("test", Duration.ofSeconds(10), 3, now::get);
+
+    @Test
+    void get_returnsValueUntilTtlElapses() {
+        cache.put("a", "A");
+
+        now.addAndGet(9_999);
+        assertThat(cache.get("a")).isEqualTo("A");
+        now.addAndGet(1);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void evictExpired_reportsOnlyExpiredKeys() {
+        cache.put("a", "A");
+        now.addAndGet(5_000);
+        cache.put("b", "B");
+        now.addAndGet(5_000);
+
+        assertThat(cache.evictExpired()).containsExactly("a");
+        assertThat(cache.entries()).containsOnlyKeys("b");
+    }
+
+    @Test
+    void putUntil_ignoresAlreadyExpiredEntries() {
+        cache.putUntil("a", "A", now.get());
+        cache.putUntil("b", "B", now.get() + 1);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.get("b")).isEqualTo("B");
+    }
+
+    @Test
+    void put_boundedByMaxEntries() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("k" + i, "v");
+        }
+        cache.put("k9", "updated");
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("k9")).isEqualTo("updated");
+    }
+
+    @Test
+    void invalidateIf_removesMatchingKeys() {
+        cache.put("PART-001|nl", "A");
+        cache.put("PART-002|nl", "B");
+
+        cache.invalidateIf(key -> key.startsWith("PART-001"));
+
+        assertThat(cache.entries()).containsOnlyKeys("PART-002|nl");
+    }
+}
@@ -0,0 +1,168 @@
+package com.project.aggregator.cache.bus;
+
+import com.project.aggregator.client.ProductDataChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationBusTest {
+
+    private final Queue<Object> published = new ConcurrentLinkedQueue<>();
+    private final RecordingTransport transport = new RecordingTransport();
+    private final InvalidationBus bus = new InvalidationBus(transport, published::add, Set.of("catalog", "pricing"),
+            Duration.ofSeconds(10));
+    private final List<AutoCloseable> closeables = new ArrayList<>(List.of(bus));
+
+    @AfterEach
+    void close() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void flush_sendsOneDeduplicatedBatch() {
+        bus.onProductDataChanged(new ProductDataChangedEvent("pricing", Set.of("PART-001", "PART-002")));
+        bus.onProductDataChanged(new ProductDataChangedEvent("pricing", Set.of("PART-002", "PART-003")));
+        bus.onProductDataChanged(new ProductDataChangedEvent("catalog", Set.of("PART-001")));
+
+        bus.flush();
+
+        assertThat(transport.sent).hasSize(1);
+        assertThat(InvalidationMessage.decode(transport.sent.getFirst()).invalidations()).containsExactlyInAnyOrder(
+                new Invalidation("pricing", "PART-001", false),
+                new Invalidation("pricing", "PART-002", false),
+                new Invalidation("pricing", "PART-003", false),
+                new Invalidation("catalog", "PART-001", false));
+        assertThat(bus.sentInvalidationCount()).isEqualTo(4);
+    }
+
+    @Test
+    void flush_dropsKeysCoveredByAPrefixOfTheSameSource() {
+        bus.onProductDataChanged(new ProductDataChangedEvent("pricing", Set.of("PART-001", "BOLT-1")));
+        bus.onProductDataChanged(new ProductDataChangedEvent("pricing", Set.of(), Set.of("PART-"), false));
+        bus.onProductDataChanged(new ProductDataChangedEvent("catalog", Set.of("PART-001")));
+
+        bus.flush();
+
+        assertThat(InvalidationMessage.decode(transport.sent.getFirst()).invalidations()).containsExactlyInAnyOrder(
+                new Invalidation("pricing", "BOLT-1", false),
+                new Invalidation("pricing", "PART-", true),
+                new Invalidation("catalog", "PART-001", false));
+    }
+
+    @Test
+    void flush_splitsLargeBatchesIntoUnfragmentedMessages() {
+        Set<String> productIds = Set.copyOf(IntStream.range(0, 500).mapToObj(i -> "PART-" + i).toList());
+        bus.onProductDataChanged(new ProductDataChangedEvent("catalog", productIds));
+
+        bus.flush();
+
+        assertThat(transport.sent).hasSizeGreaterThan(1)
+                .allMatch(bytes -> bytes.length <= InvalidationBus.MAX_MESSAGE_BYTES);
+        assertThat(transport.sent.stream()
+                .map(InvalidationMessage::decode)
+                .mapToLong(InvalidationMessage::sequence)).containsExactly(
+                IntStream.rangeClosed(1, transport.sent.size()).asLongStream().boxed().toArray(Long[]::new));
+        assertThat(bus.sentInvalidationCount()).isEqualTo(500);
+    }
+
+    @Test
+    void onProductDataChanged_ignoresRemoteAndLocalOnlySources() {
+        bus.onProductDataChanged(new ProductDataChangedEvent("warmup", Set.of("WARMUP-1")));
+        bus.onProductDataChanged(new ProductDataChangedEvent("pricing", Set.of("PART-001"), Set.of(), true));
+
+        bus.flush();
+
+        assertThat(transport.sent).isEmpty();
+    }
+
+    @Test
+    void receive_republishesRemoteEventsAndCountsDuplicatesAndLosses() {
+        bus.receive(message("peer", 3, new Invalidation("pricing", "PART-001", false),
+                new Invalidation("pricing", "PART-9", true), new Invalidation("catalog", "PART-002", false)));
+        bus.receive(message("peer", 3, new Invalidation("pricing", "PART-001", false)));
+        bus.receive(message("peer", 6, new Invalidation("catalog", "PART-003", false)));
+        bus.receive(message(bus.instanceId(), 1, new Invalidation("catalog", "PART-004", false)));
+        bus.receive(new byte[]{1, 2, 3});
+
+        assertThat(published).containsExactly(
+                new ProductDataChangedEvent("pricing", Set.of("PART-001"), Set.of("PART-9"), true),
+                new ProductDataChangedEvent("catalog", Set.of("PART-002"), Set.of(), true),
+                new ProductDataChangedEvent("catalog", Set.of("PART-003"), Set.of(), true));
+        assertThat(bus.receivedMessageCount()).isEqualTo(3);
+        assertThat(bus.duplicateMessageCount()).isEqualTo(1);
+        assertThat(bus.lostMessageCount()).isEqualTo(2);
+        assertThat(((ProductDataChangedEvent) published.peek()).affects("PART-90")).isTrue();
+    }
+
+    @Test
+    void udp_deliversInvalidationsToPeersOnLoopbackAndIgnoresOtherSenders() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        InetSocketAddress first = new InetSocketAddress(loopback, freePort());
+        InetSocketAddress second = new InetSocketAddress(loopback, freePort());
+        UdpInvalidationTransport stranger = new UdpInvalidationTransport(
+                new InetSocketAddress(loopback, freePort()), List.of(second));
+        closeables.add(stranger);
+        Queue<Object> receivedBySecond = new ConcurrentLinkedQueue<>();
+        InvalidationBus sender = new InvalidationBus(new UdpInvalidationTransport(first, List.of(second)),
+                event -> { }, Set.of("pricing"), Duration.ofMillis(5));
+        closeables.add(sender);
+        closeables.add(new InvalidationBus(new UdpInvalidationTransport(second, List.of(first)),
+                receivedBySecond::add, Set.of("pricing"), Duration.ofMillis(5)));
+
+        stranger.send(message("stranger", 1, new Invalidation("pricing", "PART-", true)));
+        sender.onProductDataChanged(new ProductDataChangedEvent("pricing", Set.of("PART-001")));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((receivedBySecond.isEmpty() || sender.sentMessageCount() == 0) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(receivedBySecond).containsExactly(
+                new ProductDataChangedEvent("pricing", Set.of("PART-001"), Set.of(), true));
+        assertThat(sender.sentMessageCount()).isEqualTo(1);
+    }
+
+    private static byte[] message(String senderId, long sequence, Invalidation... invalidations) {
+        return new InvalidationMessage(senderId, sequence, List.of(invalidations)).encode();
+    }
+
+    private static int freePort() throws IOException {
+        try (DatagramSocket socket = new DatagramSocket(0, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static final class RecordingTransport implements InvalidationTransport {
+
+        final List<byte[]> sent = new ArrayList<>();
+
+        @Override
+        public void send(byte[] message) {
+            sent.add(message);
+        }
+
+        @Override
+        public void listen(Consumer<byte[]> receiver) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
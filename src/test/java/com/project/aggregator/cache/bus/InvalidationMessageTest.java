@@ -0,0 +1,36 @@
+package com.project.aggregator.cache.bus;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvalidationMessageTest {
+
+    private final InvalidationMessage message = new InvalidationMessage("sender-1", 42, List.of(
+            new Invalidation("pricing", "PART-001", false),
+            new Invalidation("catalog", "Ölfilter-", true)));
+
+    @Test
+    void roundTrip_keepsEveryEntry() {
+        byte[] bytes = message.encode();
+
+        assertThat(InvalidationMessage.decode(bytes)).isEqualTo(message);
+        assertThat(bytes).hasSize(InvalidationMessage.headerSize("sender-1")
+                + message.invalidations().stream().mapToInt(InvalidationMessage::entrySize).sum());
+    }
+
+    @Test
+    void decode_rejectsForeignAndTruncatedBytes() {
+        byte[] bytes = message.encode();
+
+        assertThatThrownBy(() -> InvalidationMessage.decode(Arrays.copyOf(bytes, bytes.length - 3)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Truncated");
+        assertThatThrownBy(() -> InvalidationMessage.decode("GET / HTTP/1.1".getBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
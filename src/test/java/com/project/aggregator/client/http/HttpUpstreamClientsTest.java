@@ -0,0 +1,206 @@
+package com.project.aggregator.client.http;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.client.mock.MockUpstreamServer;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.exception.UpstreamServiceException;
+import com.project.aggregator.model.AvailabilityDto;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.PricingDto;
+import feign.Feign;
+import feign.hc5.ApacheHttp5Client;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Round trips through the Feign clients and {@link MockUpstreamServer} backed by Mockito clients.
+ */
+class HttpUpstreamClientsTest {
+
+    private static final CatalogDto CATALOG = new CatalogDto("PART-001", "Ölfilter", "Hochwertiger Ölfilter",
+            Map.of("thread", "M20x1.5"), List.of("https://cdn.kramp.com/PART-001/main.jpg"));
+
+    private final CatalogClient catalog = mock(CatalogClient.class);
+    private final PricingClient pricing = mock(PricingClient.class);
+    private final AvailabilityClient availability = mock(AvailabilityClient.class);
+    private final CustomerClient customers = mock(CustomerClient.class);
+    // as configured by Spring Boot, which the Feign decoder shares
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+    private MockUpstreamServer server;
+    private String url;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new MockUpstreamServer(new InetSocketAddress("127.0.0.1", 0), catalog, pricing, availability, customers);
+        server.start();
+        url = "http://127.0.0.1:" + server.port();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void catalog_roundTrip() {
+        when(catalog.fetch("PART-001", "de-DE")).thenReturn(CATALOG);
+
+        HttpCatalogClient client = client(HttpCatalogClient.class);
+
+        assertThat(client.fetch("PART-001", "de-DE")).isEqualTo(CATALOG);
+        assertThat(client.fetchAsync("PART-001", "de-DE").join()).isEqualTo(CATALOG);
+    }
+
+    @Test
+    void catalog_unknownProduct_throwsProductNotFound() {
+        when(catalog.fetch("NOPE", "de-DE")).thenThrow(new ProductNotFoundException("NOPE"));
+
+        assertThatThrownBy(() -> client(HttpCatalogClient.class).fetch("NOPE", "de-DE"))
+                .isInstanceOf(ProductNotFoundException.class)
+                .extracting("productId").isEqualTo("NOPE");
+    }
+
+    @Test
+    void pricing_omitsMissingCustomerAndKeepsDecimals() {
+        PricingDto price = new PricingDto(new BigDecimal("106.21"), new BigDecimal("10.00"), new BigDecimal("95.59"));
+        when(pricing.fetch("PART-001", "pl-PL", null, null)).thenReturn(price);
+
+        PricingDto fetched = client(HttpPricingClient.class).fetch("PART-001", "pl-PL", null);
+
+        assertThat(fetched.finalPrice()).isEqualTo(new BigDecimal("95.59"));
+        assertThat(fetched.discount()).isEqualTo(new BigDecimal("10.00"));
+    }
+
+    @Test
+    void pricing_passesTheCustomerSegment() {
+        PricingDto price = new PricingDto(new BigDecimal("106.21"), new BigDecimal("10.00"), new BigDecimal("95.59"));
+        when(pricing.fetch("PART-001", "pl-PL", "ACME-42", "DEALER")).thenReturn(price);
+
+        assertThat(client(HttpPricingClient.class).fetchAsync("PART-001", "pl-PL", "ACME-42", "DEALER").join())
+                .isEqualTo(price);
+    }
+
+    @Test
+    void pricing_upstreamFailure_throwsUpstreamServiceException() {
+        when(pricing.fetch(any(), any(), any(), any()))
+                .thenThrow(new UpstreamServiceException("PricingService", "Simulated transient failure"));
+
+        assertThatThrownBy(() -> client(HttpPricingClient.class).fetch("PART-001", "pl-PL", "DEALER-001"))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageStartingWith("[PricingService] HTTP 503");
+    }
+
+    @Test
+    void pricing_notFound_throwsUpstreamServiceException() {
+        when(pricing.fetch(any(), any(), any(), any())).thenThrow(new ProductNotFoundException("PART-001"));
+
+        assertThatThrownBy(() -> client(HttpPricingClient.class).fetch("PART-001", "pl-PL", "DEALER-001"))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageStartingWith("[PricingService] HTTP 404");
+    }
+
+    @Test
+    void availability_roundTripsInstants() {
+        AvailabilityDto stock = new AvailabilityDto(12, "Hamburg-WH", Instant.parse("2026-10-20T10:15:30.123Z"));
+        when(availability.fetch("PART-001", "de-DE")).thenReturn(stock);
+
+        assertThat(client(HttpAvailabilityClient.class).fetch("PART-001", "de-DE")).isEqualTo(stock);
+    }
+
+    @Test
+    void availability_notFound_throwsUpstreamServiceException() {
+        when(availability.fetch("PART-001", "de-DE")).thenThrow(new ProductNotFoundException("PART-001"));
+
+        assertThatThrownBy(() -> client(HttpAvailabilityClient.class).fetch("PART-001", "de-DE"))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageStartingWith("[AvailabilityService] HTTP 404");
+    }
+
+    @Test
+    void customer_notFound_throwsUpstreamServiceException() {
+        when(customers.fetch("DEALER-001")).thenThrow(new ProductNotFoundException("DEALER-001"));
+
+        assertThatThrownBy(() -> client(HttpCustomerClient.class).fetch("DEALER-001"))
+                .isInstanceOf(UpstreamServiceException.class)
+                .hasMessageStartingWith("[CustomerService] HTTP 404");
+    }
+
+    @Test
+    void customer_unknownIsNull_andAnonymousIsNotRequested() {
+        HttpCustomerClient client = client(HttpCustomerClient.class);
+        when(customers.fetch("DEALER-001")).thenReturn(new CustomerDto("DEALER-001", "DEALER", List.of("email")));
+
+        assertThat(client.fetch("DEALER-001").segment()).isEqualTo("DEALER");
+        assertThat(client.fetch("NOBODY")).isNull();
+        assertThat(client.fetch(null)).isNull();
+        verify(customers, never()).fetch(null);
+    }
+
+    @Test
+    void server_gzipsLargeBodiesWhenAccepted() throws Exception {
+        when(catalog.fetch("PART-001", "de-DE")).thenReturn(new CatalogDto("PART-001", "Ölfilter",
+                "x".repeat(1_000), Map.of(), List.of()));
+        try (HttpClient http = HttpClient.newHttpClient()) {
+            HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(
+                            URI.create(url + "/catalog/PART-001?market=de-DE"))
+                    .header("Accept-Encoding", "gzip")
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Encoding")).hasValue("gzip");
+            assertThat(response.body().length).isLessThan(1_000);
+        }
+    }
+
+    @Test
+    void serviceName_followsClientName() {
+        assertThat(UpstreamErrorDecoder.serviceName("HttpCatalogClient#fetch(String,String)"))
+                .isEqualTo("CatalogService");
+        assertThat(UpstreamErrorDecoder.serviceName("HttpAvailabilityClient#fetch(String,String)"))
+                .isEqualTo("AvailabilityService");
+    }
+
+    private <T> T client(Class<T> type) {
+        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter(objectMapper);
+        return Feign.builder()
+                .client(new ApacheHttp5Client())
+                .contract(new SpringMvcContract())
+                .decoder(new SpringDecoder(() -> new HttpMessageConverters(converter)))
+                .errorDecoder(new UpstreamErrorDecoder())
+                .target(type, url);
+    }
+}
@@ -0,0 +1,260 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.model.CatalogDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogIndexTest {
+
+    private static final CatalogTemplate OIL_FILTER = new CatalogTemplate("PART-001",
+            ordered("nl-NL", "Oliefilter", "de-DE", "Ölfilter", "en-GB", "Oil Filter"),
+            ordered("nl-NL", "Oliefilter beschrijving", "en-GB", "Oil filter description"),
+            ordered("thread", "M20x1.5", "height_mm", "110", "weight_kg", "0.4"),
+            List.of("https://cdn.kramp.com/PART-001/main.jpg"));
+    private static final CatalogTemplate BELT = new CatalogTemplate("PART-003",
+            ordered("pl-PL", "Pasek klinowy", "de-DE", "Keilriemen"),
+            ordered("pl-PL", "Trwały pasek klinowy"),
+            ordered("profile", "B", "weight_kg", new String("0.4")),
+            List.of());
+
+    private static final List<String> LOCALES = List.of("nl-NL", "de-DE", "pl-PL", "en-GB");
+
+    private final CatalogIndex index = CatalogIndex.build(List.of(OIL_FILTER, BELT));
+
+    @Test
+    void find_marketTranslationPresent() {
+        CatalogDto dto = index.find("PART-001", "nl-NL");
+
+        assertThat(dto.productId()).isEqualTo("PART-001");
+        assertThat(dto.name()).isEqualTo("Oliefilter");
+        assertThat(dto.description()).isEqualTo("Oliefilter beschrijving");
+        assertThat(dto.images()).containsExactly("https://cdn.kramp.com/PART-001/main.jpg");
+    }
+
+    @Test
+    void find_missingTranslation_fallsBackToEnGbPerField() {
+        CatalogDto dto = index.find("PART-001", "de-DE");
+
+        assertThat(dto.name()).isEqualTo("Ölfilter");
+        assertThat(dto.description()).isEqualTo("Oil filter description");
+    }
+
+    @Test
+    void find_noEnGb_fallsBackToFirstLocale() {
+        CatalogDto dto = index.find("PART-003", "fr-FR");
+
+        assertThat(dto.name()).isEqualTo("Pasek klinowy");
+        assertThat(dto.description()).isEqualTo("Trwały pasek klinowy");
+    }
+
+    @Test
+    void find_unknownProduct_returnsNull() {
+        assertThat(index.find("PART-999", "nl-NL")).isNull();
+        assertThat(index.find("PART-999", "xx-XX")).isNull();
+    }
+
+    @Test
+    void find_returnsSameInstanceEveryCall() {
+        assertThat(index.find("PART-001", "nl-NL")).isSameAs(index.find("PART-001", "nl-NL"));
+        // text identical to the en-GB fallback → the fallback instance is shared
+        assertThat(index.find("PART-001", "en-GB")).isSameAs(index.find("PART-001", "fr-FR"));
+    }
+
+    @Test
+    void build_specsKeepOrderAndAreImmutable() {
+        Map<String, String> specs = index.find("PART-001", "nl-NL").specs();
+
+        assertThat(specs).containsExactly(
+                Map.entry("thread", "M20x1.5"), Map.entry("height_mm", "110"), Map.entry("weight_kg", "0.4"));
+        assertThat(specs).isEqualTo(OIL_FILTER.specs());
+        assertThatThrownBy(() -> specs.put("x", "y")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void build_deduplicatesRepeatedStrings() {
+        String first = index.find("PART-001", "nl-NL").specs().get("weight_kg");
+        String second = index.find("PART-003", "pl-PL").specs().get("weight_kg");
+
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    void changedProducts_reportsEditedAddedAndRemovedProducts() {
+        CatalogTemplate renamedBelt = new CatalogTemplate("PART-003",
+                ordered("pl-PL", "Pasek klinowy", "de-DE", "Keilriemen XL"),
+                BELT.descriptions(), BELT.specs(), BELT.images());
+        CatalogTemplate newPart = new CatalogTemplate("PART-004", ordered("en-GB", "Hose"), null, null, null);
+
+        CatalogIndex reloaded = CatalogIndex.build(List.of(OIL_FILTER, renamedBelt, newPart));
+
+        assertThat(reloaded.changedProducts(index)).containsExactlyInAnyOrder("PART-003", "PART-004");
+        assertThat(CatalogIndex.build(List.of(BELT)).changedProducts(index)).containsExactly("PART-001");
+        assertThat(CatalogIndex.build(List.of(OIL_FILTER, BELT)).changedProducts(index)).isEmpty();
+    }
+
+    @Test
+    void read_matchesBuild_forMockCatalog() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] json = new ClassPathResource("mock-data/catalog.json").getContentAsByteArray();
+        List<CatalogTemplate> templates = objectMapper.readValue(json, new TypeReference<>() {});
+
+        CatalogIndex built = CatalogIndex.build(templates);
+        CatalogIndex read;
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            read = CatalogIndex.read(parser);
+        }
+
+        assertThat(read.productCount()).isEqualTo(built.productCount());
+        assertThat(read.markets()).isEqualTo(built.markets());
+        for (CatalogTemplate template : templates) {
+            for (String market : List.of("nl-NL", "de-DE", "pl-PL", "en-GB", "fr-FR")) {
+                assertThat(read.find(template.productId(), market))
+                        .isEqualTo(built.find(template.productId(), market));
+            }
+        }
+    }
+
+    @Test
+    void read_skipsUnknownFieldsAndKeepsNulls() throws Exception {
+        String json = """
+                [{"productId": "PART-9", "names": {"de-DE": "Riemen"}, "descriptions": null,
+                  "legacy": {"a": [1, 2, {"b": 3}]}, "specs": null, "images": ["x.jpg"]}]
+                """;
+
+        CatalogIndex read;
+        try (JsonParser parser = new ObjectMapper().createParser(json)) {
+            read = CatalogIndex.read(parser);
+        }
+
+        assertThat(read.find("PART-9", "nl-NL"))
+                .isEqualTo(new CatalogDto("PART-9", "Riemen", null, null, List.of("x.jpg")));
+    }
+
+    @Test
+    void read_nullImage_failsWithPosition() throws Exception {
+        String json = """
+                [{"productId": "PART-9", "images": ["x.jpg", null]}]
+                """;
+
+        try (JsonParser parser = new ObjectMapper().createParser(json)) {
+            assertThatThrownBy(() -> CatalogIndex.read(parser))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Expected VALUE_STRING but found VALUE_NULL at");
+        }
+    }
+
+    /**
+     * Load time and allocation of the previous loader (full Jackson object tree, then
+     * {@link CatalogIndex#build}) vs the token-level {@link CatalogIndex#read}.
+     * Run with {@code ./mvnw test -Dtest=CatalogIndexTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_streamingLoad() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] json = objectMapper.writeValueAsBytes(syntheticCatalog(100_000));
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        for (int round = 0; round < 3; round++) {
+            long allocated = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            CatalogIndex.build(objectMapper.readValue(json, new TypeReference<List<CatalogTemplate>>() {}));
+            long treeNanos = System.nanoTime() - start;
+            long treeBytes = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+            allocated = threads.getCurrentThreadAllocatedBytes();
+            start = System.nanoTime();
+            try (JsonParser parser = objectMapper.createParser(json)) {
+                CatalogIndex.read(parser);
+            }
+            long streamNanos = System.nanoTime() - start;
+            long streamBytes = threads.getCurrentThreadAllocatedBytes() - allocated;
+
+            System.out.printf("round %d, %d KB json: object tree %d ms / %d MB allocated, streaming %d ms / %d MB allocated%n",
+                    round, json.length >> 10, treeNanos / 1_000_000, treeBytes >> 20,
+                    streamNanos / 1_000_000, streamBytes >> 20);
+        }
+    }
+
+    /**
+     * Retained heap of the previous representation (Jackson templates with locale maps resolved per
+     * call) vs the per-market index, for a synthetic catalog.
+     * Run with {@code ./mvnw test -Dtest=CatalogIndexTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_heapFootprint() throws Exception {
+        int products = 100_000;
+        List<Map<String, Object>> source = syntheticCatalog(products);
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] json = objectMapper.writeValueAsBytes(source);
+        source = null;
+
+        long baseline = usedHeap();
+        List<CatalogTemplate> templates = objectMapper.readValue(json, new TypeReference<>() {});
+        Map<String, CatalogTemplate> byId = templates.stream()
+                .collect(Collectors.toMap(CatalogTemplate::productId, Function.identity()));
+        long templateHeap = usedHeap() - baseline;
+
+        CatalogIndex built = CatalogIndex.build(templates);
+        templates = null;
+        byId = null;
+        long indexHeap = usedHeap() - baseline;
+
+        System.out.printf("%d products x %d locales: templates %d MB, per-market index %d MB (%d markets)%n",
+                products, LOCALES.size(), templateHeap >> 20, indexHeap >> 20, built.markets().size());
+    }
+
+    private static List<Map<String, Object>> syntheticCatalog(int products) {
+        List<Map<String, Object>> source = new ArrayList<>(products);
+        for (int n = 0; n < products; n++) {
+            int i = n;
+            Map<String, Object> product = new LinkedHashMap<>();
+            product.put("productId", "PART-" + i);
+            product.put("names", LOCALES.stream().collect(Collectors.toMap(Function.identity(),
+                    l -> "Filter " + (i % 500) + " " + l, (a, b) -> a, LinkedHashMap::new)));
+            product.put("descriptions", LOCALES.stream().collect(Collectors.toMap(Function.identity(),
+                    l -> "Replacement filter for series " + (i % 200) + " (" + l + ")", (a, b) -> a, LinkedHashMap::new)));
+            product.put("specs", ordered("thread", "M" + (i % 30) + "x1.5", "height_mm", String.valueOf(i % 300),
+                    "weight_kg", "0." + (i % 9), "material", i % 2 == 0 ? "steel" : "aluminium"));
+            product.put("images", List.of("https://cdn.kramp.com/PART-" + i + "/main.jpg",
+                    "https://cdn.kramp.com/PART-" + i + "/side.jpg"));
+            source.add(product);
+        }
+        return source;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Map<String, String> ordered(String... keyValues) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,159 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.model.CustomerDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MockDataLoaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MockDataLoader loader = new MockDataLoader(objectMapper, new DefaultResourceLoader(),
+            "classpath:mock-data", false);
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        loader.shutdown();
+    }
+
+    @Test
+    void load_parsesAllSourcesBeforeAwaitReturns() {
+        Map<String, Object> loaded = new ConcurrentHashMap<>();
+
+        loader.load("catalog.json", CatalogIndex::read, index -> loaded.put("catalog", index));
+        loader.load("pricing.json", PriceTable::read, table -> loaded.put("pricing", table));
+        loader.load("customers.json", MockCustomerClient::readCustomers, c -> loaded.put("customers", c));
+        loader.afterSingletonsInstantiated();
+
+        assertThat(loaded).containsOnlyKeys("catalog", "pricing", "customers");
+        assertThat(((CatalogIndex) loaded.get("catalog")).productCount()).isEqualTo(3);
+        assertThat(((PriceTable) loaded.get("pricing")).marketCount()).isEqualTo(5);
+    }
+
+    @Test
+    void awaitLoaded_missingResource_failsStartup() {
+        loader.load("missing.json", CatalogIndex::read, index -> {
+        });
+
+        assertThatThrownBy(loader::awaitLoaded)
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void reload_swapsInNewResult_andKeepsOldOneOnFailure() throws IOException {
+        Path pricing = dir.resolve("pricing.json");
+        Files.writeString(pricing, pricingJson("24.99"));
+        MockDataLoader fileLoader = new MockDataLoader(objectMapper, new DefaultResourceLoader(), "file:" + dir, false);
+        AtomicReference<PriceTable> current = new AtomicReference<>();
+        try {
+            fileLoader.load("pricing.json", PriceTable::read, current::set);
+            fileLoader.awaitLoaded();
+            PriceTable first = current.get();
+
+            Files.writeString(pricing, pricingJson("30.00"));
+            fileLoader.reload("pricing.json").join();
+            assertThat(current.get().price("PART-001", "nl-NL", null).basePrice()).isEqualByComparingTo("30.00");
+            assertThat(current.get().changedProducts(first)).containsExactly("PART-001");
+
+            PriceTable second = current.get();
+            Files.writeString(pricing, "{ not json");
+            assertThatThrownBy(() -> fileLoader.reload("pricing.json").join()).isInstanceOf(CompletionException.class);
+            assertThat(current.get()).isSameAs(second);
+            assertThat(fileLoader.status().get("pricing.json").loads()).isEqualTo(2);
+            assertThat(fileLoader.status().get("pricing.json").lastError()).isNotNull();
+        } finally {
+            fileLoader.shutdown();
+        }
+    }
+
+    @Test
+    void reload_unknownSource_fails() {
+        assertThatThrownBy(() -> loader.reload("nope.json").join())
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void watch_reloadsSourceWhenFileIsReplaced() throws Exception {
+        Path pricing = dir.resolve("pricing.json");
+        Files.writeString(pricing, pricingJson("24.99"));
+        MockDataLoader fileLoader = new MockDataLoader(objectMapper, new DefaultResourceLoader(), "file:" + dir, true);
+        AtomicReference<PriceTable> current = new AtomicReference<>();
+        try {
+            fileLoader.load("pricing.json", PriceTable::read, current::set);
+            fileLoader.afterSingletonsInstantiated();
+
+            Path staged = dir.resolve("pricing.json.tmp");
+            Files.writeString(staged, pricingJson("12.50"));
+            Files.move(staged, pricing, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (current.get().price("PART-001", "nl-NL", null).basePrice().compareTo(new BigDecimal("12.50")) != 0
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(current.get().price("PART-001", "nl-NL", null).basePrice()).isEqualByComparingTo("12.50");
+        } finally {
+            fileLoader.shutdown();
+        }
+    }
+
+    @Test
+    void readCustomers_fillsMapAndSkipsUnknownFields() throws IOException {
+        String json = """
+                [{"customerId": "DEALER-001", "segment": "DEALER", "preferences": ["filters", "belts"],
+                  "notes": {"x": [1]}},
+                 {"customerId": "PRIVATE-1", "segment": null, "preferences": null}]
+                """;
+
+        Map<String, CustomerDto> customers;
+        try (JsonParser parser = objectMapper.createParser(json)) {
+            customers = MockCustomerClient.readCustomers(parser);
+        }
+
+        assertThat(customers).containsOnly(
+                Map.entry("DEALER-001", new CustomerDto("DEALER-001", "DEALER", List.of("filters", "belts"))),
+                Map.entry("PRIVATE-1", new CustomerDto("PRIVATE-1", null, null)));
+    }
+
+    @Test
+    void readCustomers_duplicateId_isRejected() {
+        String json = """
+                [{"customerId": "FLEET-001"}, {"customerId": "FLEET-001"}]
+                """;
+
+        assertThatThrownBy(() -> {
+            try (JsonParser parser = objectMapper.createParser(json)) {
+                MockCustomerClient.readCustomers(parser);
+            }
+        }).isInstanceOf(IOException.class).hasMessageContaining("FLEET-001");
+    }
+
+    private static String pricingJson(String basePrice) {
+        return """
+                {"basePrices": {"PART-001": %s, "PART-002": 45.50},
+                 "marketConfig": {"nl-NL": {"currency": "EUR", "exchangeRate": 1.0}},
+                 "segmentDiscounts": {"DEALER": 10.0}}
+                """.formatted(basePrice);
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.aggregator.client.mock;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.model.PricingDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that {@link PriceTable} produces exactly (including scale) what the original
+ * per-request {@code BigDecimal} engine produced, reproduced here verbatim as {@link #legacyPrice}.
+ */
+class PriceTableTest {
+
+    private static final List<String> CUSTOMERS = List.of(
+            "DEALER-001", "WORKSHOP-001", "FLEET-001", "PRIVATE-001", "STANDARD", "DEALER", "-001", "DEALERX-1");
+
+    @Test
+    void price_matchesLegacyEngine_forMockData() throws Exception {
+        JsonNode json = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS).readTree(new ClassPathResource("mock-data/pricing.json").getInputStream());
+        Map<String, BigDecimal> basePrices = decimals(json.get("basePrices"));
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        json.get("marketConfig").properties().forEach(e -> rates.put(e.getKey(), e.getValue().get("exchangeRate").decimalValue()));
+        Map<String, BigDecimal> discounts = decimals(json.get("segmentDiscounts"));
+
+        assertMatchesLegacy(basePrices, rates, discounts);
+    }
+
+    @Test
+    void price_matchesLegacyEngine_forRandomData() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            Map<String, BigDecimal> basePrices = new LinkedHashMap<>();
+            for (int i = 0; i < 20; i++) {
+                basePrices.put("PART-" + i, BigDecimal.valueOf(random.nextLong(0, 10_000_000), random.nextInt(0, 5)));
+            }
+            Map<String, BigDecimal> rates = new LinkedHashMap<>();
+            for (int i = 0; i < 5; i++) {
+                rates.put("m" + i + "-XX", BigDecimal.valueOf(random.nextLong(1, 10_000_000), random.nextInt(0, 7)));
+            }
+            Map<String, BigDecimal> discounts = new LinkedHashMap<>();
+            discounts.put("DEALER", BigDecimal.valueOf(random.nextLong(0, 1_000), random.nextInt(0, 2)));
+            discounts.put("WORKSHOP", BigDecimal.valueOf(random.nextLong(0, 100_000), random.nextInt(0, 4)));
+            discounts.put("FLEET", new BigDecimal("12.345"));
+
+            assertMatchesLegacy(basePrices, rates, discounts);
+        }
+    }
+
+    @Test
+    void read_matchesBuild_forMockData() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] bytes = new ClassPathResource("mock-data/pricing.json").getContentAsByteArray();
+        // the previous loader's data binding, which keeps the scale written in the file
+        PricingData data = objectMapper.readValue(bytes, PricingData.class);
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        data.marketConfig().forEach((market, config) -> rates.put(market, config.exchangeRate()));
+        PriceTable built = PriceTable.build(data.basePrices(), rates, data.segmentDiscounts());
+
+        PriceTable read;
+        try (JsonParser parser = objectMapper.createParser(bytes)) {
+            read = PriceTable.read(parser);
+        }
+
+        assertThat(read.productCount()).isEqualTo(built.productCount());
+        assertThat(read.marketCount()).isEqualTo(built.marketCount());
+        assertThat(read.segmentCount()).isEqualTo(built.segmentCount());
+        List<String> customers = new ArrayList<>(CUSTOMERS);
+        customers.add(null);
+        for (String product : List.of("PART-001", "PART-002", "PART-003", "PART-UNKNOWN")) {
+            for (String market : List.of("nl-NL", "de-DE", "pl-PL", "en-GB", "fr-FR", "xx-XX")) {
+                for (String customer : customers) {
+                    assertThat(read.price(product, market, customer)).isEqualTo(built.price(product, market, customer));
+                }
+            }
+        }
+    }
+
+    @Test
+    void changedProducts_exchangeRateOrDiscountChangeMarksEveryAffectedProduct() {
+        Map<String, BigDecimal> basePrices = Map.of("PART-001", new BigDecimal("24.99"), "PART-002", new BigDecimal("45.50"));
+        Map<String, BigDecimal> rates = Map.of("nl-NL", new BigDecimal("1.0"), "pl-PL", new BigDecimal("4.25"));
+        Map<String, BigDecimal> discounts = Map.of("DEALER", new BigDecimal("10.0"));
+        PriceTable table = PriceTable.build(basePrices, rates, discounts);
+
+        assertThat(PriceTable.build(basePrices, rates, discounts).changedProducts(table)).isEmpty();
+        assertThat(PriceTable.build(Map.of("PART-001", new BigDecimal("25.99"), "PART-002", new BigDecimal("45.50")),
+                rates, discounts).changedProducts(table)).containsExactly("PART-001");
+        assertThat(PriceTable.build(basePrices, Map.of("nl-NL", new BigDecimal("1.0"), "pl-PL", new BigDecimal("4.30")),
+                discounts).changedProducts(table)).containsExactlyInAnyOrder("PART-001", "PART-002");
+        assertThat(PriceTable.build(basePrices, rates, Map.of("DEALER", new BigDecimal("12.0")))
+                .changedProducts(table)).containsExactlyInAnyOrder("PART-001", "PART-002");
+        assertThat(PriceTable.build(Map.of("PART-001", new BigDecimal("24.99")), rates, discounts)
+                .changedProducts(table)).containsExactly("PART-002");
+    }
+
+    @Test
+    void price_knownSegmentWinsOverTheCustomerIdPrefix() {
+        PriceTable table = PriceTable.build(Map.of("PART-001", new BigDecimal("20.00")),
+                Map.of("nl-NL", new BigDecimal("1.0")), Map.of("DEALER", new BigDecimal("10.0")));
+
+        assertThat(table.price("PART-001", "nl-NL", "ACME-42", "DEALER").finalPrice()).isEqualByComparingTo("18.00");
+        assertThat(table.price("PART-001", "nl-NL", "DEALER-001", "RETAIL").finalPrice()).isEqualByComparingTo("20.00");
+        assertThat(table.price("PART-001", "nl-NL", "DEALER-001", null))
+                .isEqualTo(table.price("PART-001", "nl-NL", "DEALER-001"));
+    }
+
+    @Test
+    void rescale_halfUpTiesRoundAwayFromZero() {
+        assertThat(PriceTable.rescale(12_345, 3, 2)).isEqualTo(1_235);
+        assertThat(PriceTable.rescale(-12_345, 3, 2)).isEqualTo(-1_235);
+        assertThat(PriceTable.rescale(12_344, 3, 2)).isEqualTo(1_234);
+        assertThat(PriceTable.rescale(-12_344, 3, 2)).isEqualTo(-1_234);
+        assertThat(PriceTable.rescale(7, 0, 2)).isEqualTo(700);
+        assertThat(PriceTable.rescale(Long.MAX_VALUE, 19, 0)).isEqualTo(1);
+        assertThat(PriceTable.rescale(1, 25, 2)).isZero();
+    }
+
+    private static void assertMatchesLegacy(Map<String, BigDecimal> basePrices, Map<String, BigDecimal> rates,
+                                            Map<String, BigDecimal> discounts) {
+        PriceTable table = PriceTable.build(basePrices, rates, discounts);
+        List<String> products = new ArrayList<>(basePrices.keySet());
+        products.add("PART-UNKNOWN");
+        List<String> markets = new ArrayList<>(rates.keySet());
+        markets.add("xx-XX");
+        List<String> customers = new ArrayList<>(CUSTOMERS);
+        customers.add(null);
+
+        for (String product : products) {
+            for (String market : markets) {
+                for (String customer : customers) {
+                    PricingDto actual = table.price(product, market, customer);
+                    PricingDto expected = legacyPrice(basePrices, rates, discounts, product, market, customer);
+                    assertThat(actual)
+                            .as("%s / %s / %s", product, market, customer)
+                            .isEqualTo(expected);
+                }
+            }
+        }
+    }
+
+    private static PricingDto legacyPrice(Map<String, BigDecimal> basePrices, Map<String, BigDecimal> rates,
+                                          Map<String, BigDecimal> segmentDiscounts,
+                                          String productId, String market, String customerId) {
+        BigDecimal baseEur = basePrices.getOrDefault(productId, new BigDecimal("99.99"));
+        BigDecimal rate = rates.getOrDefault(market, BigDecimal.ONE);
+
+        BigDecimal basePrice = baseEur.multiply(rate)
+                .setScale(2, RoundingMode.HALF_UP);
+        BigDecimal discount = BigDecimal.ZERO;
+        if (customerId != null) {
+            String segment = customerId.contains("-")
+                    ? customerId.substring(0, customerId.indexOf('-'))
+                    : "STANDARD";
+            discount = segmentDiscounts.getOrDefault(segment, BigDecimal.ZERO);
+        }
+        BigDecimal finalPrice = basePrice
+                .multiply(BigDecimal.ONE.subtract(discount.divide(new BigDecimal("100"), 4, RoundingMode.HALF_UP)))
+                .setScale(2, RoundingMode.HALF_UP);
+
+        return new PricingDto(basePrice, discount, finalPrice);
+    }
+
+    private static Map<String, BigDecimal> decimals(JsonNode node) {
+        Map<String, BigDecimal> values = new LinkedHashMap<>();
+        node.properties().forEach(e -> values.put(e.getKey(), e.getValue().decimalValue()));
+        return values;
+    }
+
+    private record PricingData(Map<String, BigDecimal> basePrices, Map<String, MarketConfig> marketConfig,
+                               Map<String, BigDecimal> segmentDiscounts) {
+    }
+
+    private record MarketConfig(String currency, BigDecimal exchangeRate) {
+    }
+}
@@ -0,0 +1,55 @@
+package com.project.aggregator.client.mock;
+
+import com.project.aggregator.exception.UpstreamServiceException;
+import com.project.aggregator.model.AvailabilityDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulatedLatencyTest {
+
+    @Test
+    void after_completesOnceTheDelayHasPassed() {
+        long start = System.nanoTime();
+
+        String value = SimulatedLatency.after(50, () -> "answer").join();
+
+        assertThat(value).isEqualTo("answer");
+        assertThat((System.nanoTime() - start) / 1_000_000).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    void after_completesExceptionallyWhenTheAnswerThrows() {
+        CompletableFuture<String> future = SimulatedLatency.after(1, () -> {
+            throw new UpstreamServiceException("PricingService", "Simulated transient failure");
+        });
+
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(UpstreamServiceException.class);
+    }
+
+    @Test
+    void fetchAsync_keepsManyCallsInFlightWithoutAThreadEach() {
+        MockAvailabilityClient client = new MockAvailabilityClient();
+        int threadsBefore = Thread.activeCount();
+        long start = System.nanoTime();
+
+        List<CompletableFuture<AvailabilityDto>> calls = IntStream.range(0, 2_000)
+                .mapToObj(i -> client.fetchAsync("PART-001", "nl-NL"))
+                .toList();
+        int threadsInFlight = Thread.activeCount();
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+
+        // 2,000 sleeping calls of 100-125 ms would need 2,000 threads to finish in one latency period
+        assertThat(threadsInFlight - threadsBefore).isLessThanOrEqualTo(1);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1_000);
+        assertThat(calls).filteredOn(call -> !call.isCompletedExceptionally()).hasSizeGreaterThan(1_900);
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.aggregator.client.stock;
+
+import com.project.aggregator.exception.UpstreamServiceException;
+import com.project.aggregator.model.AvailabilityDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockTableAvailabilityClientTest {
+
+    private final StockTable table = mock(StockTable.class);
+    private final StockTableAvailabilityClient client =
+            new StockTableAvailabilityClient(table, Map.of("de-DE", "Hamburg-WH"), "Central-WH");
+
+    @Test
+    void fetch_readsTheMarketsWarehouse() {
+        when(table.loaded()).thenReturn(true);
+        when(table.stock("PART-001", "Hamburg-WH")).thenReturn(12);
+
+        AvailabilityDto availability = client.fetchAsync("PART-001", "de-DE").join();
+
+        assertThat(availability.stock()).isEqualTo(12);
+        assertThat(availability.warehouse()).isEqualTo("Hamburg-WH");
+        assertThat(availability.staleAsOf()).isNull();
+        assertThat(availability.expectedDelivery()).isBefore(Instant.now().plus(2, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void fetch_outOfStockInTheDefaultWarehouse() {
+        when(table.loaded()).thenReturn(true);
+
+        AvailabilityDto availability = client.fetch("PART-001", "fr-FR");
+
+        assertThat(availability.stock()).isZero();
+        assertThat(availability.warehouse()).isEqualTo("Central-WH");
+        assertThat(availability.expectedDelivery()).isAfter(Instant.now().plus(2, ChronoUnit.DAYS));
+    }
+
+    @Test
+    void fetch_whileResynchronising_isStale() {
+        Instant lostAt = Instant.parse("2026-10-19T08:00:00Z");
+        when(table.loaded()).thenReturn(true);
+        when(table.outOfSyncSince()).thenReturn(lostAt);
+        when(table.stock("PART-001", "Hamburg-WH")).thenReturn(4);
+
+        AvailabilityDto availability = client.fetch("PART-001", "de-DE");
+
+        assertThat(availability.stock()).isEqualTo(4);
+        assertThat(availability.staleAsOf()).isEqualTo(lostAt);
+    }
+
+    @Test
+    void fetch_beforeTheFirstSnapshot_failsLikeTheUpstream() {
+        assertThat(client.fetchAsync("PART-001", "de-DE")).isCompletedExceptionally();
+        assertThatThrownBy(() -> client.fetch("PART-001", "de-DE"))
+                .isInstanceOf(UpstreamServiceException.class);
+    }
+}
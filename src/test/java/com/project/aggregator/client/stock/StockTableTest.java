@@ -0,0 +1,202 @@
+package com.project.aggregator.client.stock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockTableTest {
+
+    private final FakeSource source = new FakeSource();
+    private final StockTable table = new StockTable(source, Duration.ofMillis(10));
+
+    @AfterEach
+    void close() {
+        table.close();
+    }
+
+    @Test
+    void start_replaysTheEventsThatArriveWhileTheSnapshotIsRead() {
+        source.snapshot = new StockSnapshot(3, Map.of("PART-001", Map.of("Hamburg-WH", 5)));
+        source.duringSnapshot = () -> {
+            source.publish(new StockEvent(3, "PART-001", "Hamburg-WH", 5));
+            source.publish(new StockEvent(4, "PART-001", "Hamburg-WH", 7));
+        };
+
+        table.start();
+
+        assertThat(table.loaded()).isTrue();
+        assertThat(table.outOfSyncSince()).isNull();
+        assertThat(table.sequence()).isEqualTo(4);
+        assertThat(table.stock("PART-001", "Hamburg-WH")).isEqualTo(7);
+        assertThat(table.appliedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void events_applyInSequenceAndDuplicatesAreIgnored() {
+        source.snapshot = new StockSnapshot(0, Map.of());
+        table.start();
+
+        source.publish(new StockEvent(1, "PART-001", "Warsaw-WH", 12));
+        source.publish(new StockEvent(2, "PART-002", "Warsaw-WH", 3));
+        source.publish(new StockEvent(1, "PART-001", "Warsaw-WH", 99));
+
+        assertThat(table.stock("PART-001", "Warsaw-WH")).isEqualTo(12);
+        assertThat(table.stock("PART-002", "Warsaw-WH")).isEqualTo(3);
+        assertThat(table.stock("PART-002", "Paris-WH")).isZero();
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.duplicateCount()).isEqualTo(1);
+        assertThat(table.gapCount()).isZero();
+    }
+
+    @Test
+    void gap_keepsServingStaleLevelsUntilAFreshSnapshotIsLoaded() throws InterruptedException {
+        source.snapshot = new StockSnapshot(1, Map.of("PART-001", Map.of("Paris-WH", 4)));
+        table.start();
+        CountDownLatch release = new CountDownLatch(1);
+        source.duringSnapshot = () -> await(release);
+        source.snapshot = new StockSnapshot(3, Map.of("PART-001", Map.of("Paris-WH", 8)));
+
+        source.publish(new StockEvent(3, "PART-001", "Paris-WH", 8));
+        source.publish(new StockEvent(4, "PART-001", "Paris-WH", 9));
+
+        assertThat(table.outOfSyncSince()).isNotNull();
+        assertThat(table.stock("PART-001", "Paris-WH")).isEqualTo(4);
+        release.countDown();
+        awaitTrue(() -> table.outOfSyncSince() == null);
+        assertThat(table.stock("PART-001", "Paris-WH")).isEqualTo(9);
+        assertThat(table.sequence()).isEqualTo(4);
+        assertThat(table.gapCount()).isEqualTo(1);
+        assertThat(table.resyncCount()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshotFailure_isRetriedInTheBackground() throws InterruptedException {
+        source.snapshot = new StockSnapshot(5, Map.of("PART-001", Map.of("Central-WH", 1)));
+        source.failures.set(2);
+
+        table.start();
+
+        assertThat(table.loaded()).isFalse();
+        awaitTrue(table::loaded);
+        assertThat(table.stock("PART-001", "Central-WH")).isEqualTo(1);
+        assertThat(table.sequence()).isEqualTo(5);
+    }
+
+    @Test
+    void followsTheSimulatedFeedThroughLostEvents() throws InterruptedException {
+        SimulatedStockEventSource simulated = new SimulatedStockEventSource(() -> List.of("PART-001", "PART-002"),
+                List.of("Amsterdam-WH", "Central-WH"), 0, 0.3);
+        try (StockTable fed = new StockTable(simulated, Duration.ofMillis(10))) {
+            fed.start();
+            assertThat(fed.size()).isEqualTo(4);
+
+            for (int i = 0; i < 200; i++) {
+                simulated.publish(i % 2 == 0 ? "PART-001" : "PART-002", i % 3 == 0 ? "Amsterdam-WH" : "Central-WH", i);
+            }
+            // the last change can only be lost for good when no later one shows the gap
+            simulated.publish("PART-003", "Central-WH", 42);
+            simulated.publish("PART-003", "Central-WH", 42);
+            simulated.publish("PART-003", "Central-WH", 42);
+            simulated.publish("PART-003", "Central-WH", 42);
+
+            awaitTrue(() -> fed.outOfSyncSince() == null && fed.sequence() == simulated.snapshot().sequence());
+            simulated.snapshot().levels().forEach((productId, byWarehouse) -> byWarehouse.forEach(
+                    (warehouse, stock) -> assertThat(fed.stock(productId, warehouse)).isEqualTo(stock)));
+            assertThat(fed.gapCount()).isPositive();
+        }
+    }
+
+    @Test
+    void followsTheSimulatedFeedOnceTheCatalogHasLoaded() throws InterruptedException {
+        AtomicInteger listings = new AtomicInteger();
+        SimulatedStockEventSource simulated = new SimulatedStockEventSource(() -> {
+            if (listings.incrementAndGet() <= 3) {
+                throw new IllegalStateException("Catalog is still loading");
+            }
+            return List.of("PART-001", "PART-002");
+        }, List.of("Amsterdam-WH", "Central-WH"), 200, 0);
+        try (simulated; StockTable fed = new StockTable(simulated, Duration.ofMillis(10))) {
+            fed.start();
+
+            awaitTrue(fed::loaded);
+            assertThat(fed.size()).isEqualTo(4);
+            awaitTrue(() -> fed.sequence() > 0);
+        }
+    }
+
+    @Test
+    void simulatedFeedKeepsTickingUntilTheCatalogHasLoaded() throws InterruptedException {
+        AtomicInteger listings = new AtomicInteger();
+        SimulatedStockEventSource simulated = new SimulatedStockEventSource(() -> {
+            if (listings.incrementAndGet() <= 3) {
+                throw new IllegalStateException("Catalog is still loading");
+            }
+            return List.of("PART-001");
+        }, List.of("Central-WH"), 200, 0);
+        List<StockEvent> events = new CopyOnWriteArrayList<>();
+        try (simulated) {
+            simulated.subscribe(events::add);
+
+            awaitTrue(() -> !events.isEmpty());
+            assertThat(listings).hasValue(4);
+            assertThat(events.getFirst().productId()).isEqualTo("PART-001");
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within 5s").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FakeSource implements StockEventSource {
+
+        final AtomicInteger failures = new AtomicInteger();
+        volatile StockSnapshot snapshot;
+        volatile Runnable duringSnapshot = () -> { };
+        private Consumer<StockEvent> listener;
+
+        @Override
+        public void subscribe(Consumer<StockEvent> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public StockSnapshot snapshot() {
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("inventory unavailable");
+            }
+            duringSnapshot.run();
+            return snapshot;
+        }
+
+        void publish(StockEvent event) {
+            listener.accept(event);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
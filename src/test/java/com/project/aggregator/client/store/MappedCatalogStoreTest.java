@@ -0,0 +1,258 @@
+package com.project.aggregator.client.store;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.client.mock.CatalogTemplate;
+import com.project.aggregator.model.CatalogDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedCatalogStoreTest {
+
+    private static final CatalogTemplate OIL_FILTER = new CatalogTemplate("PART-001",
+            ordered("nl-NL", "Oliefilter", "de-DE", "Ölfilter", "en-GB", "Oil Filter"),
+            ordered("nl-NL", "Oliefilter beschrijving", "en-GB", "Oil filter description"),
+            ordered("thread", "M20x1.5", "height_mm", "110", "weight_kg", "0.4"),
+            List.of("https://cdn.kramp.com/PART-001/main.jpg"));
+    private static final CatalogTemplate BELT = new CatalogTemplate("PART-003",
+            ordered("pl-PL", "Pasek klinowy", "de-DE", "Keilriemen"),
+            ordered("pl-PL", "Trwały pasek klinowy"),
+            ordered("profile", "B", "weight_kg", "0.4"),
+            List.of());
+    private static final CatalogTemplate BARE = new CatalogTemplate("PART-404", null, Map.of(), null, null);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void find_appliesLocaleFallbackPerField() throws IOException {
+        MappedCatalogStore store = build(List.of(OIL_FILTER, BELT, BARE), 12);
+
+        assertThat(store.find("PART-001", "nl-NL")).isEqualTo(new CatalogDto("PART-001",
+                "Oliefilter", "Oliefilter beschrijving", OIL_FILTER.specs(), OIL_FILTER.images()));
+        assertThat(store.find("PART-001", "de-DE").name()).isEqualTo("Ölfilter");
+        assertThat(store.find("PART-001", "de-DE").description()).isEqualTo("Oil filter description");
+        assertThat(store.find("PART-003", "fr-FR").name()).isEqualTo("Pasek klinowy");
+        assertThat(store.find("PART-003", "de-DE").description()).isEqualTo("Trwały pasek klinowy");
+        assertThat(store.find("PART-003", "de-DE").images()).isEmpty();
+    }
+
+    @Test
+    void find_keepsSpecOrderAndNulls() throws IOException {
+        MappedCatalogStore store = build(List.of(OIL_FILTER, BARE), 12);
+
+        assertThat(store.find("PART-001", "en-GB").specs().keySet())
+                .containsExactly("thread", "height_mm", "weight_kg");
+        assertThat(store.find("PART-404", "en-GB"))
+                .isEqualTo(new CatalogDto("PART-404", null, null, null, null));
+    }
+
+    @Test
+    void find_unknownProduct_returnsNull() throws IOException {
+        MappedCatalogStore store = build(List.of(OIL_FILTER, BELT), 12);
+
+        assertThat(store.find("PART-999", "en-GB")).isNull();
+        assertThat(store.productCount()).isEqualTo(2);
+        assertThat(store.productIds()).containsExactlyInAnyOrder("PART-001", "PART-003");
+    }
+
+    @Test
+    void write_duplicateProductId_lastOccurrenceWins() throws IOException {
+        CatalogTemplate renamed = new CatalogTemplate("PART-001", Map.of("en-GB", "Renamed"),
+                null, null, null);
+
+        MappedCatalogStore store = build(List.of(OIL_FILTER, renamed), 12);
+
+        assertThat(store.productCount()).isEqualTo(1);
+        assertThat(store.find("PART-001", "nl-NL").name()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void write_collidingHashes_keepsEveryProduct() throws IOException {
+        Path file = dir.resolve("colliding.bin");
+        CatalogTemplate renamed = new CatalogTemplate("PART-001", Map.of("en-GB", "Renamed"),
+                null, null, null);
+        new CatalogStoreWriter(objectMapper, 12, productId -> 42L)
+                .write(json(List.of(OIL_FILTER, BELT, BARE, renamed)), file);
+
+        MappedCatalogStore store = MappedCatalogStore.open(file, productId -> 42L);
+
+        assertThat(store.productCount()).isEqualTo(3);
+        assertThat(store.productIds()).containsExactlyInAnyOrder("PART-001", "PART-003", "PART-404");
+        assertThat(store.find("PART-001", "nl-NL").name()).isEqualTo("Renamed");
+        assertThat(store.find("PART-003", "pl-PL").name()).isEqualTo("Pasek klinowy");
+        assertThat(store.find("PART-404", "en-GB").productId()).isEqualTo("PART-404");
+        assertThat(store.find("PART-999", "en-GB")).isNull();
+    }
+
+    @Test
+    void find_matchesMockCatalogForEveryProductAndMarket() throws IOException {
+        List<CatalogTemplate> templates;
+        try (InputStream json = getClass().getResourceAsStream("/mock-data/catalog.json")) {
+            templates = objectMapper.readValue(json, new TypeReference<>() {});
+        }
+        MappedCatalogStore store = build(templates, 12);
+
+        for (CatalogTemplate template : templates) {
+            for (String market : List.of("nl-NL", "de-DE", "pl-PL", "en-GB", "fr-FR")) {
+                assertThat(store.find(template.productId(), market)).isEqualTo(new CatalogDto(
+                        template.productId(),
+                        localize(template.names(), market),
+                        localize(template.descriptions(), market),
+                        template.specs(),
+                        template.images()));
+            }
+        }
+    }
+
+    @Test
+    void find_manyProductsAcrossSmallChunks() throws IOException {
+        List<CatalogTemplate> templates = synthetic(20_000);
+
+        MappedCatalogStore store = build(templates, 12);
+
+        assertThat(store.productCount()).isEqualTo(templates.size());
+        assertThat(Files.size(store.path())).isGreaterThan(1L << 20);
+        for (CatalogTemplate template : templates) {
+            CatalogDto dto = store.find(template.productId(), "de-DE");
+            assertThat(dto.name()).isEqualTo(template.names().get("de-DE"));
+            assertThat(dto.specs()).isEqualTo(template.specs());
+            assertThat(dto.images()).isEqualTo(template.images());
+        }
+    }
+
+    @Test
+    void open_rejectsFilesThatAreNotStores() throws IOException {
+        Path garbage = dir.resolve("garbage.bin");
+        Files.write(garbage, new byte[128]);
+
+        assertThatThrownBy(() -> MappedCatalogStore.open(garbage))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("bad magic");
+    }
+
+    @Test
+    void open_rejectsTruncatedStore() throws IOException {
+        MappedCatalogStore store = build(List.of(OIL_FILTER, BELT), 12);
+        byte[] bytes = Files.readAllBytes(store.path());
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 16));
+
+        assertThatThrownBy(() -> MappedCatalogStore.open(truncated))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_heapAndLookup() throws IOException {
+        int products = 1_000_000;
+        Path source = dir.resolve("large.json");
+        try (JsonGenerator generator = objectMapper.createGenerator(Files.newOutputStream(source))) {
+            generator.writeStartArray();
+            for (int i = 0; i < products; i += 10_000) {
+                for (CatalogTemplate template : synthetic(i, 10_000)) {
+                    objectMapper.writeValue(generator, template);
+                }
+            }
+            generator.writeEndArray();
+        }
+        Path file = dir.resolve("large.bin");
+        try (InputStream json = Files.newInputStream(source)) {
+            new CatalogStoreWriter(objectMapper).write(json, file);
+        }
+
+        System.gc();
+        long heapBefore = usedHeap();
+        MappedCatalogStore store = MappedCatalogStore.open(file);
+        System.gc();
+        long heapAfter = usedHeap();
+
+        String[] markets = {"nl-NL", "de-DE", "pl-PL", "en-GB"};
+        long sink = 0;
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < products; i++) {
+                sink += store.find(productId(i), markets[i & 3]).name().length();
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %d lookups, %.0f ns/lookup%n", round, products, (double) elapsed / products);
+        }
+        System.out.printf("products=%d file=%d MB heap delta after open=%d KB (sink %d)%n",
+                store.productCount(), Files.size(file) >> 20, (heapAfter - heapBefore) >> 10, sink);
+    }
+
+    private MappedCatalogStore build(List<CatalogTemplate> templates, int chunkBits) throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        new CatalogStoreWriter(objectMapper, chunkBits).write(json(templates), file);
+        return MappedCatalogStore.open(file);
+    }
+
+    private InputStream json(List<CatalogTemplate> templates) throws IOException {
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(templates));
+    }
+
+    private static List<CatalogTemplate> synthetic(int count) {
+        return synthetic(0, count);
+    }
+
+    private static List<CatalogTemplate> synthetic(int from, int count) {
+        List<CatalogTemplate> templates = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            String id = productId(i);
+            templates.add(new CatalogTemplate(id,
+                    ordered("nl-NL", "Filter " + i, "de-DE", "Filter DE " + i, "pl-PL", "Filtr " + i,
+                            "en-GB", "Filter EN " + i),
+                    ordered("en-GB", "Description of part " + i),
+                    ordered("thread", "M" + (i % 40) + "x1.5", "weight_kg", String.valueOf(i % 7)),
+                    List.of("https://cdn.kramp.com/" + id + "/main.jpg")));
+        }
+        return templates;
+    }
+
+    private static String productId(int i) {
+        return "PART-" + i;
+    }
+
+    private static String localize(Map<String, String> localeMap, String market) {
+        if (localeMap == null || localeMap.isEmpty()) {
+            return null;
+        }
+        String value = localeMap.get(market);
+        if (value == null) {
+            value = localeMap.get("en-GB");
+        }
+        return value != null ? value : localeMap.values().iterator().next();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Map<String, String> ordered(String... keyValues) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
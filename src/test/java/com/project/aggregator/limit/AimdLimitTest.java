@@ -0,0 +1,53 @@
+package com.project.aggregator.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AimdLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final AimdLimit limit = new AimdLimit(10, 2, 20, 0.5, Duration.ofMillis(100));
+
+    @Test
+    void healthyCalls_growTheLimitByOneUpToTheMaximum() {
+        limit.onSample(50 * MILLIS, 10, false);
+        assertThat(limit.limit()).isEqualTo(11);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(50 * MILLIS, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void underusedLimit_doesNotGrow() {
+        limit.onSample(50 * MILLIS, 3, false);
+
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void timeoutsAndLatencySpikes_halveTheLimitDownToTheMinimum() {
+        limit.onSample(50 * MILLIS, 10, true);
+        assertThat(limit.limit()).isEqualTo(5);
+
+        limit.onSample(150 * MILLIS, 5, false);
+        assertThat(limit.limit()).isEqualTo(2);
+
+        limit.onSample(150 * MILLIS, 2, false);
+        assertThat(limit.limit()).isEqualTo(2);
+    }
+
+    @Test
+    void constructor_rejectsBadSettings() {
+        assertThatThrownBy(() -> new AimdLimit(10, 2, 20, 1.0, Duration.ofMillis(100)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new AimdLimit(30, 2, 20, 0.9, Duration.ofMillis(100)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.model.AvailabilityDto;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.PricingDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BrownoutTest {
+
+    private static final long MILLIS = 1_000_000L;
+    private static final long WINDOW = 1_000 * MILLIS;
+
+    private final AtomicLong clock = new AtomicLong();
+    // SLO 100 ms, recovery under 70 ms; up after 2 hot windows, down after 3 cool ones
+    private final Brownout brownout = new Brownout(Duration.ofMillis(100), Duration.ofNanos(WINDOW), 2, 3, 0.7, 10,
+            clock::get);
+
+    @Test
+    void level_stepsUpOneLevelPerSustainedMiss() {
+        window(100, 2, 150);
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NONE);
+
+        window(100, 2, 150);
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NO_PERSONALIZATION);
+
+        for (int i = 0; i < 10; i++) {
+            window(100, 5, 150);
+        }
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NO_PRICING);
+    }
+
+    @Test
+    void level_ignoresAP99WithinTheSlo() {
+        for (int i = 0; i < 5; i++) {
+            // 1% over the SLO is still a p99 within it
+            window(100, 1, 150);
+        }
+
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NONE);
+    }
+
+    @Test
+    void level_recoversOnlyWellUnderTheSlo() {
+        window(100, 10, 150);
+        window(100, 10, 150);
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NO_PERSONALIZATION);
+
+        // under the SLO but above the recovery threshold: stays
+        for (int i = 0; i < 5; i++) {
+            window(100, 10, 80);
+        }
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NO_PERSONALIZATION);
+
+        window(100, 0, 0);
+        window(100, 0, 0);
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NO_PERSONALIZATION);
+        window(100, 0, 0);
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NONE);
+    }
+
+    @Test
+    void level_quietWindowsCountAsHealthy() {
+        window(100, 10, 150);
+        window(100, 10, 150);
+
+        for (int i = 0; i < 3; i++) {
+            window(5, 5, 150);
+        }
+
+        assertThat(brownout.level()).isEqualTo(Brownout.Level.NONE);
+    }
+
+    @Test
+    void levels_dropCustomerThenAvailabilityThenPricing() {
+        assertThat(Brownout.Level.NONE.degraded()).isFalse();
+        assertThat(Brownout.Level.NO_PERSONALIZATION.drops(CustomerDto.RESPONSE_TYPE)).isTrue();
+        assertThat(Brownout.Level.NO_PERSONALIZATION.drops(AvailabilityDto.RESPONSE_TYPE)).isFalse();
+        assertThat(Brownout.Level.NO_AVAILABILITY.drops(AvailabilityDto.RESPONSE_TYPE)).isTrue();
+        assertThat(Brownout.Level.NO_AVAILABILITY.drops(PricingDto.RESPONSE_TYPE)).isFalse();
+        assertThat(Brownout.Level.NO_PRICING.drops(PricingDto.RESPONSE_TYPE)).isTrue();
+    }
+
+    /**
+     * Records {@code requests} latencies of 10 ms, {@code slow} of them {@code slowMillis} instead,
+     * and closes the window with one more fast request.
+     */
+    private void window(int requests, int slow, long slowMillis) {
+        for (int i = 0; i < requests; i++) {
+            brownout.record((i < slow ? slowMillis : 10) * MILLIS);
+        }
+        clock.addAndGet(WINDOW);
+        brownout.record(10 * MILLIS);
+    }
+}
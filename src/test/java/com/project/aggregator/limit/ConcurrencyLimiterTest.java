@@ -0,0 +1,111 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.exception.OverloadedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimiterTest {
+
+    private final AdaptiveLimit limit = mock(AdaptiveLimit.class);
+    private final AtomicLong clock = new AtomicLong();
+    private final ConcurrencyLimiter limiter = new ConcurrencyLimiter("ingress", limit, clock::get);
+
+    @Test
+    void tryAcquire_rejectsOnceTheLimitIsReached() {
+        when(limit.limit()).thenReturn(2);
+
+        ConcurrencyLimiter.Permit first = limiter.tryAcquire();
+        ConcurrencyLimiter.Permit second = limiter.tryAcquire();
+
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.tryAcquire()).isNull();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+        assertThat(limiter.rejectedCount()).isEqualTo(1);
+
+        first.release(ConcurrencyLimiter.Outcome.SUCCESS);
+        assertThat(limiter.tryAcquire()).isNotNull();
+    }
+
+    @Test
+    void release_feedsTheLatencyBackOnce() {
+        when(limit.limit()).thenReturn(10);
+        limiter.tryAcquire();
+        ConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        clock.set(42);
+
+        permit.release(ConcurrencyLimiter.Outcome.DROPPED);
+        permit.release(ConcurrencyLimiter.Outcome.DROPPED);
+
+        verify(limit).onSample(42, 2, true);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void release_ignoredOutcomeIsNoSample() {
+        when(limit.limit()).thenReturn(10);
+
+        limiter.tryAcquire().release(ConcurrencyLimiter.Outcome.IGNORED);
+
+        verify(limit, never()).onSample(anyLong(), anyInt(), anyBoolean());
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void interceptor_rejectsOverTheLimitAndReleasesOnCompletion() {
+        when(limit.limit()).thenReturn(1);
+        IngressLimitInterceptor interceptor = new IngressLimitInterceptor(limiter, Duration.ofSeconds(2));
+        MockHttpServletRequest admitted = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(interceptor.preHandle(admitted, response, new Object())).isTrue();
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), response, new Object()))
+                .isInstanceOf(OverloadedException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(2));
+
+        clock.set(7);
+        interceptor.afterCompletion(admitted, response, new Object(), null);
+        assertThat(limiter.inFlight()).isZero();
+        verify(limit).onSample(7, 1, false);
+    }
+
+    @Test
+    void interceptor_serverErrorsAreNoSample() {
+        when(limit.limit()).thenReturn(1);
+        IngressLimitInterceptor interceptor = new IngressLimitInterceptor(limiter, Duration.ofSeconds(1));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request, response, new Object());
+        response.setStatus(503);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertThat(limiter.inFlight()).isZero();
+        verify(limit, never()).onSample(anyLong(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    void outcome_treatsOnlyTimeoutsAsDrops() {
+        assertThat(ConcurrencyLimiter.Outcome.of(null)).isEqualTo(ConcurrencyLimiter.Outcome.SUCCESS);
+        assertThat(ConcurrencyLimiter.Outcome.of(new CompletionException(new TimeoutException())))
+                .isEqualTo(ConcurrencyLimiter.Outcome.DROPPED);
+        assertThat(ConcurrencyLimiter.Outcome.of(new IllegalStateException("down")))
+                .isEqualTo(ConcurrencyLimiter.Outcome.IGNORED);
+    }
+}
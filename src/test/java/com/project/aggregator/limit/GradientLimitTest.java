@@ -0,0 +1,71 @@
+package com.project.aggregator.limit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GradientLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    @Test
+    void steadyLatency_growsTheLimitWhileItIsUsed() {
+        GradientLimit limit = new GradientLimit(20, 4, 200, 1.5);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(50 * MILLIS, limit.limit(), false);
+        }
+
+        assertThat(limit.limit()).isGreaterThan(100);
+    }
+
+    @Test
+    void idleService_keepsItsLimit() {
+        GradientLimit limit = new GradientLimit(20, 4, 200, 1.5);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(50 * MILLIS, 2, false);
+        }
+
+        assertThat(limit.limit()).isEqualTo(20);
+    }
+
+    @Test
+    void risingLatency_shrinksTheLimitDownToTheMinimum() {
+        GradientLimit limit = new GradientLimit(100, 4, 200, 1.5);
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(50 * MILLIS, limit.limit(), false);
+        }
+        int before = limit.limit();
+
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(500 * MILLIS, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isLessThan(before / 2);
+
+        for (int i = 0; i < 80; i++) {
+            limit.onSample(500 * MILLIS, limit.limit(), false);
+        }
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void drops_backOffMultiplicatively() {
+        GradientLimit limit = new GradientLimit(100, 4, 200, 1.5);
+
+        limit.onSample(50 * MILLIS, 100, true);
+        assertThat(limit.limit()).isEqualTo(90);
+
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(50 * MILLIS, 100, true);
+        }
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void constructor_rejectsInconsistentBounds() {
+        assertThatThrownBy(() -> new GradientLimit(2, 4, 200, 1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new GradientLimit(20, 4, 200, 0.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.limit.PriorityAdmission.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PriorityAdmissionTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Queue<String> events = new ConcurrentLinkedQueue<>();
+    private final List<Thread> threads = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stopThreads() throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.interrupt();
+            thread.join(1_000);
+        }
+    }
+
+    @Test
+    void acquire_admitsUpToCapacityWithoutWaiting() {
+        PriorityAdmission admission = admission(2, 0, Duration.ofSeconds(1));
+
+        PriorityAdmission.Ticket first = admission.acquire(Priority.LOW);
+        admission.acquire(Priority.LOW);
+
+        assertThat(admission.running()).isEqualTo(2);
+        assertThatThrownBy(() -> admission.acquire(Priority.HIGH)).isInstanceOf(OverloadedException.class);
+
+        first.close();
+        first.close();
+        assertThat(admission.running()).isEqualTo(1);
+        assertThat(count(Priority.LOW, "admitted")).isEqualTo(2);
+        assertThat(count(Priority.HIGH, "shed")).isEqualTo(1);
+        assertThat(registry.get("aggregator.priority.latency").tag("priority", "low").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void release_handsTheSlotToTheHighestPriorityWaiterFirst() throws InterruptedException {
+        PriorityAdmission admission = admission(1, 10, Duration.ofSeconds(5));
+        PriorityAdmission.Ticket held = admission.acquire(Priority.HIGH);
+        waitInBackground(admission, Priority.LOW, "low");
+        awaitTrue(() -> admission.queued() == 1);
+        waitInBackground(admission, Priority.NORMAL, "normal");
+        awaitTrue(() -> admission.queued() == 2);
+        waitInBackground(admission, Priority.HIGH, "high");
+        awaitTrue(() -> admission.queued() == 3);
+
+        held.close();
+        awaitTrue(() -> events.size() == 3);
+
+        assertThat(events).containsExactly("high admitted", "normal admitted", "low admitted");
+        // the last waiter records its event just before it closes its ticket
+        awaitTrue(() -> admission.running() == 0);
+    }
+
+    @Test
+    void fullQueue_displacesTheLowestPriorityFirst() throws InterruptedException {
+        PriorityAdmission admission = admission(1, 2, Duration.ofSeconds(5));
+        PriorityAdmission.Ticket held = admission.acquire(Priority.HIGH);
+        waitInBackground(admission, Priority.LOW, "low");
+        waitInBackground(admission, Priority.NORMAL, "normal");
+        awaitTrue(() -> admission.queued() == 2);
+
+        assertThatThrownBy(() -> admission.acquire(Priority.LOW)).isInstanceOf(OverloadedException.class);
+        waitInBackground(admission, Priority.HIGH, "high");
+        awaitTrue(() -> events.contains("low shed"));
+        assertThat(admission.queued()).isEqualTo(2);
+
+        held.close();
+        awaitTrue(() -> events.size() == 3);
+        assertThat(events).containsExactly("low shed", "high admitted", "normal admitted");
+        assertThat(count(Priority.LOW, "shed")).isEqualTo(2);
+    }
+
+    @Test
+    void waitersAreShedAfterMaxWait() {
+        PriorityAdmission admission = admission(1, 10, Duration.ofMillis(20));
+        admission.acquire(Priority.NORMAL);
+
+        assertThatThrownBy(() -> admission.acquire(Priority.HIGH))
+                .isInstanceOf(OverloadedException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(1));
+        assertThat(admission.queued()).isZero();
+        assertThat(count(Priority.HIGH, "shed")).isEqualTo(1);
+    }
+
+    private PriorityAdmission admission(int capacity, int queueSize, Duration maxWait) {
+        return new PriorityAdmission(capacity, queueSize, maxWait, Duration.ofSeconds(1), registry);
+    }
+
+    private double count(Priority priority, String outcome) {
+        return registry.get("aggregator.priority.requests")
+                .tag("priority", priority.name().toLowerCase()).tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private void waitInBackground(PriorityAdmission admission, Priority priority, String name) {
+        Thread thread = Thread.ofPlatform().start(() -> {
+            try {
+                PriorityAdmission.Ticket ticket = admission.acquire(priority);
+                events.add(name + " admitted");
+                ticket.close();
+            } catch (OverloadedException e) {
+                events.add(name + " shed");
+            }
+        });
+        threads.add(thread);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,38 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.limit.PriorityAdmission.Priority;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.ProductCommand;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityClassifierTest {
+
+    private final PriorityClassifier classifier = new PriorityClassifier(Set.of("DEALER", "FLEET"),
+            new TtlCache<>("segments", Duration.ofMinutes(1), 100));
+
+    @Test
+    void anonymousRequests_areLow() {
+        assertThat(classifier.classify(new ProductCommand("PART-001", "nl-NL", null))).isEqualTo(Priority.LOW);
+    }
+
+    @Test
+    void customers_areNormalUntilTheirSegmentIsKnown() {
+        ProductCommand dealer = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
+        ProductCommand retail = new ProductCommand("PART-001", "nl-NL", "RETAIL-001");
+        assertThat(classifier.classify(dealer)).isEqualTo(Priority.NORMAL);
+
+        classifier.learn(new CustomerDto("DEALER-001", "DEALER", List.of()));
+        classifier.learn(new CustomerDto("RETAIL-001", "RETAIL", List.of()));
+        classifier.learn(null);
+
+        assertThat(classifier.classify(dealer)).isEqualTo(Priority.HIGH);
+        assertThat(classifier.classify(retail)).isEqualTo(Priority.NORMAL);
+    }
+}
@@ -0,0 +1,186 @@
+package com.project.aggregator.limit;
+
+import com.project.aggregator.exception.RateLimitedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private static final RateLimiter.Rate TEN_PER_SECOND = new RateLimiter.Rate(10, 3);
+    private static final long MILLIS = 1_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MILLIS);
+    private final RateLimiter limiter = new RateLimiter(3, Duration.ofSeconds(10), new RateLimiter.Rate(1, 2), clock::get);
+
+    @Test
+    void tryAcquire_allowsTheBurstThenReportsTheWait() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("DEALER-001", TEN_PER_SECOND)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("DEALER-001", TEN_PER_SECOND)).isEqualTo(100 * MILLIS);
+        clock.addAndGet(40 * MILLIS);
+        assertThat(limiter.tryAcquire("DEALER-001", TEN_PER_SECOND)).isEqualTo(60 * MILLIS);
+        assertThat(limiter.rejectedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void tryAcquire_refillsAtTheRateAndNeverBeyondTheBurst() {
+        IntStream.range(0, 3).forEach(i -> limiter.tryAcquire("DEALER-001", TEN_PER_SECOND));
+
+        clock.addAndGet(100 * MILLIS);
+        assertThat(limiter.tryAcquire("DEALER-001", TEN_PER_SECOND)).isZero();
+        assertThat(limiter.tryAcquire("DEALER-001", TEN_PER_SECOND)).isPositive();
+
+        clock.addAndGet(60_000 * MILLIS);
+        long allowed = IntStream.range(0, 10)
+                .filter(i -> limiter.tryAcquire("DEALER-001", TEN_PER_SECOND) == 0)
+                .count();
+        assertThat(allowed).isEqualTo(3);
+    }
+
+    @Test
+    void tryAcquire_keepsABucketPerKey() {
+        IntStream.range(0, 3).forEach(i -> limiter.tryAcquire("DEALER-001", TEN_PER_SECOND));
+
+        assertThat(limiter.tryAcquire("DEALER-001", TEN_PER_SECOND)).isPositive();
+        assertThat(limiter.tryAcquire("FLEET-001", TEN_PER_SECOND)).isZero();
+    }
+
+    @Test
+    void sweep_dropsOnlyRefilledBuckets() {
+        limiter.tryAcquire("idle", TEN_PER_SECOND);
+        clock.addAndGet(50 * MILLIS);
+        IntStream.range(0, 3).forEach(i -> limiter.tryAcquire("busy", TEN_PER_SECOND));
+        clock.addAndGet(60 * MILLIS);
+
+        assertThat(limiter.sweep()).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("busy", TEN_PER_SECOND)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_newKeysBeyondTheBoundShareTheOverflowBucket() {
+        IntStream.range(0, 3).forEach(i -> limiter.tryAcquire("key-" + i, new RateLimiter.Rate(1, 1)));
+
+        assertThat(limiter.tryAcquire("key-3", TEN_PER_SECOND)).isZero();
+        assertThat(limiter.tryAcquire("key-4", TEN_PER_SECOND)).isZero();
+        assertThat(limiter.tryAcquire("key-5", TEN_PER_SECOND)).isEqualTo(1_000 * MILLIS);
+        assertThat(limiter.size()).isEqualTo(3);
+        assertThat(limiter.untrackedCount()).isEqualTo(3);
+
+        // once the others have refilled and a sweep is due, the next new key makes room for itself
+        clock.addAndGet(10_000 * MILLIS);
+        assertThat(limiter.tryAcquire("key-3", TEN_PER_SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquire_fullTable_sweepsAtMostOncePerInterval() {
+        IntStream.range(0, 3).forEach(i -> limiter.tryAcquire("key-" + i, new RateLimiter.Rate(1, 1)));
+        // every bucket has refilled, but the last sweep was less than an interval ago
+        clock.addAndGet(5_000 * MILLIS);
+
+        for (int i = 3; i < 10; i++) {
+            limiter.tryAcquire("key-" + i, TEN_PER_SECOND);
+        }
+
+        assertThat(limiter.size()).isEqualTo(3);
+        assertThat(limiter.untrackedCount()).isEqualTo(7);
+        clock.addAndGet(5_000 * MILLIS);
+        limiter.tryAcquire("key-10", TEN_PER_SECOND);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+
+    @Test
+    void interceptor_limitsCustomersBySegmentAndAnonymousCallersByAddress() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(limiter,
+                new RateLimiter.Rate(1, 1), new RateLimiter.Rate(1, 2),
+                Map.of("DEALER", new RateLimiter.Rate(1, 3)),
+                customerId -> customerId.startsWith("DEALER") ? "DEALER" : null,
+                request -> false);
+
+        assertThat(admitted(interceptor, "DEALER-001", 5)).isEqualTo(3);
+        assertThat(admitted(interceptor, "CUST-001", 5)).isEqualTo(2);
+        assertThat(admitted(interceptor, null, 5)).isEqualTo(1);
+        assertThatThrownBy(() -> interceptor.preHandle(request(null), new MockHttpServletResponse(), new Object()))
+                .isInstanceOf(RateLimitedException.class)
+                .extracting("key", "retryAfter")
+                .containsExactly("ip:127.0.0.1", Duration.ofSeconds(1));
+    }
+
+    @Test
+    void interceptor_isBypassedForWarmupRequestsOnly() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(limiter,
+                new RateLimiter.Rate(1, 1), new RateLimiter.Rate(1, 1), Map.of(), customerId -> null,
+                request -> "token".equals(request.getHeader("X-Warmup-Token")));
+
+        int warmup = 0;
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = request("WARMUP-1");
+            request.addHeader("X-Warmup-Token", "token");
+            if (interceptor.preHandle(request, new MockHttpServletResponse(), new Object())) {
+                warmup++;
+            }
+        }
+
+        assertThat(warmup).isEqualTo(5);
+        assertThat(limiter.size()).isZero();
+        assertThat(admitted(interceptor, "WARMUP-1", 5)).isEqualTo(1);
+    }
+
+    /**
+     * Run with {@code ./mvnw test -Dtest=RateLimiterTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_tryAcquire() {
+        RateLimiter real = new RateLimiter(100_000, Duration.ofSeconds(10), new RateLimiter.Rate(1_000, 1_000));
+        RateLimiter.Rate rate = new RateLimiter.Rate(1_000_000, 1_000);
+        String[] keys = IntStream.range(0, 10_000).mapToObj(i -> "CUST-" + i).toArray(String[]::new);
+        int calls = 20_000_000;
+        for (int round = 0; round < 2; round++) {
+            long allowed = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                if (real.tryAcquire(keys[i % keys.length], rate) == 0) {
+                    allowed++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("tryAcquire: %.1f ns/call over %d keys, %d allowed%n",
+                    (double) elapsed / calls, keys.length, allowed);
+        }
+    }
+
+    private int admitted(RateLimitInterceptor interceptor, String customerId, int attempts) {
+        int admitted = 0;
+        for (int i = 0; i < attempts; i++) {
+            try {
+                interceptor.preHandle(request(customerId), new MockHttpServletResponse(), new Object());
+                admitted++;
+            } catch (RateLimitedException e) {
+                // counted as not admitted
+            }
+        }
+        return admitted;
+    }
+
+    private static MockHttpServletRequest request(String customerId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/products/PART-001");
+        if (customerId != null) {
+            request.setParameter("customerId", customerId);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,21 @@
+package com.project.aggregator.limit;
+
+import java.time.Duration;
+
+/**
+ * Upstream limiters pinned at a fixed limit, for tests of the services behind them.
+ */
+public final class TestLimiters {
+
+    private TestLimiters() {
+    }
+
+    public static UpstreamLimiters fixed(int limit) {
+        return new UpstreamLimiters(fixed("catalog", limit), fixed("pricing", limit),
+                fixed("availability", limit), fixed("customer", limit));
+    }
+
+    private static ConcurrencyLimiter fixed(String name, int limit) {
+        return new ConcurrencyLimiter(name, new AimdLimit(limit, limit, limit, 0.5, Duration.ofHours(1)));
+    }
+}
@@ -0,0 +1,197 @@
+package com.project.aggregator.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.UnknownFieldSet;
+import com.project.aggregator.client.mock.MockCatalogClient;
+import com.project.aggregator.client.mock.MockDataLoader;
+import com.project.aggregator.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductResponseProtobufWriterTest {
+
+    private static final CatalogDto CATALOG = new CatalogDto("PART-001", "Oil Filter", "High-quality oil filter",
+            Map.of("type", "oil"), List.of("img1.png", "img2.png"));
+    private static final PricingDto PRICING = new PricingDto(new BigDecimal("30.00"),
+            new BigDecimal("10.0"), new BigDecimal("27.00"));
+    private static final AvailabilityDto AVAILABILITY = new AvailabilityDto(0, "WAREHOUSE-EU", Instant.parse("2026-02-20T10:00:00.5Z"));
+    private static final CustomerDto CUSTOMER = new CustomerDto("DEALER-001", "DEALER", List.of("fast-delivery"));
+
+    @Test
+    void write_allSections_matchesSchema() throws Exception {
+        UnknownFieldSet message = UnknownFieldSet.parseFrom(encode(
+                ProductResponseMapper.toDto(CATALOG, AVAILABILITY, PRICING, CUSTOMER)));
+
+        UnknownFieldSet catalog = nested(message, 1);
+        assertThat(string(catalog, 1)).isEqualTo("PART-001");
+        assertThat(string(catalog, 2)).isEqualTo("Oil Filter");
+        UnknownFieldSet spec = UnknownFieldSet.parseFrom(catalog.getField(4).getLengthDelimitedList().get(0));
+        assertThat(string(spec, 1)).isEqualTo("type");
+        assertThat(string(spec, 2)).isEqualTo("oil");
+        assertThat(catalog.getField(5).getLengthDelimitedList()).extracting(ByteString::toStringUtf8)
+                .containsExactly("img1.png", "img2.png");
+
+        UnknownFieldSet price = nested(message, 2);
+        assertThat(decimal(nested(price, 1))).isEqualTo(new BigDecimal("30.00"));
+        assertThat(decimal(nested(price, 2))).isEqualTo(new BigDecimal("10.0"));
+        assertThat(decimal(nested(price, 3))).isEqualTo(new BigDecimal("27.00"));
+        assertThat(price.getField(4).getVarintList()).containsExactly(1L);
+
+        UnknownFieldSet availability = nested(message, 3);
+        assertThat(availability.getField(1).getVarintList()).containsExactly(0L);
+        UnknownFieldSet delivery = nested(availability, 3);
+        assertThat(delivery.getField(1).getVarintList()).containsExactly(AVAILABILITY.expectedDelivery().getEpochSecond());
+        assertThat(delivery.getField(2).getVarintList()).containsExactly(500_000_000L);
+        assertThat(availability.getField(4).getVarintList()).containsExactly(1L);
+
+        UnknownFieldSet customer = nested(message, 4);
+        assertThat(string(customer, 1)).isEqualTo("DEALER-001");
+        assertThat(string(customer, 2)).isEqualTo("DEALER");
+        assertThat(customer.getField(4).getVarintList()).containsExactly(1L);
+    }
+
+    @Test
+    void write_lastKnownGoodValues_carryStaleAsOf() throws Exception {
+        Instant asOf = Instant.parse("2026-02-20T09:58:00Z");
+        UnknownFieldSet message = UnknownFieldSet.parseFrom(encode(
+                ProductResponseMapper.toDto(CATALOG, AVAILABILITY.asStale(asOf), PRICING.asStale(asOf), CUSTOMER)));
+
+        assertThat(nested(nested(message, 2), 5).getField(1).getVarintList()).containsExactly(asOf.getEpochSecond());
+        assertThat(nested(nested(message, 3), 5).getField(1).getVarintList()).containsExactly(asOf.getEpochSecond());
+        assertThat(nested(message, 4).hasField(5)).isFalse();
+    }
+
+    @Test
+    void write_optionalSectionsMissing_onlyStatusesWritten() throws Exception {
+        UnknownFieldSet message = UnknownFieldSet.parseFrom(encode(
+                ProductResponseMapper.toDto(CATALOG, null, null, null)));
+
+        assertThat(nested(message, 2).asMap()).containsOnlyKeys(4);
+        assertThat(nested(message, 2).getField(4).getVarintList()).containsExactly(2L);
+        assertThat(nested(message, 3).asMap()).containsOnlyKeys(4);
+        assertThat(nested(message, 3).getField(4).getVarintList()).containsExactly(2L);
+        assertThat(nested(message, 4).asMap()).containsOnlyKeys(4);
+        assertThat(nested(message, 4).getField(4).getVarintList()).containsExactly(2L);
+    }
+
+    @Test
+    void write_decimalsBeyond64Bits_areKeptExact() throws Exception {
+        BigDecimal longest = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+        BigDecimal beyond = new BigDecimal(BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE), 2);
+        BigDecimal trailingZeros = new BigDecimal("1" + "0".repeat(30) + ".00");
+        UnknownFieldSet message = UnknownFieldSet.parseFrom(encode(ProductResponseMapper.toDto(CATALOG, null,
+                new PricingDto(longest, beyond, trailingZeros), null)));
+
+        UnknownFieldSet price = nested(message, 2);
+        assertThat(nested(price, 1).hasField(3)).isFalse();
+        assertThat(decimal(nested(price, 1))).isEqualTo(longest);
+        assertThat(nested(price, 2).hasField(1)).isFalse();
+        assertThat(decimal(nested(price, 2))).isEqualTo(beyond);
+        assertThat(nested(price, 3).hasField(3)).isFalse();
+        assertThat(decimal(nested(price, 3))).isEqualByComparingTo(trailingZeros);
+    }
+
+    /**
+     * Size and encode-time comparison across response formats for the products in catalog.json.
+     * Run with {@code ./mvnw test -Dtest=ProductResponseProtobufWriterTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_formats() throws Exception {
+        MockDataLoader dataLoader = new MockDataLoader(new ObjectMapper(), new DefaultResourceLoader(),
+                "classpath:mock-data/", false);
+        MockCatalogClient catalogClient = new MockCatalogClient(dataLoader, event -> {
+        });
+        catalogClient.loadCatalogData();
+        dataLoader.awaitLoaded();
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+        ObjectMapper smile = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+        for (ObjectMapper mapper : List.of(json, cbor, smile)) {
+            mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        // first round warms up every encoder, second round is reported
+        for (int round = 0; round < 2; round++) {
+            for (String productId : List.of("PART-001", "PART-002", "PART-003")) {
+                CatalogDto catalog = catalogClient.fetch(productId, "de-DE");
+                ProductResponse response = ProductResponseMapper.toDto(catalog, AVAILABILITY, PRICING, CUSTOMER);
+                ProductResponse spliced = ProductResponseMapper.toDto(catalog,
+                        CatalogFragment.encode(catalog, json.getFactory()), AVAILABILITY, PRICING, CUSTOMER);
+                if (round == 0) {
+                    time(() -> json.writeValueAsBytes(response));
+                    time(() -> cbor.writeValueAsBytes(response));
+                    time(() -> smile.writeValueAsBytes(response));
+                    time(() -> encode(response));
+                    continue;
+                }
+                System.out.printf("%s: json %d B / %d ns, json+fragment %d ns, cbor %d B / %d ns, smile %d B / %d ns, protobuf %d B / %d ns%n",
+                        productId,
+                        json.writeValueAsBytes(response).length, time(() -> json.writeValueAsBytes(response)),
+                        time(() -> json.writeValueAsBytes(spliced)),
+                        cbor.writeValueAsBytes(response).length, time(() -> cbor.writeValueAsBytes(response)),
+                        smile.writeValueAsBytes(response).length, time(() -> smile.writeValueAsBytes(response)),
+                        encode(response).length, time(() -> encode(response)));
+            }
+        }
+    }
+
+    private interface Encoder {
+        byte[] encode() throws Exception;
+    }
+
+    private static long time(Encoder encoder) throws Exception {
+        for (int i = 0; i < 100_000; i++) {
+            encoder.encode();
+        }
+        int iterations = 300_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            encoder.encode();
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    private static byte[] encode(ProductResponse response) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+        ProductResponseProtobufWriter.write(response, out);
+        out.flush();
+        assertThat(bytes.size()).isEqualTo(ProductResponseProtobufWriter.serializedSize(response));
+        return bytes.toByteArray();
+    }
+
+    private static UnknownFieldSet nested(UnknownFieldSet message, int field) throws Exception {
+        return UnknownFieldSet.parseFrom(message.getField(field).getLengthDelimitedList().get(0));
+    }
+
+    private static String string(UnknownFieldSet message, int field) {
+        return message.getField(field).getLengthDelimitedList().get(0).toStringUtf8();
+    }
+
+    private static BigDecimal decimal(UnknownFieldSet decimal) {
+        int scale = decimal.hasField(2) ? decimal.getField(2).getVarintList().get(0).intValue() : 0;
+        if (decimal.hasField(3)) {
+            return new BigDecimal(new BigInteger(decimal.getField(3).getLengthDelimitedList().get(0).toByteArray()), scale);
+        }
+        long zigzag = decimal.hasField(1) ? decimal.getField(1).getVarintList().get(0) : 0;
+        long unscaled = (zigzag >>> 1) ^ -(zigzag & 1);
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+}
@@ -0,0 +1,178 @@
+package com.project.aggregator.mapper;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductResponseSerializerTest {
+
+    private static final CatalogDto CATALOG = new CatalogDto("PART-001", "Oil Filter", "High-quality oil filter",
+            Map.of("type", "oil"), List.of("img1.png"));
+    private static final PricingDto PRICING = new PricingDto(new BigDecimal("30.00"),
+            new BigDecimal("10.0"), new BigDecimal("27.00"));
+    private static final AvailabilityDto AVAILABILITY = new AvailabilityDto(42, "WAREHOUSE-EU", Instant.parse("2026-02-20T10:00:00Z"));
+    private static final CustomerDto CUSTOMER = new CustomerDto("DEALER-001", "DEALER", List.of("fast-delivery"));
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Test
+    void serialize_allSections() throws Exception {
+        ProductResponse response = ProductResponseMapper.toDto(CATALOG, AVAILABILITY, PRICING, CUSTOMER);
+
+        assertThat(objectMapper.writeValueAsString(response)).isEqualTo("""
+                {"catalog":{"productId":"PART-001","name":"Oil Filter","description":"High-quality oil filter",\
+                "specs":{"type":"oil"},"image":["img1.png"]},\
+                "price":{"basePrice":30.00,"discount":10.0,"finalPrice":27.00,"status":"AVAILABLE"},\
+                "availability":{"stock":42,"warehouse":"WAREHOUSE-EU","expectedDeliver":"2026-02-20T10:00:00Z","status":"IN_STOCK"},\
+                "customer":{"customerId":"DEALER-001","segment":"DEALER","preference":["fast-delivery"],"status":"PERSONALIZED"}}""");
+    }
+
+    @Test
+    void serialize_optionalSectionsMissing_writesNullFieldsAndStatus() throws Exception {
+        ProductResponse response = ProductResponseMapper.toDto(CATALOG, null, new PricingDto(null, null, null), null);
+
+        assertThat(objectMapper.writeValueAsString(response)).endsWith("""
+                "price":{"basePrice":null,"discount":null,"finalPrice":null,"status":"UNAVAILABLE"},\
+                "availability":{"stock":null,"warehouse":null,"expectedDeliver":null,"status":"UNKNOWN_STOCK"},\
+                "customer":{"customerId":null,"segment":null,"preference":null,"status":"NON_PERSONALIZED"}}""");
+    }
+
+    @Test
+    void serialize_lastKnownGoodValues_markedStale() throws Exception {
+        Instant asOf = Instant.parse("2026-02-20T09:58:00Z");
+        ProductResponse response = ProductResponseMapper.toDto(CATALOG, AVAILABILITY.asStale(asOf),
+                PRICING.asStale(asOf), null);
+
+        assertThat(objectMapper.writeValueAsString(response)).contains("""
+                "price":{"basePrice":30.00,"discount":10.0,"finalPrice":27.00,\
+                "stale":true,"asOf":"2026-02-20T09:58:00Z","status":"AVAILABLE"},\
+                "availability":{"stock":42,"warehouse":"WAREHOUSE-EU","expectedDeliver":"2026-02-20T10:00:00Z",\
+                "stale":true,"asOf":"2026-02-20T09:58:00Z","status":"IN_STOCK"}""");
+    }
+
+    @Test
+    void serialize_withCatalogFragment_sameBytesAsDto() throws Exception {
+        CatalogFragment fragment = CatalogFragment.encode(CATALOG, objectMapper.getFactory());
+
+        byte[] spliced = objectMapper.writeValueAsBytes(
+                ProductResponseMapper.toDto(CATALOG, fragment, AVAILABILITY, PRICING, CUSTOMER));
+        byte[] direct = objectMapper.writeValueAsBytes(
+                ProductResponseMapper.toDto(CATALOG, AVAILABILITY, PRICING, CUSTOMER));
+
+        assertThat(spliced).isEqualTo(direct);
+        assertThat(objectMapper.writeValueAsString(ProductResponseMapper.toDto(CATALOG, fragment, AVAILABILITY, PRICING, CUSTOMER)))
+                .isEqualTo(new String(direct, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void writeInstant_matchesInstantToString() throws Exception {
+        Random random = new Random(42);
+        List<Instant> instants = new ArrayList<>(List.of(
+                Instant.EPOCH, Instant.parse("2026-02-20T10:00:00Z"), Instant.parse("2024-02-29T23:59:59.999Z"),
+                Instant.parse("1969-12-31T23:59:59.000001Z"), Instant.parse("0000-01-01T00:00:00Z"),
+                Instant.parse("9999-12-31T23:59:59.123456789Z"), Instant.parse("+10000-01-01T00:00:00Z"),
+                Instant.parse("-0001-06-15T12:30:00Z")));
+        for (int i = 0; i < 10_000; i++) {
+            instants.add(Instant.ofEpochSecond(random.nextLong(-62_167_219_200L, 253_402_300_800L),
+                    switch (i % 4) {
+                        case 0 -> 0;
+                        case 1 -> random.nextInt(1_000) * 1_000_000;
+                        case 2 -> random.nextInt(1_000_000) * 1_000;
+                        default -> random.nextInt(1_000_000_000);
+                    }));
+        }
+
+        for (Instant instant : instants) {
+            StringWriter out = new StringWriter();
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                ProductResponseSerializer.writeInstant(instant, gen);
+            }
+            assertThat(out.toString()).isEqualTo("\"" + instant + "\"");
+        }
+    }
+
+    /**
+     * Allocation benchmark for mapping + serialization of one response.
+     * Run with {@code ./mvnw test -Dtest=ProductResponseSerializerTest -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_allocationPerResponse() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        OutputStream out = OutputStream.nullOutputStream();
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        for (int i = 0; i < 200_000; i++) {
+            mapper.writeValue(out, ProductResponseMapper.toDto(CATALOG, AVAILABILITY, PRICING, CUSTOMER));
+        }
+        int iterations = 500_000;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValue(out, ProductResponseMapper.toDto(CATALOG, AVAILABILITY, PRICING, CUSTOMER));
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf("ProductResponse serialization: %d bytes/op, %d ns/op%n",
+                bytes / iterations, elapsed / iterations);
+    }
+
+    /**
+     * CPU comparison for a catalog-heavy product (40 specs, 12 images), serialized from the DTO
+     * vs spliced from a pre-encoded {@link CatalogFragment}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark_catalogFragmentSplice() throws Exception {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        Map<String, String> specs = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++) {
+            specs.put("spec_attribute_" + i, "Wert für Eigenschaft Nr. " + i);
+        }
+        List<String> images = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            images.add("https://cdn.kramp.com/PART-001/image-" + i + ".jpg");
+        }
+        CatalogDto heavy = new CatalogDto("PART-001", "Ölfilter — John Deere 6030",
+                "Hochwertiger Ölfilter passend für John Deere 6030 Traktoren.", specs, images);
+        CatalogFragment fragment = CatalogFragment.encode(heavy, mapper.getFactory());
+
+        ProductResponse direct = ProductResponseMapper.toDto(heavy, AVAILABILITY, PRICING, CUSTOMER);
+        ProductResponse spliced = ProductResponseMapper.toDto(heavy, fragment, AVAILABILITY, PRICING, CUSTOMER);
+        OutputStream out = OutputStream.nullOutputStream();
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("catalog-heavy response (%d bytes): direct %d ns/op, spliced %d ns/op%n",
+                    mapper.writeValueAsBytes(direct).length, timeNanos(mapper, direct, out), timeNanos(mapper, spliced, out));
+        }
+    }
+
+    private static long timeNanos(ObjectMapper mapper, ProductResponse response, OutputStream out) throws Exception {
+        int iterations = 200_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValue(out, response);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+}
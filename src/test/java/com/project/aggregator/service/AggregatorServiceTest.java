@@ -1,9 +1,11 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.limit.Brownout;
 import com.project.aggregator.model.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -11,10 +13,19 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,16 +51,128 @@ class AggregatorServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(pricingService.resultType()).thenReturn(PricingDto.RESPONSE_TYPE);
+        lenient().when(availabilityService.resultType()).thenReturn(AvailabilityDto.RESPONSE_TYPE);
+        lenient().when(customerService.resultType()).thenReturn(CustomerDto.RESPONSE_TYPE);
         aggregatorService = new AggregatorService(List.of(pricingService, availabilityService, customerService));
     }
 
+    @Test
+    void fetch_pricingWaitsForTheCustomerAndReceivesIt() {
+        when(pricingService.inputs()).thenReturn(Set.of(CustomerDto.RESPONSE_TYPE));
+        aggregatorService = new AggregatorService(List.of(pricingService, availabilityService, customerService));
+        when(customerService.fetch(any())).thenReturn(CompletableFuture.supplyAsync(() -> CUSTOMER,
+                CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)));
+        when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
+        when(pricingService.fetch(any(), eq(Map.of(CustomerDto.RESPONSE_TYPE, CUSTOMER))))
+                .thenReturn(CompletableFuture.completedFuture(PRICING));
+
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
+
+        assertThat(results).containsEntry(PricingDto.RESPONSE_TYPE, PRICING).hasSize(3);
+        InOrder order = inOrder(customerService, pricingService);
+        order.verify(customerService).fetch(PRODUCT_COMMAND);
+        order.verify(pricingService).fetch(eq(PRODUCT_COMMAND), any());
+        verify(pricingService, never()).fetch(any());
+    }
+
+    @Test
+    void fetch_serviceThatCanStartWithoutInputs_doesNotWaitForThem() {
+        when(pricingService.inputs()).thenReturn(Set.of(CustomerDto.RESPONSE_TYPE));
+        aggregatorService = new AggregatorService(List.of(pricingService, availabilityService, customerService));
+        when(pricingService.startsWithoutInputs(PRODUCT_COMMAND)).thenReturn(true);
+        when(customerService.fetch(any())).thenReturn(CompletableFuture.supplyAsync(() -> CUSTOMER,
+                CompletableFuture.delayedExecutor(20, TimeUnit.MILLISECONDS)));
+        when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
+        when(pricingService.fetch(PRODUCT_COMMAND)).thenReturn(CompletableFuture.completedFuture(PRICING));
+
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
+
+        assertThat(results).containsEntry(PricingDto.RESPONSE_TYPE, PRICING).hasSize(3);
+        verify(pricingService, never()).fetch(any(), any());
+    }
+
+    @Test
+    void fetch_failedInput_isAbsentButTheDependentStillRuns() {
+        when(pricingService.inputs()).thenReturn(Set.of(CustomerDto.RESPONSE_TYPE));
+        aggregatorService = new AggregatorService(List.of(pricingService, availabilityService, customerService));
+        when(customerService.fetch(any())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("down")));
+        when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
+        when(pricingService.fetch(any(), eq(Map.of()))).thenReturn(CompletableFuture.completedFuture(PRICING));
+
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
+
+        assertThat(results).containsOnlyKeys(PricingDto.RESPONSE_TYPE, AvailabilityDto.RESPONSE_TYPE);
+    }
+
+    @Test
+    void fetchAll_callsMarketIndependentServicesOnceAndSharesTheirResult() {
+        lenient().when(pricingService.marketSpecific()).thenReturn(true);
+        lenient().when(availabilityService.marketSpecific()).thenReturn(true);
+        when(pricingService.inputs()).thenReturn(Set.of(CustomerDto.RESPONSE_TYPE));
+        aggregatorService = new AggregatorService(List.of(pricingService, availabilityService, customerService));
+        ProductCommand dutch = PRODUCT_COMMAND;
+        ProductCommand polish = new ProductCommand("PART-001", "pl-PL", "DEALER-001");
+        PricingDto zloty = new PricingDto(new BigDecimal("127.50"), new BigDecimal("31.92"), new BigDecimal("95.58"));
+        when(customerService.fetch(any())).thenReturn(CompletableFuture.completedFuture(CUSTOMER));
+        when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
+        Map<String, FetchResult> inputs = Map.of(CustomerDto.RESPONSE_TYPE, CUSTOMER);
+        when(pricingService.fetch(dutch, inputs)).thenReturn(CompletableFuture.completedFuture(PRICING));
+        when(pricingService.fetch(polish, inputs)).thenReturn(CompletableFuture.completedFuture(zloty));
+
+        Map<String, Map<String, FetchResult>> results =
+                aggregatorService.fetchAll(List.of(dutch, polish), Brownout.Level.NONE);
+
+        assertThat(results).containsOnlyKeys("nl-NL", "pl-PL");
+        assertThat(results.get("nl-NL")).containsEntry(PricingDto.RESPONSE_TYPE, PRICING)
+                .containsEntry(CustomerDto.RESPONSE_TYPE, CUSTOMER);
+        assertThat(results.get("pl-PL")).containsEntry(PricingDto.RESPONSE_TYPE, zloty)
+                .containsEntry(CustomerDto.RESPONSE_TYPE, CUSTOMER);
+        verify(customerService, times(1)).fetch(any());
+        verify(availabilityService, times(2)).fetch(any());
+    }
+
+    @Test
+    void constructor_rejectsASharedServiceWithMarketSpecificInputs() {
+        when(pricingService.marketSpecific()).thenReturn(true);
+        when(customerService.inputs()).thenReturn(Set.of(PricingDto.RESPONSE_TYPE));
+
+        assertThatThrownBy(() -> new AggregatorService(List.of(pricingService, availabilityService, customerService)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("market-specific");
+    }
+
+    @Test
+    void inDependencyOrder_putsProducersFirstAndRejectsCycles() {
+        when(pricingService.inputs()).thenReturn(Set.of(CustomerDto.RESPONSE_TYPE, "Unregistered"));
+
+        assertThat(AggregatorService.inDependencyOrder(List.of(pricingService, availabilityService, customerService)))
+                .containsExactly(availabilityService, customerService, pricingService);
+
+        when(customerService.inputs()).thenReturn(Set.of(PricingDto.RESPONSE_TYPE));
+        assertThatThrownBy(() -> new AggregatorService(List.of(pricingService, availabilityService, customerService)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cycle");
+    }
+
+    @Test
+    void fetch_inBrownout_skipsTheDroppedServices() {
+        when(pricingService.fetch(any())).thenReturn(CompletableFuture.completedFuture(PRICING));
+
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NO_AVAILABILITY);
+
+        assertThat(results).containsOnlyKeys(PricingDto.RESPONSE_TYPE);
+        verify(availabilityService, never()).fetch(any());
+        verify(customerService, never()).fetch(any());
+    }
+
     @Test
     void fetch_allServicesSucceed_returnsAllDtos() {
         when(pricingService.fetch(any())).thenReturn(CompletableFuture.completedFuture(PRICING));
         when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
         when(customerService.fetch(any())).thenReturn(CompletableFuture.completedFuture(CUSTOMER));
 
-        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND);
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
 
         assertThat(results).hasSize(3)
                 .containsEntry(PricingDto.RESPONSE_TYPE, PRICING)
@@ -63,7 +186,7 @@ class AggregatorServiceTest {
         when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
         when(customerService.fetch(any())).thenReturn(CompletableFuture.completedFuture(CUSTOMER));
 
-        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND);
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
 
         assertThat(results).hasSize(2)
                 .containsEntry(AvailabilityDto.RESPONSE_TYPE, AVAILABILITY)
@@ -77,7 +200,7 @@ class AggregatorServiceTest {
         when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(AVAILABILITY));
         when(customerService.fetch(any())).thenThrow(new RuntimeException("customer down"));
 
-        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND);
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
 
         assertThat(results).hasSize(2)
                 .containsEntry(PricingDto.RESPONSE_TYPE, PRICING)
@@ -91,7 +214,7 @@ class AggregatorServiceTest {
         when(availabilityService.fetch(any())).thenReturn(CompletableFuture.completedFuture(null));
         when(customerService.fetch(any())).thenReturn(CompletableFuture.completedFuture(CUSTOMER));
 
-        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND);
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
 
         assertThat(results).hasSize(2)
                 .containsEntry(PricingDto.RESPONSE_TYPE, PRICING)
@@ -104,7 +227,7 @@ class AggregatorServiceTest {
         when(availabilityService.fetch(any())).thenThrow(new RuntimeException("err2"));
         when(customerService.fetch(any())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("err3")));
 
-        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND);
+        Map<String, FetchResult> results = aggregatorService.fetch(PRODUCT_COMMAND, Brownout.Level.NONE);
 
         assertThat(results).isEmpty();
     }
@@ -1,6 +1,10 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.LastKnownGood;
+import com.project.aggregator.cache.ProductKey;
 import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.limit.TestLimiters;
+import com.project.aggregator.limit.UpstreamLimiters;
 import com.project.aggregator.model.AvailabilityDto;
 import com.project.aggregator.model.ProductCommand;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,12 +12,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -24,6 +31,11 @@ class AvailabilityServiceTest {
 
     @Mock
     private AvailabilityClient client;
+    @Spy
+    private LastKnownGood<ProductKey, AvailabilityDto> availabilityLastKnownGood =
+            new LastKnownGood<>("availability", Duration.ofMinutes(5), 100);
+    @Spy
+    private UpstreamLimiters limiters = TestLimiters.fixed(10);
 
     @InjectMocks
     private AvailabilityService availabilityService;
@@ -38,7 +50,7 @@ class AvailabilityServiceTest {
     @Test
     void fetch_success() {
         AvailabilityDto expected = new AvailabilityDto(42, "WAREHOUSE-EU", Instant.parse("2026-02-20T10:00:00Z"));
-        when(client.fetch("PART-001", "nl-NL")).thenReturn(expected);
+        when(client.fetchAsync("PART-001", "nl-NL")).thenReturn(CompletableFuture.completedFuture(expected));
 
         AvailabilityDto future = availabilityService.fetch(PRODUCT_COMMAND).join();
 
@@ -48,7 +60,8 @@ class AvailabilityServiceTest {
 
     @Test
     void fetch_clientThrows_futureCompletesExceptionally() {
-        when(client.fetch("PART-001", "nl-NL")).thenThrow(new RuntimeException("timeout"));
+        when(client.fetchAsync("PART-001", "nl-NL"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("timeout")));
 
         CompletableFuture<AvailabilityDto> future = availabilityService.fetch(PRODUCT_COMMAND);
 
@@ -56,4 +69,35 @@ class AvailabilityServiceTest {
                 .isInstanceOf(CompletionException.class)
                 .hasCauseInstanceOf(RuntimeException.class);
     }
+
+    @Test
+    void fetch_clientNeverAnswers_timesOut() {
+        when(client.fetchAsync("PART-001", "nl-NL")).thenReturn(new CompletableFuture<>());
+
+        CompletableFuture<AvailabilityDto> future = availabilityService.fetch(PRODUCT_COMMAND);
+
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void fallback_servesTheLastKnownStockMarkedStale_orUnknownStock() {
+        AvailabilityDto expected = new AvailabilityDto(42, "WAREHOUSE-EU", Instant.parse("2026-02-20T10:00:00Z"));
+        when(client.fetchAsync("PART-001", "nl-NL")).thenReturn(CompletableFuture.completedFuture(expected));
+        availabilityService.fetch(PRODUCT_COMMAND).join();
+
+        AvailabilityDto stale = fallback(PRODUCT_COMMAND);
+        AvailabilityDto unknown = fallback(new ProductCommand("PART-002", "nl-NL", null));
+
+        assertThat(stale.stock()).isEqualTo(42);
+        assertThat(stale.staleAsOf()).isNotNull();
+        assertThat(unknown).isEqualTo(new AvailabilityDto(null, null, null));
+    }
+
+    private AvailabilityDto fallback(ProductCommand command) {
+        CompletableFuture<AvailabilityDto> future = ReflectionTestUtils.invokeMethod(availabilityService, "fallback",
+                command, new RuntimeException("circuit open"));
+        return future.join();
+    }
 }
@@ -0,0 +1,116 @@
+package com.project.aggregator.service;
+
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import com.project.aggregator.model.ProductCommand;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachePrefetcherTest {
+
+    private static final ProductKey HOT = new ProductKey("PART-001", "nl-NL");
+    private static final ProductKey COLD = new ProductKey("PART-002", "nl-NL");
+
+    private final HotKeyTracker hotKeys = new HotKeyTracker(1);
+    private final CatalogService catalogService = mock(CatalogService.class);
+    private final PricingService pricingService = mock(PricingService.class);
+    private final TtlCache<ProductKey, CatalogDto> catalogCache = new TtlCache<>("catalog", Duration.ofMinutes(1), 100);
+    private final TtlCache<PricingKey, PricingDto> pricingCache = new TtlCache<>("pricing", Duration.ofMinutes(1), 100);
+
+    @TempDir
+    Path dir;
+
+    private CachePrefetcher prefetcher;
+
+    @AfterEach
+    void tearDown() {
+        if (prefetcher != null) {
+            prefetcher.stop();
+        }
+    }
+
+    @Test
+    void persist_writesTopKeysThatAreReadBackOnStart() throws Exception {
+        prefetcher = prefetcher(dir.resolve("hot-keys.tsv"));
+        for (int i = 0; i < 5; i++) {
+            hotKeys.record(HOT);
+        }
+        hotKeys.record(COLD);
+
+        prefetcher.persist();
+
+        assertThat(prefetcher.readHotKeys()).containsExactly(HOT);
+    }
+
+    @Test
+    void start_prefetchesPersistedKeysThroughServices() throws Exception {
+        Path file = dir.resolve("hot-keys.tsv");
+        hotKeys.record(HOT);
+        prefetcher(file).persist();
+        when(pricingService.fetch(new ProductCommand("PART-001", "nl-NL", null)))
+                .thenReturn(CompletableFuture.completedFuture(new PricingDto(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE)));
+
+        prefetcher = prefetcher(file);
+        prefetcher.start();
+
+        awaitTrue(() -> prefetcher.prefetchedCount() == 1);
+        verify(catalogService).fetch("PART-001", "nl-NL");
+    }
+
+    @Test
+    void prefetch_unknownProduct_isSkipped() {
+        prefetcher = prefetcher(dir.resolve("hot-keys.tsv"));
+        when(catalogService.fetch("PART-001", "nl-NL")).thenThrow(new ProductNotFoundException("PART-001"));
+
+        prefetcher.prefetch(HOT);
+
+        assertThat(prefetcher.prefetchedCount()).isZero();
+        verify(pricingService, never()).fetch(new ProductCommand("PART-001", "nl-NL", null));
+    }
+
+    @Test
+    void sweep_requeuesOnlyHotExpiredKeys() throws Exception {
+        TtlCache<ProductKey, CatalogDto> expiring = new TtlCache<>("catalog", Duration.ofMillis(1), 100);
+        prefetcher = new CachePrefetcher(hotKeys, catalogService, pricingService, expiring, pricingCache,
+                dir.resolve("hot-keys.tsv"), Duration.ofMinutes(1), 10, 1);
+        hotKeys.record(HOT);
+        expiring.put(HOT, new CatalogDto("PART-001", "Oil Filter", null, null, null));
+        expiring.put(COLD, new CatalogDto("PART-002", "Belt", null, null, null));
+
+        awaitTrue(() -> expiring.entries().isEmpty());
+        prefetcher.sweep();
+
+        assertThat(prefetcher.pending()).isEqualTo(1);
+    }
+
+    private CachePrefetcher prefetcher(Path file) {
+        return new CachePrefetcher(hotKeys, catalogService, pricingService, catalogCache, pricingCache,
+                file, Duration.ofMinutes(1), 100, 2);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,90 @@
+package com.project.aggregator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.cache.CacheSnapshot;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.TtlCache;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotterTest {
+
+    private static final ProductKey KEY = new ProductKey("PART-001", "nl-NL");
+    private static final CatalogDto CATALOG = new CatalogDto("PART-001", "Oliefilter", "Hoogwaardige oliefilter",
+            Map.of("thread", "M20x1.5"), List.of("https://images.example.com/1.jpg"));
+    private static final PricingDto PRICE = new PricingDto(new BigDecimal("24.50"), BigDecimal.ZERO, new BigDecimal("24.50"));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stop_writesSnapshotThatIsRestoredOnStart() {
+        Path file = dir.resolve("cache-snapshot.bin");
+        Fixture before = new Fixture(file);
+        before.catalogCache.put(KEY, CATALOG);
+        before.pricingCache.put(PricingKey.anonymous(KEY), PRICE);
+        long expiresAt = before.catalogCache.entries().get(KEY).expiresAt();
+
+        before.snapshotter.stop();
+        Fixture after = new Fixture(file);
+        after.snapshotter.start();
+
+        assertThat(after.catalogCache.get(KEY)).isEqualTo(CATALOG);
+        assertThat(after.catalogCache.entries().get(KEY).expiresAt()).isEqualTo(expiresAt);
+        assertThat(after.pricingCache.get(PricingKey.anonymous(KEY))).isEqualTo(PRICE);
+        assertThat(after.fragmentCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void restore_dropsEntriesThatExpiredSinceTheSnapshot() throws Exception {
+        Path file = dir.resolve("cache-snapshot.bin");
+        long now = System.currentTimeMillis();
+        ProductKey expired = new ProductKey("PART-002", "nl-NL");
+        CacheSnapshot.write(file,
+                Map.of(KEY, new TtlCache.Entry<>(CATALOG, now + 60_000),
+                        expired, new TtlCache.Entry<>(CATALOG, now - 1)),
+                Map.of(PricingKey.anonymous(expired), new TtlCache.Entry<>(PRICE, now - 1)));
+        Fixture fixture = new Fixture(file);
+
+        assertThat(fixture.snapshotter.restore()).isEqualTo(1);
+        assertThat(fixture.catalogCache.get(KEY)).isEqualTo(CATALOG);
+        assertThat(fixture.catalogCache.get(expired)).isNull();
+        assertThat(fixture.pricingCache.size()).isZero();
+    }
+
+    @Test
+    void restore_missingOrCorruptSnapshot_startsCold() throws Exception {
+        Path file = dir.resolve("cache-snapshot.bin");
+        Fixture fixture = new Fixture(file);
+
+        assertThat(fixture.snapshotter.restore()).isZero();
+
+        Files.writeString(file, "not a snapshot");
+        assertThat(fixture.snapshotter.restore()).isZero();
+        assertThat(fixture.catalogCache.size()).isZero();
+    }
+
+    private static final class Fixture {
+
+        final TtlCache<ProductKey, CatalogDto> catalogCache = new TtlCache<>("catalog", Duration.ofMinutes(5), 100);
+        final TtlCache<PricingKey, PricingDto> pricingCache = new TtlCache<>("pricing", Duration.ofMinutes(1), 100);
+        final CatalogFragmentCache fragmentCache = new CatalogFragmentCache(new ObjectMapper(), 100);
+        final CacheSnapshotter snapshotter;
+
+        Fixture(Path file) {
+            snapshotter = new CacheSnapshotter(catalogCache, pricingCache, fragmentCache, file, Duration.ZERO);
+        }
+    }
+}
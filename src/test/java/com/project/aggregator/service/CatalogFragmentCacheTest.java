@@ -0,0 +1,84 @@
+package com.project.aggregator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.project.aggregator.mapper.CatalogFragment;
+import com.project.aggregator.model.CatalogDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogFragmentCacheTest {
+
+    private static final CatalogDto CATALOG = new CatalogDto("PART-001", "Oil Filter", "High-quality oil filter",
+            Map.of("type", "oil"), List.of("img1.png"));
+    private static final ProductKey KEY = new ProductKey("PART-001", "nl-NL");
+
+    private final CatalogFragmentCache cache = new CatalogFragmentCache(new ObjectMapper(), 2);
+
+    @Test
+    void get_sameCatalogInstance_encodesOnceAndReusesFragment() {
+        CatalogFragment first = cache.get(KEY, CATALOG);
+        CatalogFragment second = cache.get(KEY, CATALOG);
+
+        assertThat(first).isSameAs(second);
+        assertThat(first.getValue()).isEqualTo("""
+                {"productId":"PART-001","name":"Oil Filter","description":"High-quality oil filter",\
+                "specs":{"type":"oil"},"image":["img1.png"]}""");
+    }
+
+    @Test
+    void get_changedCatalog_replacesFragment() {
+        CatalogFragment original = cache.get(KEY, CATALOG);
+        CatalogDto refetched = new CatalogDto("PART-001", "Oliefilter", "High-quality oil filter",
+                Map.of("type", "oil"), List.of("img1.png"));
+        CatalogFragment renamed = cache.get(KEY, refetched);
+
+        assertThat(renamed).isNotSameAs(original);
+        assertThat(renamed.getValue()).contains("\"name\":\"Oliefilter\"");
+        assertThat(cache.get(KEY, refetched)).isSameAs(renamed);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void get_keepsOneFragmentPerMarket() {
+        CatalogFragment dutch = cache.get(KEY, CATALOG);
+        CatalogFragment german = cache.get(new ProductKey("PART-001", "de-DE"), CATALOG);
+
+        assertThat(german).isNotSameAs(dutch);
+        assertThat(cache.get(KEY, CATALOG)).isSameAs(dutch);
+    }
+
+    @Test
+    void get_missingCatalog_returnsNull() {
+        assertThat(cache.get(KEY, null)).isNull();
+        assertThat(cache.get(KEY, new CatalogDto("PART-001", null, null, null, null))).isNull();
+    }
+
+    @Test
+    void get_boundedByMaxEntries() {
+        for (int i = 0; i < 10; i++) {
+            cache.get(new ProductKey("PART-" + i, "nl-NL"), new CatalogDto("PART-" + i, "name", null, Map.of(), List.of()));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void onProductDataChanged_dropsOnlyAffectedProducts() {
+        CatalogDto belt = new CatalogDto("PART-003", "V-Belt", null, Map.of(), List.of());
+        ProductKey beltKey = new ProductKey("PART-003", "nl-NL");
+        cache.get(KEY, CATALOG);
+        CatalogFragment beltFragment = cache.get(beltKey, belt);
+
+        cache.onProductDataChanged(new ProductDataChangedEvent("catalog", Set.of("PART-001")));
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get(beltKey, belt)).isSameAs(beltFragment);
+    }
+}
@@ -1,20 +1,33 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.KnownProducts;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.cache.TtlCache;
 import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.exception.OverloadedException;
 import com.project.aggregator.exception.ProductNotFoundException;
 import com.project.aggregator.exception.UpstreamServiceException;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.TestLimiters;
+import com.project.aggregator.limit.UpstreamLimiters;
 import com.project.aggregator.model.CatalogDto;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,6 +35,14 @@ class CatalogServiceTest {
 
     @Mock
     private CatalogClient client;
+    @Spy
+    private TtlCache<ProductKey, CatalogDto> catalogCache = new TtlCache<>("catalog", Duration.ofMinutes(1), 100);
+    @Spy
+    private UpstreamLimiters limiters = TestLimiters.fixed(10);
+    @Mock
+    private KnownProducts knownProducts;
+    @Spy
+    private ProductViews productViews = new ProductViews();
 
     @InjectMocks
     private CatalogService catalogService;
@@ -38,6 +59,16 @@ class CatalogServiceTest {
         assertThat(result).isEqualTo(CATALOG);
     }
 
+    @Test
+    void fetch_materializedView_skipsCacheAndClient() {
+        productViews.putIfCurrent(new ProductKey("PART-001", "nl-NL"),
+                new ProductViews.View(CATALOG, null, System.currentTimeMillis()), productViews.epoch());
+
+        assertThat(catalogService.fetch("PART-001", "nl-NL")).isSameAs(CATALOG);
+        verify(client, never()).fetch("PART-001", "nl-NL");
+        assertThat(catalogCache.size()).isZero();
+    }
+
     @Test
     void fetch_productNotFound_propagates() {
         when(client.fetch("UNKNOWN", "nl-NL"))
@@ -46,6 +77,7 @@ class CatalogServiceTest {
         assertThatThrownBy(() -> catalogService.fetch("UNKNOWN", "nl-NL"))
                 .isInstanceOf(ProductNotFoundException.class)
                 .hasMessageContaining("UNKNOWN");
+        verify(knownProducts).recordMissing("UNKNOWN");
     }
 
     @Test
@@ -56,4 +88,42 @@ class CatalogServiceTest {
         assertThatThrownBy(() -> catalogService.fetch("PART-001", "nl-NL"))
                 .isInstanceOf(UpstreamServiceException.class);
     }
+
+    @Test
+    void fetch_cachesSuccessfulResultPerMarket() {
+        when(client.fetch("PART-001", "nl-NL")).thenReturn(CATALOG);
+
+        catalogService.fetch("PART-001", "nl-NL");
+        CatalogDto second = catalogService.fetch("PART-001", "nl-NL");
+
+        assertThat(second).isEqualTo(CATALOG);
+        verify(client, times(1)).fetch("PART-001", "nl-NL");
+        assertThat(catalogCache.get(new ProductKey("PART-001", "de-DE"))).isNull();
+    }
+
+    @Test
+    void fetch_overTheUpstreamLimit_isShedWithoutCallingTheClient() {
+        ConcurrencyLimiter.Permit held = limiters.catalog().tryAcquire();
+        for (int i = 1; i < limiters.catalog().limit(); i++) {
+            limiters.catalog().tryAcquire();
+        }
+
+        assertThatThrownBy(() -> catalogService.fetch("PART-001", "nl-NL"))
+                .isInstanceOf(OverloadedException.class);
+        verify(client, never()).fetch("PART-001", "nl-NL");
+
+        held.release(ConcurrencyLimiter.Outcome.IGNORED);
+        when(client.fetch("PART-001", "nl-NL")).thenReturn(CATALOG);
+        assertThat(catalogService.fetch("PART-001", "nl-NL")).isEqualTo(CATALOG);
+    }
+
+    @Test
+    void fetch_releasesThePermitWhenTheClientFails() {
+        when(client.fetch("PART-001", "nl-NL"))
+                .thenThrow(new UpstreamServiceException("CatalogService", "Connection refused"));
+
+        assertThatThrownBy(() -> catalogService.fetch("PART-001", "nl-NL"));
+
+        assertThat(limiters.catalog().inFlight()).isZero();
+    }
 }
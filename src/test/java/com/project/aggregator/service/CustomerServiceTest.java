@@ -1,6 +1,8 @@
 package com.project.aggregator.service;
 
 import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.limit.TestLimiters;
+import com.project.aggregator.limit.UpstreamLimiters;
 import com.project.aggregator.model.CustomerDto;
 import com.project.aggregator.model.ProductCommand;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -17,6 +20,7 @@ import java.util.concurrent.CompletionException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +28,8 @@ class CustomerServiceTest {
 
     @Mock
     private CustomerClient client;
+    @Spy
+    private UpstreamLimiters limiters = TestLimiters.fixed(10);
 
     @InjectMocks
     private CustomerService customerService;
@@ -38,16 +44,25 @@ class CustomerServiceTest {
     @Test
     void fetch_success() {
         CustomerDto expected = new CustomerDto("DEALER-001", "DEALER", List.of("fast-delivery"));
-        when(client.fetch("DEALER-001")).thenReturn(expected);
+        when(client.fetchAsync("DEALER-001")).thenReturn(CompletableFuture.completedFuture(expected));
 
         CustomerDto result = customerService.fetch(PRODUCT_COMMAND).join();
 
         assertThat(result).isEqualTo(expected);
     }
 
+    @Test
+    void fetch_anonymous_completesWithoutCallingTheClient() {
+        CustomerDto result = customerService.fetch(new ProductCommand("PART-001", "nl-NL", null)).join();
+
+        assertThat(result).isNull();
+        verifyNoInteractions(client);
+    }
+
     @Test
     void fetch_clientThrows_futureCompletesExceptionally() {
-        when(client.fetch("DEALER-001")).thenThrow(new RuntimeException("timeout"));
+        when(client.fetchAsync("DEALER-001"))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("timeout")));
 
         CompletableFuture<CustomerDto> future = customerService.fetch(PRODUCT_COMMAND);
 
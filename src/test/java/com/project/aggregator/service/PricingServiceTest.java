@@ -1,6 +1,18 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.LastKnownGood;
+import com.project.aggregator.cache.PricingKey;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.cache.TtlCache;
 import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.limit.AimdLimit;
+import com.project.aggregator.limit.ConcurrencyLimiter;
+import com.project.aggregator.limit.PriorityClassifier;
+import com.project.aggregator.limit.TestLimiters;
+import com.project.aggregator.limit.UpstreamLimiters;
+import com.project.aggregator.model.CustomerDto;
 import com.project.aggregator.model.PricingDto;
 import com.project.aggregator.model.ProductCommand;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,15 +20,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +45,18 @@ class PricingServiceTest {
 
     @Mock
     private PricingClient client;
+    @Spy
+    private TtlCache<PricingKey, PricingDto> pricingCache = new TtlCache<>("pricing", Duration.ofMinutes(1), 100);
+    @Spy
+    private LastKnownGood<PricingKey, PricingDto> pricingLastKnownGood =
+            new LastKnownGood<>("pricing", Duration.ofMinutes(30), 100);
+    @Spy
+    private UpstreamLimiters limiters = TestLimiters.fixed(10);
+    @Spy
+    private ProductViews productViews = new ProductViews();
+    @Spy
+    private PriorityClassifier priorityClassifier =
+            new PriorityClassifier(Set.of(), new TtlCache<>("segments", Duration.ofHours(1), 100));
 
     @InjectMocks
     private PricingService pricingService;
@@ -38,7 +70,8 @@ class PricingServiceTest {
     void fetch_success() {
         PricingDto expected = new PricingDto(
                 new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
-        when(client.fetch("PART-001", "nl-NL", "DEALER-001")).thenReturn(expected);
+        when(client.fetchAsync("PART-001", "nl-NL", "DEALER-001", null))
+                .thenReturn(CompletableFuture.completedFuture(expected));
 
         ProductCommand productCommand = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
         CompletableFuture<PricingDto> future = pricingService.fetch(productCommand);
@@ -50,18 +83,48 @@ class PricingServiceTest {
     void fetch_nullCustomer_passesNullCustomerId() {
         PricingDto expected = new PricingDto(
                 new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
-        when(client.fetch("PART-001", "nl-NL", null)).thenReturn(expected);
+        when(client.fetchAsync("PART-001", "nl-NL", null, null)).thenReturn(CompletableFuture.completedFuture(expected));
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", null);
         CompletableFuture<PricingDto> future = pricingService.fetch(cmd);
 
         assertThat(future.join()).isEqualTo(expected);
-        verify(client).fetch("PART-001", "nl-NL", null);
+        verify(client).fetchAsync("PART-001", "nl-NL", null, null);
+    }
+
+    @Test
+    void fetch_anonymousReadsTheMaterializedView_customersDoNot() {
+        PricingDto anonymous = new PricingDto(new BigDecimal("30.00"), BigDecimal.ZERO, new BigDecimal("30.00"));
+        PricingDto dealer = new PricingDto(new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
+        productViews.putIfCurrent(new ProductKey("PART-001", "nl-NL"),
+                new ProductViews.View(null, anonymous, System.currentTimeMillis()), productViews.epoch());
+        when(client.fetchAsync("PART-001", "nl-NL", "DEALER-001", null))
+                .thenReturn(CompletableFuture.completedFuture(dealer));
+
+        assertThat(pricingService.fetch(new ProductCommand("PART-001", "nl-NL", null)).join()).isSameAs(anonymous);
+        assertThat(pricingService.fetch(new ProductCommand("PART-001", "nl-NL", "DEALER-001")).join()).isEqualTo(dealer);
+        verify(client, times(1)).fetchAsync("PART-001", "nl-NL", "DEALER-001", null);
+    }
+
+    @Test
+    void fetch_withResolvedCustomer_pricesForItsSegment() {
+        PricingDto expected = new PricingDto(
+                new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
+        when(client.fetchAsync("PART-001", "nl-NL", "ACME-42", "DEALER"))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+        ProductCommand command = new ProductCommand("PART-001", "nl-NL", "ACME-42");
+
+        PricingDto price = pricingService.fetch(command, Map.of(CustomerDto.RESPONSE_TYPE,
+                new CustomerDto("ACME-42", "DEALER", List.of()))).join();
+
+        assertThat(price).isEqualTo(expected);
+        assertThat(pricingService.inputs()).containsExactly(CustomerDto.RESPONSE_TYPE);
     }
 
     @Test
     void fetch_clientThrows_futureCompletesExceptionally() {
-        when(client.fetch("PART-001", "nl-NL", null)).thenThrow(new RuntimeException("service down"));
+        when(client.fetchAsync("PART-001", "nl-NL", null, null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("service down")));
 
         ProductCommand productCommand = new ProductCommand("PART-001", "nl-NL", null);
         CompletableFuture<PricingDto> future = pricingService.fetch(productCommand);
@@ -70,4 +133,96 @@ class PricingServiceTest {
                 .isInstanceOf(CompletionException.class)
                 .hasCauseInstanceOf(RuntimeException.class);
     }
+
+    @Test
+    void fetch_cachesPerCustomer_butNotFailures() {
+        PricingDto expected = new PricingDto(
+                new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
+        when(client.fetchAsync("PART-001", "nl-NL", "DEALER-001", null))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+        when(client.fetchAsync("PART-001", "nl-NL", null, null))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("service down")));
+        ProductCommand dealer = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
+        ProductCommand anonymous = new ProductCommand("PART-001", "nl-NL", null);
+
+        pricingService.fetch(dealer).join();
+        assertThat(pricingService.fetch(dealer).join()).isEqualTo(expected);
+        assertThatThrownBy(() -> pricingService.fetch(anonymous).join()).isInstanceOf(CompletionException.class);
+        assertThatThrownBy(() -> pricingService.fetch(anonymous).join()).isInstanceOf(CompletionException.class);
+
+        verify(client, times(1)).fetchAsync("PART-001", "nl-NL", "DEALER-001", null);
+        verify(client, times(2)).fetchAsync("PART-001", "nl-NL", null, null);
+    }
+
+    @Test
+    void fetch_overTheUpstreamLimit_failsFastWithoutCallingTheClient() {
+        when(client.fetchAsync("PART-001", "nl-NL", null, null)).thenReturn(new CompletableFuture<>());
+        ProductCommand command = new ProductCommand("PART-001", "nl-NL", null);
+        for (int i = 0; i < limiters.pricing().limit(); i++) {
+            pricingService.fetch(command);
+        }
+
+        CompletableFuture<PricingDto> shed = pricingService.fetch(command);
+
+        assertThatThrownBy(shed::join).hasCauseInstanceOf(OverloadedException.class);
+        verify(client, times(10)).fetchAsync("PART-001", "nl-NL", null, null);
+        assertThat(limiters.pricing().rejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fetch_rememberedSegment_pricesWithoutWaitingForTheCustomer() {
+        ProductCommand dealer = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
+        PricingDto expected = new PricingDto(
+                new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
+        assertThat(pricingService.startsWithoutInputs(dealer)).isFalse();
+        assertThat(pricingService.startsWithoutInputs(new ProductCommand("PART-001", "nl-NL", null))).isTrue();
+
+        priorityClassifier.learn(new CustomerDto("DEALER-001", "DEALER", List.of()));
+        when(client.fetchAsync("PART-001", "nl-NL", "DEALER-001", "DEALER"))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+
+        assertThat(pricingService.startsWithoutInputs(dealer)).isTrue();
+        assertThat(pricingService.fetch(dealer).join()).isEqualTo(expected);
+    }
+
+    @Test
+    void fetch_timeoutReleasesThePermitAsADrop() {
+        when(client.fetchAsync("PART-001", "nl-NL", null, null)).thenReturn(new CompletableFuture<>());
+        ProductCommand command = new ProductCommand("PART-001", "nl-NL", null);
+        UpstreamLimiters adaptive = new UpstreamLimiters(limiters.catalog(),
+                new ConcurrencyLimiter("pricing", new AimdLimit(10, 1, 20, 0.5, Duration.ofSeconds(1))),
+                limiters.availability(), limiters.customer());
+        PricingService service = new PricingService(client, pricingCache, pricingLastKnownGood, adaptive, productViews,
+                priorityClassifier);
+        ReflectionTestUtils.setField(service, "timeoutMillis", 20L);
+
+        assertThatThrownBy(() -> service.fetch(command).join()).hasCauseInstanceOf(TimeoutException.class);
+
+        assertThat(adaptive.pricing().inFlight()).isZero();
+        assertThat(adaptive.pricing().limit()).isEqualTo(5);
+    }
+
+    @Test
+    void fallback_servesTheLastKnownGoodPriceMarkedStale() {
+        PricingDto expected = new PricingDto(
+                new BigDecimal("30.00"), new BigDecimal("5.01"), new BigDecimal("24.99"));
+        when(client.fetchAsync("PART-001", "nl-NL", "DEALER-001", null))
+                .thenReturn(CompletableFuture.completedFuture(expected));
+        ProductCommand dealer = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
+        pricingService.fetch(dealer).join();
+
+        PricingDto stale = fallback(dealer);
+
+        assertThat(stale.finalPrice()).isEqualTo(new BigDecimal("24.99"));
+        assertThat(stale.staleAsOf()).isNotNull().isBeforeOrEqualTo(Instant.now());
+        // nothing known for another customer: empty, as before
+        PricingDto empty = fallback(new ProductCommand("PART-001", "nl-NL", "FLEET-001"));
+        assertThat(empty).isEqualTo(new PricingDto(null, null, null));
+    }
+
+    private PricingDto fallback(ProductCommand command) {
+        CompletableFuture<PricingDto> future = ReflectionTestUtils.invokeMethod(pricingService, "fallback",
+                command, new RuntimeException("circuit open"));
+        return future.join();
+    }
 }
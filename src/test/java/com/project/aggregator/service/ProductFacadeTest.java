@@ -1,21 +1,37 @@
 package com.project.aggregator.service;
 
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.cache.KnownProducts;
+import com.project.aggregator.cache.TtlCache;
 import com.project.aggregator.exception.CatalogUnavailableException;
+import com.project.aggregator.exception.OverloadedException;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.limit.Brownout;
+import com.project.aggregator.limit.PriorityAdmission;
+import com.project.aggregator.limit.PriorityClassifier;
 import com.project.aggregator.model.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +41,20 @@ class ProductFacadeTest {
     private CatalogService catalogService;
     @Mock
     private AggregatorService aggregatorService;
+    @Mock
+    private CatalogFragmentCache catalogFragmentCache;
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+    @Mock
+    private KnownProducts knownProducts;
+    @Spy
+    private PriorityAdmission priorityAdmission =
+            new PriorityAdmission(1, 0, Duration.ZERO, Duration.ofSeconds(1), new SimpleMeterRegistry());
+    @Spy
+    private PriorityClassifier priorityClassifier =
+            new PriorityClassifier(Set.of("DEALER", "FLEET"), new TtlCache<>("segments", Duration.ofMinutes(1), 10));
+    @Spy
+    private Brownout brownout = new Brownout(Duration.ofSeconds(1), Duration.ofSeconds(5), 3, 6, 0.7, 50);
 
     @InjectMocks
     private ProductFacade productFacade;
@@ -35,24 +65,103 @@ class ProductFacadeTest {
         stubAggregator(Map.of(CustomerDto.RESPONSE_TYPE, CUSTOMER, PricingDto.RESPONSE_TYPE, PRICING, AvailabilityDto.RESPONSE_TYPE, AVAILABILITY));
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
-        ProductResponse response = productFacade.aggregate(cmd);
+        ProductResponse response = productFacade.aggregate(cmd, Brownout.Level.NONE);
 
         // catalog
-        assertThat(response.getCatalog().getProductId()).isEqualTo("PART-001");
-        assertThat(response.getCatalog().getName()).isEqualTo("Oil Filter");
-        assertThat(response.getCatalog().getDescription()).isEqualTo("High-quality oil filter");
+        assertThat(response.catalog().productId()).isEqualTo("PART-001");
+        assertThat(response.catalog().name()).isEqualTo("Oil Filter");
+        assertThat(response.catalog().description()).isEqualTo("High-quality oil filter");
         // pricing
-        assertThat(response.getPrice().getFinalPrice()).isEqualTo(new BigDecimal("22.49"));
-        assertThat(response.getPrice().getBasePrice()).isEqualTo(new BigDecimal("30.00"));
-        assertThat(response.getPrice().getStatus()).isEqualTo(ProductResponse.PriceResponse.Status.AVAILABLE);
+        assertThat(response.price().finalPrice()).isEqualTo(new BigDecimal("22.49"));
+        assertThat(response.price().basePrice()).isEqualTo(new BigDecimal("30.00"));
+        assertThat(response.priceStatus()).isEqualTo(ProductResponse.PriceStatus.AVAILABLE);
         // availability
-        assertThat(response.getAvailability().getStock()).isEqualTo(42);
-        assertThat(response.getAvailability().getWarehouse()).isEqualTo("WAREHOUSE-EU");
-        assertThat(response.getAvailability().getStatus()).isEqualTo(ProductResponse.AvailabilityResponse.Status.IN_STOCK);
+        assertThat(response.availability().stock()).isEqualTo(42);
+        assertThat(response.availability().warehouse()).isEqualTo("WAREHOUSE-EU");
+        assertThat(response.availabilityStatus()).isEqualTo(ProductResponse.AvailabilityStatus.IN_STOCK);
         // customer
-        assertThat(response.getCustomer().getCustomerId()).isEqualTo("DEALER-001");
-        assertThat(response.getCustomer().getSegment()).isEqualTo("DEALER");
-        assertThat(response.getCustomer().getStatus()).isEqualTo(ProductResponse.CustomerResponse.Status.PERSONALIZED);
+        assertThat(response.customer().customerId()).isEqualTo("DEALER-001");
+        assertThat(response.customer().segment()).isEqualTo("DEALER");
+        assertThat(response.customerStatus()).isEqualTo(ProductResponse.CustomerStatus.PERSONALIZED);
+        // the dealer is prioritised from now on, and the slot is free again
+        verify(priorityClassifier).learn(CUSTOMER);
+        assertThat(priorityClassifier.classify(cmd)).isEqualTo(PriorityAdmission.Priority.HIGH);
+        assertThat(priorityAdmission.running()).isZero();
+    }
+
+    @Test
+    void aggregate_knownAbsentProduct_notFoundWithoutTrackingAdmissionOrUpstreams() {
+        when(knownProducts.isKnownAbsent("NOPE")).thenReturn(true);
+
+        assertThatThrownBy(() -> productFacade.aggregate(new ProductCommand("NOPE", "nl-NL", null), Brownout.Level.NONE))
+                .isInstanceOf(ProductNotFoundException.class)
+                .hasNoCause()
+                .extracting(e -> e.getStackTrace().length).isEqualTo(0);
+
+        verifyNoInteractions(catalogService, aggregatorService, hotKeyTracker, priorityAdmission, brownout);
+    }
+
+    @Test
+    void aggregate_shedWithoutCallingUpstreamsWhenNoSlotIsFree() {
+        PriorityAdmission.Ticket busy = priorityAdmission.acquire(PriorityAdmission.Priority.HIGH);
+
+        assertThatThrownBy(() -> productFacade.aggregate(new ProductCommand("PART-001", "nl-NL", null), Brownout.Level.NONE))
+                .isInstanceOf(OverloadedException.class);
+
+        verifyNoInteractions(catalogService, aggregatorService, brownout);
+        busy.close();
+    }
+
+    @Test
+    void aggregate_passesTheBrownoutLevelOnAndRecordsTheLatency() {
+        when(catalogService.fetch("PART-001", "nl-NL")).thenReturn(CATALOG);
+        when(aggregatorService.fetch(any(), eq(Brownout.Level.NO_AVAILABILITY)))
+                .thenReturn(Map.of(PricingDto.RESPONSE_TYPE, PRICING));
+
+        ProductResponse response = productFacade.aggregate(new ProductCommand("PART-001", "nl-NL", "DEALER-001"),
+                Brownout.Level.NO_AVAILABILITY);
+
+        assertThat(response.priceStatus()).isEqualTo(ProductResponse.PriceStatus.AVAILABLE);
+        assertThat(response.availabilityStatus()).isEqualTo(ProductResponse.AvailabilityStatus.UNKNOWN_STOCK);
+        assertThat(response.customerStatus()).isEqualTo(ProductResponse.CustomerStatus.NON_PERSONALIZED);
+        verify(brownout).record(anyLong());
+    }
+
+    @Test
+    void aggregateMarkets_buildsOneResponsePerMarketInOneSlot() {
+        CatalogDto german = new CatalogDto("PART-001", "Ölfilter", "Hochwertiger Ölfilter", Map.of(), List.of());
+        when(catalogService.fetch("PART-001", "nl-NL")).thenReturn(CATALOG);
+        when(catalogService.fetch("PART-001", "de-DE")).thenReturn(german);
+        List<ProductCommand> commands = List.of(new ProductCommand("PART-001", "nl-NL", "DEALER-001"),
+                new ProductCommand("PART-001", "de-DE", "DEALER-001"));
+        when(aggregatorService.fetchAll(commands, Brownout.Level.NONE)).thenReturn(Map.of(
+                "nl-NL", Map.of(PricingDto.RESPONSE_TYPE, PRICING, CustomerDto.RESPONSE_TYPE, CUSTOMER),
+                "de-DE", Map.of(AvailabilityDto.RESPONSE_TYPE, AVAILABILITY, CustomerDto.RESPONSE_TYPE, CUSTOMER)));
+
+        Map<String, ProductResponse> responses = productFacade.aggregate(commands, Brownout.Level.NONE);
+
+        assertThat(responses).containsOnlyKeys("nl-NL", "de-DE");
+        assertThat(responses.get("nl-NL").priceStatus()).isEqualTo(ProductResponse.PriceStatus.AVAILABLE);
+        assertThat(responses.get("de-DE").catalog().name()).isEqualTo("Ölfilter");
+        assertThat(responses.get("de-DE").priceStatus()).isEqualTo(ProductResponse.PriceStatus.UNAVAILABLE);
+        assertThat(responses.get("de-DE").availabilityStatus()).isEqualTo(ProductResponse.AvailabilityStatus.IN_STOCK);
+        verify(priorityAdmission).acquire(PriorityAdmission.Priority.NORMAL);
+        verify(brownout).record(anyLong());
+        assertThat(priorityAdmission.running()).isZero();
+    }
+
+    @Test
+    void aggregateMarkets_catalogFailureInAnyMarketFailsTheLookup() {
+        when(catalogService.fetch("PART-001", "nl-NL")).thenReturn(CATALOG);
+        when(catalogService.fetch("PART-001", "de-DE"))
+                .thenThrow(new CatalogUnavailableException(new RuntimeException("down")));
+        List<ProductCommand> commands = List.of(new ProductCommand("PART-001", "nl-NL", null),
+                new ProductCommand("PART-001", "de-DE", null));
+        when(aggregatorService.fetchAll(commands, Brownout.Level.NONE))
+                .thenReturn(Map.of("nl-NL", Map.of(), "de-DE", Map.of()));
+
+        assertThatThrownBy(() -> productFacade.aggregate(commands, Brownout.Level.NONE))
+                .isInstanceOf(CatalogUnavailableException.class);
     }
 
     @Test
@@ -61,14 +170,13 @@ class ProductFacadeTest {
         stubAggregator(Map.of(PricingDto.RESPONSE_TYPE, PRICING, AvailabilityDto.RESPONSE_TYPE, AVAILABILITY));
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", null);
-        ProductResponse response = productFacade.aggregate(cmd);
-
-        assertThat(response.getCustomer().getStatus())
-                .isEqualTo(ProductResponse.CustomerResponse.Status.NON_PERSONALIZED);
-        assertThat(response.getCustomer().getCustomerId()).isNull();
-        assertThat(response.getCustomer().getSegment()).isNull();
-        assertThat(response.getPrice().getStatus()).isEqualTo(ProductResponse.PriceResponse.Status.AVAILABLE);
-        assertThat(response.getAvailability().getStatus()).isEqualTo(ProductResponse.AvailabilityResponse.Status.IN_STOCK);
+        ProductResponse response = productFacade.aggregate(cmd, Brownout.Level.NONE);
+
+        assertThat(response.customerStatus())
+                .isEqualTo(ProductResponse.CustomerStatus.NON_PERSONALIZED);
+        assertThat(response.customer()).isNull();
+        assertThat(response.priceStatus()).isEqualTo(ProductResponse.PriceStatus.AVAILABLE);
+        assertThat(response.availabilityStatus()).isEqualTo(ProductResponse.AvailabilityStatus.IN_STOCK);
     }
 
     @Test
@@ -78,7 +186,7 @@ class ProductFacadeTest {
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", null);
 
-        assertThatThrownBy(() -> productFacade.aggregate(cmd))
+        assertThatThrownBy(() -> productFacade.aggregate(cmd, Brownout.Level.NONE))
                 .isInstanceOf(CatalogUnavailableException.class);
     }
 
@@ -88,13 +196,13 @@ class ProductFacadeTest {
         stubAggregator(Map.of(AvailabilityDto.RESPONSE_TYPE, AVAILABILITY));
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", null);
-        ProductResponse response = productFacade.aggregate(cmd);
+        ProductResponse response = productFacade.aggregate(cmd, Brownout.Level.NONE);
 
-        assertThat(response.getPrice().getStatus())
-                .isEqualTo(ProductResponse.PriceResponse.Status.UNAVAILABLE);
-        assertThat(response.getPrice().getFinalPrice()).isNull();
-        assertThat(response.getAvailability().getStock()).isEqualTo(42);
-        assertThat(response.getAvailability().getStatus()).isEqualTo(ProductResponse.AvailabilityResponse.Status.IN_STOCK);
+        assertThat(response.priceStatus())
+                .isEqualTo(ProductResponse.PriceStatus.UNAVAILABLE);
+        assertThat(response.price()).isNull();
+        assertThat(response.availability().stock()).isEqualTo(42);
+        assertThat(response.availabilityStatus()).isEqualTo(ProductResponse.AvailabilityStatus.IN_STOCK);
     }
 
     @Test
@@ -103,13 +211,13 @@ class ProductFacadeTest {
         stubAggregator(Map.of(PricingDto.RESPONSE_TYPE, PRICING));
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", null);
-        ProductResponse response = productFacade.aggregate(cmd);
+        ProductResponse response = productFacade.aggregate(cmd, Brownout.Level.NONE);
 
-        assertThat(response.getAvailability().getStatus())
-                .isEqualTo(ProductResponse.AvailabilityResponse.Status.UNKNOWN_STOCK);
-        assertThat(response.getAvailability().getStock()).isNull();
-        assertThat(response.getPrice().getFinalPrice()).isEqualTo(new BigDecimal("22.49"));
-        assertThat(response.getPrice().getStatus()).isEqualTo(ProductResponse.PriceResponse.Status.AVAILABLE);
+        assertThat(response.availabilityStatus())
+                .isEqualTo(ProductResponse.AvailabilityStatus.UNKNOWN_STOCK);
+        assertThat(response.availability()).isNull();
+        assertThat(response.price().finalPrice()).isEqualTo(new BigDecimal("22.49"));
+        assertThat(response.priceStatus()).isEqualTo(ProductResponse.PriceStatus.AVAILABLE);
     }
 
     @Test
@@ -118,13 +226,13 @@ class ProductFacadeTest {
         stubAggregator(Map.of(PricingDto.RESPONSE_TYPE, PRICING, AvailabilityDto.RESPONSE_TYPE, AVAILABILITY));
 
         ProductCommand cmd = new ProductCommand("PART-001", "nl-NL", "DEALER-001");
-        ProductResponse response = productFacade.aggregate(cmd);
+        ProductResponse response = productFacade.aggregate(cmd, Brownout.Level.NONE);
 
-        assertThat(response.getCustomer().getStatus())
-                .isEqualTo(ProductResponse.CustomerResponse.Status.NON_PERSONALIZED);
-        assertThat(response.getCustomer().getSegment()).isNull();
-        assertThat(response.getPrice().getStatus()).isEqualTo(ProductResponse.PriceResponse.Status.AVAILABLE);
-        assertThat(response.getAvailability().getStatus()).isEqualTo(ProductResponse.AvailabilityResponse.Status.IN_STOCK);
+        assertThat(response.customerStatus())
+                .isEqualTo(ProductResponse.CustomerStatus.NON_PERSONALIZED);
+        assertThat(response.customer()).isNull();
+        assertThat(response.priceStatus()).isEqualTo(ProductResponse.PriceStatus.AVAILABLE);
+        assertThat(response.availabilityStatus()).isEqualTo(ProductResponse.AvailabilityStatus.IN_STOCK);
     }
 
     private static final CatalogDto CATALOG = new CatalogDto(
@@ -142,6 +250,6 @@ class ProductFacadeTest {
     );
 
     private void stubAggregator(Map<String, FetchResult> results) {
-        when(aggregatorService.fetch(any())).thenReturn(results);
+        when(aggregatorService.fetch(any(), any())).thenReturn(results);
     }
 }
@@ -0,0 +1,212 @@
+package com.project.aggregator.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.cache.ProductKey;
+import com.project.aggregator.cache.ProductViews;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.project.aggregator.exception.ProductNotFoundException;
+import com.project.aggregator.exception.UpstreamServiceException;
+import com.project.aggregator.limit.TestLimiters;
+import com.project.aggregator.limit.UpstreamLimiters;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.PricingDto;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductViewMaterializerTest {
+
+    private static final PricingDto PRICE = new PricingDto(new BigDecimal("24.99"), BigDecimal.ZERO,
+            new BigDecimal("24.99"));
+
+    private final CatalogClient catalogClient = mock(CatalogClient.class);
+    private final PricingClient pricingClient = mock(PricingClient.class);
+    private final ProductViews views = new ProductViews();
+    private final HotKeyTracker hotKeys = new HotKeyTracker(10);
+    private final UpstreamLimiters limiters = TestLimiters.fixed(2);
+    private final CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.ofDefaults();
+    private final ProductViewMaterializer materializer = materializer(100, Duration.ofMinutes(30));
+
+    @BeforeEach
+    void setUp() {
+        when(catalogClient.productIds()).thenReturn(List.of("PART-001", "PART-002"));
+        when(catalogClient.fetch(anyString(), anyString())).thenAnswer(invocation ->
+                catalog(invocation.getArgument(0), invocation.getArgument(1)));
+        when(pricingClient.fetch(anyString(), anyString(), isNull())).thenReturn(PRICE);
+    }
+
+    @AfterEach
+    void stop() {
+        materializer.stop();
+    }
+
+    @Test
+    void refresh_materializesEveryProductInEveryMarket() {
+        materializer.refresh();
+
+        assertThat(views.size()).isEqualTo(4);
+        ProductViews.View view = views.get("PART-002", "de-DE");
+        assertThat(view.catalog().name()).isEqualTo("PART-002 de-DE");
+        assertThat(view.price()).isEqualTo(PRICE);
+        assertThat(materializer.materializedCount()).isEqualTo(4);
+    }
+
+    @Test
+    void refresh_dropsUnlistedAndMissingProductsButKeepsViewsWhoseFetchFailed() {
+        ProductViewMaterializer expiring = materializer(100, Duration.ZERO);
+        expiring.refresh();
+        when(catalogClient.productIds()).thenReturn(List.of("PART-001", "PART-003"));
+        when(catalogClient.fetch("PART-003", "nl-NL")).thenThrow(new ProductNotFoundException("PART-003"));
+        when(pricingClient.fetch("PART-001", "de-DE", null))
+                .thenThrow(new UpstreamServiceException("PricingService", "Simulated transient failure"));
+
+        try {
+            expiring.refresh();
+        } finally {
+            expiring.stop();
+        }
+
+        assertThat(views.get("PART-002", "nl-NL")).isNull();
+        assertThat(views.get("PART-003", "nl-NL")).isNull();
+        assertThat(views.get("PART-003", "de-DE")).isNotNull();
+        assertThat(views.get("PART-001", "de-DE")).isNotNull();
+        assertThat(expiring.failedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void dataChange_dropsTheViewsAtOnceAndRematerializesOnlyThoseProducts() {
+        materializer.refresh();
+        when(catalogClient.fetch("PART-001", "nl-NL")).thenReturn(new CatalogDto("PART-001", "Renamed", null,
+                Map.of(), List.of()));
+
+        materializer.onProductDataChanged(new ProductDataChangedEvent("catalog", Set.of(), Set.of("PART-00"), true));
+
+        assertThat(views.size()).isLessThan(4);
+        verify(pricingClient, timeout(5_000).times(8)).fetch(anyString(), anyString(), any());
+        assertThat(awaitView("PART-001", "nl-NL").catalog().name()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void refresh_materializesHotKeysFirstAndAtMostMaxEntries() {
+        ProductViewMaterializer bounded = materializer(3, Duration.ofMinutes(30));
+        hotKeys.record(new ProductKey("PART-009", "fr-FR"));
+        try {
+            bounded.refresh();
+        } finally {
+            bounded.stop();
+        }
+
+        assertThat(views.size()).isEqualTo(3);
+        assertThat(views.get("PART-009", "fr-FR")).isNotNull();
+        assertThat(views.get("PART-001", "de-DE")).isNotNull();
+        assertThat(views.get("PART-002", "nl-NL")).isNull();
+    }
+
+    @Test
+    void refresh_refetchesOnlyMissingAndExpiredViews() {
+        materializer.refresh();
+        materializer.refresh();
+
+        verify(catalogClient, times(4)).fetch(anyString(), anyString());
+
+        ProductViewMaterializer expiring = materializer(100, Duration.ZERO);
+        try {
+            expiring.refresh();
+        } finally {
+            expiring.stop();
+        }
+
+        verify(catalogClient, times(8)).fetch(anyString(), anyString());
+    }
+
+    @Test
+    void refresh_whilePricingCircuitIsOpen_fetchesNothing() {
+        circuitBreakers.circuitBreaker("pricingCB").transitionToForcedOpenState();
+
+        materializer.refresh();
+
+        assertThat(views.size()).isZero();
+        verify(catalogClient, never()).fetch(anyString(), anyString());
+    }
+
+    @Test
+    void refresh_withoutUpstreamPermits_defersTheFetches() {
+        limiters.pricing().tryAcquire();
+        limiters.pricing().tryAcquire();
+
+        materializer.refresh();
+
+        assertThat(views.size()).isZero();
+        assertThat(materializer.deferredCount()).isEqualTo(4);
+        verify(pricingClient, never()).fetch(anyString(), anyString(), any());
+    }
+
+    @Test
+    void warmupStubProducts_areNeverMaterialized() {
+        when(catalogClient.productIds()).thenReturn(List.of("PART-001", "WARMUP-1"));
+        hotKeys.record(new ProductKey("WARMUP-2", "nl-NL"));
+        views.putIfCurrent(new ProductKey("WARMUP-3", "nl-NL"),
+                new ProductViews.View(catalog("WARMUP-3", "nl-NL"), PRICE, System.currentTimeMillis()), views.epoch());
+
+        materializer.refresh();
+        materializer.onProductDataChanged(new ProductDataChangedEvent("warmup", Set.of("WARMUP-1", "PART-001")));
+
+        verify(pricingClient, timeout(5_000).times(4)).fetch(startsWith("PART-"), anyString(), any());
+        verify(catalogClient, never()).fetch(startsWith("WARMUP-"), anyString());
+        assertThat(views.get("WARMUP-3", "nl-NL")).isNull();
+    }
+
+    @Test
+    void refresh_withoutAListableCatalog_materializesNothing() {
+        when(catalogClient.productIds()).thenReturn(null);
+        hotKeys.record(new ProductKey("PART-001", "nl-NL"));
+
+        materializer.refresh();
+
+        assertThat(views.size()).isZero();
+        verify(catalogClient, never()).fetch(anyString(), anyString());
+    }
+
+    private ProductViewMaterializer materializer(int maxEntries, Duration maxAge) {
+        return new ProductViewMaterializer(catalogClient, pricingClient, views,
+                new CatalogFragmentCache(new ObjectMapper(), 100), hotKeys, limiters, circuitBreakers,
+                List.of("nl-NL", "de-DE"), maxEntries, Duration.ofMinutes(1), maxAge, 2, new SimpleMeterRegistry());
+    }
+
+    private ProductViews.View awaitView(String productId, String market) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        ProductViews.View view = views.get(productId, market);
+        while ((view == null || !"Renamed".equals(view.catalog().name())) && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+            view = views.get(productId, market);
+        }
+        return view;
+    }
+
+    private static CatalogDto catalog(String productId, String market) {
+        return new CatalogDto(productId, productId + " " + market, null, Map.of(), List.of());
+    }
+}
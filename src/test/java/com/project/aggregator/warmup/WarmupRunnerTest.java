@@ -0,0 +1,189 @@
+package com.project.aggregator.warmup;
+
+import com.project.aggregator.cache.HotKeyTracker;
+import com.project.aggregator.client.ProductDataChangedEvent;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class WarmupRunnerTest {
+
+    private final HotKeyTracker hotKeys = mock(HotKeyTracker.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+    private volatile int status = 200;
+    private volatile long delayMillis;
+    private HttpServer server;
+    private URI baseUri;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/products/", exchange -> {
+            received.add(exchange.getRequestURI() + " " + exchange.getRequestHeaders().getFirst("Accept"));
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/v1/products/");
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void run_stopsOnceLatencyTargetIsMet() {
+        WarmupRunner runner = runner(WarmupRunner.Mode.STUB, 400, 10_000, Duration.ofSeconds(1));
+        WarmupHealthIndicator health = healthOf(runner);
+        assertThat(health.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        runner.run(baseUri);
+
+        WarmupRunner.Result result = runner.result();
+        assertThat(runner.phase()).isEqualTo(WarmupRunner.Phase.COMPLETE);
+        assertThat(result.iterations()).isEqualTo(2L * WarmupRunner.ROUND_SIZE);
+        assertThat(result.errors()).isZero();
+        assertThat(result.outcome()).isEqualTo("latency target met");
+        assertThat(received).hasSize(400).allMatch(line -> line.contains("/WARMUP-") && line.contains("customerId=WARMUP-"));
+
+        Health reported = health.health();
+        assertThat(reported.getStatus()).isEqualTo(Status.UP);
+        assertThat(reported.getDetails()).containsEntry("requests", 400L).containsKey("durationMillis");
+    }
+
+    @Test
+    void run_pausesHotKeyTrackingAndDropsCachedStubData() {
+        WarmupRunner runner = runner(WarmupRunner.Mode.STUB, 200, 200, Duration.ofSeconds(1));
+
+        runner.run(baseUri);
+
+        InOrder order = inOrder(hotKeys, events);
+        order.verify(hotKeys).pause();
+        order.verify(hotKeys).resume();
+        ArgumentCaptor<ProductDataChangedEvent> event = ArgumentCaptor.forClass(ProductDataChangedEvent.class);
+        order.verify(events).publishEvent(event.capture());
+        assertThat(event.getValue().productIds()).hasSize(32).allMatch(WarmupStubClients::isStub);
+    }
+
+    @Test
+    void run_stopsAtIterationLimitWhenTargetIsMissed() {
+        delayMillis = 2;
+        WarmupRunner runner = runner(WarmupRunner.Mode.REAL, 200, 400, Duration.ZERO);
+
+        runner.run(baseUri);
+
+        assertThat(runner.result().iterations()).isEqualTo(400);
+        assertThat(runner.result().outcome()).isEqualTo("iteration limit reached");
+        assertThat(runner.result().p99Millis()).isGreaterThanOrEqualTo(2.0);
+        verify(events, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void run_failingRoundsDoNotMeetTheLatencyTarget() {
+        status = 503;
+        WarmupRunner runner = runner(WarmupRunner.Mode.REAL, 200, 600, Duration.ofSeconds(1));
+
+        runner.run(baseUri);
+
+        assertThat(runner.result().errors()).isEqualTo(600);
+        assertThat(runner.result().iterations()).isEqualTo(600);
+        assertThat(runner.result().outcome()).isEqualTo("iteration limit reached");
+        assertThat(runner.result().p99Millis()).isNaN();
+        assertThat(healthOf(runner).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void request_cyclesThroughProductsMarketsCustomersAndFormats() {
+        WarmupRunner runner = runner(WarmupRunner.Mode.REAL, 200, 200, Duration.ofSeconds(1));
+
+        List<String> uris = LongStream.range(0, 12)
+                .mapToObj(i -> runner.request(baseUri, i))
+                .map(HttpRequest::uri)
+                .map(uri -> uri.getPath().substring(uri.getPath().lastIndexOf('/') + 1) + "?" + uri.getQuery())
+                .toList();
+
+        assertThat(uris).containsExactly(
+                "PART-001?market=nl-NL", "PART-002?market=nl-NL",
+                "PART-001?market=de-DE", "PART-002?market=de-DE",
+                "PART-001?market=nl-NL&customerId=DEALER-001", "PART-002?market=nl-NL&customerId=DEALER-001",
+                "PART-001?market=de-DE&customerId=DEALER-001", "PART-002?market=de-DE&customerId=DEALER-001",
+                "PART-001?market=nl-NL&customerId=FLEET-001", "PART-002?market=nl-NL&customerId=FLEET-001",
+                "PART-001?market=de-DE&customerId=FLEET-001", "PART-002?market=de-DE&customerId=FLEET-001");
+        assertThat(runner.request(baseUri, 4).headers().firstValue("Accept")).hasValue("application/cbor");
+    }
+
+    @Test
+    void isOwnRequest_acceptsTheWarmupTokenUntilWarmupIsComplete() {
+        WarmupRunner runner = runner(WarmupRunner.Mode.STUB, 200, 200, Duration.ofSeconds(1));
+        String token = runner.request(baseUri, 0).headers().firstValue(WarmupRunner.TOKEN_HEADER).orElseThrow();
+
+        assertThat(runner.isOwnRequest(token)).isTrue();
+        assertThat(runner.isOwnRequest(null)).isFalse();
+        assertThat(runner.isOwnRequest("guessed")).isFalse();
+
+        runner.run(baseUri);
+
+        assertThat(runner.isOwnRequest(token)).isFalse();
+    }
+
+    @Test
+    void percentile_picksNearestRank() {
+        long[] values = LongStream.rangeClosed(1, 200).toArray();
+
+        assertThat(WarmupRunner.percentile(values, 0.99)).isEqualTo(198);
+        assertThat(WarmupRunner.percentile(values, 0.5)).isEqualTo(100);
+        assertThat(WarmupRunner.percentile(new long[]{7}, 0.99)).isEqualTo(7);
+    }
+
+    @Test
+    void health_isUpWhenWarmupIsDisabled() {
+        ObjectProvider<WarmupRunner> none = new StaticListableBeanFactory().getBeanProvider(WarmupRunner.class);
+
+        assertThat(new WarmupHealthIndicator(none).health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    private static WarmupHealthIndicator healthOf(WarmupRunner runner) {
+        return new WarmupHealthIndicator(new StaticListableBeanFactory(Map.of("warmupRunner", runner))
+                .getBeanProvider(WarmupRunner.class));
+    }
+
+    private WarmupRunner runner(WarmupRunner.Mode mode, int minIterations, int maxIterations, Duration targetP99) {
+        return new WarmupRunner(hotKeys, events, new SimpleMeterRegistry(), mode, minIterations, maxIterations,
+                targetP99, Duration.ofSeconds(30), 2, List.of("PART-001", "PART-002"),
+                List.of("nl-NL", "de-DE"), List.of("DEALER-001", "FLEET-001"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.project.aggregator.warmup;
+
+import com.project.aggregator.client.AvailabilityClient;
+import com.project.aggregator.client.CatalogClient;
+import com.project.aggregator.client.CustomerClient;
+import com.project.aggregator.client.PricingClient;
+import com.project.aggregator.model.CatalogDto;
+import com.project.aggregator.model.CustomerDto;
+import com.project.aggregator.model.PricingDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WarmupStubClientsTest {
+
+    private final WarmupStubClients postProcessor = new WarmupStubClients();
+
+    @Test
+    void reservedIds_areAnsweredWithoutCallingTheUpstream() {
+        CatalogClient catalog = mock(CatalogClient.class);
+        PricingClient pricing = mock(PricingClient.class);
+        CustomerClient customer = mock(CustomerClient.class);
+
+        CatalogClient wrappedCatalog = (CatalogClient) postProcessor.postProcessAfterInitialization(catalog, "catalog");
+        PricingClient wrappedPricing = (PricingClient) postProcessor.postProcessAfterInitialization(pricing, "pricing");
+        CustomerClient wrappedCustomer = (CustomerClient) postProcessor.postProcessAfterInitialization(customer, "customer");
+
+        assertThat(wrappedCatalog.fetch("WARMUP-1", "nl-NL").productId()).isEqualTo("WARMUP-1");
+        assertThat(wrappedPricing.fetch("WARMUP-1", "nl-NL", "WARMUP-DEALER").finalPrice())
+                .isEqualByComparingTo("44.99");
+        assertThat(wrappedCustomer.fetch("WARMUP-DEALER").segment()).isNotBlank();
+        verify(catalog, never()).fetch(anyString(), anyString());
+        verify(pricing, never()).fetch(anyString(), anyString(), any(), any());
+        verify(customer, never()).fetch(any());
+    }
+
+    @Test
+    void reservedIds_areAnsweredWithoutCallingTheUpstream_async() {
+        PricingClient pricing = mock(PricingClient.class);
+        AvailabilityClient availability = mock(AvailabilityClient.class);
+        PricingDto upstreamPrice = new PricingDto(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE);
+        when(pricing.fetchAsync("PART-001", "nl-NL", null, null)).thenReturn(CompletableFuture.completedFuture(upstreamPrice));
+
+        PricingClient wrappedPricing = (PricingClient) postProcessor.postProcessAfterInitialization(pricing, "pricing");
+        AvailabilityClient wrappedAvailability =
+                (AvailabilityClient) postProcessor.postProcessAfterInitialization(availability, "availability");
+
+        assertThat(wrappedPricing.fetchAsync("WARMUP-1", "nl-NL", null)).isCompletedWithValueMatching(
+                price -> price.finalPrice().compareTo(new BigDecimal("49.99")) == 0);
+        assertThat(wrappedAvailability.fetchAsync("WARMUP-1", "nl-NL").join().warehouse()).isEqualTo("WARMUP-WH");
+        assertThat(wrappedPricing.fetchAsync("PART-001", "nl-NL", null).join()).isSameAs(upstreamPrice);
+        verify(pricing, never()).fetch(anyString(), anyString(), any(), any());
+        verify(availability, never()).fetchAsync(anyString(), anyString());
+    }
+
+    @Test
+    void otherIds_goToTheUpstream() {
+        CatalogClient catalog = mock(CatalogClient.class);
+        CustomerClient customer = mock(CustomerClient.class);
+        CatalogDto dto = new CatalogDto("PART-001", "Filter", "Oil filter", Map.of(), List.of());
+        CustomerDto dealer = new CustomerDto("DEALER-001", "DEALER", List.of());
+        when(catalog.fetch("PART-001", "nl-NL")).thenReturn(dto);
+        when(customer.fetch("DEALER-001")).thenReturn(dealer);
+
+        CatalogClient wrappedCatalog = (CatalogClient) postProcessor.postProcessAfterInitialization(catalog, "catalog");
+        CustomerClient wrappedCustomer = (CustomerClient) postProcessor.postProcessAfterInitialization(customer, "customer");
+
+        assertThat(wrappedCatalog.fetch("PART-001", "nl-NL")).isSameAs(dto);
+        assertThat(wrappedCustomer.fetch("DEALER-001")).isSameAs(dealer);
+        assertThat(wrappedCustomer.fetch(null)).isNull();
+        verify(customer).fetch(null);
+    }
+
+    @Test
+    void catalogProductIds_includeTheStubIdsWhenTheUpstreamListsIds() {
+        CatalogClient catalog = mock(CatalogClient.class);
+        CatalogClient wrapped = (CatalogClient) postProcessor.postProcessAfterInitialization(catalog, "catalog");
+        when(catalog.productIds()).thenReturn(null);
+
+        assertThat(wrapped.productIds()).isNull();
+
+        when(catalog.productIds()).thenReturn(List.of("PART-001"));
+        assertThat(wrapped.productIds()).hasSize(33).contains("PART-001", "WARMUP-1", "WARMUP-32");
+    }
+
+    @Test
+    void otherBeans_areLeftAlone() {
+        Object bean = new PricingDto(BigDecimal.ONE, BigDecimal.ZERO, BigDecimal.ONE);
+
+        assertThat(postProcessor.postProcessAfterInitialization(bean, "bean")).isSameAs(bean);
+    }
+}